@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.benchmarks;
+
+import de.fzi.dbs.xml.transform.CachingTransformerFactory;
+import org.fao.geonet.ApplicationContextHolder;
+import org.fao.geonet.Constants;
+import org.fao.geonet.SystemInfo;
+import org.fao.geonet.kernel.DataManager;
+import org.fao.geonet.kernel.SchemaManager;
+import org.fao.geonet.kernel.ThesaurusManager;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.kernel.setting.SettingManager;
+import org.fao.geonet.utils.TransformerFactoryFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Sets up what the XSLT and validation code expects from a running catalogue, without a database
+ * or an Elasticsearch instance: the XML catalogs of the webapp and of the schema plugins, the
+ * caching Saxon transformer factory and an application context with stubs of the beans looked up
+ * by {@link org.fao.geonet.util.XslUtil}. Settings are empty, thesauri and records are not found
+ * and INSPIRE analyzers return no match.
+ */
+public final class BenchmarkEnvironment {
+    public static final String WEBAPP_DIR = "benchmarks.webapp.dir";
+    public static final String SCHEMA_PLUGINS_DIR = "benchmarks.schema-plugins.dir";
+
+    private static final Properties PROPERTIES = loadProperties();
+    private static boolean initialized = false;
+
+    private BenchmarkEnvironment() {
+    }
+
+    public static synchronized void init() throws IOException {
+        if (initialized) {
+            return;
+        }
+
+        Path webInf = getWebappDir().resolve("WEB-INF");
+        try (Stream<Path> schemas = Files.list(getSchemaPluginsDir())) {
+            String catalogs = Stream.concat(
+                    Stream.of(webInf.resolve("oasis-catalog.xml")),
+                    schemas.map(schema -> schema.resolve("oasis-catalog.xml")))
+                .filter(Files::exists)
+                .map(Path::toString)
+                .collect(Collectors.joining(";"));
+            System.setProperty(Constants.XML_CATALOG_FILES, catalogs);
+        }
+
+        // As configured in production (prod.properties), stylesheets are compiled once
+        TransformerFactoryFactory.init(CachingTransformerFactory.class.getName());
+
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.refresh();
+        applicationContext.getBeanFactory().registerSingleton("systemInfo",
+            SystemInfo.createForTesting(SystemInfo.STAGE_PRODUCTION));
+        applicationContext.getBeanFactory().registerSingleton("settingManager", mock(SettingManager.class));
+        applicationContext.getBeanFactory().registerSingleton("thesaurusManager", mock(ThesaurusManager.class));
+        applicationContext.getBeanFactory().registerSingleton("dataManager", mock(DataManager.class));
+        applicationContext.getBeanFactory().registerSingleton("schemaManager", mock(SchemaManager.class));
+        applicationContext.getBeanFactory().registerSingleton("esSearchManager", new EsSearchManager());
+        ApplicationContextHolder.set(applicationContext);
+
+        initialized = true;
+    }
+
+    public static Path getWebappDir() {
+        return getDirectory(WEBAPP_DIR);
+    }
+
+    public static Path getSchemaPluginsDir() {
+        return getDirectory(SCHEMA_PLUGINS_DIR);
+    }
+
+    public static Path getSchemaDir(String schema) {
+        return getSchemaPluginsDir().resolve(schema);
+    }
+
+    private static Path getDirectory(String property) {
+        String value = System.getProperty(property, PROPERTIES.getProperty(property));
+        Path directory = value == null ? null : Paths.get(value);
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new IllegalStateException(String.format(
+                "Directory %s does not exist. Build the module with Maven or set the %s system property.",
+                directory, property));
+        }
+        return directory;
+    }
+
+    private static Properties loadProperties() {
+        Properties properties = new Properties();
+        try (InputStream in = BenchmarkEnvironment.class.getResourceAsStream("/benchmarks.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load benchmarks.properties", e);
+        }
+        return properties;
+    }
+}
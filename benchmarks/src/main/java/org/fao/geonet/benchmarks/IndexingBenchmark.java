@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.utils.Xml;
+import org.jdom.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The steps of {@link EsSearchManager#index} which do not need Elasticsearch: the index stylesheet
+ * of the schema and the conversion of its output to the JSON document sent to the index.
+ *
+ * <p>Scores are records per second. Run with <code>-prof gc</code> to get the allocation per
+ * record (<code>gc.alloc.rate.norm</code>).</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexingBenchmark {
+
+    private final EsSearchManager searchManager = new EsSearchManager();
+
+    @Benchmark
+    public Element indexTransform(SampleRecord record) throws Exception {
+        return Xml.transform(record.metadata, record.indexXslt, record.indexParams);
+    }
+
+    @Benchmark
+    public ObjectNode documentToJson(SampleRecord record) {
+        return searchManager.documentToJson(record.indexDocument);
+    }
+
+    @Benchmark
+    public ObjectNode indexDocument(SampleRecord record) throws Exception {
+        return searchManager.documentToJson(
+            Xml.transform(record.metadata, record.indexXslt, record.indexParams));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.benchmarks;
+
+import org.apache.commons.io.IOUtils;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.utils.Xml;
+import org.jdom.Element;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A sample record of one of the schema plugins, in the different forms the benchmarked steps take
+ * as input: the raw XML, the parsed record and the document produced by the index stylesheet.
+ */
+@State(Scope.Benchmark)
+public class SampleRecord {
+
+    @Param({"iso19139", "iso19115-3.2018", "dublin-core"})
+    public String schema;
+
+    public String xml;
+    public Element metadata;
+    public Element indexDocument;
+    public Path schemaFile;
+    public Path indexXslt;
+    public Map<String, Object> indexParams;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkEnvironment.init();
+
+        try (InputStream in = SampleRecord.class.getResourceAsStream("/records/" + schema + "/" + getRecordName())) {
+            if (in == null) {
+                throw new IllegalStateException("No sample record bundled for schema " + schema);
+            }
+            xml = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        metadata = Xml.loadString(xml, false);
+
+        Path schemaDir = BenchmarkEnvironment.getSchemaDir(schema);
+        schemaFile = schemaDir.resolve("schema.xsd");
+        indexXslt = schemaDir
+            .resolve(EsSearchManager.SCHEMA_INDEX_XSLT_FOLDER)
+            .resolve(EsSearchManager.SCHEMA_INDEX_XSTL_FILENAME);
+        indexParams = new HashMap<>();
+        indexParams.put("fastIndexMode", false);
+
+        indexDocument = Xml.transform(metadata, indexXslt, indexParams);
+    }
+
+    private String getRecordName() {
+        return "iso19139".equals(schema) ? "metadata-iso19139.xml" : "metadata.xml";
+    }
+}
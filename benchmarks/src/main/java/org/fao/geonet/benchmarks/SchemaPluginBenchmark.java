@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.benchmarks;
+
+import org.fao.geonet.kernel.schema.AssociatedResource;
+import org.fao.geonet.kernel.schema.AssociatedResourcesSchemaPlugin;
+import org.fao.geonet.kernel.schema.MultilingualSchemaPlugin;
+import org.fao.geonet.schema.dublincore.DublinCoreSchemaPlugin;
+import org.fao.geonet.schema.iso19115_3_2018.ISO19115_3_2018SchemaPlugin;
+import org.fao.geonet.schema.iso19139.ISO19139SchemaPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XPath helpers of the schema plugins run on a record when it is saved, indexed or displayed
+ * with its related records.
+ *
+ * <p>Scores are records per second.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SchemaPluginBenchmark {
+
+    /**
+     * The plugin of the schema of the sample record.
+     */
+    @State(Scope.Benchmark)
+    public static class Plugin {
+        AssociatedResourcesSchemaPlugin plugin;
+
+        @Setup(Level.Trial)
+        public void setUp(SampleRecord record) {
+            switch (record.schema) {
+                case "iso19139":
+                    plugin = new ISO19139SchemaPlugin();
+                    break;
+                case "iso19115-3.2018":
+                    plugin = new ISO19115_3_2018SchemaPlugin();
+                    break;
+                case "dublin-core":
+                    plugin = new DublinCoreSchemaPlugin();
+                    break;
+                default:
+                    throw new IllegalStateException("No schema plugin for schema " + record.schema);
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<AssociatedResource> associatedResources(SampleRecord record, Plugin plugin) {
+        return plugin.plugin.getAssociatedResourcesUUIDs(record.metadata);
+    }
+
+    @Benchmark
+    public Set<String> parentUuids(SampleRecord record, Plugin plugin) {
+        return plugin.plugin.getAssociatedParentUUIDs(record.metadata);
+    }
+
+    @Benchmark
+    public Set<String> sourceUuids(SampleRecord record, Plugin plugin) {
+        return plugin.plugin.getAssociatedSourceUUIDs(record.metadata);
+    }
+
+    @Benchmark
+    public List<String> metadataLanguages(SampleRecord record, Plugin plugin) {
+        if (plugin.plugin instanceof MultilingualSchemaPlugin) {
+            return ((MultilingualSchemaPlugin) plugin.plugin).getMetadataLanguages(record.metadata);
+        }
+        return Collections.emptyList();
+    }
+}
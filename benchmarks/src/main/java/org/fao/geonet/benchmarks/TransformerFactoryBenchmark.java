@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.benchmarks;
+
+import de.fzi.dbs.xml.transform.CachingTransformerFactory;
+import org.fao.geonet.utils.TransformerFactoryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getting a transformer for the index stylesheet of a schema from the {@link
+ * CachingTransformerFactory}, which is done before every transformation: from the templates
+ * cache, and after clearing the cache so the stylesheet and its imports are compiled again.
+ *
+ * <p>Scores are transformers per second.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransformerFactoryBenchmark {
+
+    @Benchmark
+    public Transformer cachedTransformer(SampleRecord record) throws Exception {
+        return getFactory().newTransformer(new StreamSource(record.indexXslt.toFile()));
+    }
+
+    @Benchmark
+    public Transformer compiledTransformer(SampleRecord record) throws Exception {
+        CachingTransformerFactory factory = getFactory();
+        factory.clearCache();
+        return factory.newTransformer(new StreamSource(record.indexXslt.toFile()));
+    }
+
+    /**
+     * The factory used by Xml.transform, which also holds the URI resolver resolving the imports
+     * of the stylesheets with the XML catalogs.
+     */
+    private static CachingTransformerFactory getFactory() throws Exception {
+        return (CachingTransformerFactory) TransformerFactoryFactory.getTransformerFactory();
+    }
+}
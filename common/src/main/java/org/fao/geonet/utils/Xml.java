@@ -24,8 +24,12 @@
 package org.fao.geonet.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import net.sf.json.JSON;
 import net.sf.json.xml.XMLSerializer;
 import net.sf.saxon.Configuration;
@@ -80,6 +84,7 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -104,6 +109,21 @@ public final class Xml {
         + "]";
     public static final String XML_VERSION_HEADER = "<\\?xml version=['\"]1.0['\"] encoding=['\"].*['\"]\\?>\\s*";
 
+    /**
+     * Idle compiled XPath expressions, by expression and namespaces.
+     */
+    private static final Cache<String, Queue<XPath>> XPATH_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(5000)
+        .build();
+    private static final int XPATH_CACHE_MAX_IDLE = 32;
+
+    /**
+     * Duration of the transformations, tagged with the end of the stylesheet path (eg.
+     * iso19139/formatter/xsl-view/view.xsl) which is enough to tell stylesheets apart.
+     */
+    public static final String TRANSFORM_TIMER = "gn.xslt.transform";
+    private static final int TRANSFORM_TIMER_PATH_ELEMENTS = 4;
+
     public static SAXBuilder getSAXBuilder(boolean validate) {
         SAXBuilder builder = getSAXBuilderWithPathXMLResolver(validate, null);
         Resolver resolver = ResolverWrapper.getInstance();
@@ -457,6 +477,27 @@ public final class Xml {
      */
     public static void
     transform(Element xml, Path styleSheetPath, Result result, Map<String, Object> params) throws Exception {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            doTransform(xml, styleSheetPath, result, params);
+        } finally {
+            sample.stop(Timer.builder(TRANSFORM_TIMER)
+                .description("XSLT transformations")
+                .tag("stylesheet", getStylesheetTag(styleSheetPath))
+                .register(Metrics.globalRegistry));
+        }
+    }
+
+    private static String getStylesheetTag(Path styleSheetPath) {
+        int count = styleSheetPath.getNameCount();
+        if (count == 0) {
+            return styleSheetPath.toString();
+        }
+        return styleSheetPath.subpath(Math.max(0, count - TRANSFORM_TIMER_PATH_ELEMENTS), count)
+            .toString().replace('\\', '/');
+    }
+
+    private static void doTransform(Element xml, Path styleSheetPath, Result result, Map<String, Object> params) throws Exception {
         NioPathHolder.setBase(styleSheetPath);
         Source srcXml = new JDOMSource(new Document((Element) xml.detach()));
         try (InputStream in = IO.newInputStream(styleSheetPath)) {
@@ -687,7 +728,7 @@ public final class Xml {
     /**
      * Creates and prepares an XPath element - simple xpath (like "a/b/c").
      */
-    private static XPath prepareXPath(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
+    private static XPath prepareXPath(String xpath, List<Namespace> theNSs) throws JDOMException {
         XPath xp = XPath.newInstance(xpath);
         for (Namespace ns : theNSs) {
             xp.addNamespace(ns);
@@ -698,14 +739,43 @@ public final class Xml {
 
     //---------------------------------------------------------------------------
 
+    private interface XPathEvaluation<T> {
+        T evaluate(XPath xp) throws JDOMException;
+    }
+
+    /**
+     * Evaluates an XPath expression with a compiled XPath from {@link #XPATH_CACHE}. A JDOM XPath
+     * keeps the context node while it is evaluated, so an instance is only used by one thread at
+     * a time and returned to the cache afterwards.
+     */
+    private static <T> T evaluateXPath(String xpath, List<Namespace> theNSs,
+                                       XPathEvaluation<T> evaluation) throws JDOMException {
+        StringBuilder key = new StringBuilder(xpath);
+        for (Namespace ns : theNSs) {
+            key.append('\n').append(ns.getPrefix()).append('=').append(ns.getURI());
+        }
+        Queue<XPath> idle = XPATH_CACHE.asMap().computeIfAbsent(key.toString(), k -> new ConcurrentLinkedQueue<>());
+        XPath xp = idle.poll();
+        if (xp == null) {
+            xp = prepareXPath(xpath, theNSs);
+        }
+        try {
+            return evaluation.evaluate(xp);
+        } finally {
+            if (idle.size() < XPATH_CACHE_MAX_IDLE) {
+                idle.offer(xp);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------------
+
     /**
      * Retrieves a single XML element given a simple xpath (like "a/b/c").
      */
     public static Object selectSingle(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
 
-        XPath xp = prepareXPath(xml, xpath, theNSs);
-
-        return xp.selectSingleNode(xml);
+        return evaluateXPath(xpath, theNSs, xp -> xp.selectSingleNode(xml));
     }
 
     //---------------------------------------------------------------------------
@@ -741,8 +811,7 @@ public final class Xml {
      * Evaluates an XPath expression on an element and returns Elements.
      */
     public static List<?> selectNodes(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
-        XPath xp = prepareXPath(xml, xpath, theNSs);
-        return xp.selectNodes(xml);
+        return evaluateXPath(xpath, theNSs, xp -> xp.selectNodes(xml));
     }
 
     //---------------------------------------------------------------------------
@@ -751,13 +820,8 @@ public final class Xml {
      * Evaluates an XPath expression on an document and returns Elements.
      */
     public static List<?> selectDocumentNodes(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
-        XPath xp = XPath.newInstance(xpath);
-        for (Namespace ns : theNSs) {
-            xp.addNamespace(ns);
-        }
-        xml = (Element) xml.clone();
-        Document document = new Document(xml);
-        return xp.selectNodes(document);
+        Document document = new Document((Element) xml.clone());
+        return evaluateXPath(xpath, theNSs, xp -> xp.selectNodes(document));
     }
 
     /**
@@ -783,9 +847,7 @@ public final class Xml {
      */
     public static String selectString(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
 
-        XPath xp = prepareXPath(xml, xpath, theNSs);
-
-        return xp.valueOf(xml);
+        return evaluateXPath(xpath, theNSs, xp -> xp.valueOf(xml));
     }
 
     //---------------------------------------------------------------------------
@@ -823,9 +885,7 @@ public final class Xml {
      */
     public static Number selectNumber(Element xml, String xpath, List<Namespace> theNSs) throws JDOMException {
 
-        XPath xp = prepareXPath(xml, xpath, theNSs);
-
-        return xp.numberValueOf(xml);
+        return evaluateXPath(xpath, theNSs, xp -> xp.numberValueOf(xml));
     }
 
     //---------------------------------------------------------------------------
@@ -26,6 +26,9 @@ package org.fao.geonet.utils;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.Constants;
 import org.fao.geonet.SystemInfo;
@@ -46,12 +49,17 @@ import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -140,6 +148,25 @@ public class XmlTest {
         assertEquals(openResources.toString(), 0, OpenResourceTracker.numberOfOpenResources());
     }
 
+    @Test
+    public void testTransformIsTimedByStylesheet() throws Exception {
+        TransformerFactoryFactory.init("net.sf.saxon.TransformerFactoryImpl");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            doTestTransform();
+
+            Timer timer = registry.find(Xml.TRANSFORM_TIMER).tag("stylesheet", "utils/xmltest/xsl/test.xsl").timer();
+            assertNotNull(timer);
+            assertEquals(1, timer.count());
+            timer = registry.find(Xml.TRANSFORM_TIMER).tag("stylesheet", "test/xsl/test.xsl").timer();
+            assertNotNull(timer);
+            assertEquals(1, timer.count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
     @Test
     public void testTransformSaxonTransformer() throws Exception {
         TransformerFactoryFactory.init("net.sf.saxon.TransformerFactoryImpl");
@@ -192,6 +219,41 @@ public class XmlTest {
         assertSame(attribute, actual.get(0));
     }
 
+    @Test
+    public void testSelectStringWithNamespaces() throws Exception {
+        String xpath = "x:fileIdentifier/gco:CharacterString";
+        Namespace x = Namespace.getNamespace("x", GMD.getURI());
+        Namespace otherX = Namespace.getNamespace("x", "http://www.isotc211.org/2005/other");
+
+        assertEquals("fileIdentifier", Xml.selectString(TEST_METADATA, xpath, Arrays.asList(x, GCO)));
+        // Same expression, the prefix is bound to another namespace
+        assertEquals("", Xml.selectString(TEST_METADATA, xpath, Arrays.asList(otherX, GCO)));
+        assertEquals("fileIdentifier", Xml.selectString(TEST_METADATA, xpath, Arrays.asList(x, GCO)));
+    }
+
+    @Test
+    public void testSelectStringConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String value = "identifier" + i;
+                results.add(executor.submit(() -> {
+                    Element md = new Element("MD_Metadata", GMD).addContent(
+                        new Element("fileIdentifier", GMD).addContent(
+                            new Element("CharacterString", GCO).setText(value)));
+                    return value.equals(Xml.selectString(md, "gmd:fileIdentifier/gco:CharacterString", NAMESPACES))
+                        && value.equals(Xml.selectString(md, "*/gco:CharacterString", NAMESPACES));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testIsXmlLike() {
         assertEquals(true,
@@ -27,6 +27,10 @@ import com.yammer.metrics.core.*;
 import com.yammer.metrics.log4j.InstrumentedAppender;
 import com.yammer.metrics.reporting.JmxReporter;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
 import jeeves.constants.ConfigFile;
 import jeeves.server.context.ServiceContext;
 
@@ -57,6 +61,11 @@ public class MonitorManager {
     public static final String WARNING_HEALTH_CHECK_REGISTRY = "com.yammer.metrics.reporting.HealthCheckServlet.registry.warning";
     public static final String EXPENSIVE_HEALTH_CHECK_REGISTRY = "com.yammer.metrics.reporting.HealthCheckServlet.registry.expensive";
     public static final String METRICS_REGISTRY = "com.yammer.metrics.reporting.MetricsServlet.registry";
+    /**
+     * The Micrometer registry scraped by Prometheus. It is added to the global registry used by
+     * the instrumented code (XSLT, validation, indexing, search, harvesters...).
+     */
+    public static final String PROMETHEUS_REGISTRY = "io.micrometer.prometheus.PrometheusMeterRegistry";
     private final List<HealthCheckFactory> criticalServiceContextHealthChecks = new LinkedList<HealthCheckFactory>();
     private final List<HealthCheckFactory> warningServiceContextHealthChecks = new LinkedList<HealthCheckFactory>();
     private final List<HealthCheckFactory> expensiveServiceContextHealthChecks = new LinkedList<HealthCheckFactory>();
@@ -73,6 +82,7 @@ public class MonitorManager {
 
     private MetricsRegistry metricsRegistry;
     private JmxReporter jmxReporter;
+    private PrometheusMeterRegistry prometheusRegistry;
 
     public void init(ServletContext context, String baseUrl) {
 
@@ -101,6 +111,14 @@ public class MonitorManager {
             metricsRegistry = tmpMetricsRegistry;
             context.setAttribute(METRICS_REGISTRY, tmpMetricsRegistry);
 
+            PrometheusMeterRegistry tmpPrometheusRegistry = (PrometheusMeterRegistry) context.getAttribute(PROMETHEUS_REGISTRY);
+            if (tmpPrometheusRegistry == null) {
+                tmpPrometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            }
+
+            prometheusRegistry = tmpPrometheusRegistry;
+            context.setAttribute(PROMETHEUS_REGISTRY, tmpPrometheusRegistry);
+
 
             jmxReporter = new GeonetworkJmxReporter(metricsRegistry, webappName);
             jmxReporter.start();
@@ -110,11 +128,13 @@ public class MonitorManager {
             warningHealthCheckRegistry = new HealthCheckRegistry();
             expensiveHealthCheckRegistry = new HealthCheckRegistry();
             metricsRegistry = new MetricsRegistry();
+            prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
 
             jmxReporter = new GeonetworkJmxReporter(metricsRegistry, webappName);
             jmxReporter.start();
 
         }
+        Metrics.addRegistry(prometheusRegistry);
 
         // This is using the Log4j 1.2 API bridge (check for log4j 2 compatible update)
         org.apache.log4j.LogManager.getRootLogger().addAppender(new InstrumentedAppender(metricsRegistry));
@@ -298,6 +318,10 @@ public class MonitorManager {
         }
     }
 
+    public PrometheusMeterRegistry getPrometheusRegistry() {
+        return prometheusRegistry;
+    }
+
     public ResourceTracker getResourceTracker() {
         return resourceTracker;
     }
@@ -311,5 +335,8 @@ public class MonitorManager {
         if (jmxReporter != null) {
             jmxReporter.shutdown();
         }
+        if (prometheusRegistry != null) {
+            Metrics.removeRegistry(prometheusRegistry);
+        }
     }
 }
@@ -121,6 +121,15 @@ public class ServiceContext extends BasicContext {
         ApplicationContextHolder.set(this.getApplicationContext());
     }
 
+    /**
+     * Remove the service context and application context of this thread. To be called by pooled
+     * threads once their task is done so they do not keep the context of a previous task.
+     */
+    public static void clearAsThreadLocal() {
+        THREAD_LOCAL_INSTANCE.remove();
+        ApplicationContextHolder.clear();
+    }
+
     //--------------------------------------------------------------------------
     //---
     //--- API methods
@@ -37,6 +37,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public abstract class StoreUtils {
     /**
@@ -161,4 +163,30 @@ public abstract class StoreUtils {
             }
         }
     }
+
+    /**
+     * Copy all the given attachments to a directory of a ZIP stream.
+     * @param context
+     * @param metadataUuid The source metadata UUID
+     * @param resources The attachments to copy
+     * @param zipOutputStream The ZIP to write to
+     * @param destinationDir The destination directory in the ZIP (eg. "uuid/public/")
+     * @throws Exception
+     */
+    public static void extract(final ServiceContext context, final String metadataUuid, final List<MetadataResource> resources,
+            final ZipOutputStream zipOutputStream, final String destinationDir, boolean approved) throws Exception {
+        final Store store = context.getBean("resourceStore", Store.class);
+        zipOutputStream.putNextEntry(new ZipEntry(destinationDir));
+        zipOutputStream.closeEntry();
+        for (MetadataResource resource: resources) {
+            try (
+              Store.ResourceHolder holder = store.getResource(context, metadataUuid, resource.getVisibility(),
+                    resource.getFilename(), approved)
+            ) {
+                zipOutputStream.putNextEntry(new ZipEntry(destinationDir + resource.getFilename()));
+                Files.copy(holder.getPath(), zipOutputStream);
+                zipOutputStream.closeEntry();
+            }
+        }
+    }
 }
@@ -25,6 +25,10 @@ package org.fao.geonet.kernel;
 
 
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jeeves.server.context.ServiceContext;
 import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.constants.Edit;
 import org.fao.geonet.constants.Geonet;
@@ -37,6 +41,10 @@ import org.springframework.context.ConfigurableApplicationContext;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.fao.geonet.kernel.schema.MetadataSchema.SCHEMATRON_DIR;
 
@@ -46,8 +54,81 @@ import static org.fao.geonet.kernel.schema.MetadataSchema.SCHEMATRON_DIR;
  */
 public class AbstractSchematronValidator {
 
+    /**
+     * Duration of each rule set, tagged with the schema and the rule set name.
+     */
+    public static final String SCHEMATRON_VALIDATION_TIMER = "gn.validation.schematron";
+
+    /**
+     * Rule sets are independent XSLT transformations of the same document. They are run on a
+     * shared pool of daemon threads, one per processor.
+     */
+    private static final ExecutorService SCHEMATRON_EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new ThreadFactoryBuilder().setNameFormat("schematron-validation-%d").setDaemon(true).build());
+
+    /**
+     * Run the rule sets concurrently against copies of the record and append the reports in the
+     * order of the list. The first rule set is run by the calling thread on the record itself so
+     * validation still makes progress when the pool is busy.
+     */
+    protected void runSchematrons(String lang, Path schemaDir, List<MetadataValidation> validations, Element schemaTronXmlOut,
+                                  int metadataId, Element md, List<ApplicableSchematron> applicableSchematron) {
+        if (applicableSchematron.size() <= 1) {
+            for (ApplicableSchematron applicable : applicableSchematron) {
+                runSchematron(lang, schemaDir, validations, schemaTronXmlOut, metadataId, md, applicable);
+            }
+            return;
+        }
+
+        final ConfigurableApplicationContext applicationContext = ApplicationContextHolder.get();
+        final ServiceContext serviceContext = ServiceContext.get();
+        List<Future<SchematronResult>> futures = new ArrayList<>(applicableSchematron.size() - 1);
+        for (final ApplicableSchematron applicable : applicableSchematron.subList(1, applicableSchematron.size())) {
+            // Xml.transform detaches the element into a new document so each task needs its own copy
+            final Element mdCopy = (Element) md.clone();
+            futures.add(SCHEMATRON_EXECUTOR.submit(() -> {
+                if (serviceContext != null) {
+                    serviceContext.setAsThreadLocal();
+                } else {
+                    ApplicationContextHolder.set(applicationContext);
+                }
+                try {
+                    return validate(lang, schemaDir, metadataId, mdCopy, applicable);
+                } finally {
+                    ServiceContext.clearAsThreadLocal();
+                }
+            }));
+        }
+
+        List<SchematronResult> results = new ArrayList<>(applicableSchematron.size());
+        results.add(validate(lang, schemaDir, metadataId, md, applicableSchematron.get(0)));
+        for (Future<SchematronResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        for (SchematronResult result : results) {
+            result.addTo(validations, schemaTronXmlOut);
+        }
+    }
+
     protected void runSchematron(String lang, Path schemaDir, List<MetadataValidation> validations, Element schemaTronXmlOut,
                                  int metadataId, Element md, ApplicableSchematron applicable) {
+        validate(lang, schemaDir, metadataId, md, applicable).addTo(validations, schemaTronXmlOut);
+    }
+
+    /**
+     * Run one rule set. Only reads the record so it can be called from several threads.
+     */
+    private SchematronResult validate(String lang, Path schemaDir, int metadataId, Element md,
+                                      ApplicableSchematron applicable) {
         final ConfigurableApplicationContext applicationContext = ApplicationContextHolder.get();
         ThesaurusManager thesaurusManager = applicationContext.getBean(ThesaurusManager.class);
 
@@ -71,7 +152,17 @@ public class AbstractSchematronValidator {
             params.put("thesaurusDir", thesaurusManager.getThesauriDirectory().toString());
 
             Path file = schemaDir.resolve(SCHEMATRON_DIR).resolve(schematron.getFile());
-            Element xmlReport = Xml.transform(md, file, params);
+            Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+            Element xmlReport;
+            try {
+                xmlReport = Xml.transform(md, file, params);
+            } finally {
+                sample.stop(Timer.builder(SCHEMATRON_VALIDATION_TIMER)
+                    .description("Schematron validation of the records")
+                    .tag("schema", schemaDir.getFileName().toString())
+                    .tag("rule", ruleId)
+                    .register(Metrics.globalRegistry));
+            }
             if (xmlReport != null) {
                 report.addContent(xmlReport);
                 // add results to persistent validation information
@@ -94,19 +185,38 @@ public class AbstractSchematronValidator {
 
             // As the validation failed due to an exception lets identify the metadata as never validated.
             metadataValidationStatus = MetadataValidationStatus.NEVER_CALCULATED;
-        } finally {
-            if (metadataValidationStatus != null && validations != null) {
-                validations.add(new MetadataValidation().
-                    setId(new MetadataValidationId(metadataId, ruleId)).
-                    setStatus(metadataValidationStatus).
-                    setRequired(requirement == SchematronRequirement.REQUIRED).
-                    setNumTests(firedRules).
-                    setNumFailures(invalidRules));
+        }
 
-            }
+        MetadataValidation validation = null;
+        if (metadataValidationStatus != null) {
+            validation = new MetadataValidation().
+                setId(new MetadataValidationId(metadataId, ruleId)).
+                setStatus(metadataValidationStatus).
+                setRequired(requirement == SchematronRequirement.REQUIRED).
+                setNumTests(firedRules).
+                setNumFailures(invalidRules);
         }
+        return new SchematronResult(report, validation);
+    }
 
-        // -- append report to main XML report.
-        schemaTronXmlOut.addContent(report);
+    /**
+     * The report of a rule set and its validation status.
+     */
+    private static class SchematronResult {
+        private final Element report;
+        private final MetadataValidation validation;
+
+        SchematronResult(Element report, MetadataValidation validation) {
+            this.report = report;
+            this.validation = validation;
+        }
+
+        void addTo(List<MetadataValidation> validations, Element schemaTronXmlOut) {
+            if (validation != null && validations != null) {
+                validations.add(validation);
+            }
+            // -- append report to main XML report.
+            schemaTronXmlOut.addContent(report);
+        }
     }
 }
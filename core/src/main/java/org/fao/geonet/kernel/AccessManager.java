@@ -25,13 +25,12 @@ package org.fao.geonet.kernel;
 
 import jeeves.server.UserSession;
 import jeeves.server.context.ServiceContext;
-import org.apache.commons.lang.StringUtils;
 import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.domain.*;
 import org.fao.geonet.kernel.datamanager.IMetadataUtils;
+import org.fao.geonet.kernel.setting.IntranetNetworks;
 import org.fao.geonet.kernel.setting.SettingManager;
-import org.fao.geonet.kernel.setting.Settings;
 import org.fao.geonet.repository.*;
 import org.fao.geonet.repository.specification.UserGroupSpecs;
 import org.fao.geonet.utils.Log;
@@ -44,7 +43,6 @@ import org.springframework.data.jpa.domain.Specification;
 import java.sql.SQLException;
 import java.util.*;
 
-import static org.fao.geonet.kernel.setting.Settings.SYSTEM_INTRANET_IP_SEPARATOR;
 import static org.fao.geonet.kernel.setting.Settings.SYSTEM_METADATAPRIVS_PUBLICATIONBYGROUPOWNERONLY;
 import static org.fao.geonet.repository.specification.OperationAllowedSpecs.hasMetadataId;
 import static org.fao.geonet.repository.specification.OperationAllowedSpecs.hasOperation;
@@ -58,9 +56,6 @@ public class AccessManager {
     @Autowired
     SettingManager settingManager;
 
-    @Autowired
-    SettingRepository settingRepository;
-
     @Autowired
     IMetadataUtils metadataUtils;
 
@@ -558,21 +553,6 @@ public class AccessManager {
         return ip.startsWith("0:0:0:0:0:0:0:1") || ip.equals("127.0.0.1");
     }
 
-    private boolean isValidIntranetSettings(
-        String[] networkArray,
-        String[] netmaskArray
-    ) {
-        if (networkArray.length != netmaskArray.length) {
-            Log.error(Geonet.ACCESS_MANAGER,
-                String.format(
-                    "Invalid intranet configuration. Define as many network mask (currently %d) as network ip (currently %d). Check Settings > Intranet.",
-                    netmaskArray.length, networkArray.length));
-            return false;
-        } else {
-            return true;
-        }
-    }
-
     public boolean isIntranet(String ip) {
         //--- consider IPv4 & IPv6 loopback
         //--- we use 'startsWith' because some addresses can be 0:0:0:0:0:0:0:1%0
@@ -589,65 +569,18 @@ public class AccessManager {
         }
 
         // IPv4
-        Optional<Setting> network = settingRepository.findById(Settings.SYSTEM_INTRANET_NETWORK);
-        Optional<Setting> netmask = settingRepository.findById(Settings.SYSTEM_INTRANET_NETMASK);
-
+        IntranetNetworks intranetNetworks = settingManager.getIntranetNetworks();
+        if (intranetNetworks.isEmpty()) {
+            return false;
+        }
         try {
-            if (network.isPresent()
-                && netmask.isPresent()
-                && StringUtils.isNotEmpty(network.get().getValue())
-                && StringUtils.isNotEmpty(netmask.get().getValue())) {
-                long lAddress = getAddress(ip.split(",")[0]);
-                String[] networkArray = network
-                    .get().getValue().split(SYSTEM_INTRANET_IP_SEPARATOR);
-                String[] netmaskArray = netmask
-                    .get().getValue().split(SYSTEM_INTRANET_IP_SEPARATOR);
-
-                if (isValidIntranetSettings(networkArray, netmaskArray)) {
-                    for (int i = 0; i < networkArray.length; i++) {
-                        long lIntranetNet = getAddress(networkArray[i]);
-                        long lIntranetMask = getAddress(netmaskArray[i]);
-                        if ((lAddress & lIntranetMask) == (lIntranetNet & lIntranetMask)) {
-                            return true;
-                        }
-                    }
-                }
-                return false;
-            }
+            return intranetNetworks.contains(IntranetNetworks.getAddress(ip.split(",")[0]));
         } catch (Exception nfe) {
             Log.error(Geonet.ACCESS_MANAGER,"isIntranet error: " + nfe.getMessage(), nfe);
         }
         return false;
     }
 
-    /**
-     * Converts an ip x.x.x.x into a long.
-     */
-    private long getAddress(String ip) {
-        if (ip.trim().equals("?")) {
-            return 0;
-        } else {
-            StringTokenizer st = new StringTokenizer(ip, ".");
-            if (!st.hasMoreElements()) {
-                return 0;
-            }
-            long a1 = Integer.parseInt(st.nextToken());
-            if (!st.hasMoreElements()) {
-                return 0;
-            }
-            long a2 = Integer.parseInt(st.nextToken());
-            if (!st.hasMoreElements()) {
-                return 0;
-            }
-            long a3 = Integer.parseInt(st.nextToken());
-            if (!st.hasMoreElements()) {
-                return 0;
-            }
-            long a4 = Integer.parseInt(st.nextToken());
-            return a1 << 24 | a2 << 16 | a3 << 8 | a4;
-        }
-    }
-
     /**
      * Checks if the user is authenticated: there's an user session authenticated.
      *
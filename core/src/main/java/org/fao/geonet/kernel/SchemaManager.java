@@ -69,12 +69,14 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -98,16 +100,20 @@ public class SchemaManager {
     private static final Namespace GEONET_SCHEMA_PREFIX_NS = Namespace.getNamespace("gns", GEONET_SCHEMA_URI);
     private static final Namespace GEONET_SCHEMA_NS = Namespace.getNamespace(GEONET_SCHEMA_URI);
     /**
-     * Active readers count
+     * Immutable map of the registered schemas. Readers use the current map without locking,
+     * writers (holding {@link #schemasLock}) replace it by an updated copy.
      */
-    private static int activeReaders = 0;
+    private volatile Map<String, Schema> hmSchemas = Collections.emptyMap();
     /**
-     * Active writers count
+     * Serializes the changes to the registered schemas (add, update, delete).
      */
-    private static int activeWriters = 0;
-    private Map<String, Schema> hmSchemas = new HashMap<>();
-    private Map<String, Namespace> hmSchemasTypenames = new HashMap<>();
-    private Map<String, String> cswOutputSchemas = new HashMap<>();
+    private final Object schemasLock = new Object();
+    /**
+     * Suffix of the directory holding the files of a schema while it is updated.
+     */
+    private static final String PREVIOUS_SCHEMA_DIR_SUFFIX = ".previous";
+    private Map<String, Namespace> hmSchemasTypenames = new ConcurrentHashMap<>();
+    private Map<String, String> cswOutputSchemas = new ConcurrentHashMap<>();
     private String[] fnames = {"labels.xml", "codelists.xml", "strings.xml"};
     private Path schemaPluginsDir;
     private Path schemaPluginsCat;
@@ -186,8 +192,7 @@ public class SchemaManager {
 
         addResolverRewriteDirectives(dataDir);
 
-        this.hmSchemas.clear();
-        this.hmSchemas.putAll(schemaManager.hmSchemas);
+        this.hmSchemas = schemaManager.hmSchemas;
 
 
         fnames = new String[schemaManager.fnames.length];
@@ -222,7 +227,9 @@ public class SchemaManager {
                           String defaultSchema,
                           boolean createOrUpdateSchemaCatalog) throws Exception {
 
-        hmSchemas.clear();
+        synchronized (schemasLock) {
+            hmSchemas = Collections.emptyMap();
+        }
 
         this.basePath = basePath;
         this.resourcePath = resourcePath;
@@ -240,7 +247,8 @@ public class SchemaManager {
         // -- check the plugin directory and add any schemas already in there
         try (DirectoryStream<Path> saSchemas = Files.newDirectoryStream(this.schemaPluginsDir)) {
             for (Path schemaDir : saSchemas) {
-                if (!schemaDir.getFileName().toString().equals("CVS") && !schemaDir.getFileName().startsWith(".")) {
+                if (!schemaDir.getFileName().toString().equals("CVS") && !schemaDir.getFileName().startsWith(".")
+                    && !schemaDir.getFileName().toString().endsWith(PREVIOUS_SCHEMA_DIR_SUFFIX)) {
                     if (Files.isDirectory(schemaDir)) {
                         Log.info(Geonet.SCHEMA_MANAGER, "Loading schema " + schemaDir.getFileName() + "...");
                         processSchema(applicationContext, schemaDir, schemaPluginCatRoot);
@@ -278,18 +286,13 @@ public class SchemaManager {
      */
     public MetadataSchema getSchema(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
-
-            if (schema == null) {
-                throw new IllegalArgumentException("Schema not registered : " + name);
-            }
+        Schema schema = hmSchemas.get(name);
 
-            return schema.getMetadataSchema();
-        } finally {
-            afterRead();
+        if (schema == null) {
+            throw new IllegalArgumentException("Schema not registered : " + name);
         }
+
+        return schema.getMetadataSchema();
     }
 
     /**
@@ -301,20 +304,15 @@ public class SchemaManager {
 
         Set<String> dependencies = new HashSet<>();
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
-            if (schema != null) { // if it is null then that is a config error
-                List<Element> dependsList = schema.getDependElements();
-                for (Element depends : dependsList) {
-                    String depSchemaName = depends.getText();
-                    dependencies.add(depSchemaName);
-                }
+        Schema schema = hmSchemas.get(name);
+        if (schema != null) { // if it is null then that is a config error
+            List<Element> dependsList = schema.getDependElements();
+            for (Element depends : dependsList) {
+                String depSchemaName = depends.getText();
+                dependencies.add(depSchemaName);
             }
-            return dependencies;
-        } finally {
-            afterRead();
         }
+        return dependencies;
     }
 
     /**
@@ -325,17 +323,12 @@ public class SchemaManager {
      */
     public Pair<String, String> getIdVersion(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
 
-            return Pair.read(schema.getId(), schema.getVersion());
-        } finally {
-            afterRead();
-        }
+        return Pair.read(schema.getId(), schema.getVersion());
     }
 
     /**
@@ -346,39 +339,68 @@ public class SchemaManager {
      */
     public void addPluginSchema(ApplicationContext applicationContext, String name, FileSystem zipFs) throws Exception {
 
-        beforeWrite();
-        try {
+        synchronized (schemasLock) {
             realAddPluginSchema(applicationContext, name, zipFs);
-        } finally {
-            afterWrite();
         }
     }
 
     /**
      * Updates a plugin schema in the list of schemas registered here.
      *
+     * The new version is loaded before it replaces the registered one, so that readers always find
+     * the schema. If it can not be loaded, the files of the previous version are restored and the
+     * previous version stays registered.
+     *
      * @param name  the metadata schema we want to update
      * @param zipFs A filesystem (probably a ZipFileSystem) to copy files from.
      */
     public void updatePluginSchema(ApplicationContext applicationContext, String name, FileSystem zipFs) throws Exception {
 
-        beforeWrite();
-        try {
-            // -- delete schema, trap any exception here as we need to say
-            // -- why the update failed
+        synchronized (schemasLock) {
+            Schema previous = hmSchemas.get(name);
+            if (previous == null) {
+                realAddPluginSchema(applicationContext, name, zipFs);
+                return;
+            }
+
+            // -- keep the files of the outdated schema until the new one is loaded, trap
+            // -- any exception here as we need to say why the update failed
+            Path schemaDir = buildSchemaFolderPath(name);
+            Path previousSchemaDir = schemaDir.resolveSibling(name + PREVIOUS_SCHEMA_DIR_SUFFIX);
             try {
-                boolean doDependencies = false;
-                realDeletePluginSchema(name, doDependencies);
+                IO.deleteFileOrDirectory(previousSchemaDir, true);
+                Files.move(schemaDir, previousSchemaDir);
             } catch (Exception e) {
-                String errStr = "Could not update schema " + name + ", remove of outdated schema failed. Exception message if any is " + e.getMessage();
+                String errStr = "Could not update schema " + name + ", move of outdated schema failed. Exception message if any is " + e.getMessage();
                 Log.error(Geonet.SCHEMA_MANAGER, errStr, e);
                 throw new OperationAbortedEx(errStr, e);
             }
 
-            // -- add the new one
-            realAddPluginSchema(applicationContext, name, zipFs);
-        } finally {
-            afterWrite();
+            try {
+                Element schemaPluginCatRoot = getSchemaPluginCatalog();
+
+                Files.createDirectories(schemaDir);
+                ZipUtil.extract(zipFs, schemaDir);
+
+                Schema schema = loadSchema(applicationContext, schemaDir, schemaPluginCatRoot, true);
+                if (schema == null) {
+                    throw new OperationAbortedEx("No " + Geonet.File.SCHEMA_ID + " in the new version of schema " + name);
+                }
+                checkDepends(name, schema.getDependElements());
+
+                // -- replace the outdated schema
+                registerSchema(name, schema);
+                writeSchemaPluginCatalog(schemaPluginCatRoot);
+            } catch (Exception e) {
+                Log.error(Geonet.SCHEMA_MANAGER, e.getMessage(), e);
+                registerSchema(name, previous);
+                deleteDir(schemaDir);
+                Files.move(previousSchemaDir, schemaDir);
+                copySchemaXSDsToWebApp(name, schemaDir);
+                throw new OperationAbortedEx("Failed to update schema " + name + " : " + e.getMessage(), e);
+            }
+
+            deleteDir(previousSchemaDir);
         }
     }
 
@@ -389,17 +411,12 @@ public class SchemaManager {
      */
     public Path getSchemaDir(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
 
-            return schema.getDir();
-        } finally {
-            afterRead();
-        }
+        return schema.getDir();
     }
 
     /**
@@ -412,38 +429,33 @@ public class SchemaManager {
 
         Attribute out = null;
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
-
-            String nsUri = schema.getMetadataSchema().getPrimeNS();
-            String schemaLoc = schema.getSchemaLocation();
-            Path schemaFile = schema.getDir().resolve("schema.xsd");
-
-            if (schemaLoc.equals("")) {
-                if (Files.exists(schemaFile)) { // build one
-                    String schemaUrl = getSchemaUrl(context, name);
-                    if (nsUri == null || nsUri.equals("")) {
-                        out = new Attribute("noNamespaceSchemaLocation", schemaUrl, Geonet.Namespaces.XSI);
-                    } else {
-                        schemaLoc = nsUri + " " + schemaUrl;
-                        out = new Attribute("schemaLocation", schemaLoc, Geonet.Namespaces.XSI);
-                    }
-                } // else return null - no schema xsd exists - could be dtd
-            } else {
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
+
+        String nsUri = schema.getMetadataSchema().getPrimeNS();
+        String schemaLoc = schema.getSchemaLocation();
+        Path schemaFile = schema.getDir().resolve("schema.xsd");
+
+        if (schemaLoc.equals("")) {
+            if (Files.exists(schemaFile)) { // build one
+                String schemaUrl = getSchemaUrl(context, name);
                 if (nsUri == null || nsUri.equals("")) {
-                    out = new Attribute("noNamespaceSchemaLocation", schemaLoc, Geonet.Namespaces.XSI);
+                    out = new Attribute("noNamespaceSchemaLocation", schemaUrl, Geonet.Namespaces.XSI);
                 } else {
+                    schemaLoc = nsUri + " " + schemaUrl;
                     out = new Attribute("schemaLocation", schemaLoc, Geonet.Namespaces.XSI);
                 }
+            } // else return null - no schema xsd exists - could be dtd
+        } else {
+            if (nsUri == null || nsUri.equals("")) {
+                out = new Attribute("noNamespaceSchemaLocation", schemaLoc, Geonet.Namespaces.XSI);
+            } else {
+                out = new Attribute("schemaLocation", schemaLoc, Geonet.Namespaces.XSI);
             }
-            return out;
-        } finally {
-            afterRead();
         }
+        return out;
     }
 
     /**
@@ -453,18 +465,13 @@ public class SchemaManager {
      */
     public Path getSchemaTemplatesDir(String name) {
 
-        beforeRead();
-        try {
-            Path dir = getSchemaDir(name);
+        Path dir = getSchemaDir(name);
 
-            dir = dir.resolve("templates");
-            if (!Files.exists(dir)) {
-                return null;
-            }
-            return dir;
-        } finally {
-            afterRead();
+        dir = dir.resolve("templates");
+        if (!Files.exists(dir)) {
+            return null;
         }
+        return dir;
     }
 
     /**
@@ -474,18 +481,13 @@ public class SchemaManager {
      */
     public Path getSchemaSampleDataDir(String name) {
 
-        beforeRead();
-        try {
-            Path dir = getSchemaDir(name);
+        Path dir = getSchemaDir(name);
 
-            dir = dir.resolve("sample-data");
-            if (!Files.exists(dir)) {
-                return null;
-            }
-            return dir;
-        } finally {
-            afterRead();
+        dir = dir.resolve("sample-data");
+        if (!Files.exists(dir)) {
+            return null;
         }
+        return dir;
     }
 
     /**
@@ -495,16 +497,11 @@ public class SchemaManager {
      */
     public Path getSchemaCSWPresentDir(String name) {
 
-        beforeRead();
-        try {
-            Path dir = getSchemaDir(name);
+        Path dir = getSchemaDir(name);
 
-            dir = dir.resolve("present").resolve("csw");
+        dir = dir.resolve("present").resolve("csw");
 
-            return dir;
-        } finally {
-            afterRead();
-        }
+        return dir;
     }
 
     /**
@@ -514,17 +511,12 @@ public class SchemaManager {
      */
     public Map<String, XmlFile> getSchemaInfo(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
 
-            return schema.getInfo();
-        } finally {
-            afterRead();
-        }
+        return schema.getInfo();
     }
 
     /**
@@ -532,12 +524,7 @@ public class SchemaManager {
      */
     public Set<String> getSchemas() {
 
-        beforeRead();
-        try {
-            return hmSchemas.keySet();
-        } finally {
-            afterRead();
-        }
+        return hmSchemas.keySet();
     }
 
     /**
@@ -548,18 +535,13 @@ public class SchemaManager {
      */
     public List<Element> getConversionElements(String name) throws Exception {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
-            List<Element> childs = schema.getConversionElements();
-            List<Element> dChilds = new ArrayList<>();
-            for (Element child : childs) {
-                if (child != null) dChilds.add((Element) child.clone());
-            }
-            return dChilds;
-        } finally {
-            afterRead();
+        Schema schema = hmSchemas.get(name);
+        List<Element> childs = schema.getConversionElements();
+        List<Element> dChilds = new ArrayList<>();
+        for (Element child : childs) {
+            if (child != null) dChilds.add((Element) child.clone());
         }
+        return dChilds;
     }
 
     /**
@@ -574,23 +556,18 @@ public class SchemaManager {
 
         List<Path> result = new ArrayList<>();
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
-            List<Element> converterElems = schema.getConversionElements();
-            for (Element elem : converterElems) {
-                String nsUri = elem.getAttributeValue("nsUri");
-                if (nsUri != null && nsUri.equals(namespaceUri)) {
-                    String xslt = elem.getAttributeValue("xslt");
-                    if (xslt != null) {
-                        result.add(schema.getDir().resolve(xslt));
-                    }
+        Schema schema = hmSchemas.get(name);
+        List<Element> converterElems = schema.getConversionElements();
+        for (Element elem : converterElems) {
+            String nsUri = elem.getAttributeValue("nsUri");
+            if (nsUri != null && nsUri.equals(namespaceUri)) {
+                String xslt = elem.getAttributeValue("xslt");
+                if (xslt != null) {
+                    result.add(schema.getDir().resolve(xslt));
                 }
             }
-            return result;
-        } finally {
-            afterRead();
         }
+        return result;
     }
 
     /**
@@ -600,12 +577,7 @@ public class SchemaManager {
      */
     public boolean existsSchema(String name) {
 
-        beforeRead();
-        try {
-            return hmSchemas.containsKey(name);
-        } finally {
-            afterRead();
-        }
+        return hmSchemas.containsKey(name);
     }
 
 
@@ -616,13 +588,10 @@ public class SchemaManager {
      */
     public void deletePluginSchema(String name) throws Exception {
 
-        beforeWrite();
-        try {
+        synchronized (schemasLock) {
             boolean doDependencies = true;
             realDeletePluginSchema(name, doDependencies);
 
-        } finally {
-            afterWrite();
         }
     }
 
@@ -633,17 +602,12 @@ public class SchemaManager {
      */
     public SchemaSuggestions getSchemaSuggestions(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema suggestions not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema suggestions not registered : " + name);
 
-            return schema.getSuggestions();
-        } finally {
-            afterRead();
-        }
+        return schema.getSuggestions();
     }
 
     /**
@@ -654,18 +618,13 @@ public class SchemaManager {
      */
     public String getNamespaceURI(String name, String prefix) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
 
-            MetadataSchema mds = schema.getMetadataSchema();
-            return mds.getNS(prefix);
-        } finally {
-            afterRead();
-        }
+        MetadataSchema mds = schema.getMetadataSchema();
+        return mds.getNS(prefix);
     }
 
     /**
@@ -676,24 +635,19 @@ public class SchemaManager {
      */
     public String getNamespaceString(String name) {
 
-        beforeRead();
-        try {
-            Schema schema = hmSchemas.get(name);
+        Schema schema = hmSchemas.get(name);
 
-            if (schema == null)
-                throw new IllegalArgumentException("Schema not registered : " + name);
+        if (schema == null)
+            throw new IllegalArgumentException("Schema not registered : " + name);
 
-            MetadataSchema mds = schema.getMetadataSchema();
-            StringBuilder sb = new StringBuilder();
-            for (Namespace ns : mds.getSchemaNS()) {
-                if (ns.getPrefix().length() != 0 && ns.getURI().length() != 0) {
-                    sb.append("xmlns:" + ns.getPrefix() + "=\"" + ns.getURI() + "\" ");
-                }
+        MetadataSchema mds = schema.getMetadataSchema();
+        StringBuilder sb = new StringBuilder();
+        for (Namespace ns : mds.getSchemaNS()) {
+            if (ns.getPrefix().length() != 0 && ns.getURI().length() != 0) {
+                sb.append("xmlns:" + ns.getPrefix() + "=\"" + ns.getURI() + "\" ");
             }
-            return sb.toString().trim();
-        } finally {
-            afterRead();
         }
+        return sb.toString().trim();
     }
 
     /**
@@ -715,66 +669,62 @@ public class SchemaManager {
      */
     public String autodetectSchema(Element md, String defaultSchema) throws SchemaMatchConflictException, NoSchemaMatchesException {
 
-        beforeRead();
-        try {
-            String schema;
+        String schema;
+        Map<String, Schema> schemas = hmSchemas;
 
-            // -- check the autodetect elements for all schemas with the most
-            // -- specific test first, then in order of increasing generality,
-            // -- first match wins
-            schema = compareElementsAndAttributes(md, MODE_ATTRIBUTEWITHVALUE);
-            if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
-                Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(attributes) examination");
-            }
-
-            if (schema == null) {
-                schema = compareElementsAndAttributes(md, MODE_NEEDLEWITHVALUE);
-                if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
-                    Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements with value) examination");
-                }
-            }
+        // -- check the autodetect elements for all schemas with the most
+        // -- specific test first, then in order of increasing generality,
+        // -- first match wins
+        schema = compareElementsAndAttributes(schemas, md, MODE_ATTRIBUTEWITHVALUE);
+        if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
+            Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(attributes) examination");
+        }
 
-            if (schema == null) {
-                schema = compareElementsAndAttributes(md, MODE_NEEDLE);
-                if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
-                    Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements) examination");
-                }
+        if (schema == null) {
+            schema = compareElementsAndAttributes(schemas, md, MODE_NEEDLEWITHVALUE);
+            if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
+                Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements with value) examination");
             }
+        }
 
-            if (schema == null) {
-                schema = compareElementsAndAttributes(md, MODE_ROOT);
-                if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
-                    Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements with root) examination");
-                }
+        if (schema == null) {
+            schema = compareElementsAndAttributes(schemas, md, MODE_NEEDLE);
+            if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
+                Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements) examination");
             }
+        }
 
-            if (schema == null) {
-                schema = compareElementsAndAttributes(md, MODE_NAMESPACE);
-                if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
-                    Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(namespaces) examination");
-                }
+        if (schema == null) {
+            schema = compareElementsAndAttributes(schemas, md, MODE_ROOT);
+            if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
+                Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(elements with root) examination");
             }
+        }
 
-            // -- If nothing has matched by this point choose defaultSchema supplied
-            // -- as argument to this method as long as its reasonable
-            if (schema == null && defaultSchema != null) {
-                String defaultSchemaOrDependencySchema = checkNamespace(md, defaultSchema);
-                if (defaultSchemaOrDependencySchema != null) {
-                    Log.warning(Geonet.SCHEMA_MANAGER, "  Autodetecting schema failed for " + md.getName() + " in namespace " + md.getNamespace()
-                        + ". Using default schema or one of its dependency: " + defaultSchemaOrDependencySchema);
-                    schema = defaultSchemaOrDependencySchema;
-                }
+        if (schema == null) {
+            schema = compareElementsAndAttributes(schemas, md, MODE_NAMESPACE);
+            if (schema != null && Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
+                Log.debug(Geonet.SCHEMA_MANAGER, "  => Found schema " + schema + " using AUTODETECT(namespaces) examination");
             }
+        }
 
-            // -- if the default schema failed then throw an exception
-            if (schema == null) {
-                throw new NoSchemaMatchesException("Autodetecting schema failed for metadata record with root element " + md.getName() + " in namespace " + md.getNamespace() + ".");
+        // -- If nothing has matched by this point choose defaultSchema supplied
+        // -- as argument to this method as long as its reasonable
+        if (schema == null && defaultSchema != null) {
+            String defaultSchemaOrDependencySchema = checkNamespace(md, defaultSchema);
+            if (defaultSchemaOrDependencySchema != null) {
+                Log.warning(Geonet.SCHEMA_MANAGER, "  Autodetecting schema failed for " + md.getName() + " in namespace " + md.getNamespace()
+                    + ". Using default schema or one of its dependency: " + defaultSchemaOrDependencySchema);
+                schema = defaultSchemaOrDependencySchema;
             }
+        }
 
-            return schema;
-        } finally {
-            afterRead();
+        // -- if the default schema failed then throw an exception
+        if (schema == null) {
+            throw new NoSchemaMatchesException("Autodetecting schema failed for metadata record with root element " + md.getName() + " in namespace " + md.getNamespace() + ".");
         }
+
+        return schema;
     }
 
     //--------------------------------------------------------------------------
@@ -822,49 +772,6 @@ public class SchemaManager {
     }
 
 
-    /**
-     * Invoked just before reading, waits until reading is allowed.
-     */
-    private synchronized void beforeRead() {
-        while (activeWriters > 0) {
-            try {
-                wait();
-            } catch (InterruptedException iex) {
-                // TODO what to do
-            }
-        }
-        ++activeReaders;
-    }
-
-    /**
-     * Invoked just after reading.
-     */
-    private synchronized void afterRead() {
-        --activeReaders;
-        notifyAll();
-    }
-
-    /**
-     * Invoked just before writing, waits until writing is allowed.
-     */
-    private synchronized void beforeWrite() {
-        while (activeReaders > 0 || activeWriters > 0) {
-            try {
-                wait();
-            } catch (InterruptedException iex) {
-            }
-        }
-        ++activeWriters;
-    }
-
-    /**
-     * Invoked just after writing.
-     */
-    private synchronized void afterWrite() {
-        --activeWriters;
-        notifyAll();
-    }
-
     /**
      * Really delete the schema from the schema information hash tables.
      *
@@ -914,14 +821,14 @@ public class SchemaManager {
             writeSchemaPluginCatalog(schemaPluginCatRoot);
         } catch (Exception e) {
             Log.error(Geonet.SCHEMA_MANAGER, e.getMessage(), e);
-            hmSchemas.remove(name);
+            unregisterSchema(name);
             IO.deleteFileOrDirectory(schemaDir);
             throw new OperationAbortedEx("Failed to add schema " + name + " : " + e.getMessage(), e);
         }
     }
 
     /**
-     * Loads the metadata schema from disk and adds it to the pool.
+     * Loads the metadata schema from disk.
      *
      * @param xmlSchemaFile        name of XML schema file (usually schema.xsd)
      * @param xmlSuggestFile       name of schema suggestions file
@@ -929,8 +836,9 @@ public class SchemaManager {
      * @param xmlIdFile            name of XML file that identifies the schema
      * @param oasisCatFile         name of XML OASIS catalog file
      * @param conversionsFile      name of XML conversions file
+     * @return the schema, which is not registered yet.
      */
-    private void addSchema(ApplicationContext applicationContext, Path schemaDir, Element schemaPluginCatRoot, Path xmlSchemaFile,
+    private Schema addSchema(ApplicationContext applicationContext, Path schemaDir, Element schemaPluginCatRoot, Path xmlSchemaFile,
                            Path xmlSuggestFile, Path xmlSubstitutionsFile, Path xmlIdFile, Path oasisCatFile, Path conversionsFile)
         throws Exception {
         Path path = schemaDir;
@@ -999,8 +907,7 @@ public class SchemaManager {
 
         Log.debug(Geonet.SCHEMA_MANAGER, "  UUID is read/write mode: " + mds.isReadwriteUUID());
 
-        putSchemaInfo(
-            schemaName,
+        Schema schema = buildSchemaInfo(
             idInfo.one(), // uuid of schema
             idInfo.two(), // version of schema
             mds,
@@ -1030,6 +937,7 @@ public class SchemaManager {
         // -- <web_app_dir>/xml/schemas/<schema_name>
         copySchemaXSDsToWebApp(schemaName, path);
 
+        return schema;
     }
 
     /**
@@ -1205,11 +1113,10 @@ public class SchemaManager {
     }
 
     /**
-     * Puts information into the schema information hashtables.
+     * Builds the schema information to put into the schema registry.
      *
      * @param id             schema id (uuid)
      * @param version        schema version
-     * @param name           schema name
      * @param mds            MetadataSchema object with details of XML schema info
      * @param schemaDir      path name of schema directory
      * @param sugg           SchemaSuggestions object
@@ -1220,7 +1127,7 @@ public class SchemaManager {
      * @param convElems      List of elements in conversion file
      * @param dependElems    List of depend XML elements (as JDOM Elements)
      */
-    private void putSchemaInfo(String name, String id, String version, MetadataSchema mds, Path schemaDir,
+    private Schema buildSchemaInfo(String id, String version, MetadataSchema mds, Path schemaDir,
                                SchemaSuggestions sugg, List<Element> adElems, Map<String, XmlFile> xfMap,
                                boolean isPlugin, String schemaLocation, List<Element> convElems, List<Element> dependElems) {
 
@@ -1238,7 +1145,31 @@ public class SchemaManager {
         schema.setConversionElements(convElems);
         schema.setDependElements(dependElems);
 
-        hmSchemas.put(name, schema);
+        return schema;
+    }
+
+    /**
+     * Adds a schema to the registry, replacing the map used by readers.
+     */
+    private void registerSchema(String name, Schema schema) {
+        synchronized (schemasLock) {
+            Map<String, Schema> schemas = new HashMap<>(hmSchemas);
+            schemas.put(name, schema);
+            hmSchemas = Collections.unmodifiableMap(schemas);
+        }
+    }
+
+    /**
+     * Removes a schema from the registry, replacing the map used by readers.
+     */
+    private void unregisterSchema(String name) {
+        synchronized (schemasLock) {
+            if (hmSchemas.containsKey(name)) {
+                Map<String, Schema> schemas = new HashMap<>(hmSchemas);
+                schemas.remove(name);
+                hmSchemas = Collections.unmodifiableMap(schemas);
+            }
+        }
     }
 
     /**
@@ -1251,7 +1182,7 @@ public class SchemaManager {
         Schema schema = hmSchemas.get(name);
 
         removeSchemaDir(schema.getDir(), name);
-        hmSchemas.remove(name);
+        unregisterSchema(name);
 
         Element schemaPluginCatRoot = getSchemaPluginCatalog();
         schemaPluginCatRoot = deleteSchemaFromPluginCatalog(name, schemaPluginCatRoot);
@@ -1287,6 +1218,21 @@ public class SchemaManager {
      * @param schemasDir path name of directory containing schemas
      */
     private void processSchema(ApplicationContext applicationContext, Path schemasDir, Element schemaPluginCatRoot) throws OperationAbortedEx {
+        Schema schema = loadSchema(applicationContext, schemasDir, schemaPluginCatRoot, false);
+        if (schema != null) {
+            registerSchema(schemasDir.getFileName().toString(), schema);
+        }
+    }
+
+    /**
+     * Loads a schema from either web/xml/schemas or schema plugin directory.
+     *
+     * @param schemasDir path name of directory containing schemas
+     * @param replace    true to load a schema which is already registered
+     * @return the schema, which is not registered yet, or null if it is skipped.
+     */
+    private Schema loadSchema(ApplicationContext applicationContext, Path schemasDir, Element schemaPluginCatRoot,
+                              boolean replace) throws OperationAbortedEx {
 
         Path schemaFile = schemasDir.resolve(Geonet.File.SCHEMA);
         Path suggestFile = schemasDir.resolve(Geonet.File.SCHEMA_SUGGESTIONS);
@@ -1298,7 +1244,7 @@ public class SchemaManager {
         if (!Files.exists(idFile)) {
             Log.error(Geonet.SCHEMA_MANAGER, "    Skipping : " + schemasDir.getFileName() + " as it doesn't have " +
                 Geonet.File.SCHEMA_ID);
-            return;
+            return null;
         }
 
         Log.info(Geonet.SCHEMA_MANAGER, "    Adding xml schema : " + schemasDir.getFileName());
@@ -1312,20 +1258,21 @@ public class SchemaManager {
             Xml.validate(root);
 
             final String schemaName = schemasDir.getFileName().toString();
-            if (hmSchemas.containsKey(schemaName)) { // exists so ignore it
+            if (!replace && hmSchemas.containsKey(schemaName)) { // exists so ignore it
                 Log.error(Geonet.SCHEMA_MANAGER, "Schema " + schemaName + " already exists - cannot add!");
+                return null;
             } else {
                 stage = "adding the schema information";
-                addSchema(applicationContext, schemasDir, schemaPluginCatRoot, schemaFile, suggestFile, substitutesFile,
+                Schema schema = addSchema(applicationContext, schemasDir, schemaPluginCatRoot, schemaFile, suggestFile, substitutesFile,
                     idFile, oasisCatFile, conversionsFile);
                 ResolverWrapper.createResolverForSchema(schemasDir.getFileName().toString(), oasisCatFile);
+                return schema;
             }
         } catch (Exception e) {
             String errStr = "Failed whilst " + stage + ". Exception message if any is " + e.getMessage();
             Log.error(Geonet.SCHEMA_MANAGER, errStr, e);
             throw new OperationAbortedEx(errStr, e);
         }
-
     }
 
     /**
@@ -1348,7 +1295,7 @@ public class SchemaManager {
 
         // now remove any that failed the dependency test
         for (String removeSchema : removes) {
-            hmSchemas.remove(removeSchema);
+            unregisterSchema(removeSchema);
             deleteSchemaFromPluginCatalog(removeSchema, schemaPluginCatRoot);
         }
 
@@ -1393,7 +1340,7 @@ public class SchemaManager {
 
         // now remove any that failed the app version test
         for (String removeSchema : removes) {
-            hmSchemas.remove(removeSchema);
+            unregisterSchema(removeSchema);
             deleteSchemaFromPluginCatalog(removeSchema, schemaPluginCatRoot);
         }
 
@@ -1621,9 +1568,9 @@ public class SchemaManager {
      *
      * @param md the XML record whose schema we are trying to find
      */
-    private String compareElementsAndAttributes(Element md, int mode) throws SchemaMatchConflictException {
+    private String compareElementsAndAttributes(Map<String, Schema> schemas, Element md, int mode) throws SchemaMatchConflictException {
         String returnVal = null;
-        Set<String> allSchemas = getSchemas();
+        Set<String> allSchemas = schemas.keySet();
         List<String> matches = new ArrayList<>();
 
         if (Log.isDebugEnabled(Geonet.SCHEMA_MANAGER)) {
@@ -1633,7 +1580,7 @@ public class SchemaManager {
         for (String schemaName : allSchemas) {
             if (Log.isDebugEnabled(Geonet.SCHEMA_MANAGER))
                 Log.debug(Geonet.SCHEMA_MANAGER, "	Doing schema " + schemaName);
-            Schema schema = hmSchemas.get(schemaName);
+            Schema schema = schemas.get(schemaName);
             List<Element> adElems = schema.getAutodetectElements();
 
             for (Element elem : adElems) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.fao.geonet.ApplicationContextHolder;
+import org.fao.geonet.domain.Schematron;
+import org.fao.geonet.domain.SchematronCriteria;
+import org.fao.geonet.domain.SchematronCriteriaGroup;
+import org.fao.geonet.entitylistener.GeonetworkEntityListener;
+import org.fao.geonet.entitylistener.PersistentEventType;
+import org.fao.geonet.repository.SchematronCriteriaGroupRepository;
+import org.fao.geonet.repository.SchematronRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In memory catalogue of the schematron rule sets of each schema, with their criteria groups,
+ * so that validating a record does not query the database for them again.
+ * <p>
+ * The cache is cleared when a schematron, a criteria group or a criteria is saved or removed
+ * (and once more when the transaction completes). Entries also expire after a few minutes to
+ * pick up changes made by other nodes or by bulk queries.
+ */
+public class SchematronRuleCache {
+
+    private static final long EXPIRE_AFTER_MINUTES = 5;
+
+    private final Cache<String, List<SchematronRuleSet>> ruleSets = CacheBuilder.newBuilder()
+        .expireAfterWrite(EXPIRE_AFTER_MINUTES, TimeUnit.MINUTES)
+        .build();
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @PostConstruct
+    public void init() {
+        registerListener(Schematron.class);
+        registerListener(SchematronCriteriaGroup.class);
+        registerListener(SchematronCriteria.class);
+    }
+
+    private void registerListener(Class<?> entityClass) {
+        applicationContext.getBeanFactory().registerSingleton(
+            "ClearSchematronRuleCache_" + entityClass.getSimpleName(),
+            new ClearCacheListener(entityClass));
+    }
+
+    /**
+     * Get the rule sets of a schema, sorted by display priority.
+     *
+     * @param schemaName The schema name
+     */
+    public List<SchematronRuleSet> getRuleSets(String schemaName) {
+        try {
+            return ruleSets.get(schemaName, () -> load(schemaName));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<SchematronRuleSet> load(String schemaName) {
+        final ConfigurableApplicationContext context = ApplicationContextHolder.get() != null
+            ? ApplicationContextHolder.get() : applicationContext;
+        SchematronRepository schematronRepository = context.getBean(SchematronRepository.class);
+        SchematronCriteriaGroupRepository criteriaGroupRepository = context.getBean(SchematronCriteriaGroupRepository.class);
+
+        final List<Schematron> schematronList = schematronRepository.findAllBySchemaName(schemaName);
+        Collections.sort(schematronList, Schematron.DISPLAY_PRIORITY_COMPARATOR);
+
+        List<SchematronRuleSet> result = new ArrayList<>(schematronList.size());
+        for (Schematron schematron : schematronList) {
+            result.add(new SchematronRuleSet(schematron,
+                Collections.unmodifiableList(criteriaGroupRepository.findAllById_SchematronId(schematron.getId()))));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public void invalidate() {
+        ruleSets.invalidateAll();
+    }
+
+    /**
+     * A schematron and its criteria groups. Shared between threads, must not be modified.
+     */
+    public static class SchematronRuleSet {
+        private final Schematron schematron;
+        private final List<SchematronCriteriaGroup> criteriaGroups;
+
+        SchematronRuleSet(Schematron schematron, List<SchematronCriteriaGroup> criteriaGroups) {
+            this.schematron = schematron;
+            this.criteriaGroups = criteriaGroups;
+        }
+
+        public Schematron getSchematron() {
+            return schematron;
+        }
+
+        public List<SchematronCriteriaGroup> getCriteriaGroups() {
+            return criteriaGroups;
+        }
+    }
+
+    private class ClearCacheListener implements GeonetworkEntityListener {
+
+        private final Class entityClass;
+
+        private ClearCacheListener(Class entityClass) {
+            this.entityClass = entityClass;
+        }
+
+        @Override
+        public Class getEntityClass() {
+            return this.entityClass;
+        }
+
+        @Override
+        public void handleEvent(PersistentEventType type, Object entity) {
+            if (type != PersistentEventType.PostPersist
+                && type != PersistentEventType.PostUpdate
+                && type != PersistentEventType.PostRemove) {
+                return;
+            }
+            invalidate();
+            // Another thread may have reloaded the rule sets before the commit
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        invalidate();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -34,13 +34,11 @@ import org.fao.geonet.domain.SchematronCriteriaGroup;
 import org.fao.geonet.domain.SchematronRequirement;
 import org.fao.geonet.kernel.schema.MetadataSchema;
 import org.fao.geonet.repository.SchematronCriteriaGroupRepository;
-import org.fao.geonet.repository.SchematronRepository;
 import org.fao.geonet.utils.Log;
 import org.jdom.Element;
 import org.springframework.context.ConfigurableApplicationContext;
 
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -73,9 +71,7 @@ public class SchematronValidator extends AbstractSchematronValidator {
                     ? getApplicableSchematronList(metadataId, md, metadataSchema)
                     : onlyForSchematronList;
 
-            for (ApplicableSchematron applicable : applicableSchematron) {
-                runSchematron(lang, schemaDir, validations, schemaTronXmlOut, metadataId, md, applicable);
-            }
+            runSchematrons(lang, schemaDir, validations, schemaTronXmlOut, metadataId, md, applicableSchematron);
         } catch (Throwable e) {
             Element errorReport = new Element("schematronVerificationError", Edit.NAMESPACE);
             errorReport.addContent("Schematron error occurred, rules could not be verified: " + e.getMessage());
@@ -94,20 +90,17 @@ public class SchematronValidator extends AbstractSchematronValidator {
                                                            final Element md,
                                                            final MetadataSchema metadataSchema) {
         List<ApplicableSchematron> applicableSchematron = Lists.newArrayList();
-        SchematronRepository schematronRepository = ApplicationContextHolder.get().getBean(SchematronRepository.class);
-
-        final List<Schematron> schematronList = schematronRepository.findAllBySchemaName(metadataSchema.getName());
-
-        Collections.sort(schematronList, Schematron.DISPLAY_PRIORITY_COMPARATOR);
+        SchematronRuleCache ruleCache = ApplicationContextHolder.get().getBean(SchematronRuleCache.class);
 
         //Loop through all xsl files
-        for (Schematron schematron : schematronList) {
-            final ApplicableSchematron applicable = getApplicableSchematron(metadataId, md, metadataSchema, schematron);
+        for (SchematronRuleCache.SchematronRuleSet ruleSet : ruleCache.getRuleSets(metadataSchema.getName())) {
+            final ApplicableSchematron applicable = getApplicableSchematron(metadataId, md, metadataSchema,
+                ruleSet.getSchematron(), ruleSet.getCriteriaGroups());
 
 
             if (applicable.requirement != SchematronRequirement.DISABLED) {
                 if (Log.isDebugEnabled(Geonet.DATA_MANAGER)) {
-                    Log.debug(Geonet.DATA_MANAGER, " - rule:" + schematron.getRuleName());
+                    Log.debug(Geonet.DATA_MANAGER, " - rule:" + ruleSet.getSchematron().getRuleName());
                 }
 
                 applicableSchematron.add(applicable);
@@ -121,11 +114,19 @@ public class SchematronValidator extends AbstractSchematronValidator {
                                                  final Element md,
                                                  final MetadataSchema metadataSchema,
                                                  final Schematron schematron) {
+        SchematronCriteriaGroupRepository criteriaGroupRepository = ApplicationContextHolder.get().getBean(SchematronCriteriaGroupRepository.class);
+
+        return getApplicableSchematron(metadataId, md, metadataSchema, schematron,
+            criteriaGroupRepository.findAllById_SchematronId(schematron.getId()));
+    }
+
+    private ApplicableSchematron getApplicableSchematron(final int metadataId,
+                                                  final Element md,
+                                                  final MetadataSchema metadataSchema,
+                                                  final Schematron schematron,
+                                                  final List<SchematronCriteriaGroup> criteriaGroups) {
         //it contains absolute path to the xsl file
         final ConfigurableApplicationContext applicationContext = ApplicationContextHolder.get();
-        SchematronCriteriaGroupRepository criteriaGroupRepository = applicationContext.getBean(SchematronCriteriaGroupRepository.class);
-
-        List<SchematronCriteriaGroup> criteriaGroups = criteriaGroupRepository.findAllById_SchematronId(schematron.getId());
 
         //Loop through all criteria to see if apply schematron
         //if any criteria does not apply, do not apply at all (AND)
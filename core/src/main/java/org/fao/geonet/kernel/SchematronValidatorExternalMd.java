@@ -30,7 +30,6 @@ import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.domain.*;
 import org.fao.geonet.kernel.schema.MetadataSchema;
 import org.fao.geonet.repository.SchematronCriteriaGroupRepository;
-import org.fao.geonet.repository.SchematronRepository;
 import org.fao.geonet.utils.Log;
 import org.jdom.Element;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -56,9 +55,7 @@ public class SchematronValidatorExternalMd extends AbstractSchematronValidator {
         try {
             List<ApplicableSchematron> applicableSchematron = getApplicableSchematronList(md, metadataSchema, groupOwnerId);
 
-            for (ApplicableSchematron applicable : applicableSchematron) {
-                runSchematron(lang, schemaDir, validations, schemaTronXmlOut, -1, md, applicable);
-            }
+            runSchematrons(lang, schemaDir, validations, schemaTronXmlOut, -1, md, applicableSchematron);
         } catch (Throwable e) {
             Element errorReport = new Element("schematronVerificationError", Edit.NAMESPACE);
             errorReport.addContent("Schematron error ocurred, rules could not be verified: " + e.getMessage());
@@ -74,19 +71,16 @@ public class SchematronValidatorExternalMd extends AbstractSchematronValidator {
                                                            final Integer groupOwnerId) {
 
         List<ApplicableSchematron> applicableSchematron = Lists.newArrayList();
-        SchematronRepository schematronRepository = ApplicationContextHolder.get().getBean(SchematronRepository.class);
-
-        final List<Schematron> schematronList = schematronRepository.findAllBySchemaName(metadataSchema.getName());
-
-        Collections.sort(schematronList, Schematron.DISPLAY_PRIORITY_COMPARATOR);
+        SchematronRuleCache ruleCache = ApplicationContextHolder.get().getBean(SchematronRuleCache.class);
 
         //Loop through all xsl files
-        for (Schematron schematron : schematronList) {
-            final ApplicableSchematron applicable = getApplicableSchematron(md, metadataSchema, schematron, groupOwnerId);
+        for (SchematronRuleCache.SchematronRuleSet ruleSet : ruleCache.getRuleSets(metadataSchema.getName())) {
+            final ApplicableSchematron applicable = getApplicableSchematron(md, metadataSchema,
+                ruleSet.getSchematron(), ruleSet.getCriteriaGroups(), groupOwnerId);
 
             if (applicable.requirement != SchematronRequirement.DISABLED) {
                 if (Log.isDebugEnabled(Geonet.DATA_MANAGER)) {
-                    Log.debug(Geonet.DATA_MANAGER, " - rule:" + schematron.getRuleName());
+                    Log.debug(Geonet.DATA_MANAGER, " - rule:" + ruleSet.getSchematron().getRuleName());
                 }
 
                 applicableSchematron.add(applicable);
@@ -101,11 +95,19 @@ public class SchematronValidatorExternalMd extends AbstractSchematronValidator {
                                                  final MetadataSchema metadataSchema,
                                                  final Schematron schematron,
                                                  final Integer groupOwnerId) {
+        SchematronCriteriaGroupRepository criteriaGroupRepository = ApplicationContextHolder.get().getBean(SchematronCriteriaGroupRepository.class);
+
+        return getApplicableSchematron(md, metadataSchema, schematron,
+            criteriaGroupRepository.findAllById_SchematronId(schematron.getId()), groupOwnerId);
+    }
+
+    private ApplicableSchematron getApplicableSchematron(final Element md,
+                                                  final MetadataSchema metadataSchema,
+                                                  final Schematron schematron,
+                                                  final List<SchematronCriteriaGroup> criteriaGroups,
+                                                  final Integer groupOwnerId) {
         //it contains absolute path to the xsl file
         final ConfigurableApplicationContext applicationContext = ApplicationContextHolder.get();
-        SchematronCriteriaGroupRepository criteriaGroupRepository = applicationContext.getBean(SchematronCriteriaGroupRepository.class);
-
-        List<SchematronCriteriaGroup> criteriaGroups = criteriaGroupRepository.findAllById_SchematronId(schematron.getId());
 
         //Loop through all criteria to see if apply schematron
         //if any criteria does not apply, do not apply at all (AND)
@@ -69,7 +69,7 @@ public interface IMetadataIndexer {
     void rebuildIndexForSelection(ServiceContext context, String bucket, boolean clearXlink) throws Exception;
 
     /**
-     * Index multiple metadata in a separate thread. Wait until the current transaction commits before starting threads (to make sure that
+     * Index multiple metadata in the shared indexing threads. Wait until the current transaction commits before indexing (to make sure that
      * all metadata are committed).
      *
      * @param context context object
@@ -23,6 +23,7 @@
 
 package org.fao.geonet.kernel.datamanager;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -72,6 +73,18 @@ public interface IMetadataManager {
      */
     void deleteMetadata(ServiceContext context, String metadataId) throws Exception;
 
+    /**
+     * Removes the records from the database and the index without sending events.
+     * The index is updated once for all records.
+     *
+     * This is useful for harvesting tasks.
+     *
+     * @param context
+     * @param metadataIds
+     * @throws Exception
+     */
+    void deleteMetadata(ServiceContext context, Collection<Integer> metadataIds) throws Exception;
+
     /**
      * Delete the record with the id metadataId
      * from the database and index
@@ -28,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -241,7 +242,8 @@ public interface IMetadataUtils {
     void updateDisplayOrder(String id, String displayOrder) throws Exception;
 
     /**
-     * Increases the popularity of the record defined by the id
+     * Increases the popularity of the record defined by the id. The popularity
+     * may be saved in the database and the index a bit later.
      *
      * @param srvContext
      * @param id
@@ -448,6 +450,15 @@ public interface IMetadataUtils {
      */
     public List<SimpleMetadata> findAllSimple(String harvestUuid);
 
+    /**
+     * Pass the basic info of each metadata of a harvester to an action without loading them all
+     * in memory first.
+     *
+     * @param harvestUuid
+     * @param action
+     */
+    public void forEachSimple(String harvestUuid, Consumer<SimpleMetadata> action);
+
     /**
      * Check if a record with identifier iId exists
      *
@@ -75,6 +75,16 @@ public interface IMetadataValidator {
      */
     Pair<Element, Boolean> doValidate(AbstractMetadata metadata, String lang);
 
+    /**
+     * Validate a record without saving its validation status. Used by batch processes which
+     * persist the validation status of many records at once.
+     *
+     * @param metadata    metadata
+     * @param lang        Language from context
+     * @param validations the list where the validation results of the record are added
+     */
+    Pair<Element, Boolean> doValidate(AbstractMetadata metadata, String lang, List<MetadataValidation> validations);
+
     /**
      * Used by the validate embedded service. The validation report is stored in the session.
      *
@@ -49,12 +49,13 @@ import org.fao.geonet.kernel.datamanager.draft.DraftMetadataIndexer;
 import org.fao.geonet.kernel.search.EsSearchManager;
 import org.fao.geonet.kernel.search.IndexFields;
 import org.fao.geonet.kernel.search.IndexingMode;
+import org.fao.geonet.kernel.search.index.IndexingExecutor;
+import org.fao.geonet.kernel.search.index.IndexingJob;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
 import org.fao.geonet.repository.*;
 import org.fao.geonet.repository.userfeedback.UserFeedbackRepository;
 import org.fao.geonet.resources.Resources;
-import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.utils.Log;
 import org.jdom.Attribute;
 import org.jdom.Element;
@@ -72,10 +73,6 @@ import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.fao.geonet.resources.Resources.DEFAULT_LOGO_EXTENSION;
 
@@ -117,6 +114,8 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
     private Store store;
     @Autowired
     private Resources resources;
+    @Autowired
+    private IndexingExecutor indexingExecutor;
 
     // FIXME remove when get rid of Jeeves
     private ServiceContext servContext;
@@ -145,7 +144,6 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
 
     Set<String> waitForIndexing = new HashSet<String>();
     Set<String> indexing = new HashSet<String>();
-    Set<IndexMetadataTask> batchIndex = ConcurrentHashMap.newKeySet();
 
     @Override
     public void forceIndexChanges() throws IOException {
@@ -238,8 +236,8 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
     }
 
     /**
-     * Index multiple metadata in a separate thread. Wait until the current
-     * transaction commits before starting threads (to make sure that all metadata
+     * Index multiple metadata with the {@link IndexingExecutor}. Wait until the current
+     * transaction commits before indexing (to make sure that all metadata
      * are committed).
      *
      * @param context     context object
@@ -254,48 +252,17 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
         } catch (NoTransactionException e) {
             // not in a transaction so we can go ahead.
         }
-        // split reindexing task according to number of processors we can assign
-        int threadCount = ThreadUtils.getNumberOfThreads();
-        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
-
-        int perThread;
-        if (metadataIds.size() < threadCount)
-            perThread = metadataIds.size();
-        else
-            perThread = metadataIds.size() / threadCount;
-        int index = 0;
         if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
             Log.debug(Geonet.INDEX_ENGINE, "Indexing " + metadataIds.size() + " records.");
             Log.debug(Geonet.INDEX_ENGINE, metadataIds.toString());
         }
-        AtomicInteger numIndexedTracker = new AtomicInteger();
-        while (index < metadataIds.size()) {
-            int start = index;
-            int count = Math.min(perThread, metadataIds.size() - start);
-            int nbRecords = start + count;
-
-            if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
-                Log.debug(Geonet.INDEX_ENGINE, "Indexing records from " + start + " to " + nbRecords);
-            }
-
-            List<?> subList = metadataIds.subList(start, nbRecords);
-
-            if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
-                Log.debug(Geonet.INDEX_ENGINE, subList.toString());
-            }
-
-            // create threads to process this chunk of ids
-            Runnable worker = new IndexMetadataTask(context, subList, batchIndex, transactionStatus, numIndexedTracker);
-            executor.execute(worker);
-            index += count;
-        }
-
-        executor.shutdown();
+        indexingExecutor.submit(context, metadataIds, IndexingJob.Priority.BULK,
+            "batchIndex", transactionStatus);
     }
 
     @Override
     public boolean isIndexing() {
-        return searchManager.isIndexing();
+        return searchManager.isIndexing() || indexingExecutor.isIndexing();
     }
 
     @Override
@@ -485,42 +452,8 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
                     fields.put(Geonet.IndexFieldNames.STATUS_CHANGE_DATE, statusChangeDate);
                 }
 
-                // getValidationInfo
-                // -1 : not evaluated
-                // 0 : invalid
-                // 1 : valid
                 List<MetadataValidation> validationInfo = metadataValidationRepository.findAllById_MetadataId(id$);
-                if (validationInfo.isEmpty()) {
-                    fields.put(Geonet.IndexFieldNames.VALID, "-1");
-                } else {
-                    String isValid = "1";
-                    boolean hasInspireValidation = false;
-                    for (MetadataValidation vi : validationInfo) {
-                        String type = vi.getId().getValidationType();
-                        MetadataValidationStatus status = vi.getStatus();
-
-                        // TODO: Check if ignore INSPIRE validation?
-                        if (!type.equalsIgnoreCase("inspire")) {
-                            // If never validated and required then set status to never validated.
-                            if (status == MetadataValidationStatus.NEVER_CALCULATED && vi.isRequired()) {
-                                isValid = "-1";
-                            }
-                            if (status == MetadataValidationStatus.INVALID && vi.isRequired() && isValid != "-1") {
-                                isValid = "0";
-                            }
-                        } else {
-                            hasInspireValidation = true;
-                            fields.put(Geonet.IndexFieldNames.INSPIRE_REPORT_URL, vi.getReportUrl());
-                            fields.put(Geonet.IndexFieldNames.INSPIRE_VALIDATION_DATE, vi.getValidationDate().getDateAndTime());
-                        }
-                        fields.put(Geonet.IndexFieldNames.VALID + "_" + type, status.getCode());
-                    }
-                    fields.put(Geonet.IndexFieldNames.VALID, isValid);
-
-                    if (!hasInspireValidation) {
-                        fields.put(Geonet.IndexFieldNames.VALID_INSPIRE, "-1");
-                    }
-                }
+                getValidationIndexFields(validationInfo).forEach(fields::put);
 
                 // index the amount of users that have saved this record in the "Preferred Records" list (id=0)
                 int savedCount = userSavedSelectionRepository.countTimesUserSavedMetadata(uuid, 0);
@@ -549,6 +482,52 @@ public class BaseMetadataIndexer implements IMetadataIndexer, ApplicationEventPu
             metadataId, indexingMode, System.currentTimeMillis() - start));
     }
 
+    /**
+     * Compute the validation status index fields of a record from its validation results.
+     * <ul>
+     * <li>-1 : not evaluated</li>
+     * <li>0 : invalid</li>
+     * <li>1 : valid</li>
+     * </ul>
+     *
+     * @param validationInfo all the validation results of the record, including INSPIRE ones.
+     * @return the index fields.
+     */
+    public static Map<String, Object> getValidationIndexFields(List<MetadataValidation> validationInfo) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (validationInfo.isEmpty()) {
+            fields.put(Geonet.IndexFieldNames.VALID, "-1");
+        } else {
+            String isValid = "1";
+            boolean hasInspireValidation = false;
+            for (MetadataValidation vi : validationInfo) {
+                String type = vi.getId().getValidationType();
+                MetadataValidationStatus status = vi.getStatus();
+
+                // TODO: Check if ignore INSPIRE validation?
+                if (!type.equalsIgnoreCase("inspire")) {
+                    // If never validated and required then set status to never validated.
+                    if (status == MetadataValidationStatus.NEVER_CALCULATED && vi.isRequired()) {
+                        isValid = "-1";
+                    }
+                    if (status == MetadataValidationStatus.INVALID && vi.isRequired() && isValid != "-1") {
+                        isValid = "0";
+                    }
+                } else {
+                    hasInspireValidation = true;
+                    fields.put(Geonet.IndexFieldNames.INSPIRE_REPORT_URL, vi.getReportUrl());
+                    fields.put(Geonet.IndexFieldNames.INSPIRE_VALIDATION_DATE, vi.getValidationDate().getDateAndTime());
+                }
+                fields.put(Geonet.IndexFieldNames.VALID + "_" + type, status.getCode());
+            }
+            fields.put(Geonet.IndexFieldNames.VALID, isValid);
+
+            if (!hasInspireValidation) {
+                fields.put(Geonet.IndexFieldNames.VALID_INSPIRE, "-1");
+            }
+        }
+        return fields;
+    }
 
     @Override
     public void indexMetadataPrivileges(String uuid, int id) throws Exception {
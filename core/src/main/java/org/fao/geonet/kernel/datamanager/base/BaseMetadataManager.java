@@ -50,6 +50,7 @@ import org.fao.geonet.kernel.schema.SchemaPlugin;
 import org.fao.geonet.kernel.search.EsSearchManager;
 import org.fao.geonet.kernel.search.IndexingMode;
 import org.fao.geonet.kernel.search.index.BatchOpsMetadataReindexer;
+import org.fao.geonet.kernel.search.index.IndexingJob;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
 import org.fao.geonet.kernel.setting.SettingInfo;
@@ -243,7 +244,7 @@ public class BaseMetadataManager implements IMetadataManager {
                 Set<Integer> integerList = toIndex.stream().map(Integer::parseInt).collect(Collectors.toSet());
                 new BatchOpsMetadataReindexer(
                     context.getBean(DataManager.class),
-                    integerList).process(settingManager.getSiteId(), false);
+                    integerList, IndexingJob.Priority.BULK).process(settingManager.getSiteId(), false);
             } else {
                 metadataIndexer.batchIndexInThreadPool(context, toIndex);
             }
@@ -336,12 +337,7 @@ public class BaseMetadataManager implements IMetadataManager {
      */
     @Override
     public void deleteMetadata(ServiceContext context, String metadataId) throws Exception {
-        AbstractMetadata findOne = metadataUtils.findOne(metadataId);
-        if (findOne != null) {
-            boolean isMetadata = findOne.getDataInfo().getType() == MetadataType.METADATA;
-
-            deleteMetadataFromDB(context, metadataId);
-        }
+        deleteMetadataRecord(context, metadataId);
 
         // --- update search criteria
         getSearchManager().delete(String.format("+id:%s", metadataId));
@@ -349,6 +345,35 @@ public class BaseMetadataManager implements IMetadataManager {
         // _entityManager.clear();
     }
 
+    /**
+     * Removes metadata records. The index is updated once for all the removed records,
+     * even if one of the records can't be removed.
+     */
+    @Override
+    public void deleteMetadata(ServiceContext context, Collection<Integer> metadataIds) throws Exception {
+        List<Integer> removedIds = new ArrayList<>(metadataIds.size());
+        try {
+            for (Integer metadataId : metadataIds) {
+                deleteMetadataRecord(context, String.valueOf(metadataId));
+                removedIds.add(metadataId);
+            }
+        } finally {
+            if (!removedIds.isEmpty()) {
+                getSearchManager().delete(removedIds);
+            }
+        }
+    }
+
+    /**
+     * Removes a metadata from the database, the index is not updated.
+     */
+    protected void deleteMetadataRecord(ServiceContext context, String metadataId) throws Exception {
+        AbstractMetadata findOne = metadataUtils.findOne(metadataId);
+        if (findOne != null) {
+            deleteMetadataFromDB(context, metadataId);
+        }
+    }
+
     /**
      * Delete the record with the id metadataId and additionally take care of cleaning up resources, send events, ...
      */
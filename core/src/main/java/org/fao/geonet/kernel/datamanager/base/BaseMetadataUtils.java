@@ -40,7 +40,6 @@ import org.fao.geonet.kernel.XmlSerializer;
 import org.fao.geonet.kernel.datamanager.*;
 import org.fao.geonet.kernel.schema.MetadataSchema;
 import org.fao.geonet.kernel.schema.SavedQuery;
-import org.fao.geonet.kernel.search.EsSearchManager;
 import org.fao.geonet.kernel.search.IndexingMode;
 import org.fao.geonet.kernel.search.index.IndexingList;
 import org.fao.geonet.kernel.setting.SettingManager;
@@ -69,6 +68,7 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import static org.fao.geonet.kernel.setting.Settings.*;
@@ -100,7 +100,7 @@ public class BaseMetadataUtils implements IMetadataUtils {
     private IndexingList indexingList;
 
     @Autowired
-    private EsSearchManager searchManager;
+    private PopularityCounter popularityCounter;
 
     @Autowired
     private GeonetworkDataDirectory dataDirectory;
@@ -387,7 +387,7 @@ public class BaseMetadataUtils implements IMetadataUtils {
         AbstractMetadata metadata = findOneByUuid(uuid);
         final MetadataSchema schema = metadataSchemaUtils
             .getSchema(metadata.getDataInfo().getSchemaId());
-        Element xml = metadata.getXmlData(false);
+        Element xml = metadata.getXmlDataReadOnly();
         return schema.queryString(SavedQuery.DOI_GET, xml);
     }
 
@@ -396,7 +396,7 @@ public class BaseMetadataUtils implements IMetadataUtils {
         AbstractMetadata metadata = findOneByUuid(uuid);
         final MetadataSchema schema = metadataSchemaUtils
             .getSchema(metadata.getDataInfo().getSchemaId());
-        Element xml = metadata.getXmlData(false);
+        Element xml = metadata.getXmlDataReadOnly();
         return schema.queryString(SavedQuery.RESOURCEID_GET, xml);
     }
 
@@ -575,25 +575,15 @@ public class BaseMetadataUtils implements IMetadataUtils {
     }
 
     /**
+     * The view is counted in memory and saved later by the {@link PopularityTask}.
+     *
      * @throws Exception hmm
      */
     @Override
     public void increasePopularity(ServiceContext srvContext, String id) throws Exception {
         // READONLYMODE
         if (!srvContext.getBean(NodeInfo.class).isReadOnly()) {
-            int iId = Integer.parseInt(id);
-            metadataRepository.update(iId, entity -> entity.getDataInfo().setPopularity(
-                entity.getDataInfo().getPopularity() + 1
-            ));
-            final java.util.Optional<Metadata> metadata = metadataRepository.findById(iId);
-
-            if (metadata.isPresent()) {
-                searchManager.updateFieldAsynch(
-                    metadata.get().getUuid(),
-                    Geonet.IndexFieldNames.POPULARITY,
-                    metadata.get().getDataInfo().getPopularity());
-
-            }
+            popularityCounter.increment(Integer.parseInt(id));
         } else {
             if (Log.isDebugEnabled(Geonet.DATA_MANAGER)) {
                 Log.debug(Geonet.DATA_MANAGER,
@@ -626,7 +616,7 @@ public class BaseMetadataUtils implements IMetadataUtils {
 
         metadataRepository.update(metadataId, entity -> entity.getDataInfo().setRating(newRating));
         // And register the metadata to be indexed in the near future
-        indexingList.add(metadataId);
+        indexingList.add(metadataId, "rating");
 
         return rating;
     }
@@ -951,6 +941,11 @@ public class BaseMetadataUtils implements IMetadataUtils {
         return metadataRepository.findSimple(harvestUuid);
     }
 
+    @Override
+    public void forEachSimple(String harvestUuid, Consumer<SimpleMetadata> action) {
+        metadataRepository.forEachSimple(harvestUuid, action);
+    }
+
     @Override
     public boolean exists(Integer iId) {
         return metadataRepository.existsById(iId);
@@ -31,6 +31,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang.StringUtils;
 import org.fao.geonet.constants.Edit;
 import org.fao.geonet.constants.Geonet;
@@ -76,6 +78,11 @@ import jeeves.server.context.ServiceContext;
 public class BaseMetadataValidator implements org.fao.geonet.kernel.datamanager.IMetadataValidator, BaseErrorHandlerAttachingErrorToElem.ElementDecorator {
     private static final Logger LOGGER = LoggerFactory.getLogger(Geonet.DATA_MANAGER);
 
+    /**
+     * Duration of the XSD validations, tagged with the schema of the record.
+     */
+    public static final String XSD_VALIDATION_TIMER = "gn.validation.xsd";
+
     @Autowired
     private IMetadataSchemaUtils metadataSchemaUtils;
 
@@ -248,6 +255,18 @@ public class BaseMetadataValidator implements org.fao.geonet.kernel.datamanager.
     }
 
     private Element validateInfo(String schema, Element md, XmlErrorHandler eh) throws Exception {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            return doValidateInfo(schema, md, eh);
+        } finally {
+            sample.stop(Timer.builder(XSD_VALIDATION_TIMER)
+                .description("XSD validation of the records")
+                .tag("schema", schema == null ? "none" : schema)
+                .register(Metrics.globalRegistry));
+        }
+    }
+
+    private Element doValidateInfo(String schema, Element md, XmlErrorHandler eh) throws Exception {
         if (settingManager.getValueAsBool(SYSTEM_METADATA_VALIDATION_REMOVESCHEMALOCATION, false)) {
             md.removeAttribute("schemaLocation", Namespaces.XSI);
         }
@@ -365,6 +384,17 @@ public class BaseMetadataValidator implements org.fao.geonet.kernel.datamanager.
      */
     @Override
     public Pair<Element, Boolean> doValidate(AbstractMetadata metadata, String lang) {
+        List<MetadataValidation> validations = new ArrayList<>();
+        Pair<Element, Boolean> result = doValidate(metadata, lang, validations);
+        // No results when the record could not be read, keep the previous status in that case
+        if (!validations.isEmpty()) {
+            saveValidationStatus(metadata.getId(), validations);
+        }
+        return result;
+    }
+
+    @Override
+    public Pair<Element, Boolean> doValidate(AbstractMetadata metadata, String lang, List<MetadataValidation> validations) {
         String schema = metadata.getDataInfo().getSchemaId();
         int metadataId = metadata.getId();
         Element errorReport = new Element("report", Edit.NAMESPACE);
@@ -377,7 +407,6 @@ public class BaseMetadataValidator implements org.fao.geonet.kernel.datamanager.
             return Pair.read(errorReport, false);
         }
 
-        List<MetadataValidation> validations = new ArrayList<>();
         boolean valid = true;
 
         LOGGER.debug("Validating against XSD {}", schema);
@@ -437,8 +466,6 @@ public class BaseMetadataValidator implements org.fao.geonet.kernel.datamanager.
             metadataManager.getEditLib().removeEditingInfo(md);
         }
 
-        saveValidationStatus(metadataId, validations);
-
         return Pair.read(errorReport, valid);
     }
 
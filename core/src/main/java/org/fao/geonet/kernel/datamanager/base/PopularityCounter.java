@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.datamanager.base;
+
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.repository.MetadataRepository;
+import org.fao.geonet.utils.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Number of views of the records which are not yet saved. Views are counted in memory
+ * and saved by the {@link PopularityTask} in one batch, instead of updating the record
+ * row and the index document on each view.
+ * <p/>
+ * The counts are added to the popularity stored in the database so that the nodes of a
+ * cluster sharing the database do not overwrite each other counts. The index is then updated
+ * with the popularity stored in the database. Pending counts are saved when the application stops.
+ */
+public class PopularityCounter implements DisposableBean {
+
+    @Autowired
+    private MetadataRepository metadataRepository;
+
+    @Autowired
+    private EsSearchManager searchManager;
+
+    private final ConcurrentHashMap<Integer, Integer> counts = new ConcurrentHashMap<>();
+
+    public void increment(final int metadataIdentifier) {
+        counts.merge(metadataIdentifier, 1, Integer::sum);
+    }
+
+    /**
+     * Add the pending counts to the popularity of the records in the database
+     * and update the popularity field of the records in the index.
+     */
+    public synchronized void flush() {
+        Map<Integer, Integer> increments = new HashMap<>();
+        for (Integer id : counts.keySet()) {
+            // Views counted after removal are kept for the next flush
+            Integer count = counts.remove(id);
+            if (count != null) {
+                increments.put(id, count);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        try {
+            metadataRepository.incrementPopularity(increments);
+        } catch (Exception e) {
+            increments.forEach((id, count) -> counts.merge(id, count, Integer::sum));
+            Log.error(Geonet.DATA_MANAGER, String.format(
+                "Popularity / Failed to save the views of %d records, will retry later. Error is: %s",
+                increments.size(), e.getMessage()), e);
+            return;
+        }
+
+        try {
+            Map<String, Map<String, Object>> fieldsById = new HashMap<>();
+            metadataRepository.findPopularityByUuid(increments.keySet()).forEach((uuid, popularity) -> {
+                Map<String, Object> fields = new HashMap<>(2);
+                fields.put(Geonet.IndexFieldNames.POPULARITY, popularity);
+                fieldsById.put(uuid, fields);
+            });
+            searchManager.updateFieldsAsynch(fieldsById);
+        } catch (Exception e) {
+            Log.error(Geonet.DATA_MANAGER, String.format(
+                "Popularity / Failed to update the popularity of %d records in the index. Error is: %s",
+                increments.size(), e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
@@ -29,7 +29,6 @@ import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.domain.Metadata;
 import org.fao.geonet.domain.MetadataDraft;
 import org.fao.geonet.domain.MetadataSourceInfo;
-import org.fao.geonet.domain.MetadataType;
 import org.fao.geonet.kernel.datamanager.IMetadataManager;
 import org.fao.geonet.kernel.datamanager.base.BaseMetadataManager;
 import org.fao.geonet.repository.MetadataDraftRepository;
@@ -66,16 +65,13 @@ public class DraftMetadataManager extends BaseMetadataManager implements IMetada
 
 
     /**
-     * Removes a metadata.
+     * Removes a metadata from the database, the index is not updated.
      */
     @Override
-    public void deleteMetadata(ServiceContext context, String metadataId) throws Exception {
+    protected void deleteMetadataRecord(ServiceContext context, String metadataId) throws Exception {
         AbstractMetadata findOne = metadataUtils.findOne(metadataId);
 
         if (findOne != null) {
-            boolean isMetadata = findOne.getDataInfo().getType() == MetadataType.METADATA;
-
-
             if (findOne instanceof Metadata) {
                 // Check if exists draft version and don't allow to remove until draft is removed
                 long countDraft =  metadataDraftRepository.count((Specification<MetadataDraft>) MetadataSpecs.hasMetadataUuid(findOne.getUuid()));
@@ -87,11 +83,6 @@ public class DraftMetadataManager extends BaseMetadataManager implements IMetada
 
             deleteMetadataFromDB(context, metadataId);
         }
-
-        // --- update search criteria
-        getSearchManager().delete(String.format("+id:%s", metadataId));
-        // _entityManager.flush();
-        // _entityManager.clear();
     }
 
     /**
@@ -1,5 +1,5 @@
 //=============================================================================
-//===	Copyright (C) 2001-2022 Food and Agriculture Organization of the
+//===	Copyright (C) 2001-2024 Food and Agriculture Organization of the
 //===	United Nations (FAO-UN), United Nations World Food Programme (WFP)
 //===	and United Nations Environment Programme (UNEP)
 //===
@@ -26,11 +26,13 @@ package org.fao.geonet.kernel.mef;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import jeeves.server.context.ServiceContext;
+import jeeves.transaction.TransactionManager;
+import jeeves.transaction.TransactionTask;
 import org.apache.commons.io.FileUtils;
 import org.fao.geonet.Constants;
 import org.fao.geonet.GeonetContext;
-import org.fao.geonet.ZipUtil;
 import org.fao.geonet.api.records.attachments.Store;
 import org.fao.geonet.api.records.attachments.StoreUtils;
 import org.fao.geonet.constants.Geonet;
@@ -40,26 +42,52 @@ import org.fao.geonet.kernel.datamanager.IMetadataUtils;
 import org.fao.geonet.kernel.mef.MEFLib.Format;
 import org.fao.geonet.kernel.mef.MEFLib.Version;
 import org.fao.geonet.kernel.search.EsSearchManager;
-import org.fao.geonet.kernel.setting.SettingInfo;
 import org.fao.geonet.lib.Lib;
 import org.fao.geonet.repository.MetadataRelationRepository;
 import org.fao.geonet.repository.MetadataRepository;
+import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.utils.Xml;
 import org.jdom.Element;
+import org.springframework.transaction.TransactionStatus;
 
-import java.nio.file.FileSystem;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.google.common.xml.XmlEscapers.xmlContentEscaper;
 import static org.fao.geonet.Constants.CHARSET;
 import static org.fao.geonet.kernel.mef.MEFConstants.*;
 
 class MEF2Exporter {
+    /**
+     * Maximum number of records rendered ahead of the one being written, per thread.
+     */
+    private static final int PENDING_RECORDS_PER_THREAD = 4;
+
+    /**
+     * Threads rendering the records, shared by all the exports so that concurrent exports do not
+     * add threads.
+     */
+    private static final int THREAD_COUNT = ThreadUtils.getNumberOfThreads();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT,
+        new ThreadFactoryBuilder().setNameFormat("mef2-export-%d").setDaemon(true).build());
+
     /**
      * Create a MEF2 file in ZIP format.
      *
@@ -86,104 +114,9 @@ class MEF2Exporter {
                                 boolean approved) throws Exception {
 
         Path file = Files.createTempFile("mef-", ".mef");
-        EsSearchManager searchManager = context.getBean(EsSearchManager.class);
-        String contextLang = context.getLanguage() == null ? Geonet.DEFAULT_LANGUAGE : context.getLanguage();
-        try (
-            FileSystem zipFs = ZipUtil.createZipFs(file)
-        ) {
-            StringBuilder csvBuilder = new StringBuilder("\"schema\";\"uuid\";\"id\";\"type\";\"isHarvested\";\"title\";\"abstract\"\n");
-            Element html = new Element("html").addContent(new Element("head").addContent(Arrays.asList(
-                new Element("title").setText("Export Index"),
-                new Element("link").setAttribute("rel", "stylesheet").
-                    setAttribute("href", "https://maxcdn.bootstrapcdn.com/bootstrap/3.3.4/css/bootstrap.min.css"),
-                new Element("style").setText("body {\n"
-                    + "  padding-left: 10px;\n"
-                    + "}\n"
-                    + "p.abstract {\n"
-                    + "  font-style: italic;\n"
-                    + "}\n"
-                    + ".entry {\n"
-                    + "  padding: 20px;\n"
-                    + "  margin: 20px 0;\n"
-                    + "  border: 1px solid #eee;\n"
-                    + "  border-left-width: 5px;\n"
-                    + "  border-radius: 3px;\n"
-                    + "  border-left-color: #1b809e;\n"
-                    + "}\n"
-                    + ".entry:hover {\n"
-                    + "  background-color: #f5f5f5;\n"
-                    + "}\n")
-            )));
-            Element body = new Element("body");
-            html.addContent(body);
-            for (String uuid : uuids) {
-                final String cleanUUID = cleanForCsv(uuid);
-
-                AbstractMetadata md = context.getBean(IMetadataUtils.class).findOneByUuid(uuid);
-
-                //Here we just care if we need the approved version explicitly.
-                //IMetadataUtils already filtered draft for non editors.
-
-                if (approved) {
-                    md = context.getBean(MetadataRepository.class).findOneByUuid(uuid);
-                }
-                String id = String.valueOf(md.getId());
-
-                int from = 0;
-                SettingInfo si = context.getBean(SettingInfo.class);
-                int size = Integer.parseInt(si.getSelectionMaxRecords());
-
-                final SearchResponse result = searchManager.query("+id:" + id, null, from, size);
-
-                String mdSchema = null, mdTitle = null, mdAbstract = null, isHarvested = null;
-                MetadataType mdType = null;
-
-                List<Hit> hits = result.hits().hits();
-                ObjectMapper objectMapper = new ObjectMapper();
-                final Map<String, Object> source = objectMapper.convertValue(hits.get(0).source(), Map.class);
-                mdSchema = (String) source.get(Geonet.IndexFieldNames.SCHEMA);
-                mdTitle = (String) source.get(Geonet.IndexFieldNames.RESOURCETITLE);
-                mdAbstract = (String) source.get(Geonet.IndexFieldNames.RESOURCEABSTRACT);
-                isHarvested = (String) source.get(Geonet.IndexFieldNames.IS_HARVESTED);
-                mdType = MetadataType.lookup(((String) source.get(Geonet.IndexFieldNames.IS_TEMPLATE)).charAt(0));
-
-                csvBuilder.append('"').
-                    append(cleanForCsv(mdSchema)).append("\";\"").
-                    append(cleanUUID).append("\";\"").
-                    append(cleanForCsv(id)).append("\";\"").
-                    append(mdType.toString()).append("\";\"").
-                    append(cleanForCsv(isHarvested)).append("\";\"").
-                    append(cleanForCsv(mdTitle)).append("\";\"").
-                    append(cleanForCsv(mdAbstract)).append("\"\n");
-
-                body.addContent(new Element("div").setAttribute("class", "entry").addContent(Arrays.asList(
-                    new Element("h4").setAttribute("class", "title").addContent(
-                        new Element("a").setAttribute("href", uuid).setText(cleanXml(mdTitle))),
-                    new Element("p").setAttribute("class", "abstract").setText(cleanXml(mdAbstract)),
-                    new Element("table").setAttribute("class", "table").addContent(Arrays.asList(
-                        new Element("thead").addContent(
-                            new Element("tr").addContent(Arrays.asList(
-                                new Element("th").setText("Internal ID"),
-                                new Element("th").setText("UUID"),
-                                new Element("th").setText("Type"),
-                                new Element("th").setText("Is harvested?")
-                            ))),
-                        new Element("tbody").addContent(
-                            new Element("tr").addContent(Arrays.asList(
-                                new Element("td").setAttribute("class", "id").setText(id),
-                                new Element("td").setAttribute("class", "uuid").setText(xmlContentEscaper().escape
-                                    (uuid)),
-                                new Element("td").setAttribute("class", "type").setText(mdType.toString()),
-                                new Element("td").setAttribute("class", "isHarvested").setText(isHarvested)
-                            )))
-                    ))
-                )));
-
-                createMetadataFolder(context, md, zipFs, skipUUID, stylePath,
-                    format, resolveXlink, removeXlinkAttribute, addSchemaLocation);
-            }
-            Files.write(zipFs.getPath("/index.csv"), csvBuilder.toString().getBytes(Constants.CHARSET));
-            Files.write(zipFs.getPath("/index.html"), Xml.getString(html).getBytes(Constants.CHARSET));
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            doExport(context, uuids, format, skipUUID, stylePath, resolveXlink, removeXlinkAttribute,
+                skipError, addSchemaLocation, approved, outputStream);
         } catch (Exception e) {
             FileUtils.deleteQuietly(file.toFile());
             throw e;
@@ -191,6 +124,210 @@ class MEF2Exporter {
         return file;
     }
 
+    /**
+     * Write a MEF2 file in ZIP format to an output stream.
+     *
+     * Records are rendered in parallel (formats, native XML, info file) and written to the ZIP in
+     * the order of the uuids set as soon as they are available, so the first bytes are sent
+     * without waiting for the whole export to be built. The output stream is not closed.
+     *
+     * @param uuids        List of records to export.
+     * @param format       {@link Format} to export.
+     * @param outputStream The stream to write the ZIP to.
+     */
+    public static void doExport(ServiceContext context, Set<String> uuids,
+                                Format format, boolean skipUUID, Path stylePath, boolean resolveXlink,
+                                boolean removeXlinkAttribute, boolean skipError, boolean addSchemaLocation,
+                                boolean approved, OutputStream outputStream) throws Exception {
+
+        StringBuilder csvBuilder = new StringBuilder("\"schema\";\"uuid\";\"id\";\"type\";\"isHarvested\";\"title\";\"abstract\"\n");
+        Element html = new Element("html").addContent(new Element("head").addContent(Arrays.asList(
+            new Element("title").setText("Export Index"),
+            new Element("link").setAttribute("rel", "stylesheet").
+                setAttribute("href", "https://maxcdn.bootstrapcdn.com/bootstrap/3.3.4/css/bootstrap.min.css"),
+            new Element("style").setText("body {\n"
+                + "  padding-left: 10px;\n"
+                + "}\n"
+                + "p.abstract {\n"
+                + "  font-style: italic;\n"
+                + "}\n"
+                + ".entry {\n"
+                + "  padding: 20px;\n"
+                + "  margin: 20px 0;\n"
+                + "  border: 1px solid #eee;\n"
+                + "  border-left-width: 5px;\n"
+                + "  border-radius: 3px;\n"
+                + "  border-left-color: #1b809e;\n"
+                + "}\n"
+                + ".entry:hover {\n"
+                + "  background-color: #f5f5f5;\n"
+                + "}\n")
+        )));
+        Element body = new Element("body");
+        html.addContent(body);
+
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream, CHARSET);
+        Deque<Future<ExportedRecord>> pending = new ArrayDeque<>();
+        try {
+            Iterator<String> uuidIterator = uuids.iterator();
+            while (uuidIterator.hasNext() || !pending.isEmpty()) {
+                while (uuidIterator.hasNext() && pending.size() < THREAD_COUNT * PENDING_RECORDS_PER_THREAD) {
+                    final String uuid = uuidIterator.next();
+                    pending.add(EXECUTOR.submit(() -> exportRecord(context, uuid, skipUUID, format,
+                        resolveXlink, removeXlinkAttribute, addSchemaLocation, approved)));
+                }
+
+                ExportedRecord record;
+                try {
+                    record = pending.poll().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() instanceof RuntimeException && e.getCause().getCause() instanceof Exception
+                        ? e.getCause().getCause() : e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+
+                csvBuilder.append(record.csvLine);
+                body.addContent(record.htmlEntry);
+                writeRecord(context, record, format, zipOutputStream);
+            }
+
+            writeEntry(zipOutputStream, "index.csv", csvBuilder.toString().getBytes(Constants.CHARSET));
+            writeEntry(zipOutputStream, "index.html", Xml.getString(html).getBytes(Constants.CHARSET));
+            zipOutputStream.finish();
+            zipOutputStream.flush();
+        } finally {
+            // Records not written, eg. when the export failed
+            pending.forEach(record -> record.cancel(true));
+        }
+    }
+
+    /**
+     * Render a record and its index entries. Runs in a worker thread.
+     */
+    private static ExportedRecord exportRecord(ServiceContext context, String uuid, boolean skipUUID, Format format,
+                                               boolean resolveXlink, boolean removeXlinkAttribute,
+                                               boolean addSchemaLocation, boolean approved) {
+        context.setAsThreadLocal();
+        try {
+            return TransactionManager.runInTransaction("mef2Export", context.getApplicationContext(),
+                TransactionManager.TransactionRequirement.CREATE_NEW,
+                TransactionManager.CommitBehavior.ONLY_COMMIT_NEWLY_CREATED_TRANSACTIONS, true,
+                new TransactionTask<ExportedRecord>() {
+                    @Override
+                    public ExportedRecord doInTransaction(TransactionStatus transaction) throws Throwable {
+                        return renderRecord(context, uuid, skipUUID, format, resolveXlink, removeXlinkAttribute,
+                            addSchemaLocation, approved);
+                    }
+                });
+        } finally {
+            // The thread is shared with the other exports
+            ServiceContext.clearAsThreadLocal();
+        }
+    }
+
+    private static ExportedRecord renderRecord(ServiceContext context, String uuid, boolean skipUUID, Format format,
+                                               boolean resolveXlink, boolean removeXlinkAttribute,
+                                               boolean addSchemaLocation, boolean approved) throws Exception {
+        EsSearchManager searchManager = context.getBean(EsSearchManager.class);
+        final String cleanUUID = cleanForCsv(uuid);
+
+        AbstractMetadata md = context.getBean(IMetadataUtils.class).findOneByUuid(uuid);
+
+        //Here we just care if we need the approved version explicitly.
+        //IMetadataUtils already filtered draft for non editors.
+
+        if (approved) {
+            md = context.getBean(MetadataRepository.class).findOneByUuid(uuid);
+        }
+        String id = String.valueOf(md.getId());
+
+        final SearchResponse result = searchManager.query("+id:" + id, null, 0, 1);
+
+        String mdSchema = null, mdTitle = null, mdAbstract = null, isHarvested = null;
+        MetadataType mdType = null;
+
+        List<Hit> hits = result.hits().hits();
+        ObjectMapper objectMapper = new ObjectMapper();
+        final Map<String, Object> source = objectMapper.convertValue(hits.get(0).source(), Map.class);
+        mdSchema = (String) source.get(Geonet.IndexFieldNames.SCHEMA);
+        mdTitle = (String) source.get(Geonet.IndexFieldNames.RESOURCETITLE);
+        mdAbstract = (String) source.get(Geonet.IndexFieldNames.RESOURCEABSTRACT);
+        isHarvested = (String) source.get(Geonet.IndexFieldNames.IS_HARVESTED);
+        mdType = MetadataType.lookup(((String) source.get(Geonet.IndexFieldNames.IS_TEMPLATE)).charAt(0));
+
+        ExportedRecord record = new ExportedRecord(md.getUuid());
+        record.csvLine = new StringBuilder().append('"').
+            append(cleanForCsv(mdSchema)).append("\";\"").
+            append(cleanUUID).append("\";\"").
+            append(cleanForCsv(id)).append("\";\"").
+            append(mdType.toString()).append("\";\"").
+            append(cleanForCsv(isHarvested)).append("\";\"").
+            append(cleanForCsv(mdTitle)).append("\";\"").
+            append(cleanForCsv(mdAbstract)).append("\"\n").toString();
+
+        record.htmlEntry = new Element("div").setAttribute("class", "entry").addContent(Arrays.asList(
+            new Element("h4").setAttribute("class", "title").addContent(
+                new Element("a").setAttribute("href", uuid).setText(cleanXml(mdTitle))),
+            new Element("p").setAttribute("class", "abstract").setText(cleanXml(mdAbstract)),
+            new Element("table").setAttribute("class", "table").addContent(Arrays.asList(
+                new Element("thead").addContent(
+                    new Element("tr").addContent(Arrays.asList(
+                        new Element("th").setText("Internal ID"),
+                        new Element("th").setText("UUID"),
+                        new Element("th").setText("Type"),
+                        new Element("th").setText("Is harvested?")
+                    ))),
+                new Element("tbody").addContent(
+                    new Element("tr").addContent(Arrays.asList(
+                        new Element("td").setAttribute("class", "id").setText(id),
+                        new Element("td").setAttribute("class", "uuid").setText(xmlContentEscaper().escape
+                            (uuid)),
+                        new Element("td").setAttribute("class", "type").setText(mdType.toString()),
+                        new Element("td").setAttribute("class", "isHarvested").setText(isHarvested)
+                    )))
+            ))
+        ));
+
+        createMetadataFolder(context, md, record, skipUUID,
+            format, resolveXlink, removeXlinkAttribute, addSchemaLocation);
+        return record;
+    }
+
+    /**
+     * Write the files of a record and its attachments in the ZIP.
+     */
+    private static void writeRecord(ServiceContext context, ExportedRecord record, Format format,
+                                    ZipOutputStream zipOutputStream) throws Exception {
+        final String metadataRootDir = record.uuid + "/";
+        writeDirectory(zipOutputStream, metadataRootDir);
+        writeDirectory(zipOutputStream, metadataRootDir + MD_DIR);
+        for (Pair<String, byte[]> file : record.files) {
+            writeEntry(zipOutputStream, metadataRootDir + file.one(), file.two());
+        }
+
+        // --- save thumbnails and maps
+        if (format == Format.PARTIAL || format == Format.FULL) {
+            StoreUtils.extract(context, record.uuid, record.publicResources, zipOutputStream, metadataRootDir + "public/", true);
+        }
+        if (record.privateResources != null) {
+            StoreUtils.extract(context, record.uuid, record.privateResources, zipOutputStream, metadataRootDir + "private/", true);
+        }
+    }
+
+    private static void writeDirectory(ZipOutputStream zipOutputStream, String name) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name.endsWith("/") ? name : name + "/"));
+        zipOutputStream.closeEntry();
+    }
+
+    private static void writeEntry(ZipOutputStream zipOutputStream, String name, byte[] data) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(data);
+        zipOutputStream.closeEntry();
+    }
+
     private static String cleanXml(String xmlTextContent) {
         if (xmlTextContent != null) {
             return xmlContentEscaper().escape(xmlTextContent);
@@ -210,54 +347,45 @@ class MEF2Exporter {
      * is based on an ISO profil, the stylesheet /convert/to19139.xsl is used to map to ISO. Both
      * files are included in MEF file. Export relevant information according to format parameter.
      *
-     * @param zipFs Zip file to add new record
+     * The files are collected in the exported record, attachments are only listed and are copied
+     * when the record is written to the ZIP.
+     *
+     * @param exportedRecord Exported record to add the files to
      */
     private static void createMetadataFolder(ServiceContext context,
-                                             AbstractMetadata metadata, FileSystem zipFs, boolean skipUUID,
-                                             Path stylePath, Format format, boolean resolveXlink,
+                                             AbstractMetadata metadata, ExportedRecord exportedRecord, boolean skipUUID,
+                                             Format format, boolean resolveXlink,
                                              boolean removeXlinkAttribute,
                                              boolean addSchemaLocation) throws Exception {
 
-        final Path metadataRootDir = zipFs.getPath(metadata.getUuid());
-        Files.createDirectories(metadataRootDir);
-
         Pair<AbstractMetadata, String> recordAndMetadataForExport =
             MEFLib.retrieveMetadata(context, metadata, resolveXlink, removeXlinkAttribute, addSchemaLocation);
         AbstractMetadata record = recordAndMetadataForExport.one();
         String xmlDocumentAsString = recordAndMetadataForExport.two();
 
         String id = "" + record.getId();
-        String isTemp = record.getDataInfo().getType().codeString;
 
-        final Path metadataXmlDir = metadataRootDir.resolve(MD_DIR);
-        Files.createDirectories(metadataXmlDir);
+        final String metadataXmlDir = MD_DIR + "/";
 
         for (Pair<String, String> output : ExportFormat.getFormats(context, record)) {
-            Files.write(metadataXmlDir.resolve(output.one()), output.two().getBytes(CHARSET));
+            exportedRecord.files.add(Pair.read(metadataXmlDir + output.one(), output.two().getBytes(CHARSET)));
         }
 
         // --- save native metadata
-        Files.write(metadataXmlDir.resolve(FILE_METADATA), xmlDocumentAsString.getBytes(CHARSET));
+        exportedRecord.files.add(Pair.read(metadataXmlDir + FILE_METADATA, xmlDocumentAsString.getBytes(CHARSET)));
 
 
         // --- save Feature Catalog
         String ftUUID = getFeatureCatalogID(context, record.getId());
         if (!ftUUID.equals("")) {
             Pair<AbstractMetadata, String> ftrecordAndMetadata = MEFLib.retrieveMetadata(context, record, resolveXlink, removeXlinkAttribute, addSchemaLocation);
-            Path featureMdDir = metadataRootDir.resolve(SCHEMA);
-            Files.createDirectories(featureMdDir);
-            Files.write(featureMdDir.resolve(FILE_METADATA), ftrecordAndMetadata.two().getBytes(CHARSET));
+            exportedRecord.files.add(Pair.read(SCHEMA + "/" + FILE_METADATA, ftrecordAndMetadata.two().getBytes(CHARSET)));
         }
 
         final Store store = context.getBean("resourceStore", Store.class);
         final List<MetadataResource> publicResources = store.getResources(context, metadata.getUuid(),
             MetadataResourceVisibility.PUBLIC, null, true);
-
-        // --- save thumbnails and maps
-
-        if (format == Format.PARTIAL || format == Format.FULL) {
-            StoreUtils.extract(context, metadata.getUuid(), publicResources, metadataRootDir.resolve("public"), true);
-        }
+        exportedRecord.publicResources = publicResources;
 
         List<MetadataResource> privateResources = null;
         if (format == Format.FULL) {
@@ -265,7 +393,7 @@ class MEF2Exporter {
                 Lib.resource.checkPrivilege(context, id, ReservedOperation.download);
                 privateResources = store.getResources(context, metadata.getUuid(),
                     MetadataResourceVisibility.PRIVATE, null, true);
-                StoreUtils.extract(context, metadata.getUuid(), privateResources, metadataRootDir.resolve("private"), true);
+                exportedRecord.privateResources = privateResources;
             } catch (Exception e) {
                 // Current user could not download private data
             }
@@ -275,7 +403,7 @@ class MEF2Exporter {
         byte[] binData = MEFLib.buildInfoFile(context, record, format, publicResources,
             privateResources, skipUUID).getBytes(Constants.ENCODING);
 
-        Files.write(metadataRootDir.resolve(FILE_INFO), binData);
+        exportedRecord.files.add(Pair.read(FILE_INFO, binData));
     }
 
     /**
@@ -302,4 +430,20 @@ class MEF2Exporter {
 
         return ftUuid != null ? ftUuid : "";
     }
+
+    /**
+     * A rendered record waiting to be written to the ZIP.
+     */
+    private static class ExportedRecord {
+        private final String uuid;
+        private final List<Pair<String, byte[]>> files = new ArrayList<>();
+        private String csvLine;
+        private Element htmlEntry;
+        private List<MetadataResource> publicResources = Collections.emptyList();
+        private List<MetadataResource> privateResources;
+
+        ExportedRecord(String uuid) {
+            this.uuid = uuid;
+        }
+    }
 }
@@ -148,6 +148,22 @@ public class MEFLib {
 
     // --------------------------------------------------------------------------
 
+    /**
+     * Write a MEF2 export to an output stream without creating a temporary file. The stream is
+     * not closed.
+     */
+    public static void doMEF2Export(ServiceContext context,
+                                    Set<String> uuids, String format, boolean skipUUID, Path stylePath, boolean resolveXlink,
+                                    boolean removeXlinkAttribute, boolean skipError, boolean addSchemaLocation,
+                                    boolean approved, OutputStream outputStream)
+        throws Exception {
+        MEF2Exporter.doExport(context, uuids, Format.parse(format),
+            skipUUID, stylePath, resolveXlink, removeXlinkAttribute,
+            skipError, addSchemaLocation, approved, outputStream);
+    }
+
+    // --------------------------------------------------------------------------
+
     public static void visit(Path mefFile, IVisitor visitor, IMEFVisitor v)
         throws Exception {
         visitor.visit(mefFile, v);
@@ -24,8 +24,6 @@
 package org.fao.geonet.kernel.oaipmh;
 
 import jeeves.constants.Jeeves;
-import jeeves.server.ServiceConfig;
-import jeeves.server.context.ServiceContext;
 
 import org.fao.geonet.utils.Xml;
 import org.fao.oaipmh.exceptions.OaiPmhException;
@@ -33,7 +31,6 @@ import org.jdom.Element;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
 
 //=============================================================================
 
@@ -45,7 +42,6 @@ public class Lib {
     //--- API methods
     //---
     //---------------------------------------------------------------------------
-    private static ServiceConfig dummyConfig = new ServiceConfig();
 
     //--------------------------------------------------------------------------
 
@@ -88,43 +84,6 @@ public class Lib {
         return Xml.transform(root, styleSheet);
     }
 
-    //---------------------------------------------------------------------------
-
-    public static List<Integer> search(ServiceContext context, Element params) throws Exception {
-        throw new UnsupportedOperationException("ES search does not support OAI yet");
-
-//        GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
-//        SearchManager sm = gc.getBean(SearchManager.class);
-//
-//        try (MetaSearcher searcher = sm.newSearcher(SearcherType.LUCENE, Geonet.File.SEARCH_LUCENE)) {
-//
-//            if (context.isDebugEnabled())
-//                context.debug("Searching with params:\n" + Xml.getString(params));
-//
-//            searcher.search(context, params, dummyConfig);
-//
-//            params.addContent(new Element("fast").setText("true"));
-//            params.addContent(new Element("from").setText("1"));
-//            params.addContent(new Element("to").setText(searcher.getSize() + ""));
-//
-//            context.info("Records found : " + searcher.getSize());
-//
-//            Element records = searcher.present(context, params, dummyConfig);
-//
-//            records.getChild("summary").detach();
-//
-//            List<Integer> result = new ArrayList<Integer>();
-//
-//            for (Object o : records.getChildren()) {
-//                Element rec = (Element) o;
-//                Element info = rec.getChild("info", Edit.NAMESPACE);
-//
-//                result.add(Integer.parseInt(info.getChildText("id")));
-//            }
-//            return result;
-//        }
-    }
-
     //---------------------------------------------------------------------------
     //---
     //--- Variables
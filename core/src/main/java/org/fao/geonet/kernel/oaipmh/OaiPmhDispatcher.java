@@ -37,7 +37,6 @@ import org.fao.geonet.kernel.oaipmh.services.ListRecords;
 import org.fao.geonet.kernel.oaipmh.services.ListSets;
 import org.fao.geonet.kernel.setting.SettingInfo;
 import org.fao.geonet.kernel.setting.SettingManager;
-import org.fao.geonet.utils.Log;
 import org.fao.geonet.utils.Xml;
 import org.fao.oaipmh.exceptions.BadArgumentException;
 import org.fao.oaipmh.exceptions.OaiPmhException;
@@ -47,7 +46,6 @@ import org.fao.oaipmh.server.OaiPmhFactory;
 import org.fao.oaipmh.util.Lib;
 import org.jdom.Element;
 
-import javax.annotation.PreDestroy;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
@@ -58,7 +56,6 @@ public class OaiPmhDispatcher {
 
     public static final int MODE_MODIFIDATE = 2;
     public static final int MODE_TEMPEXTEND = 1;
-    private ResumptionTokenCache cache;
 
     //---------------------------------------------------------------------------
     //---
@@ -70,13 +67,11 @@ public class OaiPmhDispatcher {
     //---------------------------------------------------------------------------
 
     public OaiPmhDispatcher(SettingManager sm, SchemaManager scm) {
-        cache = new ResumptionTokenCache(sm);
-
         register(new GetRecord());
         register(new Identify());
-        register(new ListIdentifiers(cache, sm, scm));
+        register(new ListIdentifiers(sm, scm));
         register(new ListMetadataFormats());
-        register(new ListRecords(cache, sm, scm));
+        register(new ListRecords(sm, scm));
         register(new ListSets());
     }
 
@@ -155,13 +150,6 @@ public class OaiPmhDispatcher {
             context.warning("OAI-PMH response does not validate : " + e.getMessage());
         }
     }
-
-    @PreDestroy
-    public void shutdown() {
-        Log.info(Log.ENGINE, "OaiPmhDispatcher#shutdown");
-        cache.stopRunning();
-        cache = null;
-    }
 }
 
 //=============================================================================
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.oaipmh;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jeeves.server.context.ServiceContext;
+import org.fao.geonet.NodeInfo;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.domain.ISODate;
+import org.fao.geonet.index.es.EsRestClient;
+import org.fao.geonet.kernel.search.EsFilterBuilder;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.utils.Log;
+import org.fao.oaipmh.exceptions.BadResumptionTokenException;
+import org.fao.oaipmh.responses.ResumptionToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.fao.geonet.constants.Geonet.IndexFieldNames.CAT;
+import static org.fao.geonet.constants.Geonet.IndexFieldNames.DATABASE_CHANGE_DATE;
+import static org.fao.geonet.constants.Geonet.IndexFieldNames.ID;
+import static org.fao.geonet.constants.Geonet.IndexFieldNames.SCHEMA;
+import static org.fao.geonet.constants.Geonet.IndexFieldNames.UUID;
+
+/**
+ * Search of the records of a ListIdentifiers or ListRecords request in the index.
+ * <p>
+ * Pages are retrieved with search after, sorted by record id, and the state of the search is
+ * encoded in the resumption token, so no state is kept on the server between requests. When the
+ * result has more than one page, a point in time is opened so that all pages are taken from the
+ * same view of the index. If the point in time expired, the search goes on without it.
+ */
+public class OaiPmhSearch {
+    private static final String TEMPORAL_EXTENT_FIELD = "resourceTemporalDateRange";
+
+    private static final Set<String> FIELDS = Set.of(ID, UUID, SCHEMA, DATABASE_CHANGE_DATE, CAT);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String prefix;
+    private final String set;
+    private final String from;
+    private final String until;
+    private String pointInTimeId;
+    private String lastId;
+    private int cursor;
+    private long total;
+    private int pageSize;
+
+    public OaiPmhSearch(String prefix, String set, ISODate from, ISODate until) {
+        this(prefix, set, from == null ? null : from.toString(), until == null ? null : until.toString());
+    }
+
+    private OaiPmhSearch(String prefix, String set, String from, String until) {
+        this.prefix = prefix;
+        this.set = set;
+        this.from = from;
+        this.until = until;
+    }
+
+    /**
+     * Resume a search from a resumption token.
+     */
+    public static OaiPmhSearch parse(String token) throws BadResumptionTokenException {
+        try {
+            JsonNode state = MAPPER.readTree(Base64.getUrlDecoder().decode(token));
+            OaiPmhSearch search = new OaiPmhSearch(state.get("prefix").asText(),
+                textOrNull(state, "set"), textOrNull(state, "from"), textOrNull(state, "until"));
+            search.pointInTimeId = textOrNull(state, "pit");
+            search.lastId = state.get("after").asText();
+            search.cursor = state.get("cursor").asInt();
+            search.total = state.get("total").asLong();
+            return search;
+        } catch (Exception e) {
+            throw new BadResumptionTokenException(token);
+        }
+    }
+
+    private static String textOrNull(JsonNode state, String name) {
+        JsonNode value = state.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Retrieve the next page of records.
+     *
+     * @param schemas      the schemas of the records which can be disseminated with the prefix
+     * @param mode         {@link OaiPmhDispatcher#MODE_MODIFIDATE} or {@link OaiPmhDispatcher#MODE_TEMPEXTEND}
+     * @param size         the maximum number of records of the page
+     * @param keepAliveSec how long the resumption token is valid
+     */
+    public List<Record> next(ServiceContext context, List<String> schemas, int mode, int size, long keepAliveSec) throws Exception {
+        if (schemas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        EsSearchManager searchManager = context.getBean(EsSearchManager.class);
+        EsRestClient client = searchManager.getClient();
+        String index = searchManager.getDefaultIndex();
+        String keepAlive = keepAliveSec + "s";
+        String query = buildQuery(context, schemas, mode);
+        List<SortOptions> sort = List.of(SortOptions.of(s -> s.field(f -> f.field(ID).order(SortOrder.Asc))));
+        List<FieldValue> searchAfter = lastId == null ? null : List.of(FieldValue.of(lastId));
+
+        SearchResponse<ObjectNode> response;
+        try {
+            response = client.searchAfter(index, pointInTimeId, keepAlive, query, FIELDS, sort, searchAfter, size);
+        } catch (ElasticsearchException e) {
+            if (pointInTimeId == null) {
+                throw e;
+            }
+            Log.warning(Geonet.OAI_HARVESTER, "OAI search: point in time not available anymore, searching the index. Error is: " + e.getMessage());
+            pointInTimeId = null;
+            response = client.searchAfter(index, null, keepAlive, query, FIELDS, sort, searchAfter, size);
+        }
+
+        if (lastId == null) {
+            total = response.hits().total().value();
+        }
+        if (response.pitId() != null) {
+            pointInTimeId = response.pitId();
+        }
+
+        List<Record> records = new ArrayList<>();
+        for (Hit<ObjectNode> hit : response.hits().hits()) {
+            records.add(new Record(hit.source()));
+        }
+        if (!records.isEmpty()) {
+            lastId = records.get(records.size() - 1).getId() + "";
+        }
+        cursor += records.size();
+        pageSize = records.size();
+
+        if (hasMore()) {
+            if (pointInTimeId == null && cursor == records.size()) {
+                pointInTimeId = client.openPointInTime(index, keepAlive);
+            }
+        } else if (pointInTimeId != null) {
+            try {
+                client.closePointInTime(pointInTimeId);
+            } catch (Exception e) {
+                Log.debug(Geonet.OAI_HARVESTER, "OAI search: can't close point in time. Error is: " + e.getMessage());
+            }
+            pointInTimeId = null;
+        }
+        return records;
+    }
+
+    private boolean hasMore() {
+        return pageSize > 0 && cursor < total;
+    }
+
+    /**
+     * @return the token to retrieve the next page, an empty token for the last page
+     */
+    public ResumptionToken getResumptionToken(long keepAliveSec) {
+        ResumptionToken token = new ResumptionToken();
+        if (hasMore()) {
+            ObjectNode state = MAPPER.createObjectNode();
+            state.put("prefix", prefix);
+            state.put("set", set);
+            state.put("from", from);
+            state.put("until", until);
+            state.put("pit", pointInTimeId);
+            state.put("after", lastId);
+            state.put("cursor", cursor);
+            state.put("total", total);
+            token.setToken(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(state.toString().getBytes(StandardCharsets.UTF_8)));
+            token.setExpirDate(new ISODate(System.currentTimeMillis() + keepAliveSec * 1000, false));
+        } else {
+            token.setToken("");
+        }
+        token.setCompleteListSize((int) total);
+        token.setCursor(cursor - pageSize);
+        return token;
+    }
+
+    /**
+     * @return true if the result needs more than one page
+     */
+    public boolean isPaged() {
+        return cursor > pageSize || hasMore();
+    }
+
+    private String buildQuery(ServiceContext context, List<String> schemas, int mode) throws Exception {
+        StringBuilder query = new StringBuilder();
+        query.append(EsFilterBuilder.build(context, "metadata", false, context.getBean(NodeInfo.class)));
+
+        query.append(" AND ").append(SCHEMA).append(":(")
+            .append(schemas.stream().map(OaiPmhSearch::quote).collect(Collectors.joining(" OR ")))
+            .append(")");
+
+        if (set != null) {
+            query.append(" AND ").append(CAT).append(":").append(quote(set));
+        }
+
+        if (from != null || until != null) {
+            String field = mode == OaiPmhDispatcher.MODE_TEMPEXTEND ? TEMPORAL_EXTENT_FIELD : DATABASE_CHANGE_DATE;
+            // A date without time includes the whole day
+            String upperBound = until == null ? "*" : quote(until.contains("T") ? until : until + "||/d");
+            query.append(" AND ").append(field).append(":[")
+                .append(from == null ? "*" : quote(from))
+                .append(" TO ").append(upperBound).append("]");
+        }
+        return query.toString();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * The fields of a record in the index needed to build OAI-PMH headers.
+     */
+    public static class Record {
+        private final int id;
+        private final String uuid;
+        private final String schema;
+        private final ISODate changeDate;
+        private final List<String> sets = new ArrayList<>();
+
+        Record(ObjectNode source) {
+            id = source.get(ID).asInt();
+            uuid = source.get(UUID).asText();
+            schema = source.get(SCHEMA).asText();
+            JsonNode date = source.get(DATABASE_CHANGE_DATE);
+            changeDate = date == null ? null : new ISODate(date.asText());
+            JsonNode categories = source.get(CAT);
+            if (categories != null && categories.isArray()) {
+                categories.forEach(c -> sets.add(c.asText()));
+            } else if (categories != null) {
+                sets.add(categories.asText());
+            }
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getSchema() {
+            return schema;
+        }
+
+        public ISODate getChangeDate() {
+            return changeDate;
+        }
+
+        public List<String> getSets() {
+            return sets;
+        }
+    }
+}
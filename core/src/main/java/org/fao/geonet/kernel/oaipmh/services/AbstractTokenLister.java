@@ -27,22 +27,17 @@ import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.domain.ISODate;
 import org.fao.geonet.kernel.SchemaManager;
 import org.fao.geonet.kernel.oaipmh.Lib;
-import org.fao.geonet.kernel.oaipmh.OaiPmhDispatcher;
+import org.fao.geonet.kernel.oaipmh.OaiPmhSearch;
 import org.fao.geonet.kernel.oaipmh.OaiPmhService;
-import org.fao.geonet.kernel.oaipmh.ResumptionTokenCache;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
 import org.fao.geonet.utils.Log;
 import org.fao.oaipmh.exceptions.BadArgumentException;
-import org.fao.oaipmh.exceptions.BadResumptionTokenException;
 import org.fao.oaipmh.exceptions.NoRecordsMatchException;
 import org.fao.oaipmh.requests.AbstractRequest;
 import org.fao.oaipmh.requests.TokenListRequest;
 import org.fao.oaipmh.responses.AbstractResponse;
-import org.fao.oaipmh.responses.GeonetworkResumptionToken;
 import org.fao.oaipmh.responses.ListResponse;
-import org.fao.oaipmh.util.SearchResult;
-import org.jdom.Element;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -52,13 +47,10 @@ import jeeves.server.context.ServiceContext;
 
 public abstract class AbstractTokenLister implements OaiPmhService {
 
-    protected ResumptionTokenCache cache;
-
     private SettingManager settingMan;
     private SchemaManager schemaMan;
 
-    public AbstractTokenLister(ResumptionTokenCache cache, SettingManager sm, SchemaManager scm) {
-        this.cache = cache;
+    public AbstractTokenLister(SettingManager sm, SchemaManager scm) {
         this.settingMan = sm;
         this.schemaMan = scm;
     }
@@ -79,31 +71,10 @@ public abstract class AbstractTokenLister implements OaiPmhService {
     }
 
     /**
-     * Get the dateFrom Possible values are taken from the LuceneQueryBuilder class (hard coding)
-     *
-     * @return the dateFrom
-     */
-    public String getDateFrom() {
-        // Default mode is set to OaiPmhDispatcher.MODE_MODIFIDATE
-        String dateFrom = "dateFrom";
-        if (getMode() == OaiPmhDispatcher.MODE_TEMPEXTEND) {
-            dateFrom = "extFrom";
-        }
-        return dateFrom;
-    }
-
-    /**
-     * Get the dateUntil Possible values are taken from the LuceneQueryBuilder class (hard coding)
-     *
-     * @return the dateUntil
+     * @return how long a resumption token is valid, in seconds
      */
-    public String getDateUntil() {
-        // Default mode is set to OaiPmhDispatcher.MODE_MODIFIDATE
-        String dateUntil = "dateTo";
-        if (getMode() == OaiPmhDispatcher.MODE_TEMPEXTEND) {
-            dateUntil = "extTo";
-        }
-        return dateUntil;
+    public long getTokenTimeout() {
+        return settingMan.getValueAsInt(Settings.SYSTEM_OAI_TOKENTIMEOUT);
     }
 
     public AbstractResponse execute(AbstractRequest request,
@@ -114,107 +85,57 @@ public abstract class AbstractTokenLister implements OaiPmhService {
 
         TokenListRequest req = (TokenListRequest) request;
 
-        //UserSession  session = context.getUserSession();
-        SearchResult result;
-
-        //String token = req.getResumptionToken();
         String strToken = req.getResumptionToken();
-        GeonetworkResumptionToken token = null;
-
-
-        int pos = 0;
+        OaiPmhSearch search;
 
         if (strToken == null) {
             if (Log.isDebugEnabled(Geonet.OAI_HARVESTER))
                 Log.debug(Geonet.OAI_HARVESTER, "OAI " + this.getClass().getSimpleName() + " : new request (no resumptionToken)");
-            Element params = new Element("request");
 
             ISODate from = req.getFrom();
             ISODate until = req.getUntil();
-            String set = req.getSet();
-            String prefix = req.getMetadataPrefix();
-
-            if (from != null) {
-                String sFrom = from.isDateOnly() ? from.getDateAsString() : from.toString();
-                params.addContent(new Element(getDateFrom()).setText(sFrom));
-            }
-
-            if (until != null) {
-                String sTo = until.isDateOnly() ? until.getDateAsString() : until.toString();
-                params.addContent(new Element(getDateUntil()).setText(sTo));
-            }
 
             if (from != null && until != null && from.timeDifferenceInSeconds(until) > 0)
                 throw new BadArgumentException("From is greater than until");
 
-            if (set != null)
-                params.addContent(new Element("category").setText(set));
-
-            params.addContent(new Element("_schema").setText(prefix));
-
-            // now do the search
-            result = new SearchResult(prefix);
-            if (schemaMan.existsSchema(prefix)) {
-                result.setIds(Lib.search(context, params));
-            } else {
-                // collect up all the schemas that we can convert to create prefix,
-                // search ids and add to the result set
-                List<String> schemas = getSchemasThatCanConvertTo(prefix);
-                for (String schema : schemas) {
-                    params.removeChild("_schema");
-                    params.addContent(new Element("_schema").setText(schema));
-                    result.addIds(Lib.search(context, (Element) params.clone()));
-                }
-                if (schemas.size() == 0) result.setIds(new ArrayList<Integer>());
-            }
-
-            if (result.getIds().size() == 0)
-                throw new NoRecordsMatchException("No results");
-
-            // we only need a new token if the result set is big enough
-            if (result.getIds().size() > getMaxRecords()) {
-                token = new GeonetworkResumptionToken(req, result);
-                cache.storeResumptionToken(token);
-            }
-
+            search = new OaiPmhSearch(req.getMetadataPrefix(), req.getSet(), from, until);
         } else {
-            //result = (SearchResult) session.getProperty(Lib.SESSION_OBJECT);
-            token = cache.getResumptionToken(GeonetworkResumptionToken.buildKey(req));
             if (Log.isDebugEnabled(Geonet.OAI_HARVESTER))
-                Log.debug(Geonet.OAI_HARVESTER, "OAI ListRecords : using ResumptionToken :" + GeonetworkResumptionToken.buildKey(req));
+                Log.debug(Geonet.OAI_HARVESTER, "OAI " + this.getClass().getSimpleName() + " : using ResumptionToken :" + strToken);
 
-            if (token == null)
-                throw new BadResumptionTokenException("No session for token : " + GeonetworkResumptionToken.buildKey(req));
-
-            result = token.getRes();
-
-            //pos = result.parseToken(token);
-            pos = GeonetworkResumptionToken.getPos(req);
+            // The token holds the state of the search, nothing is kept on the server
+            search = OaiPmhSearch.parse(strToken);
         }
 
-        ListResponse res = processRequest(req, pos, result, context);
-        pos = pos + res.getSize();
+        // the schemas of the prefix and all the schemas that we can convert to create prefix
+        List<OaiPmhSearch.Record> records = search.next(context, getSchemasFor(search.getPrefix()),
+            getMode(), getMaxRecords(), getTokenTimeout());
 
-        if (token == null && res.getSize() == 0)
+        if (strToken == null && records.isEmpty())
             throw new NoRecordsMatchException("No results");
 
-        //result.setupToken(res, pos);
-        if (token != null) token.setupToken(pos);
-        res.setResumptionToken(token);
-
-        return res;
+        ListResponse res = processRequest(req, search.getPrefix(), records, context);
 
+        // we only need a token if the result set is bigger than one page
+        if (search.isPaged()) {
+            res.setResumptionToken(search.getResumptionToken(getTokenTimeout()));
+        }
 
+        return res;
     }
 
     //---------------------------------------------------------------------------
 
     /**
-     * Get list of schemas that can convert to the prefix
+     * Get list of schemas that are the prefix or can convert to the prefix
      */
 
-    private List<String> getSchemasThatCanConvertTo(String prefix) {
+    private List<String> getSchemasFor(String prefix) {
         List<String> result = new ArrayList<String>();
+        if (schemaMan.existsSchema(prefix)) {
+            result.add(prefix);
+            return result;
+        }
         for (String schema : schemaMan.getSchemas()) {
             if (Lib.existsConverter(schemaMan.getSchemaDir(schema), prefix)) {
                 result.add(schema);
@@ -225,6 +146,6 @@ public abstract class AbstractTokenLister implements OaiPmhService {
 
     public abstract String getVerb();
 
-    public abstract ListResponse processRequest(TokenListRequest req, int pos, SearchResult result, ServiceContext context) throws Exception;
+    public abstract ListResponse processRequest(TokenListRequest req, String prefix, List<OaiPmhSearch.Record> records, ServiceContext context) throws Exception;
 
 }
@@ -60,13 +60,18 @@ public class GetRecord implements OaiPmhService {
     // function builds a OAI records from a metadata record, according to the arguments select and selectVal
     public static Record buildRecordStat(ServiceContext context, Specification<Metadata> spec/*String select, Object selectVal*/,
                                          String prefix) throws Exception {
-        GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
-        SchemaManager sm = gc.getBean(SchemaManager.class);
-
         AbstractMetadata metadata = context.getBean(IMetadataUtils.class).findOne(spec);
         if (metadata == null)
             throw new IdDoesNotExistException(spec.toString());
 
+        return buildRecordStat(context, metadata, prefix);
+    }
+
+    // function builds a OAI records from a metadata record
+    public static Record buildRecordStat(ServiceContext context, AbstractMetadata metadata, String prefix) throws Exception {
+        GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
+        SchemaManager sm = gc.getBean(SchemaManager.class);
+
         String uuid = metadata.getUuid();
         final MetadataDataInfo dataInfo = metadata.getDataInfo();
         String schema = dataInfo.getSchemaId();
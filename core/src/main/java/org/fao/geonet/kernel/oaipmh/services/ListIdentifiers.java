@@ -23,30 +23,24 @@
 
 package org.fao.geonet.kernel.oaipmh.services;
 
-import org.fao.geonet.GeonetContext;
-import org.fao.geonet.constants.Geonet;
-import org.fao.geonet.domain.AbstractMetadata;
-import org.fao.geonet.domain.ISODate;
-import org.fao.geonet.domain.MetadataCategory;
 import org.fao.geonet.kernel.SchemaManager;
-import org.fao.geonet.kernel.datamanager.IMetadataUtils;
-import org.fao.geonet.kernel.oaipmh.Lib;
-import org.fao.geonet.kernel.oaipmh.ResumptionTokenCache;
+import org.fao.geonet.kernel.oaipmh.OaiPmhSearch;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.oaipmh.requests.ListIdentifiersRequest;
 import org.fao.oaipmh.requests.TokenListRequest;
 import org.fao.oaipmh.responses.Header;
 import org.fao.oaipmh.responses.ListIdentifiersResponse;
 import org.fao.oaipmh.responses.ListResponse;
-import org.fao.oaipmh.util.SearchResult;
+
+import java.util.List;
 
 import jeeves.server.context.ServiceContext;
 
 //=============================================================================
 
 public class ListIdentifiers extends AbstractTokenLister {
-    public ListIdentifiers(ResumptionTokenCache cache, SettingManager sm, SchemaManager scm) {
-        super(cache, sm, scm);
+    public ListIdentifiers(SettingManager sm, SchemaManager scm) {
+        super(sm, scm);
     }
 
     public String getVerb() {
@@ -59,24 +53,13 @@ public class ListIdentifiers extends AbstractTokenLister {
     //---
     //---------------------------------------------------------------------------
 
-    public ListResponse processRequest(TokenListRequest req, int pos, SearchResult result, ServiceContext context) throws Exception {
+    public ListResponse processRequest(TokenListRequest req, String prefix, List<OaiPmhSearch.Record> records, ServiceContext context) throws Exception {
 
-        //--- loop to retrieve metadata
+        //--- headers are built from the index, no need to load the records
         ListIdentifiersResponse res = new ListIdentifiersResponse();
 
-        int num = 0;
-
-        while (num < getMaxRecords() && pos < result.getIds().size()) {
-            int id = result.getIds().get(pos);
-
-            Header h = buildHeader(context, id, result.prefix);
-
-            if (h != null) {
-                res.addHeader(h);
-                num++;
-            }
-
-            pos++;
+        for (OaiPmhSearch.Record record : records) {
+            res.addHeader(buildHeader(record));
         }
 
         return res;
@@ -90,41 +73,18 @@ public class ListIdentifiers extends AbstractTokenLister {
     //---
     //---------------------------------------------------------------------------
 
-    private Header buildHeader(ServiceContext context, int id, String prefix) throws Exception {
-        GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
-        SchemaManager sm = gc.getBean(SchemaManager.class);
-
-        final AbstractMetadata metadata = gc.getBean(IMetadataUtils.class).findOne(id);
-
-        //--- maybe the metadata has been removed
-
-        if (metadata == null) {
-            return null;
-        }
-
-        String uuid = metadata.getUuid();
-        String schema = metadata.getDataInfo().getSchemaId();
-        ISODate changeDate = metadata.getDataInfo().getChangeDate();
-
-        //--- try to disseminate format if not by schema then by conversion
-
-        if (!prefix.equals(schema)) {
-            if (!Lib.existsConverter(sm.getSchemaDir(schema), prefix)) {
-                return null;
-            }
-        }
-
+    private Header buildHeader(OaiPmhSearch.Record record) {
         //--- build header and set some infos
 
         Header h = new Header();
 
-        h.setIdentifier(uuid);
-        h.setDateStamp(changeDate);
+        h.setIdentifier(record.getUuid());
+        h.setDateStamp(record.getChangeDate());
 
-        //--- find and add categories (here called sets)
+        //--- add categories (here called sets)
 
-        for (MetadataCategory category : metadata.getCategories()) {
-            h.addSet(category.getName());
+        for (String set : record.getSets()) {
+            h.addSet(set);
         }
 
         return h;
@@ -132,4 +92,3 @@ public class ListIdentifiers extends AbstractTokenLister {
 }
 
 //=============================================================================
-
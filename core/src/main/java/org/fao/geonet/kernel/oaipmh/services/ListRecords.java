@@ -24,20 +24,21 @@
 package org.fao.geonet.kernel.oaipmh.services;
 
 
-import static org.fao.geonet.repository.specification.MetadataSpecs.hasMetadataId;
-
-import org.fao.geonet.domain.Metadata;
+import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.kernel.SchemaManager;
-import org.fao.geonet.kernel.oaipmh.ResumptionTokenCache;
+import org.fao.geonet.kernel.datamanager.IMetadataUtils;
+import org.fao.geonet.kernel.oaipmh.OaiPmhSearch;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.oaipmh.exceptions.CannotDisseminateFormatException;
-import org.fao.oaipmh.exceptions.IdDoesNotExistException;
 import org.fao.oaipmh.requests.ListRecordsRequest;
 import org.fao.oaipmh.requests.TokenListRequest;
 import org.fao.oaipmh.responses.ListRecordsResponse;
 import org.fao.oaipmh.responses.Record;
-import org.fao.oaipmh.util.SearchResult;
-import org.springframework.data.jpa.domain.Specification;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import jeeves.server.context.ServiceContext;
 
@@ -46,8 +47,8 @@ import jeeves.server.context.ServiceContext;
 public class ListRecords extends AbstractTokenLister {
 
 
-    public ListRecords(ResumptionTokenCache cache, SettingManager sm, SchemaManager scm) {
-        super(cache, sm, scm);
+    public ListRecords(SettingManager sm, SchemaManager scm) {
+        super(sm, scm);
     }
 
     public String getVerb() {
@@ -61,24 +62,26 @@ public class ListRecords extends AbstractTokenLister {
     //---------------------------------------------------------------------------
 
 
-    public ListRecordsResponse processRequest(TokenListRequest req, int pos, SearchResult result, ServiceContext context) throws Exception {
+    public ListRecordsResponse processRequest(TokenListRequest req, String prefix, List<OaiPmhSearch.Record> records, ServiceContext context) throws Exception {
 
-        int num = 0;
         ListRecordsResponse res = new ListRecordsResponse();
 
-        //--- loop to retrieve metadata
+        //--- load the records of the page at once
+
+        Map<Integer, AbstractMetadata> metadataById = new HashMap<>();
+        for (AbstractMetadata metadata : context.getBean(IMetadataUtils.class).findAll(
+            records.stream().map(OaiPmhSearch.Record::getId).collect(Collectors.toSet()))) {
+            metadataById.put(metadata.getId(), metadata);
+        }
 
-        while (num < getMaxRecords() && pos < result.getIds().size()) {
-            int id = result.getIds().get(pos);
+        //--- loop to convert metadata, in the order of the search
 
-            Record r = buildRecord(context, id, result.prefix);
+        for (OaiPmhSearch.Record record : records) {
+            Record r = buildRecord(context, metadataById.get(record.getId()), prefix);
 
             if (r != null) {
                 res.addRecord(r);
-                num++;
             }
-
-            pos++;
         }
 
         return res;
@@ -91,22 +94,23 @@ public class ListRecords extends AbstractTokenLister {
     //---
     //---------------------------------------------------------------------------
 
-    private Record buildRecord(ServiceContext context, int id, String prefix) throws Exception {
+    private Record buildRecord(ServiceContext context, AbstractMetadata metadata, String prefix) throws Exception {
+
+        //--- maybe the metadata has been removed since it was indexed
+
+        if (metadata == null) {
+            return null;
+        }
 
         // have to catch exceptions and return null because this function can
         // be called several times for a list of MD records
         // and we do not want to stop because of one error
         try {
-            return GetRecord.buildRecordStat(context, (Specification<Metadata>)hasMetadataId(id), prefix);
-        } catch (IdDoesNotExistException e) {
+            return GetRecord.buildRecordStat(context, metadata, prefix);
+        } catch (CannotDisseminateFormatException e) {
             return null;
-        } catch (CannotDisseminateFormatException e2) {
-            return null;
-        } catch (Exception e3) {
-            throw e3;
         }
     }
 }
 
 //=============================================================================
-
@@ -28,6 +28,7 @@ import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch.core.*;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.bulk.UpdateOperation;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.indices.ExistsRequest;
 import co.elastic.clients.elasticsearch.indices.*;
@@ -71,6 +72,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.fao.geonet.constants.Geonet.IndexFieldNames.IS_TEMPLATE;
 import static org.fao.geonet.kernel.search.IndexFields.*;
@@ -87,6 +89,8 @@ public class EsSearchManager implements ISearchManager {
     public static final String FIELDNAME = "name";
     public static final String FIELDSTRING = "string";
 
+    private static final int DELETE_CHUNK_SIZE = 200;
+
     public static final Map<String, String> RELATED_INDEX_FIELDS;
     public static final Set<String> FIELDLIST_CORE;
     public static final Set<String> FIELDLIST_RELATED;
@@ -351,6 +355,37 @@ public class EsSearchManager implements ISearchManager {
     }
 
     public BulkResponse updateFields(String id, Map<String, Object> fieldMap, Set<String> fieldsToRemove) throws IOException {
+        BulkRequest bulkRequest = BulkRequest.of(
+            b -> b.index(defaultIndex)
+                .operations(buildUpdateFieldsOperations(id, fieldMap, fieldsToRemove))
+        );
+
+        return client.getClient().bulk(bulkRequest);
+    }
+
+    /**
+     * Update fields of many documents using one bulk request.
+     *
+     * @param fieldsById          the fields to set for each document id.
+     * @param fieldsToRemoveById  the fields to remove for each document id.
+     *                            Documents without fields to remove may be omitted.
+     */
+    public BulkResponse updateFields(Map<String, Map<String, Object>> fieldsById,
+                                     Map<String, Set<String>> fieldsToRemoveById) throws IOException {
+        List<BulkOperation> bulkOperationList = new ArrayList<>();
+        fieldsById.forEach((id, fieldMap) ->
+            bulkOperationList.addAll(buildUpdateFieldsOperations(id, fieldMap,
+                fieldsToRemoveById.getOrDefault(id, Collections.emptySet()))));
+
+        BulkRequest bulkRequest = BulkRequest.of(
+            b -> b.index(defaultIndex)
+                .operations(bulkOperationList)
+        );
+
+        return client.getClient().bulk(bulkRequest);
+    }
+
+    private List<BulkOperation> buildUpdateFieldsOperations(String id, Map<String, Object> fieldMap, Set<String> fieldsToRemove) {
         fieldMap.put(Geonet.IndexFieldNames.INDEXING_DATE, new Date());
 
         StringBuilder scriptSource = new StringBuilder();
@@ -381,13 +416,7 @@ public class EsSearchManager implements ISearchManager {
         List<BulkOperation> bulkOperationList = new ArrayList<>();
         bulkOperationList.add(BulkOperation.of(b -> b.update(deleteFieldsOperation)));
         bulkOperationList.add(BulkOperation.of(b -> b.update(addFieldRequestOperation)));
-
-        BulkRequest bulkRequest = BulkRequest.of(
-            b -> b.index(defaultIndex)
-                .operations(bulkOperationList)
-        );
-
-        return client.getClient().bulk(bulkRequest);
+        return bulkOperationList;
     }
 
     public void updateFieldsAsynch(String id, Map<String, Object> fields) {
@@ -410,6 +439,50 @@ public class EsSearchManager implements ISearchManager {
             });
     }
 
+    /**
+     * Update fields of many documents using one bulk request of partial updates.
+     *
+     * @param fieldsById the fields to set for each document id.
+     */
+    public void updateFieldsAsynch(Map<String, Map<String, Object>> fieldsById) {
+        if (fieldsById.isEmpty()) {
+            return;
+        }
+
+        List<BulkOperation> bulkOperationList = new ArrayList<>(fieldsById.size());
+        fieldsById.forEach((id, fields) -> {
+            Map<String, Object> updates = new HashMap<>(fields.size() + 1);
+            fields.forEach((field, value) -> updates.put(getPropertyName(field), value));
+            updates.put(Geonet.IndexFieldNames.INDEXING_DATE, new Date());
+
+            UpdateOperation updateOperation = UpdateOperation.of(
+                b -> b.id(id)
+                    .index(defaultIndex)
+                    .action(action -> action.doc(updates))
+            );
+            bulkOperationList.add(BulkOperation.of(b -> b.update(updateOperation)));
+        });
+
+        BulkRequest bulkRequest = BulkRequest.of(
+            b -> b.index(defaultIndex)
+                .operations(bulkOperationList)
+        );
+
+        client.getAsynchClient()
+            .bulk(bulkRequest)
+            .whenComplete((response, exception) -> {
+                if (exception != null) {
+                    LOGGER.error("Failed to update fields of {} documents", fieldsById.size(), exception);
+                } else if (response.errors()) {
+                    LOGGER.warn("Failed to update fields of {} documents out of {}",
+                        response.items().stream().filter(i -> i.error() != null).count(),
+                        fieldsById.size());
+                } else {
+                    LOGGER.info("Updated fields for {} documents", fieldsById.size());
+                }
+            });
+    }
+
     public UpdateResponse updateField(String id, String field, Object value) throws Exception {
         Map<String, Object> updates = new HashMap<>(2);
         updates.put(getPropertyName(field), value);
@@ -804,6 +877,18 @@ public class EsSearchManager implements ISearchManager {
         return client.query(defaultIndex, luceneQuery, filterQuery, includedFields, scriptedFields, from, size);
     }
 
+    /**
+     * Run the queries in one multi search request.
+     *
+     * @return the responses in the order of the queries
+     */
+    public List<MultiSearchResponseItem<ObjectNode>> multiQuery(List<String> luceneQueries, String filterQuery,
+                                                                Set<String> includedFields,
+                                                                Map<String, String> scriptedFields,
+                                                                int from, int size) throws Exception {
+        return client.multiQuery(defaultIndex, luceneQueries, filterQuery, includedFields, scriptedFields, from, size);
+    }
+
     public SearchResponse query(JsonNode jsonRequest, Set<String> includedFields,
                                 int from, int size, List<SortOptions> sort) throws Exception {
         // TODO: Review postFilterBuilder
@@ -884,15 +969,17 @@ public class EsSearchManager implements ISearchManager {
         client.deleteByQuery(defaultIndex, txt);
     }
 
+    /**
+     * Delete documents with one delete by query request per chunk of ids. The query
+     * is sent in the request URL so chunks are kept small.
+     */
     @Override
     public void delete(List<Integer> metadataIds) throws Exception {
-        metadataIds.forEach(metadataId -> {
-            try {
-                this.delete(String.format("+id:%d", metadataId));
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        for (List<Integer> chunk : Lists.partition(metadataIds, DELETE_CHUNK_SIZE)) {
+            this.delete(chunk.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(" ", "+id:(", ")")));
+        }
     }
 
     public long getNumDocs(String query) throws Exception {
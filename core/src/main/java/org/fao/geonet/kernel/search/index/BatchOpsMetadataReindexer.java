@@ -44,32 +44,28 @@ package org.fao.geonet.kernel.search.index;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalNotification;
-import com.google.common.collect.Lists;
-import com.google.common.util.concurrent.MoreExecutors;
+import jeeves.server.context.ServiceContext;
 import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.kernel.DataManager;
 import org.fao.geonet.kernel.MetadataIndexerProcessor;
 import org.fao.geonet.kernel.search.EsSearchManager;
-import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.utils.Log;
 import org.springframework.jmx.export.MBeanExporter;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedResource;
 
 import javax.management.ObjectName;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Class that extends MetadataIndexerProcessor to reindex the metadata changed in any of the Batch
- * operation services
+ * operation services. Records are indexed by the {@link IndexingExecutor} (as an interactive job by
+ * default), unless the caller asks to index them in the current thread.
  */
 @ManagedResource()
 public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implements Runnable {
@@ -81,7 +77,8 @@ public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implemen
         .build();
 
     private final Set<Integer> metadata;
-    private ExecutorService executor = null;
+    private final IndexingJob.Priority priority;
+    private IndexingJob job = null;
     private ObjectName probeName;
     private final int toProcessCount;
     private final AtomicInteger processed = new AtomicInteger();
@@ -90,8 +87,13 @@ public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implemen
     private final MBeanExporter exporter;
 
     public BatchOpsMetadataReindexer(DataManager dm, Set<Integer> metadata) {
+        this(dm, metadata, IndexingJob.Priority.INTERACTIVE);
+    }
+
+    public BatchOpsMetadataReindexer(DataManager dm, Set<Integer> metadata, IndexingJob.Priority priority) {
         super(dm);
         this.metadata = metadata;
+        this.priority = priority;
         this.toProcessCount = metadata.size();
         exporter = ApplicationContextHolder.get().getBean(MBeanExporter.class);
         removalListener.setExporter(exporter);
@@ -104,12 +106,12 @@ public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implemen
 
     @ManagedAttribute
     public int getProcessed() {
-        return processed.intValue();
+        return job != null ? job.getProcessed() : processed.intValue();
     }
 
     @ManagedAttribute
     public int getInError() {
-        return inError.intValue();
+        return job != null ? job.getInError() : inError.intValue();
     }
 
     public void process(String catalogueId, boolean runInCurrentThread) throws Exception {
@@ -130,51 +132,37 @@ public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implemen
     }
 
     private String processAsync(boolean runInCurrentThread) throws Exception {
-        int threadCount = ThreadUtils.getNumberOfThreads();
+        Log.warning(Geonet.INDEX_ENGINE, String.format(
+            "Indexing %d records%s.",
+            toProcessCount, runInCurrentThread ? " in current thread" : ""));
 
         if (runInCurrentThread) {
-            executor = MoreExecutors.newDirectExecutorService();
+            long start = System.currentTimeMillis();
+            for (Integer id : metadata) {
+                try {
+                    dm.indexMetadata(id + "", false);
+                    processed.incrementAndGet();
+                } catch (Exception e) {
+                    inError.incrementAndGet();
+                }
+            }
+            Log.warning(Geonet.INDEX_ENGINE, String.format(
+                "Indexing %d records completed in %dms.",
+                toProcessCount, System.currentTimeMillis() - start));
+            ApplicationContextHolder.get().getBean(EsSearchManager.class).forceIndexChanges();
+            allCompleted = CompletableFuture.completedFuture(null);
         } else {
-            executor = Executors.newFixedThreadPool(threadCount);
-        }
-
-        int[] ids = metadata.stream().mapToInt(i -> i).toArray();
-
-        int perThread;
-        if (ids.length < threadCount) perThread = ids.length;
-        else perThread = ids.length / threadCount;
-
-        int index = 0;
-
-        Log.warning(Geonet.INDEX_ENGINE, String.format(
-            "Indexing %d records with %d threads.",
-            ids.length, threadCount));
-
-        List<BatchOpsCallable> jobs = Lists.newArrayList();
-        while (index < ids.length) {
-            int start = index;
-            int count = Math.min(perThread, ids.length - start);
-            // create threads to process this chunk of ids
-            BatchOpsCallable task = new BatchOpsCallable(ids, start, count);
-            jobs.add(task);
-
-            index += count;
-        }
-
-        List<CompletableFuture> submitList = Lists.newArrayList();
-        for (BatchOpsCallable job : jobs) {
-            CompletableFuture completed = CompletableFuture.runAsync(job, executor);
-            submitList.add(completed);
+            job = ApplicationContextHolder.get().getBean(IndexingExecutor.class).submit(
+                ServiceContext.get(), metadata, priority,
+                probeName.toString(), null);
+            allCompleted = job.getCompletion().thenApply(j -> null);
         }
-
-        allCompleted = CompletableFuture.allOf(submitList.toArray(new CompletableFuture[submitList.size()]));
         allCompleted.thenRun(this);
         return probeName.toString();
     }
 
     @Override
     public void run() {
-        executor.shutdown();
         PROBE_CACHE.cleanUp();
         PROBE_CACHE.put(probeName, probeName);
     }
@@ -191,38 +179,4 @@ public class BatchOpsMetadataReindexer extends MetadataIndexerProcessor implemen
             this.exporter = exporter;
         }
     }
-
-    private final class BatchOpsCallable implements Runnable {
-        private final int[] ids;
-        private final int beginIndex, count;
-
-        BatchOpsCallable(int[] ids, int beginIndex, int count) {
-            this.ids = ids;
-            this.beginIndex = beginIndex;
-            this.count = count;
-        }
-
-        @Override
-        public void run() {
-            Log.warning(Geonet.INDEX_ENGINE, String.format(
-                "Indexing range [%d-%d]/%d by threads %s.",
-                beginIndex, beginIndex + count, ids.length, Thread.currentThread().getId()));
-            long start = System.currentTimeMillis();
-            for (int i = beginIndex; i < beginIndex + count; i++) {
-                try {
-                    dm.indexMetadata(ids[i] + "", false);
-                    processed.incrementAndGet();
-                } catch (Exception e) {
-                    inError.incrementAndGet();
-                }
-            }
-            Log.warning(Geonet.INDEX_ENGINE, String.format(
-                "Indexing range [%d-%d]/%d completed in %dms by threads %s.",
-                beginIndex, beginIndex + count, ids.length,
-                System.currentTimeMillis() - start,
-                Thread.currentThread().getId()));
-            ApplicationContextHolder.get().getBean(EsSearchManager.class).forceIndexChanges();
-        }
-    }
 }
-
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.search.index;
+
+import jeeves.server.context.ServiceContext;
+import org.fao.geonet.ApplicationContextHolder;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.kernel.DataManager;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.util.ThreadUtils;
+import org.fao.geonet.utils.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application wide pool of threads indexing records.
+ * <p/>
+ * Records are submitted as {@link IndexingJob}s. Threads take small batches of records from the
+ * jobs in turn, so that concurrent jobs share the threads and no thread stays idle while another
+ * one has records left to index. Interactive jobs are served first, bulk jobs get one batch out of
+ * {@link #BULK_TURN} so that a catalogue reindexing still progresses while users edit records.
+ * <p/>
+ * The number of threads is configured with es.index.threads (0 means the number of processors).
+ */
+public class IndexingExecutor implements DisposableBean {
+
+    /**
+     * Number of records taken from a job at once.
+     */
+    static final int BATCH_SIZE = 10;
+
+    /**
+     * One batch out of BULK_TURN is taken from bulk jobs when interactive jobs are waiting.
+     */
+    static final int BULK_TURN = 4;
+
+    private static final int COMMIT_INTERVAL = 500;
+    private static final int FINISHED_JOBS_KEPT = 20;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Value("${es.index.threads:0}")
+    private int threads;
+
+    private final Deque<IndexingJob> interactiveJobs = new ArrayDeque<>();
+    private final Deque<IndexingJob> bulkJobs = new ArrayDeque<>();
+    private final Map<String, IndexingJob> jobs = new LinkedHashMap<>();
+    private final AtomicInteger indexedSinceCommit = new AtomicInteger();
+    private ExecutorService executor;
+    private int workers = 0;
+    private long picks = 0;
+
+    /**
+     * Index records in the background.
+     *
+     * @param context           the context of the user submitting the job, used by the indexing
+     *                          threads. Can be null.
+     * @param metadataIds       the records to index (either integers or strings)
+     * @param priority          the priority of the job
+     * @param description       a label to follow the progress of the job
+     * @param transactionStatus if non-null, wait for the transaction to complete before indexing
+     */
+    public IndexingJob submit(@Nullable ServiceContext context, Collection<?> metadataIds,
+                              IndexingJob.Priority priority, String description,
+                              @Nullable TransactionStatus transactionStatus) {
+        IndexingJob job = new IndexingJob(metadataIds, priority, description, context, transactionStatus);
+        if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
+            Log.debug(Geonet.INDEX_ENGINE, String.format(
+                "Indexing job %s (%s, %s) / %d records submitted.",
+                job.getId(), description, priority, metadataIds.size()));
+        }
+
+        synchronized (this) {
+            jobs.put(job.getId(), job);
+            if (!job.hasNext()) {
+                finish(job);
+                return job;
+            }
+            (priority == IndexingJob.Priority.INTERACTIVE ? interactiveJobs : bulkJobs).add(job);
+            startWorkers();
+            notifyAll();
+        }
+        return job;
+    }
+
+    /**
+     * Stop a job. Records already indexed are not reverted, batches being indexed are completed.
+     *
+     * @return false if the job does not exist or has no records left to index.
+     */
+    public boolean cancel(String jobId) {
+        IndexingJob job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null || !job.hasNext()) {
+                // Unknown, cancelled or all records already taken by the threads
+                return false;
+            }
+            job.cancel();
+            interactiveJobs.remove(job);
+            bulkJobs.remove(job);
+            if (!job.isIdle()) {
+                // The last running batch completes the job
+                return true;
+            }
+        }
+        complete(job);
+        return true;
+    }
+
+    /**
+     * @return the running and waiting jobs, and the last completed ones.
+     */
+    public synchronized List<IndexingJob> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Nullable
+    public synchronized IndexingJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * @return true if some records are waiting or being indexed.
+     */
+    public synchronized boolean isIndexing() {
+        return jobs.values().stream().anyMatch(j -> j.getEndDate() == null);
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            interactiveJobs.clear();
+            bulkJobs.clear();
+            // Complete the waiting jobs and the running ones, whose threads are interrupted below,
+            // so that nothing waits for their completion during the shutdown
+            List<IndexingJob> unfinished = new ArrayList<>();
+            jobs.values().stream().filter(j -> j.getEndDate() == null).forEach(unfinished::add);
+            for (IndexingJob job : unfinished) {
+                job.cancel();
+                finish(job);
+            }
+            notifyAll();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void startWorkers() {
+        int threadCount = threads > 0 ? threads : ThreadUtils.getNumberOfThreads();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threadCount, new IndexingThreadFactory());
+        }
+        while (workers < threadCount) {
+            workers++;
+            executor.execute(this::work);
+        }
+    }
+
+    private void work() {
+        ApplicationContextHolder.set(applicationContext);
+        while (true) {
+            IndexingJob job;
+            List<String> batch;
+            synchronized (this) {
+                job = nextJob();
+                if (job == null) {
+                    workers--;
+                    return;
+                }
+                batch = job.nextBatch(BATCH_SIZE);
+            }
+
+            index(job, batch);
+
+            boolean last;
+            synchronized (this) {
+                last = job.batchDone();
+            }
+            if (last) {
+                complete(job);
+            }
+        }
+    }
+
+    /**
+     * Pick the next job to take a batch from, waiting for jobs which are not ready yet.
+     *
+     * @return null if there is nothing left to index.
+     */
+    private IndexingJob nextJob() {
+        while (!interactiveJobs.isEmpty() || !bulkJobs.isEmpty()) {
+            boolean bulkTurn = ++picks % BULK_TURN == 0;
+            IndexingJob job = bulkTurn ? pollReady(bulkJobs) : pollReady(interactiveJobs);
+            if (job == null) {
+                job = bulkTurn ? pollReady(interactiveJobs) : pollReady(bulkJobs);
+            }
+            if (job != null) {
+                return job;
+            }
+            if (interactiveJobs.isEmpty() && bulkJobs.isEmpty()) {
+                break;
+            }
+            try {
+                // Jobs are waiting for their transaction to be committed
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take the first ready job of the queue and move it at the end so that jobs of the same
+     * priority are served in turn.
+     */
+    private IndexingJob pollReady(Deque<IndexingJob> queue) {
+        Iterator<IndexingJob> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            IndexingJob job = iterator.next();
+            if (!job.hasNext()) {
+                iterator.remove();
+            } else if (job.isReady()) {
+                iterator.remove();
+                queue.addLast(job);
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void index(IndexingJob job, List<String> batch) {
+        if (job.getContext() != null) {
+            job.getContext().setAsThreadLocal();
+        }
+        try {
+            DataManager dataManager = applicationContext.getBean(DataManager.class);
+            for (String metadataId : batch) {
+                if (job.isCancelled()) {
+                    return;
+                }
+                try {
+                    dataManager.indexMetadata(metadataId, false);
+                    job.indexed(true);
+                } catch (Exception e) {
+                    job.indexed(false);
+                    Log.error(Geonet.INDEX_ENGINE, String.format(
+                        "Indexing job %s / Error indexing metadata '%s': %s",
+                        job.getId(), metadataId, e.getMessage()), e);
+                }
+                if (indexedSinceCommit.incrementAndGet() % COMMIT_INTERVAL == 0) {
+                    applicationContext.getBean(EsSearchManager.class).forceIndexChanges();
+                }
+            }
+        } finally {
+            // Do not keep the context of the job on the pool thread
+            if (job.getContext() != null) {
+                ServiceContext.clearAsThreadLocal();
+                ApplicationContextHolder.set(applicationContext);
+            }
+        }
+    }
+
+    private void complete(IndexingJob job) {
+        try {
+            applicationContext.getBean(EsSearchManager.class).forceIndexChanges();
+        } catch (Exception e) {
+            Log.error(Geonet.INDEX_ENGINE, String.format(
+                "Indexing job %s / Error sending records to the index: %s", job.getId(), e.getMessage()), e);
+        }
+        ServiceContext context = job.getContext();
+        if (job.getUser() != null && context.getUserSession().getUserId() == null) {
+            context.getUserSession().loginAs(job.getUser());
+        }
+        synchronized (this) {
+            finish(job);
+        }
+        Log.info(Geonet.INDEX_ENGINE, String.format(
+            "Indexing job %s (%s) / %s. %d/%d records indexed, %d in error.",
+            job.getId(), job.getDescription(), job.getState(),
+            job.getProcessed(), job.getToProcessCount(), job.getInError()));
+    }
+
+    private void finish(IndexingJob job) {
+        job.complete();
+        long finished = jobs.values().stream().filter(j -> j.getEndDate() != null).count();
+        Iterator<IndexingJob> iterator = jobs.values().iterator();
+        while (finished > FINISHED_JOBS_KEPT && iterator.hasNext()) {
+            if (iterator.next().getEndDate() != null) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    private static class IndexingThreadFactory implements ThreadFactory {
+        private final ThreadFactory delegate = Executors.defaultThreadFactory();
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = delegate.newThread(runnable);
+            thread.setName("indexing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.search.index;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jeeves.server.context.ServiceContext;
+import org.fao.geonet.domain.ISODate;
+import org.fao.geonet.domain.User;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of records submitted to the {@link IndexingExecutor}. The job tracks the progress of
+ * the indexing and can be cancelled.
+ * <p/>
+ * The list of records is consumed by the executor threads under the executor lock.
+ */
+public class IndexingJob {
+
+    public enum Priority {
+        /**
+         * Records modified by a user who is waiting for the index to be up to date (eg. batch editing).
+         */
+        INTERACTIVE,
+        /**
+         * Large set of records (eg. harvesting, reindexing the catalogue).
+         */
+        BULK
+    }
+
+    public enum State {
+        WAITING, RUNNING, CANCELLED, COMPLETED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Priority priority;
+    private final String description;
+    private final List<String> metadataIds;
+    private final ServiceContext context;
+    private final TransactionStatus transactionStatus;
+    private final User user;
+    private final ISODate submitDate = new ISODate();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger inError = new AtomicInteger();
+    private final CompletableFuture<IndexingJob> completion = new CompletableFuture<>();
+
+    // Guarded by the executor lock
+    private int next = 0;
+    private int running = 0;
+    private volatile boolean started = false;
+    private volatile boolean cancelled = false;
+    private volatile ISODate endDate;
+
+    IndexingJob(Collection<?> metadataIds, Priority priority, String description,
+                ServiceContext context, TransactionStatus transactionStatus) {
+        this.metadataIds = new ArrayList<>(metadataIds.size());
+        metadataIds.forEach(id -> this.metadataIds.add(id.toString()));
+        this.priority = priority;
+        this.description = description;
+        this.context = context;
+        this.transactionStatus = transactionStatus;
+        this.user = context != null && context.getUserSession() != null
+            ? context.getUserSession().getPrincipal() : null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public State getState() {
+        if (endDate != null) {
+            return cancelled ? State.CANCELLED : State.COMPLETED;
+        }
+        return started ? State.RUNNING : State.WAITING;
+    }
+
+    public int getToProcessCount() {
+        return metadataIds.size();
+    }
+
+    /**
+     * @return the number of records indexed without error.
+     */
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public int getInError() {
+        return inError.get();
+    }
+
+    public ISODate getSubmitDate() {
+        return submitDate;
+    }
+
+    public ISODate getEndDate() {
+        return endDate;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return a future completed when all records are indexed or the job is cancelled.
+     */
+    @JsonIgnore
+    public CompletableFuture<IndexingJob> getCompletion() {
+        return completion;
+    }
+
+    ServiceContext getContext() {
+        return context;
+    }
+
+    User getUser() {
+        return user;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * The records are indexed once the transaction which saved them is committed and the
+     * application is started.
+     */
+    boolean isReady() {
+        return (transactionStatus == null || transactionStatus.isCompleted())
+            && (context == null || context.isServletInitialized());
+    }
+
+    boolean hasNext() {
+        return !cancelled && next < metadataIds.size();
+    }
+
+    List<String> nextBatch(int size) {
+        int end = Math.min(next + size, metadataIds.size());
+        List<String> batch = metadataIds.subList(next, end);
+        next = end;
+        running++;
+        started = true;
+        return batch;
+    }
+
+    /**
+     * @return true if this was the last running batch of a job which has nothing left to index.
+     */
+    boolean batchDone() {
+        running--;
+        return running == 0 && !hasNext();
+    }
+
+    boolean isIdle() {
+        return running == 0;
+    }
+
+    void indexed(boolean success) {
+        if (success) {
+            processed.incrementAndGet();
+        } else {
+            inError.incrementAndGet();
+        }
+    }
+
+    void complete() {
+        if (endDate == null) {
+            endDate = new ISODate();
+            completion.complete(this);
+        }
+    }
+}
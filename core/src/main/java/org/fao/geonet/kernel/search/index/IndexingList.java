@@ -24,31 +24,59 @@
 package org.fao.geonet.kernel.search.index;
 
 import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.domain.IndexingQueueEntry;
+import org.fao.geonet.repository.IndexingQueueRepository;
 import org.fao.geonet.utils.Log;
-
-import java.util.HashSet;
-import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * A list of metadata identifiers to be index in the near future by the {@link IndexingTask}.
  * <p/>
+ * The list is stored in the database ({@link IndexingQueueEntry}) in the transaction of the
+ * change, so that it is not lost if the application stops before the task runs. A record
+ * added more than once is indexed once.
+ * <p/>
  * Created by francois on 7/29/14.
  */
 public class IndexingList {
 
-    private Set<Integer> metadataIdentifiers = new HashSet<Integer>();
+    @Autowired
+    private IndexingQueueRepository indexingQueueRepository;
+
+    public void add(final int metadataIdentifier) {
+        add(metadataIdentifier, null);
+    }
 
-    synchronized public void add(final int metadataIdentifier) {
+    /**
+     * @param reason why the record has to be indexed (eg. rating), for information.
+     */
+    public void add(final int metadataIdentifier, final String reason) {
         if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
-            Log.error(Geonet.INDEX_ENGINE, "Indexing list / Adding record with id: "
+            Log.debug(Geonet.INDEX_ENGINE, "Indexing list / Adding record with id: "
                 + metadataIdentifier + ".");
         }
-        this.metadataIdentifiers.add(metadataIdentifier);
+        // Entries are not merged here as an existing entry may already be
+        // processed by the task. They are merged when the task reads them.
+        indexingQueueRepository.save(new IndexingQueueEntry()
+            .setMetadataId(metadataIdentifier)
+            .setReason(reason));
     }
 
-    synchronized public Set<Integer> getIdentifiers() {
-        Set<Integer> temporaryList = metadataIdentifiers;
-        metadataIdentifiers = new HashSet<Integer>();
-        return temporaryList;
+    /**
+     * @return the number of entries waiting to be indexed.
+     */
+    public long size() {
+        return indexingQueueRepository.count();
+    }
+
+    /**
+     * @return the number of seconds since the oldest entry was added, 0 if there is none.
+     */
+    public long getLagSeconds() {
+        IndexingQueueEntry oldest = indexingQueueRepository.findFirstByOrderByIdAsc();
+        if (oldest == null) {
+            return 0;
+        }
+        return Math.max(0, (System.currentTimeMillis() - oldest.getEnqueueDate().toDate().getTime()) / 1000);
     }
 }
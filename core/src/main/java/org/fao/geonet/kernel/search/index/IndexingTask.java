@@ -28,28 +28,39 @@ import jeeves.server.dispatchers.ServiceManager;
 
 import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.domain.IndexingQueueEntry;
 import org.fao.geonet.kernel.DataManager;
-import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.repository.IndexingQueueRepository;
 import org.fao.geonet.utils.Log;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
-import java.io.IOException;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A task which runs every X sec in order to reindex a set of metadata records which have been
  * modified and that indexing could be done a bit later (eg. when popularity is updated, immediate
  * indexing is not required).
  * <p/>
+ * The records of the {@link IndexingList} are read by batches of es.index.queue.batchSize records
+ * and indexed by the {@link IndexingExecutor}. Their entries are removed once the batch is sent to
+ * the index.
+ * <p/>
  * See configuration in config-spring-geonetwork.xml for interval.
  * <p/>
  * Created by francois on 7/29/14.
  */
+@DisallowConcurrentExecution
 public class IndexingTask extends QuartzJobBean {
 
     @Autowired
@@ -58,26 +69,54 @@ public class IndexingTask extends QuartzJobBean {
     protected DataManager _dataManager;
     @Autowired
     protected ServiceManager serviceManager;
+    @Autowired
+    protected IndexingQueueRepository indexingQueueRepository;
+
+    @Autowired
+    protected IndexingExecutor indexingExecutor;
 
-    private void indexRecords() {
+    @Value("${es.index.queue.batchSize:500}")
+    protected int batchSize;
+
+    private void indexRecords(ServiceContext serviceContext) {
         ApplicationContextHolder.set(applicationContext);
-        IndexingList list = applicationContext.getBean(IndexingList.class);
-        Set<Integer> metadataIdentifiers = list.getIdentifiers();
-        if (metadataIdentifiers.size() > 0) {
-            if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
-                Log.debug(Geonet.INDEX_ENGINE, "Indexing task / List of records to index: "
-                    + metadataIdentifiers.toString() + ".");
-            }
+        try {
+            while (true) {
+                List<IndexingQueueEntry> entries = indexingQueueRepository.findAllByOrderByIdAsc(
+                    PageRequest.of(0, batchSize));
+                if (entries.isEmpty()) {
+                    break;
+                }
 
-            for (Integer metadataIdentifier : metadataIdentifiers) {
+                Set<Integer> metadataIdentifiers = new LinkedHashSet<>();
+                entries.forEach(e -> metadataIdentifiers.add(e.getMetadataId()));
+                int maxId = entries.get(entries.size() - 1).getId();
+
+                if (Log.isDebugEnabled(Geonet.INDEX_ENGINE)) {
+                    Log.debug(Geonet.INDEX_ENGINE, "Indexing task / List of records to index: "
+                        + metadataIdentifiers.toString() + ".");
+                }
+
+                IndexingJob job = indexingExecutor.submit(serviceContext, metadataIdentifiers,
+                    IndexingJob.Priority.BULK, "indexingList", null);
                 try {
-                    _dataManager.indexMetadata(String.valueOf(metadataIdentifier), false);
-                } catch (Exception e) {
-                    Log.error(Geonet.INDEX_ENGINE, "Indexing task / An error happens indexing the metadata "
-                        + metadataIdentifier + ". Error: " + e.getMessage(), e);
+                    job.getCompletion().get();
+                } catch (ExecutionException e) {
+                    Log.error(Geonet.INDEX_ENGINE, "Indexing task / Error: " + e.getMessage(), e);
+                }
+                if (job.isCancelled()) {
+                    // Entries are kept for the next run
+                    break;
+                }
+                indexingQueueRepository.deleteIndexed(metadataIdentifiers, maxId);
+
+                if (entries.size() < batchSize) {
+                    break;
                 }
             }
-            this.applicationContext.getBean(EsSearchManager.class).forceIndexChanges();
+        } catch (InterruptedException e) {
+            // Entries of the current batch are kept for the next run
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -91,6 +130,6 @@ public class IndexingTask extends QuartzJobBean {
             Log.debug(Geonet.INDEX_ENGINE, "Indexing task / Start at: "
                 + new Date() + ". Checking if any records need to be indexed ...");
         }
-        indexRecords();
+        indexRecords(serviceContext);
     }
 }
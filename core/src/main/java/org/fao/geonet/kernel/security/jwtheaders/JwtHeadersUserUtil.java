@@ -23,6 +23,10 @@
 
 package org.fao.geonet.kernel.security.jwtheaders;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.domain.Group;
 import org.fao.geonet.domain.Language;
@@ -38,10 +42,13 @@ import org.fao.geonet.utils.Log;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles GeoNetwork related User (and Group/UserGroup) activities.
@@ -63,6 +70,58 @@ public class JwtHeadersUserUtil {
     @Autowired
     LanguageRepository languageRepository;
 
+    /**
+     * Users already synchronized with the DB, by username and header claims. Requests coming with
+     * the same claims reuse the user without reading or writing the DB until the entry expires.
+     */
+    private Cache<List<Object>, User> users;
+
+    public JwtHeadersUserUtil() {
+        setUserCacheTtl(60);
+    }
+
+    /**
+     * @param userCacheTtl number of seconds a user is kept in cache after being synchronized
+     *                     with the DB. 0 to synchronize the user on each request.
+     */
+    public void setUserCacheTtl(long userCacheTtl) {
+        users = CacheBuilder.newBuilder()
+            .expireAfterWrite(userCacheTtl, TimeUnit.SECONDS)
+            .maximumSize(10000)
+            .build();
+    }
+
+    /**
+     * Gets a user, from the cache if a request with the same username and roles was
+     * made recently, or from the DB (cf. {@link #getUserFromDb}).
+     * <p>
+     * Concurrent requests of the same user wait for the first one to load it.
+     *
+     * @param userFromHeaders This is user info supplied in the request headers
+     * @param configuration   Configuration of the JWT Headers filter
+     * @return
+     */
+    public User getUser(JwtHeadersTrivialUser userFromHeaders, JwtHeadersConfiguration configuration) {
+        // Roles from the headers are only relevant if they are saved in the DB
+        List<Object> key = Arrays.asList(
+            userFromHeaders.getUsername(),
+            configuration.isUpdateProfile() ? userFromHeaders.getProfile() : null,
+            configuration.isUpdateGroup() ? userFromHeaders.getProfileGroups() : null,
+            configuration.isUpdateProfile(),
+            configuration.isUpdateGroup());
+        try {
+            return users.get(key, () -> getUserFromDb(userFromHeaders, configuration));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     /**
      * Gets a user.
      * 1. if the user currently existing in the GN DB:
@@ -81,7 +140,7 @@ public class JwtHeadersUserUtil {
      * @param configuration   Configuration of the JWT Headers filter
      * @return
      */
-    public User getUser(JwtHeadersTrivialUser userFromHeaders, JwtHeadersConfiguration configuration) {
+    public User getUserFromDb(JwtHeadersTrivialUser userFromHeaders, JwtHeadersConfiguration configuration) {
         try {
             User userFromDb = (User) authProvider.loadUserByUsername(userFromHeaders.getUsername());
             injectRoles(userFromDb, userFromHeaders, configuration);
@@ -0,0 +1,130 @@
+//=============================================================================
+//===	Copyright (C) 2001-2024 Food and Agriculture Organization of the
+//===	United Nations (FAO-UN), United Nations World Food Programme (WFP)
+//===	and United Nations Environment Programme (UNEP)
+//===
+//===	This program is free software; you can redistribute it and/or modify
+//===	it under the terms of the GNU General Public License as published by
+//===	the Free Software Foundation; either version 2 of the License, or (at
+//===	your option) any later version.
+//===
+//===	This program is distributed in the hope that it will be useful, but
+//===	WITHOUT ANY WARRANTY; without even the implied warranty of
+//===	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+//===	General Public License for more details.
+//===
+//===	You should have received a copy of the GNU General Public License
+//===	along with this program; if not, write to the Free Software
+//===	Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+//===
+//===	Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+//===	Rome - Italy. email: geonetwork@osgeo.org
+//==============================================================================
+
+package org.fao.geonet.kernel.setting;
+
+import org.apache.commons.lang.StringUtils;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.utils.Log;
+
+import java.util.StringTokenizer;
+
+import static org.fao.geonet.kernel.setting.Settings.SYSTEM_INTRANET_IP_SEPARATOR;
+
+/**
+ * The IPv4 networks defined by the {@link Settings#SYSTEM_INTRANET_NETWORK} and
+ * {@link Settings#SYSTEM_INTRANET_NETMASK} settings, parsed once so that checking if an address
+ * belongs to the intranet does not require to parse the settings for each request.
+ */
+public final class IntranetNetworks {
+
+    public static final IntranetNetworks EMPTY = new IntranetNetworks(new long[0], new long[0]);
+
+    private final long[] networks;
+    private final long[] netmasks;
+
+    private IntranetNetworks(long[] networks, long[] netmasks) {
+        this.networks = networks;
+        this.netmasks = netmasks;
+    }
+
+    /**
+     * Parse the network and netmask settings values. Both values are comma separated lists
+     * which must have the same number of elements.
+     *
+     * @return the parsed networks or {@link #EMPTY} if the configuration is empty or invalid.
+     */
+    public static IntranetNetworks parse(String network, String netmask) {
+        if (StringUtils.isEmpty(network) || StringUtils.isEmpty(netmask)) {
+            return EMPTY;
+        }
+
+        String[] networkArray = network.split(SYSTEM_INTRANET_IP_SEPARATOR);
+        String[] netmaskArray = netmask.split(SYSTEM_INTRANET_IP_SEPARATOR);
+        if (networkArray.length != netmaskArray.length) {
+            Log.error(Geonet.ACCESS_MANAGER,
+                String.format(
+                    "Invalid intranet configuration. Define as many network mask (currently %d) as network ip (currently %d). Check Settings > Intranet.",
+                    netmaskArray.length, networkArray.length));
+            return EMPTY;
+        }
+
+        long[] networks = new long[networkArray.length];
+        long[] netmasks = new long[netmaskArray.length];
+        try {
+            for (int i = 0; i < networkArray.length; i++) {
+                netmasks[i] = getAddress(netmaskArray[i]);
+                networks[i] = getAddress(networkArray[i]) & netmasks[i];
+            }
+        } catch (NumberFormatException nfe) {
+            Log.error(Geonet.ACCESS_MANAGER, "Invalid intranet configuration: " + nfe.getMessage(), nfe);
+            return EMPTY;
+        }
+        return new IntranetNetworks(networks, netmasks);
+    }
+
+    /**
+     * Converts an ip x.x.x.x into a long.
+     */
+    public static long getAddress(String ip) {
+        if (ip.trim().equals("?")) {
+            return 0;
+        } else {
+            StringTokenizer st = new StringTokenizer(ip.trim(), ".");
+            if (!st.hasMoreElements()) {
+                return 0;
+            }
+            long a1 = Integer.parseInt(st.nextToken());
+            if (!st.hasMoreElements()) {
+                return 0;
+            }
+            long a2 = Integer.parseInt(st.nextToken());
+            if (!st.hasMoreElements()) {
+                return 0;
+            }
+            long a3 = Integer.parseInt(st.nextToken());
+            if (!st.hasMoreElements()) {
+                return 0;
+            }
+            long a4 = Integer.parseInt(st.nextToken());
+            return a1 << 24 | a2 << 16 | a3 << 8 | a4;
+        }
+    }
+
+    public boolean isEmpty() {
+        return networks.length == 0;
+    }
+
+    /**
+     * @param address an IPv4 address as returned by {@link #getAddress(String)}.
+     * @return true if the address belongs to one of the networks.
+     */
+    public boolean contains(long address) {
+        for (int i = 0; i < networks.length; i++) {
+            if ((address & netmasks[i]) == networks[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
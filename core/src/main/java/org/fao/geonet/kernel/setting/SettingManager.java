@@ -42,6 +42,8 @@ import org.fao.geonet.web.DefaultLanguage;
 import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
 import org.jdom.Element;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -51,6 +53,7 @@ import javax.servlet.ServletContext;
 import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +68,10 @@ import static org.fao.geonet.kernel.setting.Settings.SYSTEM_SITE_NAME_PATH;
  * A convenience class for updating and accessing settings.  One of the primary needs of this class
  * at the moment is to maintain backwards compatibility so not all code and xsl files that make use
  * of the settings need to be modified.
+ *
+ * Values are read from an in-memory {@link SettingsSnapshot} which is replaced when settings are
+ * updated through this class. If the settings table is modified by other means (eg. another node
+ * of a cluster or an SQL script), call {@link #refresh()} or configure a refresh interval.
  */
 public class SettingManager {
 
@@ -98,6 +105,28 @@ public class SettingManager {
     @Autowired
     FeedbackLanguages feedbackLanguages;
 
+    private volatile SettingsSnapshot snapshot;
+
+    /**
+     * Key of the values updated by the current transaction, which are published in the snapshot
+     * once the transaction is committed.
+     */
+    private final Object pendingValuesKey = new Object();
+
+    /**
+     * Maximum age of the settings snapshot. 0 means the snapshot is only reloaded on
+     * {@link #refresh()}. Set a value when more than one node share the same database.
+     */
+    private int refreshIntervalSeconds = 0;
+
+    public int getRefreshIntervalSeconds() {
+        return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
     @PostConstruct
     private void init() {
         this.pathFinder = new ServletPathFinder(servletContext);
@@ -197,6 +226,22 @@ public class SettingManager {
             Log.trace(Geonet.SETTINGS, "Requested setting with name: " + path);
         }
 
+        Map<String, String> pendingValues = getPendingValues();
+        SettingsSnapshot current = getSnapshot();
+        if (pendingValues != null && pendingValues.containsKey(path)) {
+            return pendingValues.get(path);
+        }
+        if (current != null && current.isMissing(path)) {
+            return null;
+        }
+        if (current != null && current.contains(path)) {
+            String value = current.getValue(path);
+            if (value == null && ! nullable) {
+                Log.warning(Geonet.SETTINGS, "  Requested setting with name: " + path + " but null value found. Check the settings table.");
+            }
+            return value;
+        }
+
         Optional<Setting> se = repo.findById(path);
         if (!se.isPresent()) {
             // TODO : When a settings is not available in the settings table
@@ -204,9 +249,18 @@ public class SettingManager {
             // settings and populate the settings table when the settings is
             // missing (due to bad migration for example).
             Log.error(Geonet.SETTINGS, "  Requested setting with name: " + path + "  not found. Add it to the settings table.");
+            if (current != null) {
+                // Do not look for it again until the snapshot is reloaded
+                current.setMissing(path);
+            }
             return null;
         }
 
+        if (current != null) {
+            // The setting was added to the table after the snapshot was built.
+            invalidateSnapshot(current);
+        }
+
         String value = se.get().getValue();
 
         // This case occurs during the application startup, before the encryptor is initialized:
@@ -258,16 +312,11 @@ public class SettingManager {
         Element env = new Element("settings");
         for (int i = 0; i < keys.length; i++) {
             String key = keys[i];
-            Optional<Setting> se = repo.findById(key);
-            if (!se.isPresent()) {
-                Log.error(Geonet.SETTINGS, "  Requested setting with name: " + key + " not found. Add it to the settings table.");
-            } else {
-                String value = se.get().getValue();
-                if (value != null) {
-                    Element setting = new Element("setting");
-                    setting.setAttribute("name", key).setAttribute("value", value);
-                    env.addContent(setting);
-                }
+            String value = getValue(key, true);
+            if (value != null) {
+                Element setting = new Element("setting");
+                setting.setAttribute("name", key).setAttribute("value", value);
+                env.addContent(setting);
             }
         }
         return env;
@@ -330,6 +379,12 @@ public class SettingManager {
      * @return true if the types are correct and the setting is found.
      */
     public boolean setValue(String key, String value) {
+        saveValue(key, value);
+        afterUpdate(Collections.singletonMap(key, value));
+        return true;
+    }
+
+    private void saveValue(String key, String value) {
         if (Log.isDebugEnabled(Geonet.SETTINGS)) {
             Log.debug(Geonet.SETTINGS, "Setting with name: " + key + ", value: " + value);
         }
@@ -346,14 +401,64 @@ public class SettingManager {
         setting.setValue(value);
 
         repo.save(setting);
+    }
 
-        if (key.equals("system/feedback/languages")) {
+    /**
+     * Publish the updated values in the snapshot, once the surrounding transaction if any is
+     * committed. Until then, the values are only visible to the current transaction.
+     */
+    private void afterUpdate(Map<String, String> updatedValues) {
+        if (updatedValues.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(updatedValues);
+            return;
+        }
+
+        Map<String, String> pendingValues = getPendingValues();
+        if (pendingValues == null) {
+            Map<String, String> values = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(pendingValuesKey, values);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(values);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingValuesKey);
+                }
+            });
+            pendingValues = values;
+        }
+        pendingValues.putAll(updatedValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> getPendingValues() {
+        return (Map<String, String>) TransactionSynchronizationManager.getResource(pendingValuesKey);
+    }
+
+    /**
+     * Publish the updated values in the snapshot and notify the components
+     * depending on them.
+     */
+    private void publish(Map<String, String> updatedValues) {
+        synchronized (this) {
+            SettingsSnapshot current = snapshot;
+            if (current != null) {
+                snapshot = current.with(updatedValues);
+            }
+        }
+
+        if (updatedValues.containsKey("system/feedback/languages")) {
             feedbackLanguages.updateSupportedLocales();
-        } else if (key.equals("system/feedback/translationFollowsText")) {
+        }
+        if (updatedValues.containsKey("system/feedback/translationFollowsText")) {
             feedbackLanguages.updateTranslationFollowsText();
         }
-
-        return true;
     }
 
     public boolean setValue(Settings.GNSetting setting, String value) {
@@ -382,13 +487,16 @@ public class SettingManager {
      */
     public final boolean setValues(final Map<String, String> values) {
         boolean success = true;
+        Map<String, String> updatedValues = new HashMap<>();
         for (Map.Entry<String, String> entry : values.entrySet()) {
             String key = entry.getKey();
             String value = entry.getValue();
             if (StringUtils.isNotEmpty(key)) {
-                 setValue(key, value);
+                saveValue(key, value);
+                updatedValues.put(key, value);
             }
         }
+        afterUpdate(updatedValues);
         return success;
     }
 
@@ -398,9 +506,69 @@ public class SettingManager {
      */
     public final boolean refresh() throws SQLException {
         entityManager.getEntityManagerFactory().getCache().evict(HarvesterSetting.class);
+        entityManager.getEntityManagerFactory().getCache().evict(Setting.class);
+        invalidateSnapshot(null);
         return true;
     }
 
+    /**
+     * @return the parsed intranet network settings.
+     */
+    public IntranetNetworks getIntranetNetworks() {
+        SettingsSnapshot current = getSnapshot();
+        if (current != null) {
+            return current.getIntranetNetworks();
+        }
+        return IntranetNetworks.parse(
+            getValue(Settings.SYSTEM_INTRANET_NETWORK),
+            getValue(Settings.SYSTEM_INTRANET_NETMASK));
+    }
+
+    /**
+     * Return the current snapshot, loading it if none is available or if it is older than the
+     * refresh interval.
+     *
+     * @return null if the encryptor is not yet initialized, encrypted values can't be loaded.
+     */
+    private SettingsSnapshot getSnapshot() {
+        SettingsSnapshot current = snapshot;
+        if (current != null
+            && (refreshIntervalSeconds <= 0 || !current.isOlderThan(refreshIntervalSeconds * 1000L))) {
+            return current;
+        }
+        if (!encryptor.isInitialized()) {
+            return null;
+        }
+        return loadSnapshot(current);
+    }
+
+    private synchronized SettingsSnapshot loadSnapshot(SettingsSnapshot stale) {
+        if (snapshot != stale) {
+            // Already reloaded by another thread
+            return snapshot;
+        }
+        if (Log.isDebugEnabled(Geonet.SETTINGS)) {
+            Log.debug(Geonet.SETTINGS, "Loading settings snapshot.");
+        }
+        SettingsSnapshot loaded = SettingsSnapshot.of(repo.findAll());
+        if (getPendingValues() == null) {
+            // Otherwise the values read may include the uncommitted updates of the transaction
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * Discard the snapshot, the next read will load a new one.
+     *
+     * @param expected only discard the snapshot if it is still this one. null to discard any.
+     */
+    private synchronized void invalidateSnapshot(SettingsSnapshot expected) {
+        if (expected == null || snapshot == expected) {
+            snapshot = null;
+        }
+    }
+
     public final String getSiteId() {
         return getValue(Settings.SYSTEM_SITE_SITE_ID_PATH);
     }
@@ -0,0 +1,104 @@
+//=============================================================================
+//===	Copyright (C) 2001-2024 Food and Agriculture Organization of the
+//===	United Nations (FAO-UN), United Nations World Food Programme (WFP)
+//===	and United Nations Environment Programme (UNEP)
+//===
+//===	This program is free software; you can redistribute it and/or modify
+//===	it under the terms of the GNU General Public License as published by
+//===	the Free Software Foundation; either version 2 of the License, or (at
+//===	your option) any later version.
+//===
+//===	This program is distributed in the hope that it will be useful, but
+//===	WITHOUT ANY WARRANTY; without even the implied warranty of
+//===	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+//===	General Public License for more details.
+//===
+//===	You should have received a copy of the GNU General Public License
+//===	along with this program; if not, write to the Free Software
+//===	Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+//===
+//===	Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+//===	Rome - Italy. email: geonetwork@osgeo.org
+//==============================================================================
+
+package org.fao.geonet.kernel.setting;
+
+import org.fao.geonet.domain.Setting;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable copy of the settings table. The values are the decrypted ones, so a snapshot can
+ * only be built once the encryptor is initialized.
+ *
+ * {@link SettingManager} holds the current snapshot and replaces it as a whole when settings
+ * are updated, so that reads never need a lock nor a database access. The names of the settings
+ * found missing from the table are also recorded, until the snapshot is reloaded.
+ */
+public final class SettingsSnapshot {
+
+    private final Map<String, String> values;
+    private final IntranetNetworks intranetNetworks;
+    private final long creationTime;
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    private SettingsSnapshot(Map<String, String> values, long creationTime) {
+        this.values = Collections.unmodifiableMap(values);
+        this.intranetNetworks = IntranetNetworks.parse(
+            values.get(Settings.SYSTEM_INTRANET_NETWORK),
+            values.get(Settings.SYSTEM_INTRANET_NETMASK));
+        this.creationTime = creationTime;
+    }
+
+    public static SettingsSnapshot of(List<Setting> settings) {
+        Map<String, String> values = new HashMap<>(settings.size() * 2);
+        for (Setting setting : settings) {
+            values.put(setting.getName(), setting.getValue());
+        }
+        return new SettingsSnapshot(values, System.currentTimeMillis());
+    }
+
+    /**
+     * @return a new snapshot containing the values of this one, overridden by the updated values.
+     * The creation time is preserved as the other values are not reloaded from the database.
+     */
+    public SettingsSnapshot with(Map<String, String> updatedValues) {
+        Map<String, String> copy = new HashMap<>(values);
+        copy.putAll(updatedValues);
+        SettingsSnapshot updated = new SettingsSnapshot(copy, creationTime);
+        missing.stream().filter(name -> !copy.containsKey(name)).forEach(updated.missing::add);
+        return updated;
+    }
+
+    public boolean contains(String name) {
+        return values.containsKey(name);
+    }
+
+    public String getValue(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * @return true if the setting was found missing from the settings table.
+     */
+    public boolean isMissing(String name) {
+        return missing.contains(name);
+    }
+
+    public void setMissing(String name) {
+        missing.add(name);
+    }
+
+    public IntranetNetworks getIntranetNetworks() {
+        return intranetNetworks;
+    }
+
+    public boolean isOlderThan(long ageInMillis) {
+        return System.currentTimeMillis() - creationTime > ageInMillis;
+    }
+}
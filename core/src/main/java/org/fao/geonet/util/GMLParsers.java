@@ -5,12 +5,43 @@ import org.geotools.gml3.GMLConfiguration;
 import org.geotools.xsd.Configuration;
 import org.geotools.xsd.Parser;
 import org.jdom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public final class GMLParsers {
 
 	private static final GMLConfiguration GML_CONFIGURATION = new GMLConfiguration();
 	private static final org.geotools.gml3.v3_2.GMLConfiguration GML_32_CONFIGURATION = new org.geotools.gml3.v3_2.GMLConfiguration();
 
+	// Parsers are not thread safe (see GMLParserLearnTest), idle ones are kept for reuse
+	private static final int MAX_IDLE_PARSERS = 32;
+	private static final Queue<Parser> IDLE_GML_PARSERS = new ConcurrentLinkedQueue<>();
+	private static final Queue<Parser> IDLE_GML_32_PARSERS = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Parses a GML geometry with a parser of the GML version of the element. The parser is
+	 * taken from a pool and returned once the geometry is parsed. A parser which failed is
+	 * dropped as it may be left in an inconsistent state.
+	 */
+	static public Object parse(Element geom, String gml) throws IOException, SAXException, ParserConfigurationException {
+		boolean gml32 = geom.getNamespace().equals(Geonet.Namespaces.GML32);
+		Queue<Parser> idle = gml32 ? IDLE_GML_32_PARSERS : IDLE_GML_PARSERS;
+		Parser parser = idle.poll();
+		if (parser == null) {
+			parser = gml32 ? createGML32() : createGML();
+		}
+		Object geometry = parser.parse(new StringReader(gml));
+		if (idle.size() < MAX_IDLE_PARSERS) {
+			idle.offer(parser);
+		}
+		return geometry;
+	}
+
 	static public Parser create(Element geom) {
 		if (geom.getNamespace().equals(Geonet.Namespaces.GML32)) {
 			return createGML32();
@@ -30,6 +30,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.neovisionaries.i18n.LanguageCode;
 import jeeves.component.ProfileManager;
 import jeeves.server.ServiceConfig;
@@ -88,6 +89,7 @@ import org.locationtech.jts.geom.*;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.operation.valid.IsValidOp;
 import org.locationtech.jts.precision.GeometryPrecisionReducer;
+import org.geotools.api.referencing.FactoryException;
 import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
 import org.geotools.api.referencing.operation.MathTransform;
 import org.owasp.esapi.errors.EncodingException;
@@ -136,9 +138,54 @@ import static org.fao.geonet.utils.Xml.getXmlFromJSON;
  * @author jesse
  */
 public final class XslUtil {
+    /**
+     * Decoded CRS and transformations between CRS used by the geometry conversions. Both are
+     * immutable and shared by the indexing threads.
+     */
+    private static final Cache<String, CoordinateReferenceSystem> CRS_CACHE =
+        CacheBuilder.newBuilder().maximumSize(500).build();
+    private static final Cache<List<Object>, MathTransform> MATH_TRANSFORM_CACHE =
+        CacheBuilder.newBuilder().maximumSize(500).build();
+
+    private static CoordinateReferenceSystem decodeCrs(String code, boolean longitudeFirst) throws FactoryException {
+        try {
+            return CRS_CACHE.get(code + "|" + longitudeFirst, () -> CRS.decode(code, longitudeFirst));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof FactoryException) {
+                throw (FactoryException) e.getCause();
+            }
+            throw new FactoryException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static MathTransform findMathTransform(CoordinateReferenceSystem source,
+                                                   CoordinateReferenceSystem target,
+                                                   boolean lenient) throws FactoryException {
+        try {
+            return MATH_TRANSFORM_CACHE.get(Arrays.asList(source, target, lenient),
+                () -> CRS.findMathTransform(source, target, lenient));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof FactoryException) {
+                throw (FactoryException) e.getCause();
+            }
+            throw new FactoryException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     public static MultiPolygon parseGml(Parser parser, String gml) throws IOException, SAXException,
         ParserConfigurationException {
-        Object value = parser.parse(new StringReader(gml));
+        return asMultiPolygon(parser.parse(new StringReader(gml)));
+    }
+
+    /**
+     * Parses a GML geometry with a pooled parser of the GML version of the element.
+     */
+    public static MultiPolygon parseGml(Element geomElement, String gml) throws IOException, SAXException,
+        ParserConfigurationException {
+        return asMultiPolygon(GMLParsers.parse(geomElement, gml));
+    }
+
+    private static MultiPolygon asMultiPolygon(Object value) {
         if (value instanceof HashMap) {
             @SuppressWarnings("rawtypes")
             HashMap map = (HashMap) value;
@@ -175,27 +222,20 @@ public final class XslUtil {
         try {
             if (StringUtils.isNotEmpty(gml)) {
                 Element geomElement = Xml.loadString(gml, false);
-                Parser parser = GMLParsers.create(geomElement);
-                Geometry geom = parseGml(parser, gml);
+                Geometry geom = parseGml(geomElement, gml);
 
                 if (geom == null) {
                     return "Warning: GML geometry is null.";
                 }
 
                 Object userData = geom.getUserData();
-                if (userData instanceof DefaultProjectedCRS) {
-                    geom = JTS.transform(
-                        geom,
-                        CRS.findMathTransform((DefaultProjectedCRS) userData,
-                            CRS.decode("EPSG:4326", true), true)
-                    );
-                }
-                else if (userData instanceof DefaultGeographicCRS) {
-                    geom = JTS.transform(
-                        geom,
-                        CRS.findMathTransform((DefaultGeographicCRS) userData,
-                            CRS.decode("EPSG:4326", true), true)
-                    );
+                if (userData instanceof DefaultProjectedCRS
+                    || userData instanceof DefaultGeographicCRS) {
+                    MathTransform transform = findMathTransform((CoordinateReferenceSystem) userData,
+                        decodeCrs("EPSG:4326", true), true);
+                    if (!transform.isIdentity()) {
+                        geom = JTS.transform(geom, transform);
+                    }
                 }
 
                 if (!geom.isValid()) {
@@ -1048,8 +1088,8 @@ public final class XslUtil {
             Double minyf = new Double((String) miny);
             Double maxxf = new Double((String) maxx);
             Double maxyf = new Double((String) maxy);
-            CoordinateReferenceSystem fromCrs = CRS.decode((String) fromEpsg);
-            CoordinateReferenceSystem toCrs = CRS.decode("EPSG:4326");
+            CoordinateReferenceSystem fromCrs = decodeCrs((String) fromEpsg, false);
+            CoordinateReferenceSystem toCrs = decodeCrs("EPSG:4326", false);
 
             ReferencedEnvelope env = new ReferencedEnvelope(minxf, maxxf, minyf, maxyf, fromCrs);
             ReferencedEnvelope reprojected = env.transform(toCrs, true);
@@ -1101,14 +1141,13 @@ public final class XslUtil {
             Element geomElement = Xml.loadString(gml, false);
             String srs = geomElement.getAttributeValue("srsName");
             CoordinateReferenceSystem geomSrs = DefaultGeographicCRS.WGS84;
-            if (srs != null && !(srs.equals(""))) geomSrs = CRS.decode(srs);
-            Parser parser = GMLParsers.create(geomElement);
-            MultiPolygon jts = parseGml(parser, gml);
+            if (srs != null && !(srs.equals(""))) geomSrs = decodeCrs(srs, false);
+            MultiPolygon jts = parseGml(geomElement, gml);
 
 
             // if we have an srs and its not WGS84 then transform to WGS84
             if (!CRS.equalsIgnoreMetadata(geomSrs, DefaultGeographicCRS.WGS84)) {
-                MathTransform tform = CRS.findMathTransform(geomSrs, DefaultGeographicCRS.WGS84);
+                MathTransform tform = findMathTransform(geomSrs, DefaultGeographicCRS.WGS84, false);
                 jts = (MultiPolygon) JTS.transform(jts, tform);
             }
 
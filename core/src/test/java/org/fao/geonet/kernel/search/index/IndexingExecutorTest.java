@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.search.index;
+
+import org.fao.geonet.kernel.DataManager;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IndexingExecutorTest {
+
+    private IndexingExecutor executor;
+    private DataManager dataManager;
+    private final List<String> indexed = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        dataManager = mock(DataManager.class);
+        doAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            if (id.equals("blocking")) {
+                blocked.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            } else if (id.equals("failing")) {
+                throw new IllegalStateException("Indexing error");
+            }
+            indexed.add(id);
+            return null;
+        }).when(dataManager).indexMetadata(anyString(), anyBoolean());
+
+        ConfigurableApplicationContext applicationContext = mock(ConfigurableApplicationContext.class);
+        when(applicationContext.getBean(DataManager.class)).thenReturn(dataManager);
+        when(applicationContext.getBean(EsSearchManager.class)).thenReturn(mock(EsSearchManager.class));
+
+        executor = new IndexingExecutor();
+        ReflectionTestUtils.setField(executor, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(executor, "threads", 1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    public void testIndexAllRecords() throws Exception {
+        List<Object> records = IntStream.range(0, 94).boxed().collect(Collectors.toList());
+        records.add(50, "failing");
+
+        IndexingJob job = executor.submit(null, records, IndexingJob.Priority.BULK, "test", null);
+        job.getCompletion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(IndexingJob.State.COMPLETED, job.getState());
+        assertEquals(95, job.getToProcessCount());
+        assertEquals(94, job.getProcessed());
+        assertEquals(1, job.getInError());
+        assertFalse(executor.isIndexing());
+    }
+
+    @Test
+    public void testInteractiveJobsBeforeBulkJobs() throws Exception {
+        List<String> bulkIds = new ArrayList<>();
+        bulkIds.add("blocking");
+        IntStream.range(0, 100).forEach(i -> bulkIds.add("bulk" + i));
+        List<String> interactiveIds = IntStream.range(0, 30)
+            .mapToObj(i -> "interactive" + i).collect(Collectors.toList());
+
+        IndexingJob bulk = executor.submit(null, bulkIds, IndexingJob.Priority.BULK, "bulk", null);
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        IndexingJob interactive = executor.submit(null, interactiveIds, IndexingJob.Priority.INTERACTIVE, "interactive", null);
+        assertTrue(executor.isIndexing());
+        release.countDown();
+
+        interactive.getCompletion().get(10, TimeUnit.SECONDS);
+        bulk.getCompletion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(30, interactive.getProcessed());
+        assertEquals(101, bulk.getProcessed());
+        assertTrue("Interactive job is indexed before the end of the bulk job",
+            indexed.indexOf("interactive29") < indexed.indexOf("bulk99"));
+        assertTrue("Bulk job is not stopped by the interactive job",
+            indexed.indexOf("bulk" + IndexingExecutor.BATCH_SIZE) < indexed.indexOf("interactive29"));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        List<String> ids = new ArrayList<>();
+        ids.add("blocking");
+        IntStream.range(0, 100).forEach(i -> ids.add(String.valueOf(i)));
+
+        IndexingJob job = executor.submit(null, ids, IndexingJob.Priority.BULK, "test", null);
+        assertFalse(executor.cancel("unknown"));
+        assertTrue(executor.cancel(job.getId()));
+        release.countDown();
+        job.getCompletion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(IndexingJob.State.CANCELLED, job.getState());
+        assertTrue(job.getProcessed() < IndexingExecutor.BATCH_SIZE);
+        assertFalse(executor.cancel(job.getId()));
+        assertEquals(1, executor.getJobs().size());
+    }
+
+    @Test
+    public void testDestroyCompletesJobs() throws Exception {
+        List<String> ids = new ArrayList<>();
+        ids.add("blocking");
+        IntStream.range(0, 100).forEach(i -> ids.add(String.valueOf(i)));
+
+        IndexingJob running = executor.submit(null, ids, IndexingJob.Priority.BULK, "running", null);
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        IndexingJob waiting = executor.submit(null, Collections.singletonList("waiting"),
+            IndexingJob.Priority.BULK, "waiting", null);
+
+        executor.destroy();
+
+        running.getCompletion().get(1, TimeUnit.SECONDS);
+        waiting.getCompletion().get(1, TimeUnit.SECONDS);
+        assertEquals(IndexingJob.State.CANCELLED, running.getState());
+        assertEquals(IndexingJob.State.CANCELLED, waiting.getState());
+        assertFalse(executor.isIndexing());
+    }
+}
@@ -174,6 +174,65 @@ public class JwtHeadersUserUtilTest {
     }
 
 
+    /**
+     * user is synchronized with the DB once while the roles in the headers don't change
+     */
+    @Test
+    public void testUserCached() {
+        User user = new User();
+        user.setUsername("testcaseUser@example.com");
+        user.setId(666);
+
+        doReturn(user)
+            .when(jwtHeadersUserUtil.authProvider).loadUserByUsername("testcaseUser@example.com");
+
+        JwtHeadersConfiguration basicConfig = JwtHeadersIntegrationTest.getBasicConfig();
+        basicConfig.setUpdateGroup(false);
+        basicConfig.setUpdateProfile(true);
+
+        var trivialUser = new JwtHeadersTrivialUser("testcaseUser@example.com");
+        trivialUser.setProfile(Profile.Editor);
+
+        Assert.assertSame(user, jwtHeadersUserUtil.getUser(trivialUser, basicConfig));
+        Assert.assertSame(user, jwtHeadersUserUtil.getUser(trivialUser, basicConfig));
+
+        verify(jwtHeadersUserUtil.authProvider, times(1)).loadUserByUsername("testcaseUser@example.com");
+        verify(jwtHeadersUserUtil.userRepository, times(1)).save(user);
+        Assert.assertEquals(Profile.Editor, user.getProfile());
+
+        // profile changed in the headers
+        trivialUser.setProfile(Profile.Reviewer);
+        jwtHeadersUserUtil.getUser(trivialUser, basicConfig);
+
+        verify(jwtHeadersUserUtil.authProvider, times(2)).loadUserByUsername("testcaseUser@example.com");
+        verify(jwtHeadersUserUtil.userRepository, times(2)).save(user);
+        Assert.assertEquals(Profile.Reviewer, user.getProfile());
+    }
+
+    /**
+     * cache disabled, user is synchronized with the DB on each request
+     */
+    @Test
+    public void testUserCacheDisabled() {
+        User user = new User();
+        user.setUsername("testcaseUser@example.com");
+        user.setId(666);
+
+        doReturn(user)
+            .when(jwtHeadersUserUtil.authProvider).loadUserByUsername("testcaseUser@example.com");
+
+        JwtHeadersConfiguration basicConfig = JwtHeadersIntegrationTest.getBasicConfig();
+        basicConfig.setUpdateGroup(false);
+        basicConfig.setUpdateProfile(false);
+
+        jwtHeadersUserUtil.setUserCacheTtl(0);
+        var trivialUser = new JwtHeadersTrivialUser("testcaseUser@example.com");
+        jwtHeadersUserUtil.getUser(trivialUser, basicConfig);
+        jwtHeadersUserUtil.getUser(trivialUser, basicConfig);
+
+        verify(jwtHeadersUserUtil.authProvider, times(2)).loadUserByUsername("testcaseUser@example.com");
+    }
+
     /**
      * we have the config setup so it writes user data to DB
      * + no user in DB
@@ -0,0 +1,52 @@
+//=============================================================================
+//===	Copyright (C) 2001-2024 Food and Agriculture Organization of the
+//===	United Nations (FAO-UN), United Nations World Food Programme (WFP)
+//===	and United Nations Environment Programme (UNEP)
+//===
+//===	This program is free software; you can redistribute it and/or modify
+//===	it under the terms of the GNU General Public License as published by
+//===	the Free Software Foundation; either version 2 of the License, or (at
+//===	your option) any later version.
+//===
+//===	This program is distributed in the hope that it will be useful, but
+//===	WITHOUT ANY WARRANTY; without even the implied warranty of
+//===	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+//===	General Public License for more details.
+//===
+//===	You should have received a copy of the GNU General Public License
+//===	along with this program; if not, write to the Free Software
+//===	Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+//===
+//===	Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+//===	Rome - Italy. email: geonetwork@osgeo.org
+//==============================================================================
+
+package org.fao.geonet.kernel.setting;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntranetNetworksTest {
+
+    @Test
+    public void testParse() {
+        IntranetNetworks networks = IntranetNetworks.parse("192.168.1.0,10.0.0.0", "255.255.255.0,255.0.0.0");
+        assertFalse(networks.isEmpty());
+        assertTrue(networks.contains(IntranetNetworks.getAddress("192.168.1.25")));
+        assertTrue(networks.contains(IntranetNetworks.getAddress("10.12.0.1")));
+        assertFalse(networks.contains(IntranetNetworks.getAddress("192.168.2.1")));
+        assertFalse(networks.contains(IntranetNetworks.getAddress("11.0.0.1")));
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        assertSame(IntranetNetworks.EMPTY, IntranetNetworks.parse(null, "255.255.255.0"));
+        assertSame(IntranetNetworks.EMPTY, IntranetNetworks.parse("192.168.1.0", ""));
+        assertSame(IntranetNetworks.EMPTY, IntranetNetworks.parse("192.168.1.0,10.0.0.0", "255.255.255.0"));
+        assertSame(IntranetNetworks.EMPTY, IntranetNetworks.parse("192.168.a.0", "255.255.255.0"));
+        assertFalse(IntranetNetworks.EMPTY.contains(IntranetNetworks.getAddress("192.168.1.1")));
+    }
+}
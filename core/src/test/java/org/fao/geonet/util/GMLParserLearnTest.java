@@ -2,6 +2,7 @@ package org.fao.geonet.util;
 
 import org.fao.geonet.utils.Xml;
 import org.geotools.xsd.Parser;
+import org.jdom.Element;
 import org.jdom.JDOMException;
 import org.junit.Test;
 import org.xml.sax.SAXException;
@@ -53,6 +54,19 @@ public class GMLParserLearnTest {
 
     }
 
+    @Test
+    public void pooledParsersThreadSafe() throws Exception {
+        final Element geom = Xml.loadString(TO_PARSE, false);
+        List<Object> failedParse = IntStream.rangeClosed(1, 20).parallel().mapToObj(i -> {
+            try {
+                return GMLParsers.parse(geom, TO_PARSE);
+            } catch (Exception e) {
+                return null;
+            }
+        }).filter(x -> x == null).collect(Collectors.toList());
+        assertEquals(0, failedParse.size());
+    }
+
     static private Object parseCreateNewParser(int inc)  {
         Parser parser = GMLParsers.createGML();
         try {
@@ -357,14 +357,14 @@ public class Transaction extends AbstractOperation implements CatalogService {
                 changeDate = new ISODate().toString();
             }
 
-            beforeMetadata = metadataUtils.findOneByUuid(uuid).getXmlData(false);
+            beforeMetadata = metadataUtils.findOneByUuid(uuid).getXmlDataReadOnly();
 
             String language = context.getLanguage();
             dataMan.updateMetadata(context, id, xml,
                 applyValidation, applyUpdateFixedInfo,
                 language, changeDate, true, IndexingMode.none);
 
-            afterMetadata = metadataUtils.findOneByUuid(uuid).getXmlData(false);
+            afterMetadata = metadataUtils.findOneByUuid(uuid).getXmlDataReadOnly();
 
             XMLOutputter outp = new XMLOutputter();
             String xmlBefore = outp.outputString(beforeMetadata);
@@ -481,7 +481,7 @@ public class Transaction extends AbstractOperation implements CatalogService {
 
                     totalUpdated++;
                 }
-                afterMetadata = metadataUtils.findOneByUuid(uuid).getXmlData(false);
+                afterMetadata = metadataUtils.findOneByUuid(uuid).getXmlDataReadOnly();
 
                 XMLOutputter outp = new XMLOutputter();
                 String xmlBefore = outp.outputString(beforeMetadata);
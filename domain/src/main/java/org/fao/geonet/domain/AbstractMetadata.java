@@ -175,7 +175,9 @@ public abstract class AbstractMetadata extends GeonetEntity {
     }
 
     /**
-     * Parse the data as xml and return the data.
+     * Parse the data as xml and return the data. The returned element is owned by the caller and
+     * may be modified. When not validating, the record is parsed once and copied from the
+     * {@link MetadataXmlCache}.
      *
      * @param validate if true validate the XML while parsing.
      * @return the parsed metadata.
@@ -184,7 +186,23 @@ public abstract class AbstractMetadata extends GeonetEntity {
      */
     @Transient
     public Element getXmlData(boolean validate) throws IOException, JDOMException {
-        return Xml.loadString(getData(), validate);
+        if (validate) {
+            return Xml.loadString(getData(), true);
+        }
+        return MetadataXmlCache.getCopy(this);
+    }
+
+    /**
+     * Return the parsed data shared with other readers of the record, without copying it. The
+     * element must not be modified: use {@link #getXmlData(boolean)} to get a copy to work on.
+     *
+     * @return the parsed metadata.
+     * @throws IOException
+     * @throws JDOMException
+     */
+    @Transient
+    public Element getXmlDataReadOnly() throws IOException, JDOMException {
+        return MetadataXmlCache.getReadOnly(this);
     }
 
     private static String replaceString(final String initialString, final String pattern, final String replacement) {
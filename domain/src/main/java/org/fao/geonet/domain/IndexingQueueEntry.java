@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.domain;
+
+import javax.persistence.*;
+
+/**
+ * A record waiting to be indexed by the indexing task. Entries are added in the
+ * transaction modifying the record so that pending indexing is not lost on restart.
+ * A record may have more than one entry, they are all removed once it is indexed.
+ */
+@Entity
+@Access(AccessType.PROPERTY)
+@Table(name = IndexingQueueEntry.TABLE_NAME,
+    indexes = { @Index(name = "ix_indexingqueue_mdid", columnList = "metadataId") })
+@SequenceGenerator(name = IndexingQueueEntry.ID_SEQ_NAME, initialValue = 1, allocationSize = 1)
+public class IndexingQueueEntry {
+    public static final String TABLE_NAME = "IndexingQueue";
+    public static final String ID_COLUMN_NAME = "id";
+    public static final String METADATA_ID_COLUMN_NAME = "metadataId";
+    public static final String ENQUEUE_DATE_COLUMN_NAME = "enqueueDate";
+    static final String ID_SEQ_NAME = "indexing_queue_id_seq";
+    private int _id;
+    private int _metadataId;
+    private String _reason;
+    private ISODate _enqueueDate = new ISODate();
+
+    /**
+     * Get the id of the entry. Entries are processed in the order of their ids.
+     *
+     * @return the id of the entry.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQ_NAME)
+    @Column(name = ID_COLUMN_NAME)
+    public int getId() {
+        return _id;
+    }
+
+    /**
+     * Set the id of the entry.
+     *
+     * @param id the id of the entry.
+     * @return this entry object
+     */
+    public IndexingQueueEntry setId(int id) {
+        this._id = id;
+        return this;
+    }
+
+    /**
+     * Get the id of the record to index.
+     *
+     * @return the id of the record to index.
+     */
+    @Column(name = METADATA_ID_COLUMN_NAME, nullable = false)
+    public int getMetadataId() {
+        return _metadataId;
+    }
+
+    /**
+     * Set the id of the record to index.
+     *
+     * @param metadataId the id of the record to index.
+     * @return this entry object
+     */
+    public IndexingQueueEntry setMetadataId(int metadataId) {
+        this._metadataId = metadataId;
+        return this;
+    }
+
+    /**
+     * Get why the record has to be indexed (eg. rating).
+     *
+     * @return why the record has to be indexed.
+     */
+    @Column(length = 64)
+    public String getReason() {
+        return _reason;
+    }
+
+    /**
+     * Set why the record has to be indexed.
+     *
+     * @param reason why the record has to be indexed.
+     * @return this entry object
+     */
+    public IndexingQueueEntry setReason(String reason) {
+        this._reason = reason;
+        return this;
+    }
+
+    /**
+     * Get the date the entry was added.
+     *
+     * @return the date the entry was added.
+     */
+    @AttributeOverride(name = "dateAndTimeUtc", column = @Column(name = ENQUEUE_DATE_COLUMN_NAME, nullable = false, length = 30))
+    public ISODate getEnqueueDate() {
+        return _enqueueDate;
+    }
+
+    /**
+     * Set the date the entry was added.
+     *
+     * @param enqueueDate the date the entry was added.
+     * @return this entry object
+     */
+    public IndexingQueueEntry setEnqueueDate(ISODate enqueueDate) {
+        this._enqueueDate = enqueueDate;
+        return this;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.domain;
+
+import org.hibernate.annotations.Type;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.AttributeOverride;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A text translated by a machine translation provider. Together the entries form a translation
+ * memory which avoids sending the same text to the provider again.
+ *
+ * An entry is identified by the provider, the source and target languages and a key computed
+ * from the normalized source text.
+ */
+@Entity
+@Access(AccessType.PROPERTY)
+@Table(name = MachineTranslation.TABLE_NAME,
+    uniqueConstraints = @UniqueConstraint(columnNames = {"provider", "sourceLanguage", "targetLanguage", "sourceKey"}))
+@SequenceGenerator(name = MachineTranslation.ID_SEQ_NAME, initialValue = 1, allocationSize = 1)
+public class MachineTranslation extends GeonetEntity {
+    static final String ID_SEQ_NAME = "machinetranslation_id_seq";
+    public static final String TABLE_NAME = "MachineTranslations";
+    public static final String CREATION_DATE_COLUMN_NAME = "creationDate";
+    private int id;
+    private String provider;
+    private String sourceLanguage;
+    private String targetLanguage;
+    private String sourceKey;
+    private String sourceText;
+    private String translation;
+    private ISODate creationDate = new ISODate();
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQ_NAME)
+    @Column(nullable = false)
+    public int getId() {
+        return id;
+    }
+
+    public MachineTranslation setId(int id) {
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * Get the name of the translation provider.
+     */
+    @Column(nullable = false, length = 64)
+    public String getProvider() {
+        return provider;
+    }
+
+    public MachineTranslation setProvider(String provider) {
+        this.provider = provider;
+        return this;
+    }
+
+    /**
+     * Get the language code of the source text as sent to the provider.
+     */
+    @Column(nullable = false, length = 16)
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    public MachineTranslation setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+        return this;
+    }
+
+    /**
+     * Get the language code of the translation as sent to the provider.
+     */
+    @Column(nullable = false, length = 16)
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    public MachineTranslation setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+        return this;
+    }
+
+    /**
+     * Get the key of the normalized source text (a SHA-256 digest) used to look up the entry.
+     */
+    @Column(nullable = false, length = 64)
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public MachineTranslation setSourceKey(String sourceKey) {
+        this.sourceKey = sourceKey;
+        return this;
+    }
+
+    /**
+     * Get the normalized source text.
+     */
+    @Column(nullable = false)
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Type(type = "org.hibernate.type.TextType")
+    public String getSourceText() {
+        return sourceText;
+    }
+
+    public MachineTranslation setSourceText(String sourceText) {
+        this.sourceText = sourceText;
+        return this;
+    }
+
+    /**
+     * Get the translation returned by the provider.
+     */
+    @Column(nullable = false)
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    public String getTranslation() {
+        return translation;
+    }
+
+    public MachineTranslation setTranslation(String translation) {
+        this.translation = translation;
+        return this;
+    }
+
+    /**
+     * Get the date the text was translated.
+     */
+    @AttributeOverride(name = "dateAndTimeUtc", column = @Column(name = CREATION_DATE_COLUMN_NAME, nullable = false, length = 30))
+    public ISODate getCreationDate() {
+        return creationDate;
+    }
+
+    public MachineTranslation setCreationDate(ISODate creationDate) {
+        this.creationDate = creationDate;
+        return this;
+    }
+}
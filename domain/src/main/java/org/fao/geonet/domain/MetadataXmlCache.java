@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.domain;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.fao.geonet.utils.Xml;
+import org.jdom.Element;
+import org.jdom.JDOMException;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Process wide cache of the parsed XML of metadata records so that a record is parsed once
+ * however many times it is read during a request (save, XLink resolution, indexing, validation,
+ * formatting...).
+ *
+ * Entries are keyed by the record type and id and hold the data string they were parsed from. A
+ * cached document is only returned when the data of the record still equals that string, so an
+ * entity whose data was changed in memory never sees a stale document. Entries are also dropped
+ * when the record is updated or removed (see the metadata entity listeners).
+ *
+ * The cached elements are never modified. {@link #getCopy(AbstractMetadata)} returns a deep copy
+ * that the caller owns, {@link #getReadOnly(AbstractMetadata)} returns the shared element for
+ * callers that only query or serialize it.
+ *
+ * The cache is bounded by an estimate of the heap used by the cached entries, in bytes: the data
+ * string and the parsed tree, whose nodes take several times the size of the text they hold
+ * (system property <code>geonetwork.metadata.xmlcache.size</code>, 0 disables the cache). It uses
+ * soft values so that the documents are released under memory pressure.
+ */
+public final class MetadataXmlCache {
+    /**
+     * Maximum estimated heap used by the cached entries, in bytes.
+     */
+    public static final long MAXIMUM_SIZE = Long.getLong("geonetwork.metadata.xmlcache.size", 64L * 1024 * 1024);
+
+    /**
+     * Estimated size in bytes of the JDOM objects of an element (with its content and attribute
+     * lists and qualified name), an attribute and a text node, without their text.
+     */
+    private static final int ELEMENT_SIZE = 160;
+    private static final int ATTRIBUTE_SIZE = 64;
+    private static final int TEXT_SIZE = 48;
+
+    private static final Cache<String, Entry> CACHE = CacheBuilder.newBuilder()
+        .maximumWeight(MAXIMUM_SIZE)
+        .weigher((String key, Entry entry) -> entry.size)
+        .softValues()
+        .build();
+
+    private MetadataXmlCache() {
+    }
+
+    /**
+     * Get a copy of the parsed data of the record that the caller may modify.
+     */
+    public static Element getCopy(AbstractMetadata metadata) throws IOException, JDOMException {
+        return (Element) getReadOnly(metadata).clone();
+    }
+
+    /**
+     * Get the parsed data of the record shared with other callers. The element must not be
+     * modified nor attached to another document: use {@link #getCopy(AbstractMetadata)} for that.
+     */
+    public static Element getReadOnly(AbstractMetadata metadata) throws IOException, JDOMException {
+        String data = metadata.getData();
+        // An entry weighs at least the characters of the data
+        if (MAXIMUM_SIZE <= 0 || metadata.getId() == 0 || data == null || data.length() > MAXIMUM_SIZE) {
+            return Xml.loadString(data, false);
+        }
+
+        String key = key(metadata);
+        Entry entry = CACHE.getIfPresent(key);
+        if (entry == null || !entry.data.equals(data)) {
+            entry = new Entry(data, Xml.loadString(data, false));
+            CACHE.put(key, entry);
+        }
+        return entry.xml;
+    }
+
+    /**
+     * Drop the parsed data of the record, to be called when the record is updated or removed.
+     */
+    public static void invalidate(AbstractMetadata metadata) {
+        CACHE.invalidate(key(metadata));
+    }
+
+    /**
+     * Drop all the parsed records.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    private static String key(AbstractMetadata metadata) {
+        return (metadata instanceof MetadataDraft ? "draft:" : "metadata:") + metadata.getId();
+    }
+
+    /**
+     * @return the estimated heap used by the data string and the parsed element, in bytes.
+     */
+    static long estimateSize(String data, Element xml) {
+        // Two bytes per character at most, for the data string and for the text of the tree
+        long size = 4L * data.length() + ELEMENT_SIZE;
+        Iterator<?> descendants = xml.getDescendants();
+        while (descendants.hasNext()) {
+            Object node = descendants.next();
+            if (node instanceof Element) {
+                size += ELEMENT_SIZE + (long) ATTRIBUTE_SIZE * ((Element) node).getAttributes().size();
+            } else {
+                size += TEXT_SIZE;
+            }
+        }
+        size += (long) ATTRIBUTE_SIZE * xml.getAttributes().size();
+        return size;
+    }
+
+    private static final class Entry {
+        private final String data;
+        private final Element xml;
+        private final int size;
+
+        private Entry(String data, Element xml) {
+            this.data = data;
+            this.xml = xml;
+            this.size = (int) Math.min(Integer.MAX_VALUE, estimateSize(data, xml));
+        }
+    }
+}
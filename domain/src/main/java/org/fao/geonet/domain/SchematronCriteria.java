@@ -23,6 +23,7 @@
 
 package org.fao.geonet.domain;
 
+import org.fao.geonet.entitylistener.SchematronCriteriaEntityListenerManager;
 import org.jdom.Element;
 import org.jdom.Namespace;
 import org.springframework.context.ApplicationContext;
@@ -41,6 +42,7 @@ import java.util.List;
 @Entity
 @Table(name = "SchematronCriteria")
 @Cacheable
+@EntityListeners(SchematronCriteriaEntityListenerManager.class)
 @Access(AccessType.PROPERTY)
 @SequenceGenerator(name = SchematronCriteria.ID_SEQ_NAME, initialValue = 100, allocationSize = 1)
 public class SchematronCriteria extends GeonetEntity {
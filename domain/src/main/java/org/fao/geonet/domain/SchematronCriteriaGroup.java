@@ -23,6 +23,7 @@
 
 package org.fao.geonet.domain;
 
+import org.fao.geonet.entitylistener.SchematronCriteriaGroupEntityListenerManager;
 import org.jdom.Element;
 
 import javax.annotation.Nonnull;
@@ -37,6 +38,7 @@ import java.util.List;
 @Entity
 @Table(name = "SchematronCriteriaGroup")
 //@Cacheable
+@EntityListeners(SchematronCriteriaGroupEntityListenerManager.class)
 @Access(AccessType.PROPERTY)
 public class SchematronCriteriaGroup extends GeonetEntity {
     private SchematronCriteriaGroupId id;
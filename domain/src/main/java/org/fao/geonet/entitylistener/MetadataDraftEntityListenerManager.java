@@ -9,6 +9,7 @@ import javax.persistence.PreRemove;
 import javax.persistence.PreUpdate;
 
 import org.fao.geonet.domain.MetadataDraft;
+import org.fao.geonet.domain.MetadataXmlCache;
 
 public class MetadataDraftEntityListenerManager extends AbstractEntityListenerManager<MetadataDraft> {
     @PrePersist
@@ -25,6 +26,7 @@ public class MetadataDraftEntityListenerManager extends AbstractEntityListenerMa
     }
     @PostRemove
     public void postRemove(final MetadataDraft entity) {
+        MetadataXmlCache.invalidate(entity);
         handleEvent(PersistentEventType.PostRemove, entity);
     }
     @PreUpdate
@@ -33,6 +35,7 @@ public class MetadataDraftEntityListenerManager extends AbstractEntityListenerMa
     }
     @PostUpdate
     public void postUpdate(final MetadataDraft entity) {
+        MetadataXmlCache.invalidate(entity);
         handleEvent(PersistentEventType.PostUpdate, entity);
     }
     @PostLoad
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.repository;
+
+import org.fao.geonet.domain.IndexingQueueEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data Access object for accessing {@link IndexingQueueEntry} entities.
+ */
+public interface IndexingQueueRepository extends GeonetRepository<IndexingQueueEntry, Integer> {
+
+    /**
+     * Get the oldest entries.
+     */
+    List<IndexingQueueEntry> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Get the oldest entry, used to compute how late the indexing is.
+     */
+    @Nullable
+    IndexingQueueEntry findFirstByOrderByIdAsc();
+
+    /**
+     * Remove the entries of indexed records. Entries added after the
+     * records were read for indexing are kept.
+     *
+     * @param metadataIds the indexed records
+     * @param maxId       the id of the last entry read for indexing
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "DELETE FROM IndexingQueueEntry e WHERE e.metadataId IN (?1) AND e.id <= ?2")
+    int deleteIndexed(Collection<Integer> metadataIds, int maxId);
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.repository;
+
+import org.fao.geonet.domain.MachineTranslation;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data Access object for the {@link MachineTranslation} entities, the translation memory of the
+ * machine translation providers.
+ */
+public interface MachineTranslationRepository extends GeonetRepository<MachineTranslation, Integer> {
+
+    /**
+     * Find the translations of a set of texts.
+     *
+     * @param provider       the name of the translation provider.
+     * @param sourceLanguage the language of the texts.
+     * @param targetLanguage the language of the translations.
+     * @param sourceKeys     the keys of the normalized texts.
+     * @return the translations found.
+     */
+    @Nonnull
+    List<MachineTranslation> findAllByProviderAndSourceLanguageAndTargetLanguageAndSourceKeyIn(
+        @Nonnull String provider, @Nonnull String sourceLanguage, @Nonnull String targetLanguage,
+        @Nonnull Collection<String> sourceKeys);
+}
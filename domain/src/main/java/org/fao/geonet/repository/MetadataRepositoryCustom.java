@@ -23,8 +23,10 @@
 
 package org.fao.geonet.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -105,6 +107,12 @@ public interface MetadataRepositoryCustom<T extends AbstractMetadata> {
      */
     List<SimpleMetadata> findSimple(String harvestUuid);
 
+    /**
+     * Pass the basic info of each metadata of a harvester to an action without loading them all in
+     * memory first. Used by harvesters with a large number of records.
+     */
+    void forEachSimple(String harvestUuid, Consumer<SimpleMetadata> action);
+
     /**
      * Find all metadata on specified page. Returns the uuid, changedate and schemaid
      *
@@ -123,4 +131,21 @@ public interface MetadataRepositoryCustom<T extends AbstractMetadata> {
     @Nullable
     Element findUuidsAndChangeDatesAndSchemaId(List<Integer> ids);
 
+    /**
+     * Add a number of views to the popularity of records, using a JDBC batch.
+     * The increments are added to the stored value, so that concurrent updates
+     * (eg. from other nodes) are not overwritten.
+     *
+     * @param increments the number of views to add for each metadata id
+     */
+    void incrementPopularity(Map<Integer, Integer> increments);
+
+    /**
+     * Get the popularity of records.
+     *
+     * @param ids the metadata ids
+     * @return the popularity by record uuid
+     */
+    Map<String, Integer> findPopularityByUuid(Collection<Integer> ids);
+
 }
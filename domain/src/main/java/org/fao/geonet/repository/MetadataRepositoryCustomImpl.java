@@ -26,6 +26,8 @@ package org.fao.geonet.repository;
 import com.google.common.collect.Maps;
 import org.fao.geonet.domain.*;
 import org.fao.geonet.repository.reports.MetadataReportsQueries;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 import org.jdom.Element;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -33,14 +35,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.persistence.*;
 import javax.persistence.criteria.*;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementation for all {@link Metadata} queries that cannot be automatically generated by
@@ -50,6 +58,16 @@ import java.util.Map;
  */
 public class MetadataRepositoryCustomImpl implements MetadataRepositoryCustom<Metadata>  {
 
+    /**
+     * Number of rows fetched at once when iterating over the basic info of harvested records.
+     */
+    private static final int SIMPLE_METADATA_FETCH_SIZE = 1000;
+
+    /**
+     * Number of records updated or selected at once when saving the popularity of records.
+     */
+    private static final int POPULARITY_BATCH_SIZE = 500;
+
     @PersistenceContext
     EntityManager _entityManager;
 
@@ -149,6 +167,25 @@ public class MetadataRepositoryCustomImpl implements MetadataRepositoryCustom<Me
         return query.getResultList();
     }
 
+    /**
+     * @see org.fao.geonet.repository.MetadataRepositoryCustom#forEachSimple(String, java.util.function.Consumer)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSimple(String harvestUuid, Consumer<SimpleMetadata> action) {
+        TypedQuery<SimpleMetadata> query = _entityManager.createQuery(
+            "select new org.fao.geonet.repository.SimpleMetadata("
+                + "id, uuid, dataInfo.changeDate, dataInfo.type_JPAWorkaround) "
+                + "from Metadata where harvestInfo.uuid = :id", SimpleMetadata.class)
+            .setParameter("id", harvestUuid)
+            .setHint(QueryHints.HINT_FETCH_SIZE, SIMPLE_METADATA_FETCH_SIZE)
+            .setHint(QueryHints.HINT_READONLY, true);
+
+        try (Stream<SimpleMetadata> results = query.getResultStream()) {
+            results.forEach(action);
+        }
+    }
+
     @Override
     public Element findUuidsAndChangeDatesAndSchemaId(List<Integer> ids, @Nonnull Pageable pageable) {
         CriteriaBuilder cb = _entityManager.getCriteriaBuilder();
@@ -228,4 +265,46 @@ public class MetadataRepositoryCustomImpl implements MetadataRepositoryCustom<Me
         return result;
     }
 
+    @Override
+    @Transactional
+    public void incrementPopularity(Map<Integer, Integer> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        _entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE metadata SET popularity = popularity + ? WHERE id = ?")) {
+                int count = 0;
+                for (Map.Entry<Integer, Integer> increment : increments.entrySet()) {
+                    statement.setInt(1, increment.getValue());
+                    statement.setInt(2, increment.getKey());
+                    statement.addBatch();
+                    if (++count % POPULARITY_BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Integer> findPopularityByUuid(Collection<Integer> ids) {
+        Map<String, Integer> popularityByUuid = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += POPULARITY_BATCH_SIZE) {
+            List<Integer> batch = idList.subList(i, Math.min(i + POPULARITY_BATCH_SIZE, idList.size()));
+            CriteriaBuilder cb = _entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> cbQuery = cb.createQuery(Tuple.class);
+            Root<Metadata> root = cbQuery.from(Metadata.class);
+
+            cbQuery.multiselect(root.get(Metadata_.uuid), root.get(Metadata_.dataInfo).get(MetadataDataInfo_.popularity));
+            cbQuery.where(root.get(Metadata_.id).in(batch));
+
+            for (Tuple tuple : _entityManager.createQuery(cbQuery).getResultList()) {
+                popularityByUuid.put((String) tuple.get(0), (Integer) tuple.get(1));
+            }
+        }
+        return popularityByUuid;
+    }
 }
@@ -23,9 +23,9 @@
 
 package org.fao.geonet.repository;
 
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.transaction.annotation.Transactional;
+import org.fao.geonet.domain.MetadataValidation;
+
+import java.util.Collection;
 
 /**
  * Custom repository methods for the MetadataValidationRepository User: Jesse Date: 9/5/13 Time:
@@ -38,9 +38,6 @@ public interface MetadataValidationRepositoryCustom {
      * @param metadataId the id of the metadata.
      * @return the number of rows deleted
      */
-    @Modifying(clearAutomatically=true)
-    @Transactional
-    @Query(value="DELETE FROM MetadataValidation v where v.id.metadataId = ?1")
     int deleteAllById_MetadataId(Integer metadataId);
 
     /**
@@ -51,8 +48,18 @@ public interface MetadataValidationRepositoryCustom {
      * @param metadataId the id of the metadata.
      * @return the number of rows deleted
      */
-    @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Transactional
-    @Query(value="DELETE FROM MetadataValidation v where v.id.metadataId = ?1 AND valtype != 'inspire'")
     int deleteAllInternalValidationById_MetadataId(Integer metadataId);
+
+    /**
+     * Replace the internal validation results (eg. XSD or schematron) of a set of metadata by the
+     * ones provided. INSPIRE validation results are preserved.
+     * <p/>
+     * Existing results are removed with a single statement and new ones are inserted using JDBC
+     * batches, so it is much faster than saving records one by one when validating a large part
+     * of the catalogue. The persistence context is cleared once done.
+     *
+     * @param metadataIds the ids of the metadata whose internal validation results are replaced.
+     * @param validations the new validation results for those metadata.
+     */
+    void replaceAllInternalValidations(Collection<Integer> metadataIds, Collection<MetadataValidation> validations);
 }
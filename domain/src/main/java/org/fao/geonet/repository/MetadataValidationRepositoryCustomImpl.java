@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+package org.fao.geonet.repository;
+
+import org.fao.geonet.domain.MetadataValidation;
+import org.fao.geonet.domain.MetadataValidationId_;
+import org.fao.geonet.domain.MetadataValidation_;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Collection;
+
+/**
+ * Implementation for MetadataValidationRepositoryCustom interface.
+ */
+public class MetadataValidationRepositoryCustomImpl implements MetadataValidationRepositoryCustom {
+
+    /**
+     * Number of validation results sent to the database in one JDBC batch.
+     */
+    static final int INSERT_BATCH_SIZE = 100;
+
+    private static final String INSPIRE_VALIDATION_TYPE = "inspire";
+
+    @PersistenceContext
+    private EntityManager _entityManager;
+
+    @Override
+    @Transactional
+    public int deleteAllById_MetadataId(final Integer metadataId) {
+        String qlString = String.format("DELETE FROM %s WHERE %s.%s = :metadataId",
+            MetadataValidation.class.getSimpleName(),
+            MetadataValidation_.id.getName(), MetadataValidationId_.metadataId.getName());
+        Query query = _entityManager.createQuery(qlString);
+        query.setParameter("metadataId", metadataId);
+        int deleted = query.executeUpdate();
+        _entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllInternalValidationById_MetadataId(final Integer metadataId) {
+        _entityManager.flush();
+        String qlString = String.format("DELETE FROM %s WHERE %s.%s = :metadataId AND %s.%s != :inspire",
+            MetadataValidation.class.getSimpleName(),
+            MetadataValidation_.id.getName(), MetadataValidationId_.metadataId.getName(),
+            MetadataValidation_.id.getName(), MetadataValidationId_.validationType.getName());
+        Query query = _entityManager.createQuery(qlString);
+        query.setParameter("metadataId", metadataId);
+        query.setParameter("inspire", INSPIRE_VALIDATION_TYPE);
+        int deleted = query.executeUpdate();
+        _entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public void replaceAllInternalValidations(final Collection<Integer> metadataIds,
+                                              final Collection<MetadataValidation> validations) {
+        if (metadataIds.isEmpty()) {
+            return;
+        }
+        _entityManager.flush();
+        String qlString = String.format("DELETE FROM %s WHERE %s.%s IN (:metadataIds) AND %s.%s != :inspire",
+            MetadataValidation.class.getSimpleName(),
+            MetadataValidation_.id.getName(), MetadataValidationId_.metadataId.getName(),
+            MetadataValidation_.id.getName(), MetadataValidationId_.validationType.getName());
+        Query query = _entityManager.createQuery(qlString);
+        query.setParameter("metadataIds", metadataIds);
+        query.setParameter("inspire", INSPIRE_VALIDATION_TYPE);
+        query.executeUpdate();
+        _entityManager.clear();
+
+        // Rows were just removed so persist can be used instead of merge (saveAll)
+        // which would select each entity before inserting it.
+        Session session = _entityManager.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(INSERT_BATCH_SIZE);
+        try {
+            int count = 0;
+            for (MetadataValidation validation : validations) {
+                _entityManager.persist(validation);
+                if (++count % INSERT_BATCH_SIZE == 0) {
+                    _entityManager.flush();
+                    _entityManager.clear();
+                }
+            }
+            _entityManager.flush();
+            _entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.util.Collection;
 
 /**
  * Specification for querying {@link org.fao.geonet.repository.MetadataValidationRepository}.
@@ -48,4 +49,15 @@ public class MetadataValidationSpecs {
             }
         };
     }
+
+    public static Specification<MetadataValidation> hasMetadataIdIn(final Collection<Integer> metadataIds) {
+        return new Specification<MetadataValidation>() {
+            @Override
+            public Predicate toPredicate(Root<MetadataValidation> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+                Path<Integer> metadataIdAttributePath = root.get(MetadataValidation_.id).get(MetadataValidationId_.metadataId);
+
+                return metadataIdAttributePath.in(metadataIds);
+            }
+        };
+    }
 }
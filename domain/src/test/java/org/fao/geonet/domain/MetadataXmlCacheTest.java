@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.domain;
+
+import org.fao.geonet.utils.Xml;
+import org.jdom.Element;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataXmlCacheTest {
+
+    @After
+    public void tearDown() {
+        MetadataXmlCache.invalidateAll();
+    }
+
+    @Test
+    public void testReadOnlyIsParsedOnce() throws Exception {
+        Metadata metadata = metadata(1, "<root><title>a</title></root>");
+
+        Element xml = metadata.getXmlDataReadOnly();
+        assertSame(xml, metadata.getXmlDataReadOnly());
+        assertEquals("a", xml.getChildText("title"));
+    }
+
+    @Test
+    public void testCopyDoesNotChangeCachedDocument() throws Exception {
+        Metadata metadata = metadata(1, "<root><title>a</title></root>");
+
+        Element copy = metadata.getXmlData(false);
+        assertNotSame(copy, metadata.getXmlData(false));
+        assertNull(copy.getParent());
+
+        copy.getChild("title").setText("b");
+        assertEquals("a", metadata.getXmlDataReadOnly().getChildText("title"));
+        assertEquals("a", metadata.getXmlData(false).getChildText("title"));
+    }
+
+    @Test
+    public void testSizeAccountsForTheParsedTree() throws Exception {
+        StringBuilder data = new StringBuilder("<root>");
+        for (int i = 0; i < 100; i++) {
+            data.append("<keyword id=\"k").append(i).append("\">k</keyword>");
+        }
+        data.append("</root>");
+
+        long size = MetadataXmlCache.estimateSize(data.toString(), Xml.loadString(data.toString(), false));
+        assertTrue("Size of 101 elements, 100 attributes and 100 texts: " + size,
+            size >= 4L * data.length() + 101 * 160 + 100 * 64 + 100 * 48);
+    }
+
+    @Test
+    public void testChangedDataIsParsedAgain() throws Exception {
+        Metadata metadata = metadata(1, "<root><title>a</title></root>");
+        Element before = metadata.getXmlDataReadOnly();
+
+        metadata.setDataAndFixCR(Xml.loadString("<root><title>b</title></root>", false));
+
+        Element after = metadata.getXmlDataReadOnly();
+        assertNotSame(before, after);
+        assertEquals("b", after.getChildText("title"));
+    }
+
+    @Test
+    public void testRecordsAreCachedSeparately() throws Exception {
+        Metadata metadata = metadata(1, "<root><title>a</title></root>");
+        MetadataDraft draft = new MetadataDraft();
+        draft.setId(1);
+        draft.setData("<root><title>draft</title></root>");
+
+        assertEquals("a", metadata.getXmlDataReadOnly().getChildText("title"));
+        assertEquals("draft", draft.getXmlDataReadOnly().getChildText("title"));
+        assertEquals("a", metadata.getXmlDataReadOnly().getChildText("title"));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        Metadata metadata = metadata(1, "<root><title>a</title></root>");
+        Element before = metadata.getXmlDataReadOnly();
+
+        MetadataXmlCache.invalidate(metadata);
+
+        assertNotSame(before, metadata.getXmlDataReadOnly());
+    }
+
+    private Metadata metadata(int id, String data) {
+        Metadata metadata = new Metadata();
+        metadata.setId(id);
+        metadata.setData(data);
+        return metadata;
+    }
+}
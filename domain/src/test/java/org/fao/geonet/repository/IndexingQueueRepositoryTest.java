@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.repository;
+
+import org.fao.geonet.domain.IndexingQueueEntry;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import javax.transaction.Transactional;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Transactional
+public class IndexingQueueRepositoryTest extends AbstractSpringDataTest {
+    @Autowired
+    IndexingQueueRepository _repo;
+
+    @Test
+    public void testFindOldestAndDeleteIndexed() {
+        IndexingQueueEntry first = _repo.save(new IndexingQueueEntry().setMetadataId(1).setReason("rating"));
+        IndexingQueueEntry second = _repo.save(new IndexingQueueEntry().setMetadataId(2));
+        _repo.save(new IndexingQueueEntry().setMetadataId(1));
+
+        assertEquals(first.getId(), _repo.findFirstByOrderByIdAsc().getId());
+
+        List<IndexingQueueEntry> batch = _repo.findAllByOrderByIdAsc(PageRequest.of(0, 2));
+        assertEquals(2, batch.size());
+        assertEquals(second.getId(), batch.get(1).getId());
+
+        // The entry added after the batch was read is kept
+        assertEquals(2, _repo.deleteIndexed(Arrays.asList(1, 2), second.getId()));
+        assertEquals(1, _repo.count());
+        assertEquals(1, _repo.findFirstByOrderByIdAsc().getMetadataId());
+
+        _repo.deleteAll();
+        assertNull(_repo.findFirstByOrderByIdAsc());
+    }
+}
@@ -27,6 +27,7 @@ import org.fao.geonet.domain.*;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -95,6 +96,34 @@ public class MetadataValidationRepositoryTest extends AbstractSpringDataTest {
         assertFalse(_metadataValidationRepository.findById(val1.getId()).isPresent());
     }
 
+    @Test
+    public void testReplaceAllInternalValidations() throws Exception {
+        MetadataValidation val1 = _metadataValidationRepository.save(newValidation());
+        final int metadataId = val1.getId().getMetadataId();
+        MetadataValidation inspire = newValidation();
+        inspire.getId().setMetadataId(metadataId);
+        inspire.getId().setValidationType("inspire");
+        _metadataValidationRepository.save(inspire);
+        MetadataValidation val3 = _metadataValidationRepository.save(newValidation());
+
+        MetadataValidation xsd = new MetadataValidation().setId(new MetadataValidationId(metadataId, "xsd"))
+            .setStatus(MetadataValidationStatus.VALID).setRequired(true).setNumTests(1).setNumFailures(0);
+        MetadataValidation otherXsd = new MetadataValidation()
+            .setId(new MetadataValidationId(val3.getId().getMetadataId(), "xsd"))
+            .setStatus(MetadataValidationStatus.INVALID).setRequired(true).setNumTests(2).setNumFailures(2);
+
+        _metadataValidationRepository.replaceAllInternalValidations(
+            Arrays.asList(metadataId, val3.getId().getMetadataId()), Arrays.asList(xsd, otherXsd));
+
+        assertEquals(3, _metadataValidationRepository.count());
+        assertFalse(_metadataValidationRepository.findById(val1.getId()).isPresent());
+        assertFalse(_metadataValidationRepository.findById(val3.getId()).isPresent());
+        assertTrue(_metadataValidationRepository.findById(inspire.getId()).isPresent());
+        assertEquals(MetadataValidationStatus.INVALID,
+            _metadataValidationRepository.findById(otherXsd.getId()).get().getStatus());
+        assertEquals(2, _metadataValidationRepository.findAllById_MetadataId(metadataId).size());
+    }
+
     private MetadataValidation newValidation() {
         return newValidation(_inc, _metadataRepository);
     }
@@ -23,6 +23,8 @@
 
 package org.fao.geonet.kernel.harvest.harvester;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jeeves.server.UserSession;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
@@ -104,6 +106,12 @@ import static org.quartz.JobKey.jobKey;
  */
 public abstract class AbstractHarvester<T extends HarvestResult, P extends AbstractParams> {
     public static final String HARVESTER_GROUP_NAME = "HARVESTER_GROUP_NAME";
+    /**
+     * Duration of the harvesting stages, tagged with the harvester type and the stage (eg. login,
+     * harvest, report, or search and align for the harvesters which page through a remote
+     * catalogue).
+     */
+    public static final String STAGE_TIMER = "gn.harvester.stage";
     private static final String SCHEDULER_ID = "abstractHarvester";
     /**
      * Time to wait for not critical operations in seconds. Should be
@@ -618,8 +626,11 @@ public abstract class AbstractHarvester<T extends HarvestResult, P extends Abstr
                     final Logger logger = this.log;
                     final String nodeName = getParams().getName() + " (" + getClass().getSimpleName() + ")";
                     final String lastRun = OffsetDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME);
+                    final String type = getType();
+                    Timer.Sample stage = Timer.start(Metrics.globalRegistry);
                     try {
                         login();
+                        stage.stop(stageTimer(type, "login"));
 
                         //--- update lastRun
                         harvesterSettingsManager.setValue("harvesting/id:" + id + "/info/lastRun", lastRun);
@@ -627,8 +638,13 @@ public abstract class AbstractHarvester<T extends HarvestResult, P extends Abstr
                         //--- proper harvesting
                         logger.info("Started harvesting from node : " + nodeName);
                         HarvestWithIndexProcessor h = new HarvestWithIndexProcessor(dataMan, logger);
-                        // todo check (was: processwithfastindexing)
-                        h.process(settingManager.getSiteId());
+                        stage = Timer.start(Metrics.globalRegistry);
+                        try {
+                            // todo check (was: processwithfastindexing)
+                            h.process(settingManager.getSiteId());
+                        } finally {
+                            stage.stop(stageTimer(type, "harvest"));
+                        }
                         logger.info("Ended harvesting from node : " + nodeName);
 
                         if (getParams().isOneRunOnly()) {
@@ -668,7 +684,9 @@ public abstract class AbstractHarvester<T extends HarvestResult, P extends Abstr
 
                     long elapsedTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTime);
 
+                    stage = Timer.start(Metrics.globalRegistry);
                     logHarvest(logfile, logger, nodeName, lastRun, elapsedTime);
+                    stage.stop(stageTimer(type, "report"));
                 } finally {
                     cancelMonitor.set(false);
                     running = false;
@@ -691,6 +709,18 @@ public abstract class AbstractHarvester<T extends HarvestResult, P extends Abstr
 
     }
 
+    /**
+     * The timer of a harvesting stage. Stages are a small fixed set so the number of timers stays
+     * bounded by the number of harvester types.
+     */
+    public static Timer stageTimer(String type, String stage) {
+        return Timer.builder(STAGE_TIMER)
+            .description("Harvesting stages")
+            .tag("type", type)
+            .tag("stage", stage)
+            .register(Metrics.globalRegistry);
+    }
+
     private void logHarvest(String logfile, Logger logger, String nodeName, String lastRun, long elapsedTime) {
         try {
             // record the results/errors for this harvest in the database
@@ -23,8 +23,17 @@
 
 package org.fao.geonet.kernel.harvest.harvester;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.fao.geonet.kernel.datamanager.IMetadataUtils;
 import org.fao.geonet.repository.SimpleMetadata;
@@ -33,13 +42,25 @@ import org.fao.geonet.repository.SimpleMetadata;
 
 /**
  * Create a mapping remote ID -> local ID / change date. Retrieves all metadata of a given siteID
- * and puts them into an hashmap.
+ * and puts them into sorted arrays.
+ * <p>
+ * Harvesters may have millions of records so the mapping is kept compact: the UUIDs are stored
+ * UTF-8 encoded in a single byte array, ids as primitive ints and change dates as epoch
+ * milliseconds. Lookups are binary searches on the sorted UUIDs.
  */
 
 public class UUIDMapper {
-    private HashMap<String, String> hmUuidDate = new HashMap<String, String>();
-    private HashMap<String, String> hmUuidId = new HashMap<String, String>();
-    private HashMap<String, String> hmUuidTemplate = new HashMap<String, String>();
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private int size;
+    /** All UUIDs in sorted order, UUID i is between uuidOffsets[i] and uuidOffsets[i + 1] */
+    private byte[] uuidBytes;
+    private int[] uuidOffsets;
+    private int[] ids;
+    private long[] dates;
+    private char[] templates;
+    /** Change dates which can not be restored from epoch milliseconds, eg. dates without time */
+    private final Map<Integer, String> otherDates = new HashMap<>();
 
     //--------------------------------------------------------------------------
     //---
@@ -48,16 +69,9 @@ public class UUIDMapper {
     //--------------------------------------------------------------------------
 
     public UUIDMapper(IMetadataUtils repo, String harvestUuid) throws Exception {
-
-        final List<SimpleMetadata> all = repo.findAllSimple(harvestUuid);
-
-        //This may lead to problems if we have millions of records from the same harvester...
-        //If that happens, we may have to look for something that uses even less memory
-        for (SimpleMetadata record : all) {
-            hmUuidDate.put(record.getUuid(), record.getDate());
-            hmUuidId.put(record.getUuid(), record.getId());
-            hmUuidTemplate.put(record.getUuid(), record.getIsTemplate());
-        }
+        Builder builder = new Builder();
+        repo.forEachSimple(harvestUuid, builder::add);
+        builder.build(this);
     }
 
     //--------------------------------------------------------------------------
@@ -67,25 +81,212 @@ public class UUIDMapper {
     //--------------------------------------------------------------------------
 
     public String getTemplate(String uuid) {
-        return hmUuidTemplate.get(uuid);
+        int index = indexOf(uuid);
+        return index < 0 ? null : String.valueOf(templates[index]);
     }
 
     //--------------------------------------------------------------------------
 
     public String getChangeDate(String uuid) {
-        return hmUuidDate.get(uuid);
+        int index = indexOf(uuid);
+        if (index < 0) {
+            return null;
+        }
+        return dates[index] == NO_DATE ? otherDates.get(index) : formatDate(dates[index]);
     }
 
     //--------------------------------------------------------------------------
 
     public String getID(String uuid) {
-        return hmUuidId.get(uuid);
+        int index = indexOf(uuid);
+        return index < 0 ? null : String.valueOf(ids[index]);
     }
 
     //--------------------------------------------------------------------------
 
     public Iterable<String> getUUIDs() {
-        return hmUuidDate.keySet();
+        return () -> new Iterator<String>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getUUID(index++);
+            }
+        };
+    }
+
+    //--------------------------------------------------------------------------
+    //---
+    //--- Private methods
+    //---
+    //--------------------------------------------------------------------------
+
+    private String getUUID(int index) {
+        return new String(uuidBytes, uuidOffsets[index], uuidOffsets[index + 1] - uuidOffsets[index],
+            StandardCharsets.UTF_8);
+    }
+
+    private int indexOf(String uuid) {
+        if (uuid == null) {
+            return -1;
+        }
+        byte[] key = uuid.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(uuidBytes, uuidOffsets[mid], uuidOffsets[mid + 1], key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static String formatDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
+
+    /**
+     * @return the epoch milliseconds of the date or NO_DATE if it would not be formatted back to the same string.
+     */
+    private static long parseDate(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        try {
+            long epochMillis = OffsetDateTime.parse(date, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+            if (date.equals(formatDate(epochMillis))) {
+                return epochMillis;
+            }
+        } catch (DateTimeParseException e) {
+            // Kept as is
+        }
+        return NO_DATE;
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Collects the records in the order they are loaded then sorts them by UUID. When a UUID is
+     * loaded more than once, the last record wins.
+     */
+    private static class Builder {
+        private int count;
+        private byte[] uuidBytes = new byte[4096];
+        private int[] uuidOffsets = new int[129];
+        private int[] ids = new int[128];
+        private long[] dates = new long[128];
+        private char[] templates = new char[128];
+        private final Map<Integer, String> otherDates = new HashMap<>();
+
+        void add(SimpleMetadata record) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                uuidOffsets = Arrays.copyOf(uuidOffsets, capacity + 1);
+                ids = Arrays.copyOf(ids, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+                templates = Arrays.copyOf(templates, capacity);
+            }
+            byte[] uuid = record.getUuid().getBytes(StandardCharsets.UTF_8);
+            int start = uuidOffsets[count];
+            if (start + uuid.length > uuidBytes.length) {
+                uuidBytes = Arrays.copyOf(uuidBytes, Math.max(uuidBytes.length * 2, start + uuid.length));
+            }
+            System.arraycopy(uuid, 0, uuidBytes, start, uuid.length);
+            uuidOffsets[count + 1] = start + uuid.length;
+
+            ids[count] = Integer.parseInt(record.getId());
+            dates[count] = parseDate(record.getDate());
+            if (dates[count] == NO_DATE && record.getDate() != null) {
+                otherDates.put(count, record.getDate());
+            }
+            templates[count] = record.getIsTemplate().charAt(0);
+            count++;
+        }
+
+        void build(UUIDMapper mapper) {
+            int[] order = sort();
+
+            // Keep the last of each run of equal UUIDs, the sort being stable it is the last loaded
+            int size = 0;
+            int totalBytes = 0;
+            for (int i = 0; i < count; i++) {
+                if (i + 1 == count || compare(order[i], order[i + 1]) != 0) {
+                    order[size++] = order[i];
+                    totalBytes += uuidOffsets[order[i] + 1] - uuidOffsets[order[i]];
+                }
+            }
+
+            mapper.size = size;
+            mapper.uuidBytes = new byte[totalBytes];
+            mapper.uuidOffsets = new int[size + 1];
+            mapper.ids = new int[size];
+            mapper.dates = new long[size];
+            mapper.templates = new char[size];
+            for (int i = 0; i < size; i++) {
+                int source = order[i];
+                int length = uuidOffsets[source + 1] - uuidOffsets[source];
+                System.arraycopy(uuidBytes, uuidOffsets[source], mapper.uuidBytes, mapper.uuidOffsets[i], length);
+                mapper.uuidOffsets[i + 1] = mapper.uuidOffsets[i] + length;
+                mapper.ids[i] = ids[source];
+                mapper.dates[i] = dates[source];
+                mapper.templates[i] = templates[source];
+                if (otherDates.containsKey(source)) {
+                    mapper.otherDates.put(i, otherDates.get(source));
+                }
+            }
+        }
+
+        private int compare(int a, int b) {
+            return Arrays.compareUnsigned(uuidBytes, uuidOffsets[a], uuidOffsets[a + 1],
+                uuidBytes, uuidOffsets[b], uuidOffsets[b + 1]);
+        }
+
+        /**
+         * Stable bottom-up merge sort of the record positions by UUID.
+         */
+        private int[] sort() {
+            int[] source = new int[count];
+            for (int i = 0; i < count; i++) {
+                source[i] = i;
+            }
+            int[] target = new int[count];
+            for (int width = 1; width < count; width *= 2) {
+                for (int low = 0; low < count; low += 2 * width) {
+                    int mid = Math.min(low + width, count);
+                    int high = Math.min(low + 2 * width, count);
+                    int i = low;
+                    int j = mid;
+                    int k = low;
+                    while (i < mid && j < high) {
+                        target[k++] = compare(source[j], source[i]) < 0 ? source[j++] : source[i++];
+                    }
+                    while (i < mid) {
+                        target[k++] = source[i++];
+                    }
+                    while (j < high) {
+                        target[k++] = source[j++];
+                    }
+                }
+                int[] swap = source;
+                source = target;
+                target = swap;
+            }
+            return source;
+        }
     }
 }
 
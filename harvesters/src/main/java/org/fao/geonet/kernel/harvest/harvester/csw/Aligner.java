@@ -27,6 +27,7 @@ import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
 import org.fao.geonet.GeonetContext;
@@ -43,10 +44,10 @@ import org.fao.geonet.domain.MetadataType;
 import org.fao.geonet.domain.Pair;
 import org.fao.geonet.exceptions.OperationAbortedEx;
 import org.fao.geonet.kernel.*;
-import org.fao.geonet.kernel.datamanager.IMetadataIndexer;
 import org.fao.geonet.kernel.datamanager.IMetadataManager;
 import org.fao.geonet.kernel.datamanager.IMetadataUtils;
 import org.fao.geonet.kernel.harvest.BaseAligner;
+import org.fao.geonet.kernel.harvest.harvester.AbstractParams;
 import org.fao.geonet.kernel.harvest.harvester.CategoryMapper;
 import org.fao.geonet.kernel.harvest.harvester.GroupMapper;
 import org.fao.geonet.kernel.harvest.harvester.HarvestError;
@@ -69,6 +70,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.fao.geonet.kernel.search.EsSearchManager.FIELDLIST_UUID;
@@ -79,7 +84,17 @@ import static org.fao.geonet.utils.AbstractHttpRequest.Method.POST;
 
 
 
-public class Aligner extends BaseAligner<CswParams> {
+public class Aligner extends BaseAligner<CswParams> implements AutoCloseable {
+
+    /**
+     * Maximum number of ids requested in one GetRecordById request.
+     */
+    private static final int RETRIEVAL_BATCH_SIZE = 20;
+
+    /**
+     * Number of records retrieved at the same time when they are requested one by one.
+     */
+    private static final int MAX_PARALLEL_RETRIEVALS = 4;
 
     private ServiceContext context;
     private DataManager dataMan;
@@ -89,10 +104,15 @@ public class Aligner extends BaseAligner<CswParams> {
 
     private IMetadataUtils metadataUtils;
     private IMetadataManager metadataManager;
-    private IMetadataIndexer metadataIndexer;
 
     private HarvestResult result;
+    private CswOperation recordByIdOperation;
     private GetRecordByIdRequest request;
+    private boolean batchRetrieval = true;
+    private final Map<String, Future<Element>> retrievals = new HashMap<>();
+    private final ExecutorService retrievalExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_RETRIEVALS,
+        new ThreadFactoryBuilder().setNameFormat("csw-retrieval-%d").setDaemon(true).build());
+    private final List<String> idsToIndex = new ArrayList<>();
     private String processName;
     private Map<String, Object> processParams = new HashMap<>();
     private Logger log;
@@ -108,7 +128,6 @@ public class Aligner extends BaseAligner<CswParams> {
         dataMan = gc.getBean(DataManager.class);
         metadataUtils = gc.getBean(IMetadataUtils.class);
         metadataManager = gc.getBean(IMetadataManager.class);
-        metadataIndexer = gc.getBean(IMetadataIndexer.class);
         searchManager = gc.getBean(EsSearchManager.class);
         result = new HarvestResult();
         result.unretrievable = 0;
@@ -118,10 +137,19 @@ public class Aligner extends BaseAligner<CswParams> {
 
         //--- setup get-record-by-id request
 
-        request = new GetRecordByIdRequest(sc);
+        recordByIdOperation = server.getOperation(CswServer.GET_RECORD_BY_ID);
+        request = createRecordByIdRequest();
+    }
+
+    /**
+     * Create a GetRecordById request for the remote server. The request is not thread safe, each
+     * thread retrieving records uses its own.
+     */
+    private GetRecordByIdRequest createRecordByIdRequest() throws OperationAbortedEx {
+        GetRecordByIdRequest request = new GetRecordByIdRequest(context);
         request.setElementSetName(ElementSetName.FULL);
 
-        CswOperation oper = server.getOperation(CswServer.GET_RECORD_BY_ID);
+        CswOperation oper = recordByIdOperation;
 
         // Use the preferred HTTP method and check one exist.
         if (oper.getGetUrl() != null && Harvester.PREFERRED_HTTP_METHOD.equals("GET")) {
@@ -155,7 +183,7 @@ public class Aligner extends BaseAligner<CswParams> {
         if (params.isUseAccount()) {
             request.setCredentials(params.getUsername(), params.getPassword());
         }
-
+        return request;
     }
 
     public HarvestResult align(Collection<RecordInfo> records, Collection<HarvestError> errors) throws Exception {
@@ -177,12 +205,34 @@ public class Aligner extends BaseAligner<CswParams> {
         processName = filter.one();
         processParams = filter.two();
 
-        insertOrUpdate(records, errors);
+        try {
+            retrieveAhead(records);
+            insertOrUpdate(records, errors);
+        } finally {
+            // Records not aligned, eg. when the harvester is stopped
+            retrievals.values().forEach(retrieval -> retrieval.cancel(true));
+            retrievals.clear();
+
+            if (!idsToIndex.isEmpty()) {
+                log.debug(String.format("Starting indexing in batch thread pool of %d harvested records ...",
+                    idsToIndex.size()));
+                dataMan.batchIndexInThreadPool(context, new ArrayList<>(idsToIndex));
+                idsToIndex.clear();
+            }
+        }
         log.debug("End of alignment for : " + params.getName());
 
         return result;
     }
 
+    /**
+     * Stop the threads retrieving the records, once all the pages of the harvest are aligned.
+     */
+    @Override
+    public void close() {
+        retrievalExecutor.shutdownNow();
+    }
+
     private void insertOrUpdate(Collection<RecordInfo> records, Collection<HarvestError> errors) {
         for (RecordInfo ri : records) {
 
@@ -371,7 +421,7 @@ public class Aligner extends BaseAligner<CswParams> {
 
         addPrivileges(id, params.getPrivileges(), localGroups, context);
 
-        metadataIndexer.indexMetadata(id, true, IndexingMode.full);
+        idsToIndex.add(id);
         result.addedMetadata++;
     }
 
@@ -435,7 +485,7 @@ public class Aligner extends BaseAligner<CswParams> {
             } else {
                 log.debug("  - Updating local metadata for uuid:" + ri.uuid);
                 if (updatingLocalMetadata(ri, id, force)) {
-                    metadataIndexer.indexMetadata(id, true, IndexingMode.full);
+                    idsToIndex.add(id);
                     result.updatedMetadata++;
                 }
             }
@@ -514,30 +564,22 @@ public class Aligner extends BaseAligner<CswParams> {
      * @return metadata the metadata
      */
     private Element retrieveMetadata(String uuid) {
-        request.clearIds();
-        request.addId(uuid);
-
         try {
-            log.debug("Getting record from : " + request.getHost() + " (uuid:" + uuid + ")");
-
-            Element response = request.execute();
-            if (log.isDebugEnabled()) {
-                log.debug("Record got: " + Xml.getString(response) + "\n");
+            Element response;
+            Future<Element> retrieval = retrievals.remove(uuid);
+            if (retrieval != null) {
+                response = retrieval.get();
+            } else {
+                response = retrieveRecord(request, uuid);
             }
 
-            @SuppressWarnings("unchecked")
-            List<Element> list = response.getChildren();
-
             //--- maybe the metadata has been removed
 
-            if (list.isEmpty()) {
+            if (response == null) {
                 result.unretrievable++;
                 return null;
             }
 
-            response = list.get(0);
-            response = (Element) response.detach();
-
 
             try {
                 Integer groupIdVal = null;
@@ -569,6 +611,118 @@ public class Aligner extends BaseAligner<CswParams> {
         }
     }
 
+    /**
+     * Does CSW GetRecordById request for one record.
+     *
+     * @return the record or null if the remote server did not return it
+     */
+    private Element retrieveRecord(GetRecordByIdRequest req, String uuid) throws Exception {
+        req.clearIds();
+        req.addId(uuid);
+
+        log.debug("Getting record from : " + req.getHost() + " (uuid:" + uuid + ")");
+
+        Element response = req.execute();
+        if (log.isDebugEnabled()) {
+            log.debug("Record got: " + Xml.getString(response) + "\n");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Element> list = response.getChildren();
+        if (list.isEmpty()) {
+            return null;
+        }
+        return (Element) list.get(0).detach();
+    }
+
+    /**
+     * Retrieve the records which are going to be added or updated before aligning them.
+     * <p>
+     * Records are requested by batches of ids in one GetRecordById request, as allowed by the
+     * CSW specification. The ones missing in the response (eg. server only returning the first
+     * record, identifier not matching the metadata uuid) are requested one by one in parallel,
+     * each with its own request.
+     */
+    private void retrieveAhead(Collection<RecordInfo> records) throws Exception {
+        List<String> uuids = new ArrayList<>();
+        for (RecordInfo ri : records) {
+            try {
+                if (isRetrievalNeeded(ri)) {
+                    uuids.add(ri.uuid);
+                }
+            } catch (Exception e) {
+                // Will be retrieved when aligning the record
+                log.debug("  - Could not check if metadata with uuid " + ri.uuid + " needs to be retrieved: " + e.getMessage());
+            }
+        }
+
+        if (batchRetrieval && uuids.size() > 1) {
+            for (int i = 0; i < uuids.size() && !cancelMonitor.get(); i += RETRIEVAL_BATCH_SIZE) {
+                retrieveBatch(uuids.subList(i, Math.min(uuids.size(), i + RETRIEVAL_BATCH_SIZE)));
+            }
+        }
+
+        for (String uuid : uuids) {
+            if (!retrievals.containsKey(uuid)) {
+                final GetRecordByIdRequest recordRequest = createRecordByIdRequest();
+                retrievals.put(uuid, retrievalExecutor.submit(() -> retrieveRecord(recordRequest, uuid)));
+            }
+        }
+    }
+
+    /**
+     * Does one CSW GetRecordById request for several records. If the server returns at most one
+     * record, batch retrieval is disabled for the next records of the harvest.
+     */
+    private void retrieveBatch(List<String> uuids) {
+        request.clearIds();
+        uuids.forEach(request::addId);
+
+        try {
+            log.debug("Getting " + uuids.size() + " records from : " + request.getHost());
+
+            Element response = request.execute();
+
+            @SuppressWarnings("unchecked")
+            List<Element> list = new ArrayList<>(response.getChildren());
+            if (list.size() <= 1) {
+                log.info("Remote server does not return several records by GetRecordById request, records are retrieved one by one.");
+                batchRetrieval = false;
+                return;
+            }
+
+            Set<String> requested = new HashSet<>(uuids);
+            for (Element record : list) {
+                record.detach();
+                try {
+                    String schema = dataMan.autodetectSchema(record, null);
+                    String uuid = schema == null ? null : metadataUtils.extractUUID(schema, record);
+                    if (uuid != null && requested.remove(uuid)) {
+                        retrievals.put(uuid, CompletableFuture.completedFuture(record));
+                    }
+                } catch (Exception e) {
+                    // Record will be requested by its id
+                    log.debug("  - Could not extract uuid of a retrieved record: " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warning("Raised exception while getting " + uuids.size() + " records, retrieving them one by one : " + e);
+            batchRetrieval = false;
+        }
+    }
+
+    /**
+     * Same checks as insertOrUpdate and updateMetadata to find out if a record is going to be
+     * retrieved, so that unchanged records are not downloaded.
+     */
+    private boolean isRetrievalNeeded(RecordInfo ri) throws Exception {
+        if (localUuids.getID(ri.uuid) != null) {
+            String date = localUuids.getChangeDate(ri.uuid);
+            return date != null && ri.isMoreRecentThan(date);
+        }
+        return params.getOverrideUuid() != AbstractParams.OverrideUuid.SKIP || metadataUtils.getMetadataId(ri.uuid) == null;
+    }
+
     /**
      * Check for metadata in the catalog having the same resource identifier as the harvested
      * record.
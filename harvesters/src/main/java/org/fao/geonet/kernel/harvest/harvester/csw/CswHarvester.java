@@ -35,6 +35,7 @@ import java.util.List;
  * Harvest metadata from other catalogues using the CSW protocol
  */
 public class CswHarvester extends AbstractHarvester<HarvestResult, CswParams> {
+    public static final String TYPE = "csw";
 
     @Override
     protected CswParams createParams() {
@@ -29,6 +29,8 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.common.collect.ImmutableSet;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang.StringUtils;
 import org.fao.geonet.GeonetContext;
 import org.fao.geonet.Logger;
@@ -47,6 +49,7 @@ import org.fao.geonet.exceptions.BadParameterEx;
 import org.fao.geonet.exceptions.BadXmlResponseEx;
 import org.fao.geonet.exceptions.OperationAbortedEx;
 import org.fao.geonet.kernel.DataManager;
+import org.fao.geonet.kernel.harvest.harvester.AbstractHarvester;
 import org.fao.geonet.kernel.harvest.harvester.HarvestError;
 import org.fao.geonet.kernel.harvest.harvester.HarvestResult;
 import org.fao.geonet.kernel.harvest.harvester.IHarvester;
@@ -113,9 +116,10 @@ class Harvester implements IHarvester<HarvestResult> {
         HarvestResult result = new HarvestResult();
     	Set<String> uuids = new HashSet<String>();
         try {
-            Aligner aligner = new Aligner(cancelMonitor, context, server, params, log);
-            searchAndAlign(server, uuids, aligner, errors);
-            result = aligner.cleanupRemovedRecords(uuids);
+            try (Aligner aligner = new Aligner(cancelMonitor, context, server, params, log)) {
+                searchAndAlign(server, uuids, aligner, errors);
+                result = aligner.cleanupRemovedRecords(uuids);
+            }
         } catch (Exception t) {
             error = true;
             log.error("Unknown error trying to harvest");
@@ -257,7 +261,13 @@ class Harvester implements IHarvester<HarvestResult> {
               return;
             }
             request.setStartPosition(start);
-            Element response = doSearch(request, start, GETRECORDS_REQUEST_MAXRECORDS);
+            Timer.Sample stage = Timer.start(Metrics.globalRegistry);
+            Element response;
+            try {
+                response = doSearch(request, start, GETRECORDS_REQUEST_MAXRECORDS);
+            } finally {
+                stage.stop(AbstractHarvester.stageTimer(CswHarvester.TYPE, "search"));
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Number of child elements in response: " + response.getChildren().size());
             }
@@ -305,7 +315,12 @@ class Harvester implements IHarvester<HarvestResult> {
 
             foundCnt += records.size();
             //Align here to keep memory clean
-            aligner.align(records, harvesterErrors);
+            stage = Timer.start(Metrics.globalRegistry);
+            try {
+                aligner.align(records, harvesterErrors);
+            } finally {
+                stage.stop(AbstractHarvester.stageTimer(CswHarvester.TYPE, "align"));
+            }
 
             //--- check to see if we have to perform other searches
             int matchedCount = getSearchResultAttribute(results, ATTRIB_SEARCHRESULT_MATCHED);
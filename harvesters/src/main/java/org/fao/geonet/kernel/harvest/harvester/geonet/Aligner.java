@@ -46,9 +46,11 @@ import org.fao.geonet.kernel.mef.*;
 import org.fao.geonet.kernel.search.IndexingMode;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
+import org.fao.geonet.lib.Lib;
 import org.fao.geonet.repository.GroupRepository;
 import org.fao.geonet.repository.MetadataRepository;
 import org.fao.geonet.schema.iso19139.ISO19139SchemaPlugin;
+import org.fao.geonet.utils.GeonetHttpRequestFactory;
 import org.fao.geonet.utils.Log;
 import org.fao.geonet.utils.Xml;
 import org.fao.geonet.utils.XmlRequest;
@@ -61,11 +63,31 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class Aligner extends BaseAligner<GeonetParams> {
 
+    /**
+     * Maximum number of MEF files downloaded at the same time from a remote node. The limit is
+     * shared by all the harvesters of the node.
+     */
+    private static final int MAX_DOWNLOADS_PER_HOST = 4;
+
+    /**
+     * Number of records whose MEF file is downloaded while the current one is imported.
+     */
+    private static final int DOWNLOAD_AHEAD = 16;
+
+    private static final ConcurrentMap<String, Semaphore> HOST_DOWNLOAD_PERMITS = new ConcurrentHashMap<>();
+
     private Logger log;
 
     private ServiceContext context;
@@ -82,6 +104,8 @@ public class Aligner extends BaseAligner<GeonetParams> {
     private MetadataRepository metadataRepository;
     private Map<String, Map<String, String>> hmRemoteGroups = new HashMap<>();
     private SettingManager settingManager;
+    private final Map<String, Future<Path>> downloads = new HashMap<>();
+    private final List<String> idsToIndex = new ArrayList<>();
 
     public Aligner(AtomicBoolean cancelMonitor, Logger log, ServiceContext context, XmlRequest req,
                    GeonetParams params, Element remoteInfo) {
@@ -177,82 +201,100 @@ public class Aligner extends BaseAligner<GeonetParams> {
             preferredSchema = "iso19139";
         }
 
-        for (RecordInfo ri : records) {
-            if (cancelMonitor.get()) {
-                return this.result;
-            }
+        // look up value of localrating/enable
+        String localRating = settingManager.getValue(Settings.SYSTEM_LOCALRATING_ENABLE);
 
-            try {
+        // MEF files are downloaded ahead in the background while records are imported
+        List<RecordInfo> recordList = new ArrayList<>(records);
+        ExecutorService downloadExecutor = Executors.newFixedThreadPool(MAX_DOWNLOADS_PER_HOST);
+        int nextDownload = 0;
+        try {
+            for (int i = 0; i < recordList.size(); i++) {
+                RecordInfo ri = recordList.get(i);
+                if (cancelMonitor.get()) {
+                    return this.result;
+                }
 
-                result.totalMetadata++;
+                for (; nextDownload < Math.min(recordList.size(), i + DOWNLOAD_AHEAD); nextDownload++) {
+                    downloadAhead(downloadExecutor, recordList.get(nextDownload));
+                }
 
-                // Mef full format provides ISO19139 records in both the profile
-                // and ISO19139 so we could be able to import them as far as
-                // ISO19139 schema is installed by default.
-                if (!dataMan.existsSchema(ri.schema) && !ri.schema.startsWith("iso19139.")) {
-                    if (log.isDebugEnabled())
-                        log.debug("  - Metadata skipped due to unknown schema. uuid:" + ri.uuid
-                            + ", schema:" + ri.schema);
-                    result.unknownSchema++;
-                } else {
-                    String id = dataMan.getMetadataId(ri.uuid);
-
-                    // look up value of localrating/enable
-                    String localRating = settingManager.getValue(Settings.SYSTEM_LOCALRATING_ENABLE);
-
-                    if (id == null) {
-                        //record doesn't exist (so it doesn't belong to this harvester)
-                        log.debug("Adding record with uuid " + ri.uuid);
-                        addMetadata(ri, localRating.equals(RatingsSetting.BASIC), ri.uuid);
-                    } else if (localUuids.getID(ri.uuid) == null) {
-                        //record doesn't belong to this harvester but exists
-                        result.datasetUuidExist++;
-
-                        switch (params.getOverrideUuid()) {
-                            case OVERRIDE:
-                                updateMetadata(ri,
-                                    id,
-                                    localRating.equals(RatingsSetting.BASIC),
-                                    params.useChangeDateForUpdate(),
-                                    localUuids.getChangeDate(ri.uuid), true);
-                                log.info("Overriding record with uuid " + ri.uuid);
-
-                                if (params.isIfRecordExistAppendPrivileges()) {
-                                    addPrivileges(id, params.getPrivileges(), localGroups, context);
-                                    result.privilegesAppendedOnExistingRecord++;
-                                }
-                                break;
-                            case RANDOM:
-                                log.info("Generating random uuid for remote record with uuid " + ri.uuid);
-                                addMetadata(ri, localRating.equals(RatingsSetting.BASIC), UUID.randomUUID().toString());
-                                break;
-                            case SKIP:
-                                log.debug("Skipping record with uuid " + ri.uuid);
-                                result.uuidSkipped++;
-                                break;
-                            default:
-                                break;
-                        }
+                try {
+
+                    result.totalMetadata++;
+
+                    // Mef full format provides ISO19139 records in both the profile
+                    // and ISO19139 so we could be able to import them as far as
+                    // ISO19139 schema is installed by default.
+                    if (!dataMan.existsSchema(ri.schema) && !ri.schema.startsWith("iso19139.")) {
+                        if (log.isDebugEnabled())
+                            log.debug("  - Metadata skipped due to unknown schema. uuid:" + ri.uuid
+                                + ", schema:" + ri.schema);
+                        result.unknownSchema++;
                     } else {
-                        //record exists and belongs to this harvester
-                        log.debug("Updating record with uuid " + ri.uuid);
-                        updateMetadata(ri, id,
-                            localRating.equals(RatingsSetting.BASIC),
-                            params.useChangeDateForUpdate(),
-                            localUuids.getChangeDate(ri.uuid), false);
-
-                        if (params.isIfRecordExistAppendPrivileges()) {
-                            addPrivileges(id, params.getPrivileges(), localGroups, context);
-                            result.privilegesAppendedOnExistingRecord++;
+                        String id = dataMan.getMetadataId(ri.uuid);
+
+                        if (id == null) {
+                            //record doesn't exist (so it doesn't belong to this harvester)
+                            log.debug("Adding record with uuid " + ri.uuid);
+                            addMetadata(ri, localRating.equals(RatingsSetting.BASIC), ri.uuid);
+                        } else if (localUuids.getID(ri.uuid) == null) {
+                            //record doesn't belong to this harvester but exists
+                            result.datasetUuidExist++;
+
+                            switch (params.getOverrideUuid()) {
+                                case OVERRIDE:
+                                    updateMetadata(ri,
+                                        id,
+                                        localRating.equals(RatingsSetting.BASIC),
+                                        params.useChangeDateForUpdate(),
+                                        localUuids.getChangeDate(ri.uuid), true);
+                                    log.info("Overriding record with uuid " + ri.uuid);
+
+                                    if (params.isIfRecordExistAppendPrivileges()) {
+                                        addPrivileges(id, params.getPrivileges(), localGroups, context);
+                                        result.privilegesAppendedOnExistingRecord++;
+                                    }
+                                    break;
+                                case RANDOM:
+                                    log.info("Generating random uuid for remote record with uuid " + ri.uuid);
+                                    addMetadata(ri, localRating.equals(RatingsSetting.BASIC), UUID.randomUUID().toString());
+                                    break;
+                                case SKIP:
+                                    log.debug("Skipping record with uuid " + ri.uuid);
+                                    result.uuidSkipped++;
+                                    break;
+                                default:
+                                    break;
+                            }
+                        } else {
+                            //record exists and belongs to this harvester
+                            log.debug("Updating record with uuid " + ri.uuid);
+                            updateMetadata(ri, id,
+                                localRating.equals(RatingsSetting.BASIC),
+                                params.useChangeDateForUpdate(),
+                                localUuids.getChangeDate(ri.uuid), false);
+
+                            if (params.isIfRecordExistAppendPrivileges()) {
+                                addPrivileges(id, params.getPrivileges(), localGroups, context);
+                                result.privilegesAppendedOnExistingRecord++;
+                            }
                         }
-                    }
 
+                    }
+                } catch (Exception t) {
+                    log.error("Couldn't insert or update metadata with uuid " + ri.uuid);
+                    log.error(t);
+                    result.unchangedMetadata++;
                 }
-            } catch (Exception t) {
-                log.error("Couldn't insert or update metadata with uuid " + ri.uuid);
-                log.error(t);
-                result.unchangedMetadata++;
             }
+        } finally {
+            downloadExecutor.shutdownNow();
+            cleanDownloads();
+
+            log.debug(String.format("Starting indexing in batch thread pool of %d harvested records ...",
+                idsToIndex.size()));
+            dataMan.batchIndexInThreadPool(context, idsToIndex);
         }
 
         dataMan.forceIndexChanges();
@@ -546,7 +588,7 @@ public class Aligner extends BaseAligner<GeonetParams> {
         }
         context.getBean(IMetadataManager.class).save(metadata);
 
-        dataMan.indexMetadata(id, Math.random() < 0.01);
+        idsToIndex.add(id);
         result.addedMetadata++;
 
         return id;
@@ -843,7 +885,7 @@ public class Aligner extends BaseAligner<GeonetParams> {
         metadataManager.save(metadata);
 //        dataMan.flush();
 
-        dataMan.indexMetadata(id, Math.random() < 0.01);
+        idsToIndex.add(id);
     }
 
     private void handleFile(String id, String file, MetadataResourceVisibility visibility, String changeDate,
@@ -932,21 +974,108 @@ public class Aligner extends BaseAligner<GeonetParams> {
 
     }
 
+    /**
+     * Start downloading the MEF file of a record in the background if it is going to be imported.
+     */
+    private void downloadAhead(ExecutorService downloadExecutor, RecordInfo ri) {
+        try {
+            if (isRetrievalNeeded(ri)) {
+                downloads.put(ri.uuid, downloadExecutor.submit(() -> downloadMEF(ri.uuid)));
+            }
+        } catch (Exception e) {
+            // Will be retrieved when importing the record
+            log.debug("  - Could not check if metadata with uuid " + ri.uuid + " needs to be retrieved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same checks as the alignment loop and updateMetadata to find out if a record is going to be retrieved.
+     */
+    private boolean isRetrievalNeeded(RecordInfo ri) throws Exception {
+        if (!dataMan.existsSchema(ri.schema) && !ri.schema.startsWith("iso19139.")) {
+            return false;
+        }
+        if (localUuids.getID(ri.uuid) != null) {
+            return !params.useChangeDateForUpdate() || ri.isMoreRecentThan(localUuids.getChangeDate(ri.uuid));
+        }
+        return params.getOverrideUuid() != AbstractParams.OverrideUuid.SKIP || dataMan.getMetadataId(ri.uuid) == null;
+    }
+
+    /**
+     * Download a MEF file in a background thread using its own request.
+     */
+    private Path downloadMEF(String uuid) throws IOException, InterruptedException {
+        Semaphore permits = HOST_DOWNLOAD_PERMITS.computeIfAbsent(request.getHost(),
+            host -> new Semaphore(MAX_DOWNLOADS_PER_HOST));
+        permits.acquire();
+        try {
+            XmlRequest downloadRequest = context.getBean(GeonetHttpRequestFactory.class)
+                .createXmlRequest(request.getHost(), request.getPort(), request.getProtocol());
+            Lib.net.setupProxy(context, downloadRequest);
+            if (params.isUseAccount()) {
+                downloadRequest.setCredentials(params.getUsername(), params.getPassword());
+                downloadRequest.setPreemptiveBasicAuth(true);
+            }
+            Path mefFile = retrieveMEF(downloadRequest, uuid);
+            if (Thread.currentThread().isInterrupted()) {
+                FileUtils.deleteQuietly(mefFile.toFile());
+                throw new InterruptedException();
+            }
+            return mefFile;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Remove the MEF files downloaded ahead which were not imported (eg. harvester cancelled).
+     */
+    private void cleanDownloads() {
+        for (Future<Path> download : downloads.values()) {
+            if (!download.cancel(true)) {
+                try {
+                    FileUtils.deleteQuietly(download.get().toFile());
+                } catch (Exception e) {
+                    // Nothing downloaded
+                }
+            }
+        }
+        downloads.clear();
+    }
+
     private Path retrieveMEF(String uuid) throws IOException {
-        request.clearParams();
-        request.addParam("uuid", uuid);
-        request.addParam("format", (params.mefFormatFull ? "full" : "partial"));
+        Future<Path> download = downloads.remove(uuid);
+        if (download != null) {
+            try {
+                return download.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                // Eg. remote node only supporting session login, try again with the harvester request
+                if (log.isDebugEnabled()) {
+                    log.debug("  - Download ahead failed for uuid:" + uuid + ". Error: " + e.getCause().getMessage());
+                }
+            }
+        }
+        return retrieveMEF(request, uuid);
+    }
+
+    private Path retrieveMEF(XmlRequest req, String uuid) throws IOException {
+        req.clearParams();
+        req.addParam("uuid", uuid);
+        req.addParam("format", (params.mefFormatFull ? "full" : "partial"));
 
         // Request MEF2 format - if remote node is old
         // it will ignore this parameter and return a MEF1 format
         // which will be handle in addMetadata/updateMetadata.
-        request.addParam("version", "2");
-        request.addParam("relation", "false");
-        request.setAddress(params.getServletPath() + "/" + params.getNode()
+        req.addParam("version", "2");
+        req.addParam("relation", "false");
+        req.setAddress(params.getServletPath() + "/" + params.getNode()
             + "/eng/" + Geonet.Service.MEF_EXPORT);
 
         Path tempFile = Files.createTempFile("temp-", ".dat");
-        request.executeLarge(tempFile);
+        req.executeLarge(tempFile);
 
         return tempFile;
     }
@@ -24,6 +24,8 @@
 package org.fao.geonet.kernel.harvest.harvester.geonet;
 
 import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
 import org.fao.geonet.Logger;
@@ -36,6 +38,7 @@ import org.fao.geonet.exceptions.BadSoapResponseEx;
 import org.fao.geonet.exceptions.BadXmlResponseEx;
 import org.fao.geonet.exceptions.OperationAbortedEx;
 import org.fao.geonet.exceptions.UserNotFoundEx;
+import org.fao.geonet.kernel.harvest.harvester.AbstractHarvester;
 import org.fao.geonet.kernel.harvest.harvester.HarvestError;
 import org.fao.geonet.kernel.harvest.harvester.HarvestResult;
 import org.fao.geonet.kernel.harvest.harvester.IHarvester;
@@ -191,6 +194,7 @@ class Harvester implements IHarvester<HarvestResult> {
             log.info("Searching on : " + params.getName());
 
             while (from < resultCount && !error) {
+                Timer.Sample stage = Timer.start(Metrics.globalRegistry);
                 try {
                     Element searchResult = doSearch(req, s);
                     Element summary = searchResult.getChild(Geonet.Elem.SUMMARY);
@@ -211,6 +215,8 @@ class Harvester implements IHarvester<HarvestResult> {
                     log.fatal(t.getMessage());
                     log.error(t);
                     errors.add(new HarvestError(context, t));
+                } finally {
+                    stage.stop(AbstractHarvester.stageTimer(GeonetHarvester.TYPE, "search"));
                 }
 
                 from = from + pageSize;
@@ -228,7 +234,12 @@ class Harvester implements IHarvester<HarvestResult> {
         if (!error) {
             try {
                 Aligner aligner = new Aligner(cancelMonitor, log, context, req, params, remoteInfo);
-                result = aligner.align(records, errors);
+                Timer.Sample stage = Timer.start(Metrics.globalRegistry);
+                try {
+                    result = aligner.align(records, errors);
+                } finally {
+                    stage.stop(AbstractHarvester.stageTimer(GeonetHarvester.TYPE, "align"));
+                }
 
                 Map<String, Source> sources = buildSources(remoteInfo);
                 updateSources(records, sources);
@@ -37,6 +37,7 @@ import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.domain.ISODate;
 import org.fao.geonet.domain.Metadata;
 import org.fao.geonet.domain.MetadataType;
+import org.fao.geonet.kernel.GeonetworkDataDirectory;
 import org.fao.geonet.kernel.UpdateDatestamp;
 import org.fao.geonet.kernel.harvest.BaseAligner;
 import org.fao.geonet.kernel.harvest.harvester.AbstractHarvester;
@@ -62,6 +63,8 @@ import java.util.*;
  */
 public class LocalFilesystemHarvester extends AbstractHarvester<HarvestResult, LocalFilesystemParams> {
 
+    private static final int DELETE_BATCH_SIZE = 200;
+
     @Override
     protected void storeNodeExtra(LocalFilesystemParams params, String path, String siteId, String optionsId) throws SQLException {
         setParams(params);
@@ -73,6 +76,22 @@ public class LocalFilesystemHarvester extends AbstractHarvester<HarvestResult, L
         harvesterSettingsManager.add("id:" + siteId, "nodelete", params.nodelete);
         harvesterSettingsManager.add("id:" + siteId, "checkFileLastModifiedForUpdate", params.checkFileLastModifiedForUpdate);
         harvesterSettingsManager.add("id:" + siteId, "beforeScript", params.beforeScript);
+
+        // Settings changed, all files are imported again on next harvest
+        LocalFsManifest.delete(getManifestFile());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        super.destroy();
+        LocalFsManifest.delete(getManifestFile());
+    }
+
+    /**
+     * @return the manifest of the files imported by the previous harvest
+     */
+    private Path getManifestFile() {
+        return LocalFsManifest.getFile(context.getBean(GeonetworkDataDirectory.class).getSystemDataDir(), params.getUuid());
     }
 
     @Override
@@ -81,47 +100,64 @@ public class LocalFilesystemHarvester extends AbstractHarvester<HarvestResult, L
     }
 
     /**
-     * Aligns new results from filesystem harvesting. Contrary to practice in e.g. CSW Harvesting,
-     * files removed from the harvesting source are NOT removed from the database. Also, no checks
-     * on modification date are done; the result gets inserted or replaced if the result appears to
-     * be in a supported schema.
+     * Aligns new results from filesystem harvesting. Files which did not change since the previous
+     * harvest according to the manifest are skipped. Unless nodelete is set, records of files
+     * removed from the harvesting source are removed from the database.
      *
      * @param root the directory to visit
      */
     private HarvestResult align(Path root) throws Exception {
         log.debug("Start of alignment for : " + params.getName());
-        final LocalFsHarvesterFileVisitor visitor = new LocalFsHarvesterFileVisitor(cancelMonitor, context, params, this);
-        if (params.recurse) {
-            Files.walkFileTree(root, visitor);
-        } else {
-            try (DirectoryStream<Path> paths = Files.newDirectoryStream(root)) {
-                for (Path path : paths) {
-                    if (path != null && Files.isRegularFile(path)) {
-                        visitor.visitFile(path, Files.readAttributes(path, BasicFileAttributes.class));
+        Path manifestFile = getManifestFile();
+        LocalFsManifest previousManifest = LocalFsManifest.load(manifestFile);
+        Set<Integer> existingMetadata = Sets.newHashSet(context.getBean(MetadataRepository.class)
+            .findIdsBy((Specification<Metadata>) MetadataSpecs.hasHarvesterUuid(params.getUuid())));
+
+        final LocalFsHarvesterFileVisitor visitor = new LocalFsHarvesterFileVisitor(cancelMonitor, context, params, this,
+            previousManifest, existingMetadata);
+        try {
+            if (params.recurse) {
+                Files.walkFileTree(root, visitor);
+            } else {
+                try (DirectoryStream<Path> paths = Files.newDirectoryStream(root)) {
+                    for (Path path : paths) {
+                        if (path != null && Files.isRegularFile(path)) {
+                            visitor.visitFile(path, Files.readAttributes(path, BasicFileAttributes.class));
+                        }
                     }
                 }
             }
+        } finally {
+            visitor.finish();
+            // Also saved when the harvest is cancelled or fails, files not visited are imported again next time
+            try {
+                visitor.getManifest().save(manifestFile);
+            } catch (IOException e) {
+                log.warning("Unable to save harvester manifest " + manifestFile + ". Error is: " + e.getMessage());
+            }
         }
         result = visitor.getResult();
         log.debug(String.format("Scan directory is done. %d files analyzed.", result.totalMetadata));
-        Set<Integer> idsForHarvestingResult = visitor.getListOfRecords();
-        Set<Integer> idsResultHs = Sets.newHashSet(idsForHarvestingResult);
+        Set<Integer> idsResultHs = visitor.getListOfRecords();
 
-        if (!params.nodelete) {
+        if (!params.nodelete && !cancelMonitor.get()) {
             log.debug("Starting to delete locally existing metadata " +
                 "from the same source if they " +
                 " were not in this harvesting result...");
-            List<Integer> existingMetadata = context.getBean(MetadataRepository.class).findIdsBy((Specification<Metadata>) MetadataSpecs.hasHarvesterUuid(params.getUuid()));
+            List<Integer> removedMetadata = Lists.newArrayList();
             for (Integer existingId : existingMetadata) {
+                if (!idsResultHs.contains(existingId)) {
+                    log.debug("  Removing: " + existingId);
+                    removedMetadata.add(existingId);
+                }
+            }
 
+            for (List<Integer> batch : Lists.partition(removedMetadata, DELETE_BATCH_SIZE)) {
                 if (cancelMonitor.get()) {
                     return this.result;
                 }
-                if (!idsResultHs.contains(existingId)) {
-                    log.debug("  Removing: " + existingId);
-                    metadataManager.deleteMetadata(context, existingId.toString());
-                    result.locallyRemoved++;
-                }
+                metadataManager.deleteMetadata(context, batch);
+                result.locallyRemoved += batch.size();
             }
         }
 
@@ -169,8 +205,6 @@ public class LocalFilesystemHarvester extends AbstractHarvester<HarvestResult, L
         aligner.addCategories(metadata, params.getCategories(), localCateg, context, null, true);
 
         metadataManager.flush();
-
-        dataMan.indexMetadata(id, true);
     }
 
     String addMetadata(Element xml, String uuid, String schema, GroupMapper localGroups, final CategoryMapper localCateg,
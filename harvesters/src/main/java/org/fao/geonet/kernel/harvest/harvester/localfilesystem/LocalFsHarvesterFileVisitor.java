@@ -26,7 +26,7 @@ package org.fao.geonet.kernel.harvest.harvester.localfilesystem;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateUtils;
@@ -36,6 +36,7 @@ import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.domain.ISODate;
 import org.fao.geonet.domain.Metadata;
 import org.fao.geonet.domain.MetadataType;
+import org.fao.geonet.domain.Pair;
 import org.fao.geonet.kernel.DataManager;
 import org.fao.geonet.kernel.GeonetworkDataDirectory;
 import org.fao.geonet.kernel.datamanager.IMetadataUtils;
@@ -47,6 +48,7 @@ import org.fao.geonet.kernel.harvest.harvester.csw.Aligner;
 import org.fao.geonet.kernel.mef.MEFLib;
 import org.fao.geonet.repository.MetadataRepository;
 import org.fao.geonet.repository.Updater;
+import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.utils.Xml;
 import org.jdom.Element;
 import org.jdom.JDOMException;
@@ -63,13 +65,22 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static org.fao.geonet.kernel.HarvestValidationEnum.NOVALIDATION;
 
 
 /**
+ * Visit the harvested directory. Files which did not change since the previous harvest according
+ * to the manifest are skipped, other XML and JSON files are parsed and imported by a pool of
+ * threads. MEF files are imported by the visiting thread.
+ *
  * @author Jesse on 11/6/2014.
  */
 class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
@@ -84,13 +95,28 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
     private final BaseAligner aligner;
     private final CategoryMapper localCateg;
     private final GroupMapper localGroups;
-    private final Set<Integer> listOfRecords = Sets.newHashSet();
-    private final Set<Integer> listOfRecordsToIndex = Sets.newHashSet();
+    private final Set<Integer> listOfRecords = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> listOfRecordsToIndex = ConcurrentHashMap.newKeySet();
+    private final LocalFsManifest previousManifest;
+    private final LocalFsManifest manifest = new LocalFsManifest();
+    private final Set<Integer> harvestedIds;
+    private final ThreadPoolExecutor executor;
+    /**
+     * Records with the same uuid may be found in more than one file, the lookup and the
+     * insertion of a record are done while holding the lock of its uuid.
+     */
+    private final Striped<Lock> uuidLocks = Striped.lock(64);
     private boolean transformIt = false;
     private Path thisXslt;
     private long startTime;
 
-    public LocalFsHarvesterFileVisitor(AtomicBoolean cancelMonitor, ServiceContext context, LocalFilesystemParams params, LocalFilesystemHarvester harvester) throws Exception {
+    /**
+     * @param previousManifest the files imported by the previous harvest
+     * @param harvestedIds     the ids of the records owned by the harvester before this harvest
+     */
+    public LocalFsHarvesterFileVisitor(AtomicBoolean cancelMonitor, ServiceContext context, LocalFilesystemParams params,
+                                       LocalFilesystemHarvester harvester, LocalFsManifest previousManifest,
+                                       Set<Integer> harvestedIds) throws Exception {
         this.aligner = new LocalFileSytemAligner(cancelMonitor, params);
         this.cancelMonitor = cancelMonitor;
         this.context = context;
@@ -105,8 +131,15 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         this.dataMan = context.getBean(DataManager.class);
         this.harvester = harvester;
         this.repo = context.getBean(IMetadataUtils.class);
+        this.previousManifest = previousManifest;
+        this.harvestedIds = harvestedIds;
         this.startTime = System.currentTimeMillis();
 
+        // When all threads are busy and the queue is full, the visiting thread processes the file
+        int threads = ThreadUtils.getNumberOfThreads();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 10), new ThreadPoolExecutor.CallerRunsPolicy());
+
         harvester.getLogger().debug(String.format("Start visiting files at %s.", this.startTime));
     }
 
@@ -128,36 +161,93 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
             return FileVisitResult.CONTINUE;
         }
 
+        int totalMetadata;
+        synchronized (result) {
+            totalMetadata = ++result.totalMetadata;
+        }
+
+        if (harvester.getLogger().isDebugEnabled() && totalMetadata % 1000 == 0) {
+            long elapsedTime = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTime));
+            harvester.getLogger().debug("{} files visited in {} s ({} files/s).", new Object[] {
+                totalMetadata,
+                elapsedTime,
+                totalMetadata / elapsedTime});
+        }
+
+        if (isMef) {
+            processMef(file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        LocalFsManifest.Entry entry = previousManifest.get(file);
+        if (entry != null && entry.isSameFile(attrs) && harvestedIds.contains(entry.id)) {
+            unchanged(file, entry);
+        } else {
+            executor.execute(() -> processFile(file, attrs, entry, isJson));
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Import a new or modified file. The content hash is compared with the manifest first, as
+     * the modification time of a file may change without any change of its content.
+     */
+    private void processFile(Path file, BasicFileAttributes attrs, LocalFsManifest.Entry entry, boolean isJson) {
+        if (cancelMonitor.get()) {
+            return;
+        }
+        context.setAsThreadLocal();
+
         try {
-            result.totalMetadata++;
-
-            if (harvester.getLogger().isDebugEnabled() && result.totalMetadata % 1000 == 0) {
-                long elapsedTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTime);
-                harvester.getLogger().debug("{} records inserted in {} s ({} records/s).", new Object[] {
-                    result.totalMetadata,
-                    elapsedTime,
-                    result.totalMetadata / elapsedTime});
+            String hash = LocalFsManifest.hash(file);
+            if (entry != null && entry.hash.equals(hash) && harvestedIds.contains(entry.id)) {
+                unchanged(file, new LocalFsManifest.Entry(attrs, hash, entry.id, entry.uuid));
+                return;
             }
 
-            if(isMef) {
-                processMef(file);
-            } else if(isJson) {
-                processJson(file);
-            } else {
-                processXml(file);
+            Pair<Integer, String> record = isJson ? processJson(file) : processXml(file);
+            if (record != null) {
+                manifest.put(file, new LocalFsManifest.Entry(attrs, hash, record.one(), record.two()));
             }
         } catch (Exception e) {
             harvester.getLogger().error("An error occurred while harvesting file {}. Error is: {}.",
                 file.toAbsolutePath().normalize(), e.getMessage());
         }
-        return FileVisitResult.CONTINUE;
+    }
+
+    private void unchanged(Path file, LocalFsManifest.Entry entry) {
+        harvester.getLogger().debug("File {} did not change since last harvest, skipping.", file);
+        listOfRecords.add(entry.id);
+        manifest.put(file, entry);
+        count(r -> r.unchangedMetadata++);
+    }
+
+    private void count(Consumer<HarvestResult> counter) {
+        synchronized (result) {
+            counter.accept(result);
+        }
+    }
+
+    /**
+     * Wait for the files being imported.
+     */
+    public void finish() throws InterruptedException {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                harvester.getLogger().debug("Waiting for {} files to be imported.", executor.getQueue().size() + executor.getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        }
     }
 
 
     // Reads a JSON file, transform it to XML and use the same workflow as for XML files
     // inspired by:
     // https://github.com/geonetwork/core-geonetwork/blob/c57f5de06e5e456af1ee55178eca437235b1d499/harvesters/src/main/java/org/fao/geonet/kernel/harvest/harvester/simpleUrl/Harvester.java#L239
-    private void processJson(Path file) throws Exception {
+    private Pair<Integer, String> processJson(Path file) throws Exception {
         Path filePath = file.toAbsolutePath().normalize();
 
         ObjectMapper objectMapper = new ObjectMapper();
@@ -177,21 +267,21 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         } catch (JsonProcessingException e) {
             harvester.getLogger().error("Error processing JSON from file {}, ignoring", filePath);
             harvester.getLogger().error("full stack", e);
-            result.badFormat++;
-            return;
+            count(r -> r.badFormat++);
+            return null;
         } catch (JDOMException e) {
             harvester.getLogger().error("Error transforming JSON into XML from file {}, ignoring", filePath);
             harvester.getLogger().error("full stack", e);
-            result.badFormat++;
-            return;
+            count(r -> r.badFormat++);
+            return null;
         } catch (Exception e) {
             harvester.getLogger().error("Error retrieving JSON from file {}, ignoring", filePath);
             harvester.getLogger().error("full stack", e);
-            result.unretrievable++;
-            return;
+            count(r -> r.unretrievable++);
+            return null;
         }
 
-        processXmlData(file, recordAsElement);
+        return processXmlData(file, recordAsElement);
     }
 
     /**
@@ -231,7 +321,7 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         return array;
     }
 
-    private void processXml(Path file) throws Exception {
+    private Pair<Integer, String> processXml(Path file) throws Exception {
         Path filePath = file.toAbsolutePath().normalize();
 
         Element xml;
@@ -241,19 +331,22 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         } catch (JDOMException e) {
             harvester.getLogger().error("Error loading XML from file {}, ignoring", filePath);
             harvester.getLogger().error("full stack", e);
-            result.badFormat++;
-            return;
+            count(r -> r.badFormat++);
+            return null;
         } catch (Exception e) {
             harvester.getLogger().error("Error retrieving XML from file {}, ignoring", filePath);
             harvester.getLogger().error("full stack", e);
-            result.unretrievable++;
-            return;
+            count(r -> r.unretrievable++);
+            return null;
         }
 
-        processXmlData(file, xml);
+        return processXmlData(file, xml);
     }
 
-    private void processXmlData(Path file, Element rawXml) throws Exception {
+    /**
+     * @return the id and uuid of the record owned by the harvester, or null if the file is skipped
+     */
+    private Pair<Integer, String> processXmlData(Path file, Element rawXml) throws Exception {
         Path filePath = file.toAbsolutePath().normalize();
 
         Element xml = rawXml;
@@ -262,8 +355,8 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
                 xml = Xml.transform(xml, thisXslt);
             } catch (Exception e) {
                 harvester.getLogger().error("Cannot transform XML from file {}, ignoring. Error was: {}", filePath, e.getMessage());
-                result.badFormat++;
-                return;
+                count(r -> r.badFormat++);
+                return null;
             }
         }
 
@@ -271,8 +364,8 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         try {
             schema = dataMan.autodetectSchema(xml, null);
         } catch (Exception e) {
-            result.unknownSchema++;
-            return;
+            count(r -> r.unknownSchema++);
+            return null;
         }
 
         try {
@@ -284,18 +377,29 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
             params.getValidate().validate(dataMan, context, xml, groupIdVal);
         } catch (Exception e) {
             harvester.getLogger().error("Cannot validate XML from file {}, ignoring. Error was: {}", filePath, e.getMessage());
-            result.doesNotValidate++;
-            return;
+            count(r -> r.doesNotValidate++);
+            return null;
         }
 
         String uuid = getUuidFromFile(xml, filePath, schema);
         if (StringUtils.isEmpty(uuid)) {
-            result.badFormat++;
-            return;
+            count(r -> r.badFormat++);
+            return null;
         }
 
         Aligner.applyBatchEdits(uuid, xml, schema, params.getBatchEdits(), context, null);
 
+        Lock lock = uuidLocks.get(uuid);
+        lock.lock();
+        try {
+            return alignRecord(file, filePath, xml, schema, uuid);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Pair<Integer, String> alignRecord(Path file, Path filePath, Element xml, String schema, String uuid) throws Exception {
+        String recordUuid = uuid;
         String id = dataMan.getMetadataId(uuid);
         if (id == null) {
             String createDate = getCreateDate(file, xml, schema, uuid);
@@ -312,19 +416,22 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
                     case RANDOM:
                         harvester.getLogger().debug("Generating random uuid for remote record with uuid " + metadata.getUuid());
                         String createDate = getCreateDate(file, xml, schema, uuid);
-                        String newUuid = UUID.randomUUID().toString();
-                        id = addMetadata(xml, schema, newUuid, createDate);
+                        recordUuid = UUID.randomUUID().toString();
+                        id = addMetadata(xml, schema, recordUuid, createDate);
 
                         break;
                     case SKIP:
                         harvester.getLogger().debug("Skipping record with uuid " + metadata.getUuid());
-                        result.uuidSkipped++;
-                        result.unchangedMetadata++;
-
-                        break;
+                        count(r -> {
+                            r.uuidSkipped++;
+                            r.unchangedMetadata++;
+                        });
+                        listOfRecords.add(Integer.valueOf(id));
+                        return null;
                     default:
                         // Do nothing
-                        break;
+                        listOfRecords.add(Integer.valueOf(id));
+                        return null;
                 }
             } else {
                 //record exists and belongs to this harvester
@@ -333,6 +440,7 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
 
         }
         listOfRecords.add(Integer.valueOf(id));
+        return Pair.read(Integer.valueOf(id), recordUuid);
     }
 
     private String getCreateDate(Path file, Element xml, String schema, String uuid) throws IOException {
@@ -379,7 +487,7 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
                 updateMedata(xml, id, changeDate, force);
             } else {
                 harvester.getLogger().debug("  Db record is not older than last modified date of file. No need for update.");
-                result.unchangedMetadata++;
+                count(r -> r.unchangedMetadata++);
             }
         } else {
             harvester.getLogger().debug("  updating existing metadata, id is: " + id);
@@ -446,12 +554,12 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
                 aligner.addPrivileges(id, params.getPrivileges(), localGroups, context);
                 listOfRecordsToIndex.add(Integer.valueOf(id));
                 listOfRecords.add(Integer.valueOf(id));
-                result.addedMetadata++;
+                count(r -> r.addedMetadata++);
             }
         } catch (Exception e) {
             harvester.getLogger().error("Error retrieving MEF from file {}, ignoring", filePath);
             harvester.getLogger().error("Error: ",  e);
-            result.unretrievable++;
+            count(r -> r.unretrievable++);
         }
     }
 
@@ -482,14 +590,14 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
         harvester.getLogger().debug("adding new metadata");
         String id = harvester.addMetadata(xml, uuid, schema, localGroups, localCateg, createDate, aligner, false);
         listOfRecordsToIndex.add(Integer.valueOf(id));
-        result.addedMetadata++;
+        count(r -> r.addedMetadata++);
         return id;
     }
 
     private void updateMedata(Element xml, String id, String changeDate, boolean force) throws Exception {
         harvester.updateMetadata(xml, id, localGroups, localCateg, changeDate, aligner, force);
         listOfRecordsToIndex.add(Integer.valueOf(id));
-        result.updatedMetadata++;
+        count(r -> r.updatedMetadata++);
     }
 
     public HarvestResult getResult() {
@@ -503,4 +611,11 @@ class LocalFsHarvesterFileVisitor extends SimpleFileVisitor<Path> {
     public Set<Integer> getListOfRecordsToIndex() {
         return listOfRecordsToIndex;
     }
+
+    /**
+     * @return the files visited by this harvest and the records created from them
+     */
+    public LocalFsManifest getManifest() {
+        return manifest;
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+package org.fao.geonet.kernel.harvest.harvester.localfilesystem;
+
+import com.google.common.hash.Hashing;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.utils.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Files imported by a local filesystem harvester. For each file, the manifest stores the size,
+ * the last modification time, the content hash and the record created from the file, so that
+ * the next run can skip the files which did not change.
+ * <p>
+ * The manifest is stored in the data directory and removed when the harvester settings change,
+ * so that the records are imported again with the new settings.
+ */
+class LocalFsManifest {
+    private static final String VERSION = "1";
+
+    private static final String SEPARATOR = "\t";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the manifest file of a harvester
+     */
+    static Path getFile(Path dataDir, String harvesterUuid) {
+        return dataDir.resolve("harvester").resolve(harvesterUuid + "-manifest.gz");
+    }
+
+    /**
+     * Load a manifest. An empty manifest is returned if the file does not exist or can't be read,
+     * in which case all files are imported.
+     */
+    static LocalFsManifest load(Path file) {
+        LocalFsManifest manifest = new LocalFsManifest();
+        if (!Files.exists(file)) {
+            return manifest;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            if (!VERSION.equals(reader.readLine())) {
+                return manifest;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // The path is the last column as it may contain the separator
+                String[] columns = line.split(SEPARATOR, 6);
+                if (columns.length == 6) {
+                    manifest.entries.put(columns[5], new Entry(Long.parseLong(columns[0]), Long.parseLong(columns[1]),
+                        columns[2], Integer.parseInt(columns[3]), columns[4]));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.warning(Geonet.HARVESTER, "Unable to read harvester manifest " + file + ", all files will be imported. Error is: " + e.getMessage());
+            manifest.entries.clear();
+        }
+        return manifest;
+    }
+
+    /**
+     * Write the manifest to a temporary file first, so that an interrupted write does not
+     * leave a truncated manifest.
+     */
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(tmpFile)), StandardCharsets.UTF_8))) {
+            writer.write(VERSION);
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                writer.write(entry.size + SEPARATOR + entry.lastModified + SEPARATOR + entry.hash + SEPARATOR
+                    + entry.id + SEPARATOR + entry.uuid + SEPARATOR + e.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Log.warning(Geonet.HARVESTER, "Unable to delete harvester manifest " + file + ". Error is: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the SHA-256 hash of the file content
+     */
+    static String hash(Path file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256()).toString();
+    }
+
+    Entry get(Path file) {
+        return entries.get(getKey(file));
+    }
+
+    void put(Path file, Entry entry) {
+        entries.put(getKey(file), entry);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String getKey(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    static class Entry {
+        final long size;
+        final long lastModified;
+        final String hash;
+        final int id;
+        final String uuid;
+
+        Entry(long size, long lastModified, String hash, int id, String uuid) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.id = id;
+            this.uuid = uuid;
+        }
+
+        Entry(BasicFileAttributes attrs, String hash, int id, String uuid) {
+            this(attrs.size(), attrs.lastModifiedTime().toMillis(), hash, id, uuid);
+        }
+
+        /**
+         * @return true if the file size and modification time did not change
+         */
+        boolean isSameFile(BasicFileAttributes attrs) {
+            return size == attrs.size() && lastModified == attrs.lastModifiedTime().toMillis();
+        }
+    }
+}
@@ -26,15 +26,25 @@ package org.fao.geonet.kernel.harvest.harvester.oaipmh;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.command.AbortExecutionException;
 import org.fao.geonet.GeonetContext;
@@ -49,10 +59,10 @@ import org.fao.geonet.domain.Pair;
 import org.fao.geonet.exceptions.OperationAbortedEx;
 import org.fao.geonet.kernel.DataManager;
 import org.fao.geonet.kernel.UpdateDatestamp;
-import org.fao.geonet.kernel.datamanager.IMetadataIndexer;
 import org.fao.geonet.kernel.datamanager.IMetadataManager;
 import org.fao.geonet.kernel.datamanager.IMetadataUtils;
 import org.fao.geonet.kernel.harvest.BaseAligner;
+import org.fao.geonet.kernel.harvest.harvester.AbstractParams;
 import org.fao.geonet.kernel.harvest.harvester.CategoryMapper;
 import org.fao.geonet.kernel.harvest.harvester.GroupMapper;
 import org.fao.geonet.kernel.harvest.harvester.HarvestError;
@@ -66,16 +76,22 @@ import org.fao.geonet.repository.MetadataValidationRepository;
 import org.fao.geonet.repository.OperationAllowedRepository;
 import org.fao.geonet.repository.Updater;
 import org.fao.geonet.repository.specification.MetadataValidationSpecs;
+import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.utils.GeonetHttpRequestFactory;
 import org.fao.geonet.utils.Xml;
 import org.fao.geonet.utils.XmlRequest;
 import org.fao.oaipmh.OaiPmh;
 import org.fao.oaipmh.exceptions.NoRecordsMatchException;
+import org.fao.oaipmh.requests.AbstractRequest;
 import org.fao.oaipmh.requests.GetRecordRequest;
 import org.fao.oaipmh.requests.ListIdentifiersRequest;
+import org.fao.oaipmh.requests.ListRecordsRequest;
 import org.fao.oaipmh.responses.GetRecordResponse;
 import org.fao.oaipmh.responses.Header;
 import org.fao.oaipmh.responses.ListIdentifiersResponse;
+import org.fao.oaipmh.responses.ListRecordsResponse;
+import org.fao.oaipmh.responses.Record;
+import org.fao.oaipmh.responses.ResumptionToken;
 import org.jdom.Element;
 import org.jdom.JDOMException;
 
@@ -87,16 +103,29 @@ import javax.annotation.Nonnull;
 
 class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestResult> {
 
+    /**
+     * Number of ListRecords pages fetched while the previous ones are processed.
+     */
+    private static final int PAGES_AHEAD = 2;
+
+    /**
+     * Marks the end of the ListRecords pages (compared by identity).
+     */
+    private static final List<Record> LAST_PAGE = new ArrayList<>();
+
     private HarvestResult result;
     private Logger log;
     private ServiceContext context;
     private DataManager dataMan;
     private IMetadataManager metadataManager;
-    private IMetadataIndexer metadataIndexer;
     private IMetadataUtils metadataUtils;
     private CategoryMapper localCateg;
     private GroupMapper localGroups;
     private UUIDMapper localUuids;
+    private String processName;
+    private Map<String, Object> processParams;
+    private final Map<String, Future<Element>> conversions = new HashMap<>();
+    private final List<String> idsToIndex = new ArrayList<>();
 
     /**
      * Contains a list of accumulated errors during the executing of this harvest.
@@ -115,7 +144,6 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
         GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
         dataMan = gc.getBean(DataManager.class);
         metadataManager = gc.getBean(IMetadataManager.class);
-        metadataIndexer = gc.getBean(IMetadataIndexer.class);
         metadataUtils = gc.getBean(IMetadataUtils.class);
     }
 
@@ -130,25 +158,13 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
         this.log = log;
 
         ListIdentifiersRequest req = new ListIdentifiersRequest(context.getBean(GeonetHttpRequestFactory.class));
-        req.setSchemaPath(context.getAppPath().resolve(Geonet.SchemaPath.OAI_PMH));
-
-        XmlRequest t = req.getTransport();
-        try {
-            t.setUrl(new URL(params.url));
-        } catch (MalformedURLException e1) {
-            HarvestError harvestError = new HarvestError(context, e1);
-            harvestError.setDescription(harvestError.getDescription() + " " + params.url);
-            errors.add(harvestError);
-            throw new AbortExecutionException(e1);
-        }
+        XmlRequest t = setupTransport(req);
 
-        if (params.isUseAccount()) {
-            t.setCredentials(params.getUsername(), params.getPassword());
+        if (!params.useListIdentifiers) {
+            harvestRecords(t);
+            return result;
         }
 
-        //--- set the proxy info if necessary
-        Lib.net.setupProxy(context, t);
-
         //--- perform all searches
 
         Set<RecordInfo> records = new HashSet<>();
@@ -207,6 +223,230 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
         return result;
     }
 
+    private XmlRequest setupTransport(AbstractRequest req) {
+        req.setSchemaPath(context.getAppPath().resolve(Geonet.SchemaPath.OAI_PMH));
+
+        XmlRequest t = req.getTransport();
+        try {
+            t.setUrl(new URL(params.url));
+        } catch (MalformedURLException e1) {
+            HarvestError harvestError = new HarvestError(context, e1);
+            harvestError.setDescription(harvestError.getDescription() + " " + params.url);
+            errors.add(harvestError);
+            throw new AbortExecutionException(e1);
+        }
+
+        if (params.isUseAccount()) {
+            t.setCredentials(params.getUsername(), params.getPassword());
+        }
+
+        //--- set the proxy info if necessary
+        Lib.net.setupProxy(context, t);
+
+        return t;
+    }
+
+    /**
+     * Harvest the records using ListRecords requests. The pages of records are fetched in the
+     * background while the previous ones are converted by a pool of threads, stored and indexed.
+     * Records are removed locally once all searches completed without errors.
+     */
+    private void harvestRecords(XmlRequest t) throws Exception {
+        log.info("Start of alignment for : " + params.getName());
+
+        initAlign();
+        dataMan.flush();
+
+        List<Search> searches = new ArrayList<>();
+        params.getSearches().forEach(searches::add);
+        if (params.isSearchEmpty()) {
+            log.debug("Doing an empty search");
+            searches.add(Search.createEmptySearch());
+        }
+
+        Set<String> remoteIds = new HashSet<>();
+        boolean error = false;
+        ExecutorService conversionExecutor = Executors.newFixedThreadPool(ThreadUtils.getNumberOfThreads());
+        try {
+            for (Search s : searches) {
+                if (cancelMonitor.get()) {
+                    return;
+                }
+
+                try {
+                    listRecords(t, s, remoteIds, conversionExecutor);
+                } catch (Exception e) {
+                    error = true;
+                    log.error("Unknown error trying to harvest");
+                    log.error(e.getMessage());
+                    log.error(e);
+                    errors.add(new HarvestError(context, e));
+                } catch (Throwable e) {
+                    error = true;
+                    log.fatal("Something unknown and terrible happened while harvesting");
+                    log.fatal(e.getMessage());
+                    log.error(e);
+                    errors.add(new HarvestError(context, e));
+                }
+            }
+        } finally {
+            conversionExecutor.shutdownNow();
+        }
+
+        log.info("Total records processed in all searches :" + remoteIds.size());
+
+        if (!error) {
+            removeOldMetadata(remoteIds);
+        } else {
+            log.warning("Due to previous errors the old metadata have not been removed");
+        }
+
+        dataMan.forceIndexChanges();
+        log.info("End of alignment for : " + params.getName());
+    }
+
+    private void listRecords(XmlRequest t, Search s, Set<String> remoteIds, ExecutorService conversionExecutor) throws Exception {
+        ListRecordsRequest req = new ListRecordsRequest(context.getBean(GeonetHttpRequestFactory.class));
+        setupTransport(req);
+
+        //--- setup search parameters
+
+        req.setFrom(s.from.length() != 0 ? new ISODate(s.from) : null);
+        req.setUntil(s.until.length() != 0 ? new ISODate(s.until) : null);
+        req.setSet(s.set.length() != 0 ? s.set : null);
+        req.setMetadataPrefix(s.prefix);
+
+        log.info("Searching on : " + params.getName());
+
+        BlockingQueue<List<Record>> pages = new ArrayBlockingQueue<>(PAGES_AHEAD);
+        ExecutorService fetchExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("oaipmh-fetch-%d").setDaemon(true).build());
+        try {
+            Future<?> fetch = fetchExecutor.submit(() -> {
+                fetchPages(req, pages);
+                return null;
+            });
+
+            for (List<Record> page = pages.take(); page != LAST_PAGE; page = pages.take()) {
+                if (cancelMonitor.get()) {
+                    return;
+                }
+                alignPage(t, page, s.prefix, remoteIds, conversionExecutor);
+            }
+            fetch.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NoRecordsMatchException) {
+                log.warning("No records were matched: " + e.getCause().getMessage());
+                this.errors.add(new HarvestError(context, e.getCause()));
+            } else {
+                log.warning("Raised exception when searching : " + e.getCause());
+                log.warning(Util.getStackTrace(e.getCause()));
+                this.errors.add(new HarvestError(context, e.getCause()));
+                throw new OperationAbortedEx("Raised exception when searching", e.getCause());
+            }
+        } finally {
+            fetchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Put the pages of a ListRecords response in the queue, followed by {@link #LAST_PAGE}. When
+     * the harvest is cancelled the last page is only added if there is room left, and it is not
+     * added at all when the thread is interrupted because nobody takes the pages anymore.
+     */
+    private void fetchPages(ListRecordsRequest req, BlockingQueue<List<Record>> pages) throws Exception {
+        try {
+            ListRecordsResponse response = req.execute();
+            ResumptionToken token = response.getResumptionToken();
+            List<Record> page = new ArrayList<>();
+
+            while (response.hasNext() && !cancelMonitor.get()) {
+                Record record = response.next();
+
+                // next() requested the following page when the current one was exhausted
+                if (response.getResumptionToken() != token) {
+                    if (!page.isEmpty()) {
+                        pages.put(page);
+                        page = new ArrayList<>();
+                    }
+                    token = response.getResumptionToken();
+                }
+                page.add(record);
+            }
+
+            if (!page.isEmpty()) {
+                pages.put(page);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("Page fetching interrupted, the harvest was stopped");
+            } else if (cancelMonitor.get()) {
+                pages.offer(LAST_PAGE);
+            } else {
+                pages.put(LAST_PAGE);
+            }
+        }
+    }
+
+    /**
+     * Align the records of a ListRecords page. Records to add or update are converted by the pool
+     * of threads while the page is aligned, and indexed at the end of the page.
+     */
+    private void alignPage(XmlRequest t, List<Record> page, String prefix, Set<String> remoteIds,
+                           ExecutorService conversionExecutor) {
+        List<RecordInfo> records = new ArrayList<>();
+        for (Record record : page) {
+            Header h = record.getHeader();
+
+            // Deleted records are removed at the end of the harvest, records
+            // returned by several searches are aligned once.
+            if (h.isDeleted() || !remoteIds.add(h.getIdentifier())) {
+                continue;
+            }
+
+            RecordInfo ri = new RecordInfo(h, prefix);
+            records.add(ri);
+
+            if (record.getMetadata() != null && isUpdateNeeded(ri)) {
+                Element md = (Element) record.getMetadata().detach();
+                conversions.put(ri.id, conversionExecutor.submit(() -> {
+                    context.setAsThreadLocal();
+                    try {
+                        return convertMetadata(ri, md);
+                    } finally {
+                        ServiceContext.clearAsThreadLocal();
+                    }
+                }));
+            }
+        }
+
+        try {
+            alignRecords(t, records);
+        } finally {
+            conversions.values().forEach(conversion -> conversion.cancel(true));
+            conversions.clear();
+        }
+    }
+
+    /**
+     * Same checks as alignRecords and updateMetadata to find out if a record is going to be
+     * added or updated, so that unchanged records are not converted.
+     */
+    private boolean isUpdateNeeded(RecordInfo ri) {
+        try {
+            if (localUuids.getID(ri.id) != null) {
+                return ri.isMoreRecentThan(localUuids.getChangeDate(ri.id));
+            }
+            return params.getOverrideUuid() != AbstractParams.OverrideUuid.SKIP || metadataUtils.getMetadataId(ri.id) == null;
+        } catch (Exception e) {
+            // Will be checked again when aligning the record
+            return true;
+        }
+    }
+
     private Set<RecordInfo> search(ListIdentifiersRequest req, Search s) throws OperationAbortedEx {
         //--- setup search parameters
 
@@ -259,6 +499,28 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
     private void align(XmlRequest t, Set<RecordInfo> records) throws Exception {
         log.info("Start of alignment for : " + params.getName());
 
+        initAlign();
+        dataMan.flush();
+
+        //-----------------------------------------------------------------------
+        //--- remove old metadata
+
+        removeOldMetadata(records.stream().map(ri -> ri.id).collect(Collectors.toSet()));
+
+        if (cancelMonitor.get()) {
+            return;
+        }
+
+        //-----------------------------------------------------------------------
+        //--- insert/update new metadata
+
+        alignRecords(t, records);
+
+        dataMan.forceIndexChanges();
+        log.info("End of alignment for : " + params.getName());
+    }
+
+    private void initAlign() {
         //-----------------------------------------------------------------------
         //--- retrieve all local categories and groups
         //--- retrieve harvested uuids for given harvesting node
@@ -268,21 +530,21 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
         localUuids = new UUIDMapper(context.getBean(IMetadataUtils.class), params.getUuid());
 
         Pair<String, Map<String, Object>> filter = HarvesterUtil.parseXSLFilter(params.xslfilter);
-        String processName = filter.one();
-        Map<String, Object> processParams = filter.two();
-
-        dataMan.flush();
-
-        //-----------------------------------------------------------------------
-        //--- remove old metadata
+        processName = filter.one();
+        processParams = filter.two();
+    }
 
+    /**
+     * Remove the records of this harvester which are not in the remote ids.
+     */
+    private void removeOldMetadata(Set<String> remoteIds) throws Exception {
         for (String uuid : localUuids.getUUIDs()) {
 
             if (cancelMonitor.get()) {
                 return;
             }
 
-            if (!exists(records, uuid)) {
+            if (!remoteIds.contains(uuid)) {
                 String id = localUuids.getID(uuid);
 
                 if (log.isDebugEnabled())
@@ -294,80 +556,77 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
                 result.locallyRemoved++;
             }
         }
-        //-----------------------------------------------------------------------
-        //--- insert/update new metadata
+    }
 
-        for (RecordInfo ri : records) {
+    /**
+     * Insert or update the records, then index them in batch.
+     */
+    private void alignRecords(XmlRequest t, Collection<RecordInfo> records) {
+        try {
+            for (RecordInfo ri : records) {
 
-            if (cancelMonitor.get()) {
-                return;
-            }
+                if (cancelMonitor.get()) {
+                    return;
+                }
 
-            try {
-                String databaseId = metadataUtils.getMetadataId(ri.id);
-                if (databaseId == null) {
-                    // record doesn't exist (so it doesn't belong to this harvester)
-                    log.debug(String.format("Adding record with id %s", ri.id));
-                    processParams.put("mdChangeDate", ri.changeDate);
-                    addMetadata(t, ri, processName, processParams);
-                } else if (localUuids.getID(ri.id) == null) {
-                    // Record with such uuid already exists in the database but doesn't belong to this harvester
-                    result.datasetUuidExist++;
-
-                    switch (params.getOverrideUuid()) {
-                        case OVERRIDE:
-                            processParams.put("mdChangeDate", ri.changeDate);
-                            updateMetadata(t, ri, Integer.toString(metadataUtils.findOneByUuid(ri.id).getId()),
-                                processName, processParams, true);
-                            result.updatedMetadata++;
-                            break;
-                        case RANDOM:
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("Generating random uuid for remote record with uuid %s", ri.id));
-                            }
-                            String newRandomUuid = UUID.randomUUID().toString();
-                            processParams.put("mdChangeDate", ri.changeDate);
-                            addMetadata(t, ri, processName, processParams, newRandomUuid);
-                            break;
-                        case SKIP:
-                            log.debug("Skipping record with uuid " + ri.id);
-                            result.uuidSkipped++;
-                            break;
-                        default:
-                            //nothing
+                try {
+                    String databaseId = metadataUtils.getMetadataId(ri.id);
+                    if (databaseId == null) {
+                        // record doesn't exist (so it doesn't belong to this harvester)
+                        log.debug(String.format("Adding record with id %s", ri.id));
+                        processParams.put("mdChangeDate", ri.changeDate);
+                        addMetadata(t, ri, processName, processParams);
+                    } else if (localUuids.getID(ri.id) == null) {
+                        // Record with such uuid already exists in the database but doesn't belong to this harvester
+                        result.datasetUuidExist++;
+
+                        switch (params.getOverrideUuid()) {
+                            case OVERRIDE:
+                                processParams.put("mdChangeDate", ri.changeDate);
+                                updateMetadata(t, ri, Integer.toString(metadataUtils.findOneByUuid(ri.id).getId()),
+                                    processName, processParams, true);
+                                result.updatedMetadata++;
+                                break;
+                            case RANDOM:
+                                if (log.isDebugEnabled()) {
+                                    log.debug(String.format("Generating random uuid for remote record with uuid %s", ri.id));
+                                }
+                                String newRandomUuid = UUID.randomUUID().toString();
+                                processParams.put("mdChangeDate", ri.changeDate);
+                                addMetadata(t, ri, processName, processParams, newRandomUuid);
+                                break;
+                            case SKIP:
+                                log.debug("Skipping record with uuid " + ri.id);
+                                result.uuidSkipped++;
+                                break;
+                            default:
+                                //nothing
+                        }
+                    } else {
+                        //record exists and belongs to this harvester
+                        String id = localUuids.getID(ri.id);
+                        processParams.put("mdChangeDate", ri.changeDate);
+                        updateMetadata(t, ri, id, processName, processParams, false);
                     }
-                } else {
-                    //record exists and belongs to this harvester
-                    String id = localUuids.getID(ri.id);
-                    processParams.put("mdChangeDate", ri.changeDate);
-                    updateMetadata(t, ri, id, processName, processParams, false);
-                }
-                result.totalMetadata++;
-            } catch (Throwable tr) {
-                errors.add(new HarvestError(this.context, tr));
-                log.error("Unable to process record from OAI (" + this.params.getName() + ")");
-                log.error("   Record failed: " + ri.id + ". Error is: " + tr.getMessage());
-                log.error(tr);
-            } finally {
-                result.originalMetadata++;
+                    result.totalMetadata++;
+                } catch (Throwable tr) {
+                    errors.add(new HarvestError(this.context, tr));
+                    log.error("Unable to process record from OAI (" + this.params.getName() + ")");
+                    log.error("   Record failed: " + ri.id + ". Error is: " + tr.getMessage());
+                    log.error(tr);
+                } finally {
+                    result.originalMetadata++;
 
+                }
+            }
+        } finally {
+            if (!idsToIndex.isEmpty()) {
+                log.debug(String.format("Starting indexing in batch thread pool of %d harvested records ...",
+                    idsToIndex.size()));
+                dataMan.batchIndexInThreadPool(context, new ArrayList<>(idsToIndex));
+                idsToIndex.clear();
             }
         }
-
-        dataMan.forceIndexChanges();
-        log.info("End of alignment for : " + params.getName());
-    }
-
-    /**
-     * Return true if the uuid is present in the remote records
-     */
-
-    private boolean exists(Set<RecordInfo> records, String uuid) {
-        for (RecordInfo ri : records)
-            if (uuid.equals(ri.id))
-                return true;
-
-        return false;
     }
 
     private void addMetadata(XmlRequest t, RecordInfo ri, String processName, Map<String, Object> processParams) throws Exception {
@@ -440,12 +699,17 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
 
         metadataManager.flush();
 
-        dataMan.indexMetadata(id, Math.random() < 0.01);
+        idsToIndex.add(id);
         result.addedMetadata++;
     }
 
     private Element retrieveMetadata(XmlRequest transport, RecordInfo ri) {
         try {
+            Future<Element> conversion = conversions.remove(ri.id);
+            if (conversion != null) {
+                return conversion.get();
+            }
+
             if (log.isDebugEnabled()) log.debug("  - Getting remote metadata with id : " + ri.id);
 
             GetRecordRequest req = new GetRecordRequest(transport);
@@ -460,57 +724,71 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
 
             if (log.isDebugEnabled()) log.debug("    - Record got:\n" + Xml.getString(md));
 
-            if (isOaiDc(md)) {
-                if (log.isDebugEnabled()) log.debug("    - Converting oai_dc to dublin core");
-                md = toDublinCore(md);
-
-                if (md == null)
-                    return null;
+            return convertMetadata(ri, md);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.unretrievable++;
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            HarvestError harvestError = new HarvestError(context, cause);
+            if (cause instanceof JDOMException) {
+                harvestError.setDescription("Skipping metadata with bad XML format. Remote id : " + ri.id);
+                result.badFormat++;
+            } else {
+                harvestError.setDescription(String.format(
+                    "Raised exception while getting metadata file %s. Error is: %s",
+                    ri.id, cause.getMessage()));
+                result.unretrievable++;
             }
+            harvestError.printLog();
+            this.errors.add(harvestError);
+        }
 
-            String schema = dataMan.autodetectSchema(md, null);
-
-            if (schema == null) {
-                log.warning("Skipping metadata with unknown schema. Remote id : " + ri.id);
-                result.unknownSchema++;
-            } else {
+        //--- we don't raise any exception here. Just try to go on
+        return null;
+    }
 
-                try {
-                    Integer groupIdVal = null;
-                    if (StringUtils.isNotEmpty(params.getOwnerIdGroup())) {
-                        groupIdVal = getGroupOwner();
-                    }
+    /**
+     * Convert oai_dc records to dublin core and check the schema and validity of the record. Records
+     * of a ListRecords page are converted by a pool of threads, the counters updated here are
+     * synchronized on the result.
+     *
+     * @return the record or null if it is skipped
+     */
+    private Element convertMetadata(RecordInfo ri, Element md) {
+        if (isOaiDc(md)) {
+            if (log.isDebugEnabled()) log.debug("    - Converting oai_dc to dublin core");
+            md = toDublinCore(md);
 
-                    params.getValidate().validate(dataMan, context, md, groupIdVal);
-                    return (Element) md.detach();
-                } catch (Exception e) {
-                    log.info("Skipping metadata that does not validate. Remote id : " + ri.id);
-                    result.doesNotValidate++;
-                }
+            if (md == null)
+                return null;
         }
-    }
 
-    catch(JDOMException e) {
-            HarvestError harvestError = new HarvestError(context, e);
-            harvestError.setDescription("Skipping metadata with bad XML format. Remote id : "+ ri.id);
-            harvestError.printLog();
-            this.errors.add(harvestError);
-            result.badFormat++;
-    }
+        String schema = dataMan.autodetectSchema(md, null);
 
-    catch(Exception e)
-    {
-            HarvestError harvestError = new HarvestError(context, e);
-            harvestError.setDescription(String.format(
-                "Raised exception while getting metadata file %s. Error is: %s",
-                ri.id, e.getMessage()));
-            this.errors.add(harvestError);
-            harvestError.printLog();
-            result.unretrievable++;
-    }
+        if (schema == null) {
+            log.warning("Skipping metadata with unknown schema. Remote id : " + ri.id);
+            synchronized (result) {
+                result.unknownSchema++;
+            }
+            return null;
+        }
 
-        //--- we don't raise any exception here. Just try to go on
-        return null;
+        try {
+            Integer groupIdVal = null;
+            if (StringUtils.isNotEmpty(params.getOwnerIdGroup())) {
+                groupIdVal = getGroupOwner();
+            }
+
+            params.getValidate().validate(dataMan, context, md, groupIdVal);
+            return (Element) md.detach();
+        } catch (Exception e) {
+            log.info("Skipping metadata that does not validate. Remote id : " + ri.id);
+            synchronized (result) {
+                result.doesNotValidate++;
+            }
+            return null;
+        }
     }
 
     private boolean isOaiDc(Element md) {
@@ -616,9 +894,7 @@ class Harvester extends BaseAligner<OaiPmhParams> implements IHarvester<HarvestR
             addCategories(metadata, params.getCategories(), localCateg, context, null, true);
 
             metadataManager.flush();
-            dataMan.indexMetadata(id, Math.random() < 0.01);
-            result.updatedMetadata++;
-            metadataIndexer.indexMetadata(id, true, IndexingMode.full);
+            idsToIndex.add(id);
             result.updatedMetadata++;
         }
     }
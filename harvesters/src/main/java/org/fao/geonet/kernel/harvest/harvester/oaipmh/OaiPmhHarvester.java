@@ -54,6 +54,7 @@ public class OaiPmhHarvester extends AbstractHarvester<HarvestResult, OaiPmhPara
         harvesterSettingsManager.add("id:" + siteId, "url", params.url);
         harvesterSettingsManager.add("id:" + siteId, "icon", params.icon);
         harvesterSettingsManager.add("id:" + siteId, "xslfilter", params.xslfilter);
+        harvesterSettingsManager.add("id:" + siteId, "useListIdentifiers", params.useListIdentifiers);
 
         harvesterSettingsManager.add("id:" + optionsId, "validate", params.getValidate());
 
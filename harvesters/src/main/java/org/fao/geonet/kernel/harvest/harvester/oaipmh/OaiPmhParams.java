@@ -52,6 +52,12 @@ public class OaiPmhParams extends AbstractParams {
      */
     public String  xslfilter;
 
+    /**
+     * Use ListIdentifiers and one GetRecord request per record instead of ListRecords, for
+     * servers not supporting ListRecords properly.
+     */
+    public boolean useListIdentifiers;
+
     //---------------------------------------------------------------------------
     //---
     //--- Create : called when a new entry must be added. Reads values from the
@@ -88,6 +94,7 @@ public class OaiPmhParams extends AbstractParams {
         url = Util.getParam(site, "url", "");
         icon = Util.getParam(site, "icon", "");
         xslfilter = Util.getParam(site, "xslfilter", "");
+        useListIdentifiers = Util.getParam(site, "useListIdentifiers", false);
 
         addSearches(searches);
     }
@@ -103,6 +110,7 @@ public class OaiPmhParams extends AbstractParams {
         url = Util.getParam(site, "url", url);
         icon = Util.getParam(site, "icon", icon);
         xslfilter = Util.getParam(site, "xslfilter", "");
+        useListIdentifiers = Util.getParam(site, "useListIdentifiers", useListIdentifiers);
 
         //--- if some search queries are given, we drop the previous ones and
         //--- set these new ones
@@ -138,6 +146,7 @@ public class OaiPmhParams extends AbstractParams {
         copy.url = url;
         copy.icon = icon;
         copy.xslfilter = xslfilter;
+        copy.useListIdentifiers = useListIdentifiers;
 
         copy.setValidate(getValidate());
 
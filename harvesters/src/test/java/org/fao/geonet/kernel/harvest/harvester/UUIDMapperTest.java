@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.kernel.harvest.harvester;
+
+import org.fao.geonet.domain.ISODate;
+import org.fao.geonet.kernel.datamanager.IMetadataUtils;
+import org.fao.geonet.repository.SimpleMetadata;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the lookups of {@link UUIDMapper}.
+ */
+public class UUIDMapperTest {
+    @Test
+    public void testLookups() throws Exception {
+        final ISODate date = new ISODate("2024-03-01T10:15:30Z");
+        final ISODate dateWithMillis = new ISODate("2024-03-02T10:15:30.125Z");
+        final ISODate shortDate = new ISODate("2024-03-03");
+        UUIDMapper mapper = createMapper(
+            new SimpleMetadata(3, "c-uuid", date, 'n'),
+            new SimpleMetadata(1, "a-uuid", dateWithMillis, 'y'),
+            new SimpleMetadata(2, "b-uuid-été", shortDate, 's'));
+
+        assertEquals("1", mapper.getID("a-uuid"));
+        assertEquals("2", mapper.getID("b-uuid-été"));
+        assertEquals("3", mapper.getID("c-uuid"));
+        assertNull(mapper.getID("d-uuid"));
+        assertNull(mapper.getID(null));
+
+        assertEquals(date.getDateAndTime(), mapper.getChangeDate("c-uuid"));
+        assertEquals(dateWithMillis.getDateAndTime(), mapper.getChangeDate("a-uuid"));
+        assertEquals(shortDate.getDateAndTime(), mapper.getChangeDate("b-uuid-été"));
+        assertNull(mapper.getChangeDate("d-uuid"));
+
+        assertEquals("y", mapper.getTemplate("a-uuid"));
+        assertEquals("s", mapper.getTemplate("b-uuid-été"));
+        assertEquals("n", mapper.getTemplate("c-uuid"));
+
+        List<String> uuids = new ArrayList<>();
+        mapper.getUUIDs().forEach(uuids::add);
+        assertEquals(Arrays.asList("a-uuid", "b-uuid-été", "c-uuid"), uuids);
+    }
+
+    @Test
+    public void testLastRecordWins() throws Exception {
+        final ISODate date = new ISODate("2024-03-01T10:15:30Z");
+        final ISODate newerDate = new ISODate("2024-04-01T10:15:30Z");
+        UUIDMapper mapper = createMapper(
+            new SimpleMetadata(1, "a-uuid", date, 'n'),
+            new SimpleMetadata(2, "b-uuid", date, 'n'),
+            new SimpleMetadata(3, "a-uuid", newerDate, 'n'));
+
+        assertEquals("3", mapper.getID("a-uuid"));
+        assertEquals(newerDate.getDateAndTime(), mapper.getChangeDate("a-uuid"));
+        assertEquals("2", mapper.getID("b-uuid"));
+
+        List<String> uuids = new ArrayList<>();
+        mapper.getUUIDs().forEach(uuids::add);
+        assertEquals(Arrays.asList("a-uuid", "b-uuid"), uuids);
+    }
+
+    @Test
+    public void testManyRecords() throws Exception {
+        final ISODate date = new ISODate("2024-03-01T10:15:30Z");
+        final int count = 5000;
+        SimpleMetadata[] records = new SimpleMetadata[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = new SimpleMetadata(i, "uuid-" + (count - i), date, 'n');
+        }
+        UUIDMapper mapper = createMapper(records);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(String.valueOf(i), mapper.getID("uuid-" + (count - i)));
+        }
+        assertNull(mapper.getID("uuid-0"));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        UUIDMapper mapper = createMapper();
+        assertNull(mapper.getID("a-uuid"));
+        assertFalse(mapper.getUUIDs().iterator().hasNext());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UUIDMapper createMapper(final SimpleMetadata... records) throws Exception {
+        IMetadataUtils metadataUtils = Mockito.mock(IMetadataUtils.class);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                Consumer<SimpleMetadata> action = (Consumer<SimpleMetadata>) invocation.getArguments()[1];
+                for (SimpleMetadata record : records) {
+                    action.accept(record);
+                }
+                return null;
+            }
+        }).when(metadataUtils).forEachSimple(Mockito.eq("harvester"), Mockito.any(Consumer.class));
+        return new UUIDMapper(metadataUtils, "harvester");
+    }
+}
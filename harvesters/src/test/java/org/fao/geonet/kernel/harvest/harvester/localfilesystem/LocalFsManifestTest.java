@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+package org.fao.geonet.kernel.harvest.harvester.localfilesystem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the storage of {@link LocalFsManifest}.
+ */
+public class LocalFsManifestTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path file = Files.write(root.resolve("record\twith tab.xml"), "<record/>".getBytes(StandardCharsets.UTF_8));
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        String hash = LocalFsManifest.hash(file);
+
+        LocalFsManifest manifest = new LocalFsManifest();
+        manifest.put(file, new LocalFsManifest.Entry(attrs, hash, 12, "a-uuid"));
+        Path manifestFile = LocalFsManifest.getFile(root, "harvester-uuid");
+        manifest.save(manifestFile);
+
+        LocalFsManifest loaded = LocalFsManifest.load(manifestFile);
+        assertEquals(1, loaded.size());
+        LocalFsManifest.Entry entry = loaded.get(file);
+        assertNotNull(entry);
+        assertEquals(12, entry.id);
+        assertEquals("a-uuid", entry.uuid);
+        assertEquals(hash, entry.hash);
+        assertTrue(entry.isSameFile(attrs));
+
+        Files.write(file, "<record>changed</record>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(entry.isSameFile(Files.readAttributes(file, BasicFileAttributes.class)));
+        assertNotEquals(hash, LocalFsManifest.hash(file));
+
+        LocalFsManifest.delete(manifestFile);
+        assertEquals(0, LocalFsManifest.load(manifestFile).size());
+    }
+
+    @Test
+    public void testLoadInvalidManifest() throws Exception {
+        Path manifestFile = folder.getRoot().toPath().resolve("manifest.gz");
+        Files.write(manifestFile, "not a manifest".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0, LocalFsManifest.load(manifestFile).size());
+    }
+}
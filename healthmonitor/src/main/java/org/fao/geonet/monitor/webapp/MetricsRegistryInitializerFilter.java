@@ -26,6 +26,9 @@ package org.fao.geonet.monitor.webapp;
 import com.yammer.metrics.core.HealthCheckRegistry;
 import com.yammer.metrics.core.MetricsRegistry;
 
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
 import jeeves.monitor.MonitorManager;
 import org.fao.geonet.utils.Log;
 
@@ -41,6 +44,7 @@ import java.io.IOException;
  */
 public class MetricsRegistryInitializerFilter implements Filter {
     private MetricsRegistry metricsRegistry;
+    private PrometheusMeterRegistry prometheusRegistry;
 
     public void init(FilterConfig filterConfig) throws ServletException {
         ServletContext context = filterConfig.getServletContext();
@@ -52,6 +56,9 @@ public class MetricsRegistryInitializerFilter implements Filter {
         metricsRegistry = new MetricsRegistry();
         context.setAttribute(MonitorManager.METRICS_REGISTRY, metricsRegistry);
         context.setAttribute(DefaultWebappMetricsFilter.REGISTRY_ATTRIBUTE, metricsRegistry);
+
+        prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        context.setAttribute(MonitorManager.PROMETHEUS_REGISTRY, prometheusRegistry);
     }
 
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
@@ -61,5 +68,6 @@ public class MetricsRegistryInitializerFilter implements Filter {
     public void destroy() {
         Log.info(Log.WEBAPP, "Shutdown metricsRegistry");
         metricsRegistry.shutdown();
+        prometheusRegistry.close();
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.monitor.webapp;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import jeeves.monitor.MonitorManager;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Exposes the meters of the {@link PrometheusMeterRegistry} registered in the servlet context
+ * (see {@link MetricsRegistryInitializerFilter}) in the Prometheus text format. Only responds to
+ * {@code GET} requests.
+ */
+public class PrometheusMetricsServlet extends HttpServlet {
+    private static final long serialVersionUID = -2496421581283375337L;
+
+    private transient PrometheusMeterRegistry registry;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        registry = (PrometheusMeterRegistry) config.getServletContext().getAttribute(MonitorManager.PROMETHEUS_REGISTRY);
+        if (registry == null) {
+            throw new IllegalStateException("Expected a PrometheusMeterRegistry to be registered in the ServletContext attributes but there was none");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req,
+                         HttpServletResponse resp) throws ServletException, IOException {
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(TextFormat.CONTENT_TYPE_004);
+        resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        try (PrintWriter writer = resp.getWriter()) {
+            registry.scrape(writer);
+        }
+    }
+}
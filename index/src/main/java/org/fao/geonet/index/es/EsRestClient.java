@@ -31,6 +31,9 @@ import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.WrapperQuery;
 import co.elastic.clients.elasticsearch.cluster.HealthResponse;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
 import co.elastic.clients.elasticsearch.indices.AnalyzeRequest;
 import co.elastic.clients.elasticsearch.indices.AnalyzeResponse;
 import co.elastic.clients.elasticsearch.indices.analyze.AnalyzeToken;
@@ -42,6 +45,9 @@ import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.json.spi.JsonProvider;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
@@ -75,6 +81,26 @@ import java.util.*;
  * Client to connect to Elasticsearch
  */
 public class EsRestClient implements InitializingBean {
+    /**
+     * Duration of the bulk requests, tagged with the outcome.
+     */
+    public static final String BULK_TIMER = "gn.index.bulk";
+    /**
+     * Number of documents and size of the JSON payload of the bulk requests.
+     */
+    public static final String BULK_DOCUMENTS = "gn.index.bulk.documents";
+    public static final String BULK_PAYLOAD = "gn.index.bulk.payload";
+
+    private static final DistributionSummary BULK_DOCUMENTS_SUMMARY = DistributionSummary.builder(BULK_DOCUMENTS)
+        .description("Number of documents of the bulk requests")
+        .publishPercentileHistogram()
+        .register(Metrics.globalRegistry);
+    private static final DistributionSummary BULK_PAYLOAD_SUMMARY = DistributionSummary.builder(BULK_PAYLOAD)
+        .description("Number of characters of the JSON documents of the bulk requests")
+        .baseUnit("characters")
+        .publishPercentileHistogram()
+        .register(Metrics.globalRegistry);
+
     private static EsRestClient instance;
 
     private ElasticsearchClient client;
@@ -231,9 +257,11 @@ public class EsRestClient implements InitializingBean {
         JsonpMapper jsonpMapper = client._transport().jsonpMapper();
         JsonProvider jsonProvider = jsonpMapper.jsonProvider();
 
+        long payload = 0;
         Iterator<Map.Entry<String, String>> iterator = docs.entrySet().iterator();
         while (iterator.hasNext()) {
             Map.Entry<String, String> entry = iterator.next();
+            payload += entry.getValue().length();
 
             JsonData jd = JsonData.from(jsonProvider.createParser(new StringReader(entry.getValue())), jsonpMapper);
 
@@ -244,12 +272,24 @@ public class EsRestClient implements InitializingBean {
         }
 
         BulkRequest request = requestBuilder.build();
+        BULK_DOCUMENTS_SUMMARY.record(docs.size());
+        BULK_PAYLOAD_SUMMARY.record(payload);
 
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        String outcome = "error";
         try {
-            return client.bulk(request);
+            BulkResponse response = client.bulk(request);
+            outcome = response.errors() ? "partial" : "success";
+            return response;
         } catch (IOException e) {
             e.printStackTrace();
             throw e;
+        } finally {
+            sample.stop(Timer.builder(BULK_TIMER)
+                .description("Bulk requests sent to the index")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry));
         }
     }
 
@@ -367,6 +407,132 @@ public class EsRestClient implements InitializingBean {
         }
     }
 
+    /**
+     * Run a list of queries using Lucene query syntax in one multi search request.
+     * The filter query and the paging apply to all queries.
+     *
+     * @return the responses in the order of the queries. A query which failed
+     * is logged and returned as a failure item.
+     */
+    public List<MultiSearchResponseItem<ObjectNode>> multiQuery(String index, List<String> luceneQueries,
+                                                                String filterQuery, Set<String> includedFields,
+                                                                Map<String, String> scriptedFields,
+                                                                int from, int size) throws IOException {
+        if (!activated || luceneQueries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Query filter = StringUtils.isNotEmpty(filterQuery) ?
+            new Query.Builder().queryString(new QueryStringQuery.Builder().query(filterQuery).build()).build() :
+            null;
+
+        List<RequestItem> searches = new ArrayList<>(luceneQueries.size());
+        for (String luceneQuery : luceneQueries) {
+            MultisearchBody.Builder body = new MultisearchBody.Builder()
+                .from(from)
+                .size(size)
+                .query(q -> q.queryString(qs -> qs.query(luceneQuery)))
+                .trackTotalHits(th -> th.enabled(true))
+                .source(sc -> sc.filter(f -> f.includes(new ArrayList<>(includedFields))));
+
+            if (filter != null) {
+                body.postFilter(filter);
+            }
+
+            if (MapUtils.isNotEmpty(scriptedFields)) {
+                for (Map.Entry<String, String> scriptedField : scriptedFields.entrySet()) {
+                    body.scriptFields(scriptedField.getKey(), ScriptField.of(
+                        b -> b.script(sb -> sb.inline(is -> is.source(scriptedField.getValue())))
+                    ));
+                }
+            }
+
+            searches.add(RequestItem.of(r -> r.header(h -> h.index(index)).body(body.build())));
+        }
+
+        try {
+            List<MultiSearchResponseItem<ObjectNode>> responses =
+                client.msearch(m -> m.searches(searches), ObjectNode.class).responses();
+            for (MultiSearchResponseItem<ObjectNode> response : responses) {
+                if (response.isFailure()) {
+                    Log.error("geonetwork.index", String.format(
+                        "Error during querying index. %s", response.failure().error().toString()));
+                }
+            }
+            return responses;
+        } catch (ElasticsearchException esException) {
+            Log.error("geonetwork.index", String.format(
+                "Error during querying index. %s", esException.error().toString()));
+            throw esException;
+        }
+    }
+
+    /**
+     * Open a point in time on an index, to page through a consistent view of the index
+     * with {@link #searchAfter}.
+     *
+     * @param keepAlive how long the point in time is kept between requests, eg. 10m
+     * @return the point in time id
+     */
+    public String openPointInTime(String index, String keepAlive) throws IOException {
+        if (!activated) {
+            return null;
+        }
+
+        return client.openPointInTime(b -> b.index(index).keepAlive(t -> t.time(keepAlive))).id();
+    }
+
+    public void closePointInTime(String pointInTimeId) throws IOException {
+        if (!activated) {
+            return;
+        }
+
+        client.closePointInTime(b -> b.id(pointInTimeId));
+    }
+
+    /**
+     * Query a page of results using Lucene query syntax, starting after the sort values
+     * of the last hit of the previous page. Unlike from/size paging, the cost of a page
+     * does not depend on its position in the results.
+     *
+     * @param pointInTimeId the point in time to search, or null to search the index
+     * @param keepAlive     how long the point in time is extended
+     * @param searchAfter   the sort values of the last hit of the previous page, or null for the first page
+     */
+    public SearchResponse<ObjectNode> searchAfter(String index, String pointInTimeId, String keepAlive,
+                                                  String luceneQuery, Set<String> includedFields,
+                                                  List<SortOptions> sort, List<FieldValue> searchAfter,
+                                                  int size) throws IOException {
+        if (!activated) {
+            return null;
+        }
+
+        SearchRequest.Builder searchRequestBuilder = new SearchRequest.Builder()
+            .size(size)
+            .query(q -> q.queryString(qs -> qs.query(luceneQuery)))
+            .sort(sort)
+            // The total is only needed for the first page
+            .trackTotalHits(th -> th.enabled(searchAfter == null))
+            .source(sc -> sc.filter(f -> f.includes(new ArrayList<>(includedFields))));
+
+        if (pointInTimeId != null) {
+            searchRequestBuilder.pit(p -> p.id(pointInTimeId).keepAlive(t -> t.time(keepAlive)));
+        } else {
+            searchRequestBuilder.index(index);
+        }
+
+        if (searchAfter != null) {
+            searchRequestBuilder.searchAfter(searchAfter);
+        }
+
+        try {
+            return client.search(searchRequestBuilder.build(), ObjectNode.class);
+        } catch (ElasticsearchException esException) {
+            Log.error("geonetwork.index", String.format(
+                "Error during querying index. %s", esException.error().toString()));
+            throw esException;
+        }
+    }
 
     public String deleteByQuery(String index, String query) throws Exception {
         if (!activated) {
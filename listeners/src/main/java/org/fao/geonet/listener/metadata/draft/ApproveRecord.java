@@ -158,12 +158,12 @@ public class ApproveRecord implements ApplicationListener<MetadataStatusChanged>
             Log.trace(Geonet.DATA_MANAGER, "Approving record " + md.getId() + " which has a draft " + draft.getId());
 
             XMLOutputter outp = new XMLOutputter();
-            String xmlBefore = outp.outputString(md.getXmlData(false));
+            String xmlBefore = outp.outputString(md.getXmlDataReadOnly());
 
             md = draftUtilities.replaceMetadataWithDraft(md, draft);
 
             // Throw RecordUpdatedEvent for the published version
-            Element afterMetadata = draft.getXmlData(false);
+            Element afterMetadata = draft.getXmlDataReadOnly();
             String xmlAfter = outp.outputString(afterMetadata);
             new RecordUpdatedEvent(md.getId(), event.getUser(), xmlBefore, xmlAfter).publish(ApplicationContextHolder.get());
         }
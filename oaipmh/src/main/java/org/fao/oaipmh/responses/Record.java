@@ -121,12 +121,14 @@ public class Record {
 
         this.header = new Header(header);
 
-        //--- store metadata
+        //--- store metadata (deleted records have no metadata)
 
-        List<Element> list = mdata.getChildren();
+        if (mdata != null) {
+            List<Element> list = mdata.getChildren();
 
-        if (list.size() != 0)
-            metadata = list.get(0);
+            if (list.size() != 0)
+                metadata = list.get(0);
+        }
 
         //--- add about information
 
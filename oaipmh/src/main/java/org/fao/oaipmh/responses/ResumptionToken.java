@@ -82,10 +82,18 @@ public class ResumptionToken {
         return listSize;
     }
 
+    public void setCompleteListSize(Integer listSize) {
+        this.listSize = listSize;
+    }
+
     public Integer getCursor() {
         return cursor;
     }
 
+    public void setCursor(Integer cursor) {
+        this.cursor = cursor;
+    }
+
     //---------------------------------------------------------------------------
 
     public boolean isTokenEmpty() {
@@ -35,7 +35,6 @@ import org.jdom.Element;
 import org.jdom.JDOMException;
 import org.jdom.Namespace;
 import org.jdom.filter.ElementFilter;
-import org.jdom.xpath.XPath;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -269,9 +268,8 @@ public class ISO19115_3_2018SchemaPlugin
         final String path = ".//lan:LocalisedCharacterString" +
             "[@locale='#" + languageIdentifier + "']";
         try {
-            XPath xpath = XPath.newInstance(path);
             @SuppressWarnings("unchecked")
-            List<Element> matches = xpath.selectNodes(element);
+            List<Element> matches = (List<Element>) Xml.selectNodes(element, path);
             return matches;
         } catch (Exception e) {
             Log.debug(LOGGER_NAME, getIdentifier() + ": getTranslationForElement failed " +
@@ -107,6 +107,38 @@
 
 
 
+    <!-- Translate all the texts of the record with one call to the translation provider
+    per language. The translations are passed to the translate template, which looks them up by
+    language and text, and translates the texts missing from the batch one by one. -->
+    <xsl:key name="translation" match="translation" use="concat(@lang, '|', @source)"/>
+
+    <xsl:template match="/">
+        <xsl:variable name="textsToTranslate"
+                      as="xs:string*"
+                      select="distinct-values(//*[(gco:CharacterString or gcx:Anchor)
+                                and ($translateAll or concat('/', string-join(ancestor-or-self::*[name() != 'root']/name(), '/')) = $fieldsToTranslate)]
+                                /(gco:CharacterString|gcx:Anchor)/string())"/>
+
+        <xsl:variable name="translations">
+            <xsl:for-each select="$languagesToTranslate">
+                <xsl:variable name="lang2code" select="string(@code2)"/>
+                <xsl:for-each select="translation:translateAll($textsToTranslate, lower-case($mainLanguage2code), $lang2code)">
+                    <xsl:variable name="position" select="position()"/>
+                    <!-- Texts which could not be translated are left to the translate template -->
+                    <xsl:if test=". != ''">
+                        <translation lang="{$lang2code}" source="{$textsToTranslate[$position]}">
+                            <xsl:value-of select="."/>
+                        </translation>
+                    </xsl:if>
+                </xsl:for-each>
+            </xsl:for-each>
+        </xsl:variable>
+
+        <xsl:apply-templates select="node()">
+            <xsl:with-param name="translations" select="$translations" tunnel="yes"/>
+        </xsl:apply-templates>
+    </xsl:template>
+
     <!-- Do a copy of every nodes and attributes -->
     <xsl:template match="@*|node()">
         <xsl:copy>
@@ -183,7 +215,9 @@
 
 
     <xsl:template name="translate">
+        <xsl:param name="translations" tunnel="yes"/>
         <xsl:variable name="node" select="."/>
+        <xsl:variable name="text" select="string(($node/(gco:CharacterString|gcx:Anchor))[1])"/>
 
         <lan:PT_FreeText>
             <xsl:copy-of select="*/lan:textGroup[*/@locale = $mainLanguage2code]"/>
@@ -198,7 +232,8 @@
                     <lan:LocalisedCharacterString locale="{$langId}">
                         <xsl:value-of select="if(not($translateOnlyEmptyText)
                                                  or ($translateOnlyEmptyText and $currentTranslation = ''))
-                                              then translation:translate($node/(gco:CharacterString|gcx:Anchor), lower-case($mainLanguage2code), @code2)
+                                              then (key('translation', concat(@code2, '|', $text), $translations),
+                                                    translation:translate($text, lower-case($mainLanguage2code), @code2))[1]
                                               else $currentTranslation"/>
                     </lan:LocalisedCharacterString>
                 </lan:textGroup>
@@ -72,6 +72,38 @@
     <xsl:variable name="mainLanguage2code"
                   select="util:twoCharLangCode($mainLanguage)"/>
 
+    <!-- Translate all the texts of the record with one call to the translation provider
+    per language. The translations are passed to the translate template, which looks them up by
+    language and text, and translates the texts missing from the batch one by one. -->
+    <xsl:key name="translation" match="translation" use="concat(@lang, '|', @source)"/>
+
+    <xsl:template match="/">
+        <xsl:variable name="textsToTranslate"
+                      as="xs:string*"
+                      select="distinct-values(//*[(gco:CharacterString or gmx:Anchor)
+                                and ($translateAll or concat('/', string-join(ancestor-or-self::*[name() != 'root']/name(), '/')) = $fieldsToTranslate)]
+                                /(gco:CharacterString|gmx:Anchor)/string())"/>
+
+        <xsl:variable name="translations">
+            <xsl:for-each select="$languagesToTranslate">
+                <xsl:variable name="lang2code" select="string(@code2)"/>
+                <xsl:for-each select="translation:translateAll($textsToTranslate, lower-case($mainLanguage2code), $lang2code)">
+                    <xsl:variable name="position" select="position()"/>
+                    <!-- Texts which could not be translated are left to the translate template -->
+                    <xsl:if test=". != ''">
+                        <translation lang="{$lang2code}" source="{$textsToTranslate[$position]}">
+                            <xsl:value-of select="."/>
+                        </translation>
+                    </xsl:if>
+                </xsl:for-each>
+            </xsl:for-each>
+        </xsl:variable>
+
+        <xsl:apply-templates select="node()">
+            <xsl:with-param name="translations" select="$translations" tunnel="yes"/>
+        </xsl:apply-templates>
+    </xsl:template>
+
     <!-- Do a copy of every nodes and attributes -->
     <xsl:template match="@*|node()">
         <xsl:copy>
@@ -131,7 +163,9 @@
 
 
     <xsl:template name="translate">
+        <xsl:param name="translations" tunnel="yes"/>
         <xsl:variable name="node" select="."/>
+        <xsl:variable name="text" select="string(($node/(gco:CharacterString|gmx:Anchor))[1])"/>
 
         <gmd:PT_FreeText>
             <xsl:copy-of select="*/gmd:textGroup[*/@locale = $mainLanguage2code]"/>
@@ -146,7 +180,8 @@
                     <gmd:LocalisedCharacterString locale="{$langId}">
                         <xsl:value-of select="if(not($translateOnlyEmptyText)
                                                  or ($translateOnlyEmptyText and $currentTranslation = ''))
-                                              then translation:translate($node/(gco:CharacterString|gmx:Anchor), lower-case($mainLanguage2code), @code2)
+                                              then (key('translation', concat(@code2, '|', $text), $translations),
+                                                    translation:translate($text, lower-case($mainLanguage2code), @code2))[1]
                                               else $currentTranslation"/>
                     </gmd:LocalisedCharacterString>
                 </gmd:textGroup>
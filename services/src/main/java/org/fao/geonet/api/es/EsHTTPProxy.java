@@ -36,6 +36,8 @@ import com.google.common.collect.Sets;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -121,6 +123,12 @@ public class EsHTTPProxy {
     private static final String SEARCH_ENDPOINT = "_search";
     private static final String MULTISEARCH_ENDPOINT = "_msearch";
 
+    /**
+     * Duration of the requests proxied to the index, including the processing of the response,
+     * tagged with the endpoint (_search, _msearch or other) and the status of the index response.
+     */
+    public static final String PROXY_TIMER = "gn.es.proxy";
+
     @Autowired
     AccessManager accessManager;
 
@@ -181,23 +189,39 @@ public class EsHTTPProxy {
         doc.put(Edit.Info.Elem.SELECTED, selections.contains(uuid));
     }
 
-    private static void addRelatedTypes(ObjectNode doc,
+    /**
+     * Add the related records to all the hits of a page,
+     * searching them with one multi search request.
+     */
+    private static void addRelatedTypes(List<ObjectNode> docs,
                                         RelatedItemType[] relatedTypes,
                                         ServiceContext context) {
-        Map<RelatedItemType, List<AssociatedRecord>> related = null;
-        try {
-            related = MetadataUtils.getAssociated(
-                context,
-                context.getBean(IMetadataUtils.class)
-                    .findOne(doc.get("_source").get("id").asText()),
-                relatedTypes, 0, 1000);
-        } catch (Exception e) {
-            LOGGER.warn("Failed to load related types for {}. Error is: {}",
-                getSourceString(doc, Geonet.IndexFieldNames.UUID),
-                e.getMessage()
-            );
+        Set<Integer> ids = new HashSet<>();
+        for (ObjectNode doc : docs) {
+            Integer id = doc.has("_source") ? getSourceInteger(doc, Geonet.IndexFieldNames.ID) : null;
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+
+        Map<Integer, Map<RelatedItemType, List<AssociatedRecord>>> related = new HashMap<>();
+        if (!ids.isEmpty()) {
+            try {
+                List<AbstractMetadata> records = new ArrayList<>();
+                context.getBean(IMetadataUtils.class).findAll(ids).forEach(records::add);
+                related = MetadataUtils.getAssociated(context, records, relatedTypes, 0, 1000);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to load related types for records {}. Error is: {}",
+                    ids,
+                    e.getMessage()
+                );
+            }
+        }
+
+        for (ObjectNode doc : docs) {
+            Integer id = doc.has("_source") ? getSourceInteger(doc, Geonet.IndexFieldNames.ID) : null;
+            doc.putPOJO("related", id != null ? related.get(id) : null);
         }
-        doc.putPOJO("related", related);
     }
 
     public static void addUserInfo(ObjectNode doc, ServiceContext context) throws Exception {
@@ -546,6 +570,8 @@ public class EsHTTPProxy {
                                boolean addPermissions,
                                String selectionBucket,
                                RelatedItemType[] relatedTypes) throws Exception {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        String status = "error";
         try {
             URL url = new URL(sUrl);
 
@@ -576,6 +602,7 @@ public class EsHTTPProxy {
                 String contentEncoding = getContentEncoding(connectionWithFinalHost.getHeaderFields());
 
                 int code = connectionWithFinalHost.getResponseCode();
+                status = String.valueOf(code);
                 if (code != 200) {
                     InputStream errorDetails = "gzip".equalsIgnoreCase(contentEncoding) ?
                         new GZIPInputStream(connectionWithFinalHost.getErrorStream()) :
@@ -663,6 +690,14 @@ public class EsHTTPProxy {
                         "Check Es configuration.",
                     sUrl),
                 e);
+        } finally {
+            sample.stop(Timer.builder(PROXY_TIMER)
+                .description("Requests proxied to the index")
+                .tag("endpoint", SEARCH_ENDPOINT.equals(endPoint) || MULTISEARCH_ENDPOINT.equals(endPoint) ?
+                    endPoint : "other")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry));
         }
     }
 
@@ -679,17 +714,17 @@ public class EsHTTPProxy {
         final Set<String> selections = (addPermissions ?
             SelectionManager.getManager(ApiUtils.getUserSession(httpSession)).getSelection(bucket) : new HashSet<>());
 
+        // Related records are searched for all the hits of a page at once
+        final JsonStreamUtils.TreesFilter relatedTypesFilter = (relatedTypes != null && relatedTypes.length > 0) ?
+            docs -> addRelatedTypes(docs, relatedTypes, context) : null;
+
         if (endPoint.equals(SEARCH_ENDPOINT)) {
-            JsonStreamUtils.addInfoToDocs(parser, generator, doc -> {
+            JsonStreamUtils.addInfoToDocs(parser, generator, relatedTypesFilter, doc -> {
                 if (addPermissions) {
                     addUserInfo(doc, context);
                     addSelectionInfo(doc, selections);
                 }
 
-                if ((relatedTypes != null ) && (relatedTypes.length > 0)) {
-                    addRelatedTypes(doc, relatedTypes, context);
-                }
-
                 if (doc.has("_source")) {
                     ObjectNode sourceNode = (ObjectNode) doc.get("_source");
 
@@ -716,16 +751,12 @@ public class EsHTTPProxy {
                 }
             });
         } else {
-            JsonStreamUtils.addInfoToDocsMSearch(parser, generator, doc -> {
+            JsonStreamUtils.addInfoToDocsMSearch(parser, generator, relatedTypesFilter, doc -> {
                 if (addPermissions) {
                     addUserInfo(doc, context);
                     addSelectionInfo(doc, selections);
                 }
 
-                if ((relatedTypes != null ) && (relatedTypes.length > 0)) {
-                    addRelatedTypes(doc, relatedTypes, context);
-                }
-
                 // Remove fields with privileges info
                 if (doc.has("_source")) {
                     ObjectNode sourceNode = (ObjectNode) doc.get("_source");
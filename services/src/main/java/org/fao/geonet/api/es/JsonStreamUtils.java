@@ -32,6 +32,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -97,6 +98,16 @@ public class JsonStreamUtils {
     }
 
     public static void addInfoToDocs(JsonParser parser, JsonGenerator generator, TreeFilter callback) throws Exception {
+        addInfoToDocs(parser, generator, null, callback);
+    }
+
+    /**
+     * @param pageCallback called with all the hits of a hits array before
+     *                     the callback is called for each hit. When not null,
+     *                     the hits of an array are buffered.
+     */
+    public static void addInfoToDocs(JsonParser parser, JsonGenerator generator,
+                                     TreesFilter pageCallback, TreeFilter callback) throws Exception {
         /* ES response for hits
             hits
               hits
@@ -104,13 +115,21 @@ public class JsonStreamUtils {
         JsonPathItem hitsItem =  JsonPathItem.create("hits").addSubitem("hits");
 
         JsonStreamUtils.filterObjectInPath(parser, generator,
-            (par, gen) ->
-                JsonStreamUtils.filterArrayElements(par, gen, (par1, gen1) ->
-                    filterTree(parser, generator, callback)),
+            (par, gen) -> filterHits(par, gen, pageCallback, callback),
             Collections.singletonList(hitsItem));
     }
 
     public static void addInfoToDocsMSearch(JsonParser parser, JsonGenerator generator, TreeFilter callback) throws Exception {
+        addInfoToDocsMSearch(parser, generator, null, callback);
+    }
+
+    /**
+     * @param pageCallback called with all the hits of a hits array before
+     *                     the callback is called for each hit. When not null,
+     *                     the hits of an array are buffered.
+     */
+    public static void addInfoToDocsMSearch(JsonParser parser, JsonGenerator generator,
+                                            TreesFilter pageCallback, TreeFilter callback) throws Exception {
         /* ES response for hits and agreggation hits
          *  responses
          *    hits
@@ -133,12 +152,41 @@ public class JsonStreamUtils {
 
 
         JsonStreamUtils.filterObjectInPath(parser, generator,
-            (par, gen) ->
-                JsonStreamUtils.filterArrayElements(par, gen, (par1, gen1) ->
-                    filterTree(parser, generator, callback)),
+            (par, gen) -> filterHits(par, gen, pageCallback, callback),
             Collections.singletonList(responsesItem));
     }
 
+    private static void filterHits(JsonParser parser, JsonGenerator generator,
+                                   TreesFilter pageCallback, TreeFilter callback) throws Exception {
+        if (pageCallback == null) {
+            JsonStreamUtils.filterArrayElements(parser, generator, (par, gen) ->
+                filterTree(par, gen, callback));
+            return;
+        }
+
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            throw new RuntimeException("Expecting an array");
+        }
+        List<ObjectNode> docs = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Expecting an object");
+            }
+            docs.add((ObjectNode) parser.readValueAsTree());
+        }
+
+        if (!docs.isEmpty()) {
+            pageCallback.apply(docs);
+        }
+
+        generator.writeStartArray();
+        for (ObjectNode doc : docs) {
+            callback.apply(doc);
+            generator.writeTree(doc);
+        }
+        generator.writeEndArray();
+    }
+
     private static void filterTree(JsonParser parser, JsonGenerator generator, TreeFilter callback) throws Exception {
         if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
             throw new RuntimeException("Expecting an object");
@@ -155,4 +203,8 @@ public class JsonStreamUtils {
     public interface TreeFilter {
         void apply(ObjectNode doc) throws Exception;
     }
+
+    public interface TreesFilter {
+        void apply(List<ObjectNode> docs) throws Exception;
+    }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.processing;
+
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import com.google.common.collect.Lists;
+import jeeves.server.context.ServiceContext;
+import jeeves.transaction.TransactionManager;
+import jeeves.transaction.TransactionTask;
+import org.fao.geonet.api.processing.report.MetadataProcessingReport;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.domain.AbstractMetadata;
+import org.fao.geonet.domain.MetadataDraft;
+import org.fao.geonet.domain.MetadataValidation;
+import org.fao.geonet.domain.Pair;
+import org.fao.geonet.domain.SchematronRequirement;
+import org.fao.geonet.events.history.RecordValidationTriggeredEvent;
+import org.fao.geonet.kernel.datamanager.IMetadataUtils;
+import org.fao.geonet.kernel.datamanager.IMetadataValidator;
+import org.fao.geonet.kernel.datamanager.base.BaseMetadataIndexer;
+import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.repository.MetadataValidationRepository;
+import org.fao.geonet.repository.specification.MetadataValidationSpecs;
+import org.fao.geonet.util.ThreadUtils;
+import org.fao.geonet.utils.Log;
+import org.fao.geonet.utils.Xml;
+import org.jdom.Element;
+import org.jdom.Namespace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Validate a large number of records, eg. the whole catalogue during a nightly run.
+ * <p>
+ * Records are validated by batches on a bounded pool of worker threads. For each batch,
+ * the validation status is saved using JDBC batches and only the validation fields of the
+ * index documents are updated using one bulk request instead of reindexing the records.
+ * Progress is reported as batches complete in the processing report.
+ */
+@Component
+public class MetadataBatchValidator {
+
+    /**
+     * Number of records validated, saved and updated in the index together.
+     */
+    static final int BATCH_SIZE = 50;
+
+    /**
+     * Number of batches submitted per thread and per run. It limits the number of records
+     * kept in memory while allowing threads not to wait for a new batch.
+     */
+    private static final int PENDING_BATCHES_PER_THREAD = 2;
+
+    private static final String INSPIRE_VALIDATION_TYPE = "inspire";
+
+    private static final List<Namespace> REPORT_NAMESPACES = List.of(
+        Namespace.getNamespace("geonet", "http://www.fao.org/geonetwork"),
+        Namespace.getNamespace("svrl", "http://purl.oclc.org/dsdl/svrl"));
+
+    private static final String REPORT_ERRORS_XPATH =
+        "geonet:xsderrors/geonet:error/geonet:message[normalize-space(.) != '']" +
+            "| geonet:schematronerrors/geonet:report[@geonet:required = '" + SchematronRequirement.REQUIRED + "']/svrl:schematron-output/svrl:failed-assert/svrl:text[normalize-space(.) != '']" +
+            "| geonet:schematronerrors/geonet:report[@geonet:required = '" + SchematronRequirement.REQUIRED + "']/geonet:schematronVerificationError[normalize-space(.) != '']";
+
+    @Autowired
+    private IMetadataValidator validator;
+
+    @Autowired
+    private IMetadataUtils metadataUtils;
+
+    @Autowired
+    private MetadataValidationRepository metadataValidationRepository;
+
+    @Autowired
+    private EsSearchManager searchManager;
+
+    private final int threadCount = ThreadUtils.getNumberOfThreads();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+    /**
+     * Validate records, save their validation status and update the validation fields of the index.
+     *
+     * @param context     the service context of the user running the validation.
+     * @param metadataIds the ids of the records to validate. The user must be allowed to edit them.
+     * @param userId      the user id recorded in the validation history events.
+     * @param report      the report updated as records are validated.
+     */
+    public void validate(ServiceContext context, List<Integer> metadataIds, int userId,
+                         MetadataProcessingReport report) throws Exception {
+        Deque<Future<?>> pending = new ArrayDeque<>();
+        Iterator<List<Integer>> batches = Lists.partition(metadataIds, BATCH_SIZE).iterator();
+        try {
+            while (batches.hasNext() || !pending.isEmpty()) {
+                while (batches.hasNext() && pending.size() < threadCount * PENDING_BATCHES_PER_THREAD) {
+                    final List<Integer> batch = batches.next();
+                    pending.add(executor.submit(() -> validateBatch(context, batch, userId, report)));
+                }
+                pending.poll().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validate a batch of records. Runs in a worker thread.
+     */
+    private void validateBatch(ServiceContext context, List<Integer> metadataIds, int userId,
+                               MetadataProcessingReport report) {
+        context.setAsThreadLocal();
+
+        List<ValidatedRecord> records = new ArrayList<>(metadataIds.size());
+        for (Integer metadataId : metadataIds) {
+            try {
+                ValidatedRecord record = TransactionManager.runInTransaction("validateRecord",
+                    context.getApplicationContext(),
+                    TransactionManager.TransactionRequirement.CREATE_NEW,
+                    TransactionManager.CommitBehavior.ONLY_COMMIT_NEWLY_CREATED_TRANSACTIONS, true,
+                    new TransactionTask<ValidatedRecord>() {
+                        @Override
+                        public ValidatedRecord doInTransaction(TransactionStatus transaction) throws Throwable {
+                            return validateRecord(context, metadataId);
+                        }
+                    });
+                if (record == null) {
+                    report.addNotFoundMetadataId(metadataId);
+                } else {
+                    records.add(record);
+                }
+            } catch (Exception e) {
+                Log.error(Geonet.DATA_MANAGER, String.format(
+                    "Error while validating record %d. Error is: %s", metadataId, e.getMessage()), e);
+                report.addMetadataError(metadataId, null, false, false, e);
+            }
+        }
+
+        try {
+            saveValidationStatus(records);
+        } catch (Exception e) {
+            Log.error(Geonet.DATA_MANAGER, String.format(
+                "Error while saving the validation status of records %s. Error is: %s", metadataIds, e.getMessage()), e);
+            report.addError(e);
+        }
+
+        for (ValidatedRecord record : records) {
+            if (record.valid) {
+                report.addMetadataInfos(record.id, record.uuid, record.draft, record.approved, "Is valid");
+            } else {
+                report.addMetadataError(record.id, record.uuid, record.draft, record.approved,
+                    "(" + record.uuid + ") Is invalid");
+                for (String error : record.errors) {
+                    report.addMetadataError(record.id, record.uuid, record.draft, record.approved, error);
+                }
+            }
+            new RecordValidationTriggeredEvent(record.id, userId, record.valid ? "1" : "0")
+                .publish(context.getApplicationContext());
+            report.addMetadataId(record.id);
+            report.incrementProcessedRecords();
+        }
+    }
+
+    private ValidatedRecord validateRecord(ServiceContext context, int metadataId) throws Exception {
+        AbstractMetadata metadata = metadataUtils.findOne(metadataId);
+        if (metadata == null) {
+            return null;
+        }
+
+        ValidatedRecord record = new ValidatedRecord();
+        record.id = metadataId;
+        record.uuid = metadata.getUuid();
+        record.draft = metadata instanceof MetadataDraft;
+        record.approved = metadataUtils.isMetadataApproved(metadataId);
+
+        Pair<Element, Boolean> result = validator.doValidate(metadata, context.getLanguage(), record.validations);
+        record.valid = result.two();
+        if (!record.valid) {
+            record.errors = getErrorMessages(result.one());
+        }
+        return record;
+    }
+
+    /**
+     * Save the validation status of the records and update their validation index fields.
+     * INSPIRE validation results are preserved.
+     */
+    private void saveValidationStatus(List<ValidatedRecord> records) throws Exception {
+        Map<Integer, ValidatedRecord> recordsById = new HashMap<>();
+        List<MetadataValidation> validations = new ArrayList<>();
+        for (ValidatedRecord record : records) {
+            // No results when the record could not be read, keep the previous status in that case
+            if (!record.validations.isEmpty()) {
+                recordsById.put(record.id, record);
+                validations.addAll(record.validations);
+            }
+        }
+        if (recordsById.isEmpty()) {
+            return;
+        }
+
+        List<MetadataValidation> previousValidations = metadataValidationRepository.findAll(
+            MetadataValidationSpecs.hasMetadataIdIn(recordsById.keySet()));
+        metadataValidationRepository.replaceAllInternalValidations(recordsById.keySet(), validations);
+
+        Map<Integer, List<MetadataValidation>> inspireValidations = new HashMap<>();
+        Map<Integer, Set<String>> previousTypes = new HashMap<>();
+        for (MetadataValidation validation : previousValidations) {
+            int metadataId = validation.getId().getMetadataId();
+            String type = validation.getId().getValidationType();
+            if (type.equalsIgnoreCase(INSPIRE_VALIDATION_TYPE)) {
+                inspireValidations.computeIfAbsent(metadataId, k -> new ArrayList<>()).add(validation);
+            } else {
+                previousTypes.computeIfAbsent(metadataId, k -> new HashSet<>()).add(type);
+            }
+        }
+
+        Map<String, Map<String, Object>> fieldsById = new HashMap<>();
+        Map<String, Set<String>> fieldsToRemoveById = new HashMap<>();
+        for (ValidatedRecord record : recordsById.values()) {
+            List<MetadataValidation> recordValidations = new ArrayList<>(record.validations);
+            recordValidations.addAll(inspireValidations.getOrDefault(record.id, List.of()));
+
+            // Results of schematrons which no longer apply to the record
+            Set<String> fieldsToRemove = new HashSet<>();
+            for (String type : previousTypes.getOrDefault(record.id, Set.of())) {
+                fieldsToRemove.add(Geonet.IndexFieldNames.VALID + "_" + type);
+            }
+            for (MetadataValidation validation : record.validations) {
+                fieldsToRemove.remove(Geonet.IndexFieldNames.VALID + "_" + validation.getId().getValidationType());
+            }
+
+            String indexKey = record.draft ? record.uuid + "-draft" : record.uuid;
+            fieldsById.put(indexKey, BaseMetadataIndexer.getValidationIndexFields(recordValidations));
+            fieldsToRemoveById.put(indexKey, fieldsToRemove);
+        }
+
+        BulkResponse response = searchManager.updateFields(fieldsById, fieldsToRemoveById);
+        if (response.errors()) {
+            response.items().stream()
+                .filter(item -> item.error() != null)
+                .forEach(item -> Log.warning(Geonet.INDEX_ENGINE, String.format(
+                    "Validation status of record %s not updated in the index. Error is: %s",
+                    item.id(), item.error().reason())));
+        }
+    }
+
+    private static List<String> getErrorMessages(Element errorReport) throws Exception {
+        List<String> errors = new ArrayList<>();
+        if (errorReport != null) {
+            for (Object error : Xml.selectNodes(errorReport, REPORT_ERRORS_XPATH, REPORT_NAMESPACES)) {
+                errors.add(Xml.selectString((Element) error, "normalize-space(.)", REPORT_NAMESPACES));
+            }
+        }
+        return errors;
+    }
+
+    private static class ValidatedRecord {
+        private int id;
+        private String uuid;
+        private boolean draft;
+        private boolean approved;
+        private boolean valid;
+        private List<String> errors = List.of();
+        private final List<MetadataValidation> validations = new ArrayList<>();
+    }
+}
@@ -32,7 +32,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jeeves.server.UserSession;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
-import org.fao.geonet.ApplicationContextHolder;
 import org.fao.geonet.api.ApiParams;
 import org.fao.geonet.api.ApiUtils;
 import org.fao.geonet.api.processing.report.SimpleMetadataProcessingReport;
@@ -40,9 +39,6 @@ import org.fao.geonet.api.processing.report.registry.IProcessingReportRegistry;
 import org.fao.geonet.inspire.validator.InspireValidatorUtils;
 import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.domain.MetadataValidation;
-import org.fao.geonet.domain.Pair;
-import org.fao.geonet.domain.SchematronRequirement;
-import org.fao.geonet.events.history.RecordValidationTriggeredEvent;
 import org.fao.geonet.inspire.validator.MInspireEtfValidateProcess;
 import org.fao.geonet.kernel.AccessManager;
 import org.fao.geonet.kernel.DataManager;
@@ -53,9 +49,6 @@ import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
 import org.fao.geonet.repository.MetadataValidationRepository;
 import org.fao.geonet.kernel.search.index.BatchOpsMetadataReindexer;
-import org.fao.geonet.utils.Xml;
-import org.jdom.Element;
-import org.jdom.Namespace;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpStatus;
@@ -110,6 +103,8 @@ public class ValidateApi {
     IMetadataUtils metadataUtils;
     @Autowired
     MBeanExporter mBeanExporter;
+    @Autowired
+    MetadataBatchValidator metadataBatchValidator;
 
     private final ArrayDeque<SelfNaming> mAnalyseProcesses = new ArrayDeque<>(NUMBER_OF_SUBSEQUENT_PROCESS_MBEAN_TO_KEEP);
 
@@ -170,12 +165,12 @@ public class ValidateApi {
         SimpleMetadataProcessingReport report =
             new SimpleMetadataProcessingReport();
         try {
-            ApplicationContext applicationContext = ApplicationContextHolder.get();
             ServiceContext serviceContext = ApiUtils.createServiceContext(request);
 
             Set<String> records = ApiUtils.getUuidsParameterOrSelection(uuids, bucket, userSession);
             report.setTotalRecords(records.size());
 
+            List<Integer> metadataIds = new ArrayList<>();
             for (String uuid : records) {
                 int loopConditionCount = 0;
                 for (AbstractMetadata record : metadataRepository.findAllByUuid(uuid)) {
@@ -194,36 +189,7 @@ public class ValidateApi {
                         if (!accessMan.canEdit(serviceContext, String.valueOf(record.getId()))) {
                             report.addNotEditableMetadataId(record.getId());
                         } else {
-                            final Pair<Element, Boolean> validationPair = validator.doValidate(record, serviceContext.getLanguage());
-                            boolean isValid = validationPair.two();
-                            if (isValid) {
-                                report.addMetadataInfos(record, "Is valid");
-                                new RecordValidationTriggeredEvent(record.getId(), ApiUtils.getUserSession(request.getSession()).getUserIdAsInt(), "1").publish(applicationContext);
-                            } else {
-                                report.addMetadataError(record, "(" + record.getUuid() + ") Is invalid");
-                                Element schemaTronReport = validationPair.one();
-                                if (schemaTronReport != null) {
-                                    List<Namespace> theNSs = new ArrayList<Namespace>();
-                                    theNSs.add(Namespace.getNamespace("geonet", "http://www.fao.org/geonetwork"));
-                                    theNSs.add(Namespace.getNamespace("svrl", "http://purl.oclc.org/dsdl/svrl"));
-
-                                    // Extract all the know errors that exists in the report as List of Text
-                                    List<?> schemaTronReportErrors = Xml.selectNodes(schemaTronReport,
-                                        "geonet:xsderrors/geonet:error/geonet:message[normalize-space(.) != '']" +
-                                            "| geonet:schematronerrors/geonet:report[@geonet:required = '" + SchematronRequirement.REQUIRED + "']/svrl:schematron-output/svrl:failed-assert/svrl:text[normalize-space(.) != '']" +
-                                            "| geonet:schematronerrors/geonet:report[@geonet:required = '" + SchematronRequirement.REQUIRED + "']/geonet:schematronVerificationError[normalize-space(.) != '']",
-                                        theNSs);
-
-                                    for (Object schemaTronReportError :schemaTronReportErrors) {
-                                        // Add normalized string to the report.
-                                        report.addMetadataError(record, Xml.selectString((Element) schemaTronReportError, "normalize-space(.)",  theNSs));
-                                    }
-                                }
-
-                                new RecordValidationTriggeredEvent(record.getId(), ApiUtils.getUserSession(request.getSession()).getUserIdAsInt(), "0").publish(applicationContext);
-                            }
-                            report.addMetadataId(record.getId());
-                            report.incrementProcessedRecords();
+                            metadataIds.add(record.getId());
                         }
                     }
                 }
@@ -233,9 +199,8 @@ public class ValidateApi {
                 }
             }
 
-            // index records
-            BatchOpsMetadataReindexer r = new BatchOpsMetadataReindexer(dataMan, report.getMetadata());
-            r.process(settingManager.getSiteId(), true);
+            // validate records, save their status and update the validation fields of the index
+            metadataBatchValidator.validate(serviceContext, metadataIds, userSession.getUserIdAsInt(), report);
         } catch (Exception e) {
             throw e;
         } finally {
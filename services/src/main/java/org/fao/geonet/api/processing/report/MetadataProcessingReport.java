@@ -137,7 +137,7 @@ public abstract class MetadataProcessingReport extends ProcessingReport {
         return metadataInfos;
     }
 
-    public void addMetadataInfos(int metadataId, String metadataUUID, boolean draft, boolean approved, String message) {
+    public synchronized void addMetadataInfos(int metadataId, String metadataUUID, boolean draft, boolean approved, String message) {
         InfoReport infoReport = new InfoReport(message);
         infoReport.setUuid(metadataUUID);
         infoReport.setDraft(draft);
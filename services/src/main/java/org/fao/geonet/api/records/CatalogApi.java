@@ -27,6 +27,7 @@ import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -34,17 +35,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jeeves.server.UserSession;
 import jeeves.server.context.ServiceContext;
 import jeeves.services.ReadWriteController;
+import jeeves.transaction.TransactionManager;
+import jeeves.transaction.TransactionTask;
 import jeeves.xlink.Processor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.QuoteMode;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.text.StrSubstitutor;
 import org.fao.geonet.api.API;
 import org.fao.geonet.api.ApiParams;
 import org.fao.geonet.api.ApiUtils;
-import org.fao.geonet.api.records.model.related.AssociatedRecord;
 import org.fao.geonet.api.records.model.related.RelatedItemType;
 import org.fao.geonet.api.tools.i18n.LanguageUtils;
 import org.fao.geonet.constants.Geonet;
@@ -58,27 +59,32 @@ import org.fao.geonet.kernel.search.EsSearchManager;
 import org.fao.geonet.kernel.setting.SettingInfo;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.repository.MetadataRepository;
+import org.fao.geonet.util.ThreadUtils;
 import org.fao.geonet.util.XslUtil;
 import org.fao.geonet.utils.Log;
-import org.fao.geonet.utils.Xml;
 import org.fao.geonet.web.DefaultLanguage;
 import org.jdom.*;
+import org.jdom.xpath.XPath;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.*;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.fao.geonet.api.ApiParams.*;
@@ -96,6 +102,11 @@ import static org.fao.geonet.kernel.search.IndexFields.SOURCE_CATALOGUE;
 @ReadWriteController
 public class CatalogApi {
 
+    /**
+     * Number of records loaded and extracted together by a CSV export worker.
+     */
+    private static final int CSV_EXPORT_BATCH_SIZE = 100;
+
     private static final Set<String> searchFieldsForPdf;
 
     static {
@@ -217,7 +228,6 @@ public class CatalogApi {
         throws Exception {
 
         // Get parameters
-        Path file = null;
         Path stylePath = dataDirectory.getWebappDir().resolve(Geonet.Path.SCHEMAS);
 
         final UserSession session = ApiUtils.getUserSession(httpSession);
@@ -254,17 +264,8 @@ public class CatalogApi {
             if (withRelated) {
                 int maxhits = Integer.parseInt(settingInfo.getSelectionMaxRecords());
 
-                Set<String> tmpUuid = new HashSet<>();
-                for (String uuid : allowedUuid) {
-                    Map<RelatedItemType, List<AssociatedRecord>> associated =
-                        MetadataUtils.getAssociated(context,
-                            metadataRepository.findOneByUuid(uuid),
-                            RelatedItemType.values(), 0, maxhits);
-
-                    associated.forEach(
-                        (type, list) -> list.forEach(
-                            r -> tmpUuid.add(r.getUuid())));
-                }
+                Set<String> tmpUuid = MetadataUtils.getAssociatedUuids(context,
+                    allowedUuid, RelatedItemType.values(), maxhits);
 
                 if (selectionManger.addAllSelection(SelectionManager.SELECTION_METADATA, tmpUuid)) {
                     Log.info(Geonet.MEF, "Child and services added into the selection");
@@ -275,11 +276,6 @@ public class CatalogApi {
             Log.info(Geonet.MEF, "Building MEF2 file with " + uuidList.size()
                 + " records.");
             try {
-                file = MEFLib.doMEF2Export(context, allowedUuid, format.toString(),
-                    false, stylePath,
-                    withXLinksResolved, withXLinkAttribute,
-                    false, addSchemaLocation, approved);
-
                 DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HHmmss");
                 String fileName = String.format("%s-%s.zip",
                     settingManager.getSiteName().replace(" ", ""),
@@ -289,16 +285,16 @@ public class CatalogApi {
                     "inline; filename=\"%s\"",
                     fileName
                 ));
-                response.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(Files.size(file)));
                 response.setContentType(MEFLib.Version.Constants.MEF_V2_ACCEPT_TYPE);
-                FileUtils.copyFile(file.toFile(), response.getOutputStream());
+                // Records are written to the response as soon as they are rendered,
+                // the size is not known in advance.
+                MEFLib.doMEF2Export(context, allowedUuid, format.toString(),
+                    false, stylePath,
+                    withXLinksResolved, withXLinkAttribute,
+                    false, addSchemaLocation, approved, response.getOutputStream());
             } finally {
                 // -- Reset selection manager
                 selectionManger.close(SelectionManager.SELECTION_METADATA);
-                // Delete the temporary file
-                if (file != null) {
-                    FileUtils.deleteQuietly(file.toFile());
-                }
             }
         }
     }
@@ -577,6 +573,11 @@ public class CatalogApi {
     }
 
     private void buildCsvResponseFromXml(String loopElementXpath, List<String> propertiesXpath, HttpServletResponse httpResponse, List<String> idsToExport, String sep, String internalSep, ServiceContext context) {
+        int threadCount = ThreadUtils.getNumberOfThreads();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        // XPath are compiled once per schema and worker. Compiled expressions are not
+        // thread safe so they are not shared with the other workers.
+        ThreadLocal<Map<String, CsvXPaths>> workerXPaths = ThreadLocal.withInitial(HashMap::new);
         try (CSVPrinter csvPrinter = new CSVPrinter(
             new OutputStreamWriter(httpResponse.getOutputStream()),
             CSVFormat.DEFAULT
@@ -588,47 +589,116 @@ public class CatalogApi {
             headers.add("permalink");
             headers.addAll(propertiesXpath);
             csvPrinter.printRecord(headers);
-            idsToExport.forEach(id -> buildCsvRecordFromXml(
-                loopElementXpath, propertiesXpath, csvPrinter, id, internalSep, context));
+
+            // Batches are extracted in parallel and printed in order, only a few
+            // batches ahead of the one being written are kept in memory.
+            Deque<Future<List<List<String>>>> pending = new ArrayDeque<>();
+            Iterator<List<String>> batches = Lists.partition(idsToExport, CSV_EXPORT_BATCH_SIZE).iterator();
+            while (batches.hasNext() || !pending.isEmpty()) {
+                while (batches.hasNext() && pending.size() < threadCount * 2) {
+                    final List<String> batch = batches.next();
+                    pending.add(executor.submit(() -> buildCsvRecordsFromXml(
+                        loopElementXpath, propertiesXpath, batch, internalSep, workerXPaths.get(), context)));
+                }
+                for (List<String> values : getCsvRecords(pending.poll())) {
+                    csvPrinter.printRecord(values);
+                }
+                csvPrinter.flush();
+            }
         } catch (IOException e) {
             throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<List<String>> getCsvRecords(Future<List<List<String>>> batch) {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
         }
     }
 
-    private void buildCsvRecordFromXml(String loopElementXpath, List<String> propertiesXpath, CSVPrinter csvPrinter, String id, String internalSep, ServiceContext context) {
+    /**
+     * Load a batch of records and extract their CSV rows. Runs in a worker thread.
+     *
+     * @param xpathsBySchema the XPath compiled by the worker, by schema
+     */
+    private List<List<String>> buildCsvRecordsFromXml(String loopElementXpath, List<String> propertiesXpath, List<String> ids,
+                                                      String internalSep, Map<String, CsvXPaths> xpathsBySchema,
+                                                      ServiceContext context) {
+        context.setAsThreadLocal();
+        return TransactionManager.runInTransaction("csvExport", context.getApplicationContext(),
+            TransactionManager.TransactionRequirement.CREATE_NEW,
+            TransactionManager.CommitBehavior.ONLY_COMMIT_NEWLY_CREATED_TRANSACTIONS, true,
+            new TransactionTask<List<List<String>>>() {
+                @Override
+                public List<List<String>> doInTransaction(TransactionStatus transaction) {
+                    Map<Integer, Metadata> records = new HashMap<>();
+                    metadataRepository.findAllById(ids.stream().map(Integer::valueOf).collect(Collectors.toList()))
+                        .forEach(m -> records.put(m.getId(), m));
+
+                    List<List<String>> rows = new ArrayList<>();
+                    for (String id : ids) {
+                        Metadata metadata = records.get(Integer.parseInt(id));
+                        if (metadata != null) {
+                            buildCsvRecordFromXml(loopElementXpath, propertiesXpath, xpathsBySchema,
+                                rows, metadata, internalSep, context);
+                        }
+                    }
+                    return rows;
+                }
+            });
+    }
+
+    private void buildCsvRecordFromXml(String loopElementXpath, List<String> propertiesXpath, Map<String, CsvXPaths> xpathsBySchema, List<List<String>> rows, Metadata metadata, String internalSep, ServiceContext context) {
         try {
-            Metadata metadata = metadataRepository.findOneById(Integer.parseInt(id));
-            if (metadata == null) return;
             Element xml = metadata.getXmlData(false);
             if (xmlSerializer.resolveXLinks()) {
                 Processor.detachXLink(xml, context);
             }
             String schema = metadata.getDataInfo().getSchemaId();
-            List<Namespace> namespaces = schemaManager.getSchema(schema).getNamespaces();
-            List<?> elements = Xml.selectNodes(xml, loopElementXpath, namespaces);
+            CsvXPaths xpaths = xpathsBySchema.get(schema);
+            if (xpaths == null) {
+                xpaths = new CsvXPaths(loopElementXpath, propertiesXpath,
+                    schemaManager.getSchema(schema).getNamespaces());
+                xpathsBySchema.put(schema, xpaths);
+            }
+            List<?> elements = xpaths.loopElement.selectNodes(xml);
+            String permalink = null;
             for (Object e : elements) {
+                if (permalink == null) {
+                    permalink = metadataUtils.getPermalink(metadata.getUuid(), defaultLanguage.getLanguage());
+                }
                 List<String> values = new ArrayList<>();
                 values.add(metadata.getUuid());
-                values.add(metadataUtils.getPermalink(metadata.getUuid(), defaultLanguage.getLanguage()));
+                values.add(permalink);
                 if (e instanceof Element) {
-                    for (String p : propertiesXpath) {
-                        buildRecordProperties(internalSep, namespaces, (Element) e, values, p);
+                    for (XPath p : xpaths.properties) {
+                        buildRecordProperties(internalSep, (Element) e, values, p);
                     }
                 }
-                csvPrinter.printRecord(values);
+                rows.add(values);
             }
         } catch (IOException e) {
             throw new IllegalStateException(String.format(
-                "Error retrieving record %s. %s", id, e.getMessage()));
+                "Error retrieving record %s. %s", metadata.getId(), e.getMessage()));
         } catch (JDOMException e) {
             throw new IllegalArgumentException(String.format(
-                "Error retrieving properties in record %s. %s", id, e.getMessage()));
+                "Error retrieving properties in record %s. %s", metadata.getId(), e.getMessage()));
         }
     }
 
-    private static void buildRecordProperties(String internalSep, List<Namespace> namespaces, Element e, List<String> values, String p) {
+    private static void buildRecordProperties(String internalSep, Element e, List<String> values, XPath p) {
         try {
-            List<?> textList = Xml.selectNodes(e, p, namespaces);
+            List<?> textList = p.selectNodes(e);
             List<String> allTextValues = new ArrayList<>();
             for (Object t : textList) {
                 if (t instanceof Element) {
@@ -647,6 +717,29 @@ public class CatalogApi {
         }
     }
 
+    /**
+     * The loop and properties XPath of a CSV export compiled with the namespaces of a schema.
+     */
+    private static class CsvXPaths {
+        private final XPath loopElement;
+        private final List<XPath> properties = new ArrayList<>();
+
+        CsvXPaths(String loopElementXpath, List<String> propertiesXpath, List<Namespace> namespaces) throws JDOMException {
+            loopElement = compile(loopElementXpath, namespaces);
+            for (String p : propertiesXpath) {
+                properties.add(compile(p, namespaces));
+            }
+        }
+
+        private static XPath compile(String xpath, List<Namespace> namespaces) throws JDOMException {
+            XPath xp = XPath.newInstance(xpath);
+            for (Namespace ns : namespaces) {
+                xp.addNamespace(ns);
+            }
+            return xp;
+        }
+    }
+
     private String replaceFilenamePlaceholder(String fileName, String extension) {
         // Checks for a parameter documentFileName with the document file name,
         // otherwise uses a default value
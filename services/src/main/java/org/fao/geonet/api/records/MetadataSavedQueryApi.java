@@ -180,7 +180,7 @@ public class MetadataSavedQueryApi {
         Map<String, String> response = new HashMap<>();
         try {
             ArrayList<Namespace> nss = new ArrayList<>(schemaPlugin.getNamespaces());
-            final List<?> matchingElement = Xml.selectNodes(metadata.getXmlData(false),
+            final List<?> matchingElement = Xml.selectNodes(metadata.getXmlDataReadOnly(),
                 xpath,
                 nss);
             int counter = 0;
@@ -24,6 +24,7 @@
 package org.fao.geonet.api.records;
 
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.json.JsonData;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -31,6 +32,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import jeeves.server.context.ServiceContext;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
@@ -44,6 +46,7 @@ import org.fao.geonet.api.records.model.related.RelatedItemOrigin;
 import org.fao.geonet.api.records.model.related.RelatedItemType;
 import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.domain.AbstractMetadata;
+import org.fao.geonet.domain.Metadata;
 import org.fao.geonet.domain.ReservedOperation;
 import org.fao.geonet.domain.Source;
 import org.fao.geonet.kernel.DataManager;
@@ -57,8 +60,10 @@ import org.fao.geonet.kernel.search.EsSearchManager;
 import org.fao.geonet.kernel.setting.SettingInfo;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.lib.Lib;
+import org.fao.geonet.repository.MetadataRepository;
 import org.fao.geonet.repository.MetadataValidationRepository;
 import org.fao.geonet.repository.SourceRepository;
+import org.fao.geonet.repository.specification.MetadataSpecs;
 import org.fao.geonet.repository.specification.MetadataValidationSpecs;
 import org.fao.geonet.services.relations.Get;
 import org.fao.geonet.utils.Log;
@@ -71,6 +76,7 @@ import org.jdom.output.DOMOutputter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -90,6 +96,12 @@ public class MetadataUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Geonet.SEARCH_ENGINE);
 
+    /**
+     * Number of records for which the associated records are
+     * searched in one multi search request.
+     */
+    private static final int ASSOCIATED_BATCH_SIZE = 50;
+
     public static class RelatedTypeDetails {
         private String query;
         private Set<String> expectedRecords = new HashSet<>();
@@ -196,212 +208,372 @@ public class MetadataUtils {
         ServiceContext context,
         AbstractMetadata md, RelatedItemType[] types, int start, int size)
         throws Exception  {
+        return getAssociated(context, Collections.singletonList(md), types, start, size)
+            .get(md.getId());
+    }
+
+    /**
+     * Get the associated records of a list of records.
+     *
+     * The links of the records are read from the index (see recordLink field)
+     * for the schemas indexing them, and from the XML document otherwise.
+     * The queries for all the records and all the types are then sent
+     * in one multi search request.
+     *
+     * @return the associated records by type for each record id
+     */
+    public static Map<Integer, Map<RelatedItemType, List<AssociatedRecord>>> getAssociated(
+        ServiceContext context,
+        Collection<? extends AbstractMetadata> mds, RelatedItemType[] types, int start, int size)
+        throws Exception {
 
         GeonetContext gc = (GeonetContext) context.getHandlerContext(Geonet.CONTEXT_NAME);
-        DataManager dm = gc.getBean(DataManager.class);
         SettingManager settingManager = gc.getBean(SettingManager.class);
         EsSearchManager searchMan = gc.getBean(EsSearchManager.class);
 
-        Element xml = dm.getMetadata(context, md.getId() + "",
-            FOR_EDITING, WITH_VALIDATION_ERRORS, KEEP_XLINK_ATTRIBUTES);
-
-        SchemaPlugin instance = SchemaManager.getSchemaPlugin(md.getDataInfo().getSchemaId());
-        final AssociatedResourcesSchemaPlugin schemaPlugin =
-                instance instanceof AssociatedResourcesSchemaPlugin
-                ? (AssociatedResourcesSchemaPlugin) instance : null;
-
-        // For each type, store a query and expected list of uuids.
-        Map<RelatedItemType, RelatedTypeDetails> queries = new HashMap<>();
-        Set<String> allSearchedUuids = new HashSet<>();
-
+        Map<Integer, Map<RelatedItemType, List<AssociatedRecord>>> associatedByRecord = new LinkedHashMap<>();
+        if (mds.isEmpty()) {
+            return associatedByRecord;
+        }
 
-        // We have 3 types of links
-        // * Those who are in the XML eg.
-        // parent (either parent identifier or associated resources),
-        // services using operatesOn
-        // sources
-        // feature catalogues
-        //
-        // * Those who requires a search to find associated records eg.
-        // children
-        // brothers&sisters
-        //
-        // * All of them could be remote records
-        Arrays.stream(types).forEach(type -> {
-            if (type == RelatedItemType.associated
-                || type == RelatedItemType.hasfeaturecats
-                || type == RelatedItemType.services
-                || type == RelatedItemType.hassources) {
-                queries.put(type,
-                    new RelatedTypeDetails(
+        boolean linksRequired = Arrays.stream(types).anyMatch(LINK_TYPES::contains);
+        Map<Integer, JsonNode> indexedLinks = linksRequired
+            ? getIndexedLinks(searchMan, mds)
+            : new HashMap<>();
+
+        // For each record and each type, store a query and expected list of uuids.
+        List<Integer> queryRecords = new ArrayList<>();
+        List<RelatedItemType> queryTypes = new ArrayList<>();
+        List<RelatedTypeDetails> queryDetails = new ArrayList<>();
+
+        for (AbstractMetadata md : mds) {
+            Map<RelatedItemType, Set<AssociatedResource>> links = linksRequired
+                ? getLinks(context, md, types, indexedLinks.get(md.getId()))
+                : null;
+
+            // We have 3 types of links
+            // * Those who are in the XML eg.
+            // parent (either parent identifier or associated resources),
+            // services using operatesOn
+            // sources
+            // feature catalogues
+            //
+            // * Those who requires a search to find associated records eg.
+            // children
+            // brothers&sisters
+            //
+            // * All of them could be remote records
+            for (RelatedItemType type : types) {
+                RelatedTypeDetails details = null;
+                if (type == RelatedItemType.associated
+                    || type == RelatedItemType.hasfeaturecats
+                    || type == RelatedItemType.services
+                    || type == RelatedItemType.hassources) {
+                    details = new RelatedTypeDetails(
                         String.format("+%s:\"%s\"",
                             RELATED_INDEX_FIELDS.get(type.value()), md.getUuid())
-                    ));
-            } else if (schemaPlugin != null
-                && (type == RelatedItemType.siblings
-                || type == RelatedItemType.parent
-                || type == RelatedItemType.fcats
-                || type == RelatedItemType.datasets
-                || type == RelatedItemType.sources)) {
-                Set<AssociatedResource> listOfAssociatedResources = new HashSet<>();
-                if (type == RelatedItemType.siblings) {
-                    listOfAssociatedResources = schemaPlugin.getAssociatedResourcesUUIDs(xml);
-                } else if (type == RelatedItemType.sources) {
-                    listOfAssociatedResources = schemaPlugin.getAssociatedSources(xml);
-                } else if (type == RelatedItemType.datasets) {
-                    listOfAssociatedResources = schemaPlugin.getAssociatedDatasets(xml);
-                } else if (type == RelatedItemType.parent) {
-                    listOfAssociatedResources = schemaPlugin.getAssociatedParents(xml);
-                } else if (type == RelatedItemType.fcats) {
-                    listOfAssociatedResources = schemaPlugin.getAssociatedFeatureCatalogues(xml);
-                }
-
-
-                Set<String> remoteRecords = new HashSet<>();
-                if (type == RelatedItemType.parent || !listOfAssociatedResources.isEmpty()) {
-                    Set<String> listOfUUIDs = listOfAssociatedResources.stream()
-                        .map(AssociatedResource::getUuid)
-                        .collect(Collectors.toSet());
-                    Map<String, Map<String, String>> recordsProperties = new HashMap<>();
-                    for(AssociatedResource r : listOfAssociatedResources) {
-                        Map<String, String> properties = new HashMap<>();
-                        properties.put("associationType", r.getAssociationType());
-                        properties.put("initiativeType", r.getInitiativeType());
-                        properties.put("resourceTitle", r.getTitle());
-                        properties.put("url", r.getUrl());
-                        recordsProperties.put(r.getUuid(), properties);
-                        boolean isRemote = StringUtils.isNotEmpty(r.getUrl())
-                            && !r.getUrl().startsWith(settingManager.getBaseURL());
-                        if (isRemote) {
-                            remoteRecords.add(r.getUuid());
+                    );
+                } else if (links == null || !links.containsKey(type)) {
+                    // The schema does not provide this type of links
+                } else if (type == RelatedItemType.siblings
+                    || type == RelatedItemType.parent
+                    || type == RelatedItemType.fcats
+                    || type == RelatedItemType.datasets
+                    || type == RelatedItemType.sources) {
+                    Set<AssociatedResource> listOfAssociatedResources = links.get(type);
+
+                    if (type == RelatedItemType.parent || !listOfAssociatedResources.isEmpty()) {
+                        Set<String> remoteRecords = new HashSet<>();
+                        Set<String> listOfUUIDs = listOfAssociatedResources.stream()
+                            .map(AssociatedResource::getUuid)
+                            .collect(Collectors.toSet());
+                        Map<String, Map<String, String>> recordsProperties = new HashMap<>();
+                        for (AssociatedResource r : listOfAssociatedResources) {
+                            Map<String, String> properties = new HashMap<>();
+                            properties.put("associationType", r.getAssociationType());
+                            properties.put("initiativeType", r.getInitiativeType());
+                            properties.put("resourceTitle", r.getTitle());
+                            properties.put("url", r.getUrl());
+                            recordsProperties.put(r.getUuid(), properties);
+                            boolean isRemote = StringUtils.isNotEmpty(r.getUrl())
+                                && !r.getUrl().startsWith(settingManager.getBaseURL());
+                            if (isRemote) {
+                                remoteRecords.add(r.getUuid());
+                            }
                         }
-                    }
-                    queries.put(type,
-                        new RelatedTypeDetails(
+                        details = new RelatedTypeDetails(
                             String.format("(uuid:(%s)%s) AND (draft:\"n\" OR draft:\"e\")",
-                            listOfUUIDs.stream()
-                                .collect(Collectors.joining("\" OR \"", "\"", "\"")),
+                                listOfUUIDs.stream()
+                                    .collect(Collectors.joining("\" OR \"", "\"", "\"")),
                                 type == RelatedItemType.parent
                                     ? " OR childUuid:" + "\"" + md.getUuid() + "\""
                                     : ""),
                             listOfUUIDs,
                             recordsProperties,
                             remoteRecords
-                        ));
-                    allSearchedUuids.addAll(listOfUUIDs);
-                }
-            } else if (schemaPlugin != null && type == RelatedItemType.brothersAndSisters) {
-                // Get parents
-                Set<String> listOfUUIDs = schemaPlugin.getAssociatedParentUUIDs(xml);
-                // and search for records associated to them
-                queries.put(type,
-                    new RelatedTypeDetails(
+                        );
+                    }
+                } else if (type == RelatedItemType.brothersAndSisters) {
+                    // Get parents
+                    Set<String> listOfUUIDs = links.get(type).stream()
+                        .map(AssociatedResource::getUuid)
+                        .collect(Collectors.toSet());
+                    // and search for records associated to them
+                    details = new RelatedTypeDetails(
                         String.format("+%s:(%s) -uuid:\"%s\" AND (draft:\"n\" OR draft:\"e\")",
-                        RELATED_INDEX_FIELDS.get(type.value()),
-                        listOfUUIDs.stream()
-                            .collect(Collectors.joining("\" OR \"", "\"", "\"")),
-                        md.getUuid()),
+                            RELATED_INDEX_FIELDS.get(type.value()),
+                            listOfUUIDs.stream()
+                                .collect(Collectors.joining("\" OR \"", "\"", "\"")),
+                            md.getUuid()),
                         listOfUUIDs
-                    ));
-                allSearchedUuids.addAll(listOfUUIDs);
-            } else if (schemaPlugin != null && type == RelatedItemType.children) {
-                // Get associated with isComposedOf
-                Set<AssociatedResource> listOfAssociated = schemaPlugin.getAssociatedResourcesUUIDs(xml);
-                Set<String> isComposedOfList = listOfAssociated.stream()
-                    .filter(e -> "isComposedOf".equals(e.getAssociationType()))
-                    .map(AssociatedResource::getUuid)
-                    .collect(Collectors.toSet());
+                    );
+                } else if (type == RelatedItemType.children) {
+                    // Get associated with isComposedOf
+                    Set<String> isComposedOfList = links.get(type).stream()
+                        .map(AssociatedResource::getUuid)
+                        .collect(Collectors.toSet());
 
-                // and search for records associated and records having parentUuid equal to current
-                queries.put(type,
-                    new RelatedTypeDetails(
+                    // and search for records associated and records having parentUuid equal to current
+                    details = new RelatedTypeDetails(
                         String.format("(%s:\"%s\" OR uuid:(%s)) AND (draft:\"n\" OR draft:\"e\")",
                             RELATED_INDEX_FIELDS.get(type.value()),
                             md.getUuid(),
                             isComposedOfList.stream()
                                 .collect(Collectors.joining("\" OR \"", "\"", "\""))
-                            ),
+                        ),
                         isComposedOfList
-                    ));
-                allSearchedUuids.addAll(isComposedOfList);
-            }
-        });
+                    );
+                }
 
+                if (details != null) {
+                    queryRecords.add(md.getId());
+                    queryTypes.add(type);
+                    queryDetails.add(details);
+                }
+            }
+            associatedByRecord.put(md.getId(), new HashMap<>());
+        }
 
-        Map<RelatedItemType, List<AssociatedRecord>> associated =
-            new HashMap<>();
         Set<String> allCatalogueUuids = new HashSet<>();
-
-        String privilegesFilter = buildPermissionsFilter(context);
         ObjectMapper mapper = new ObjectMapper();
 
-        for (Map.Entry<RelatedItemType,RelatedTypeDetails> entry : queries.entrySet()) {
-            // TODO: Use msearch ?
-            RelatedTypeDetails relatedTypeDetails = entry.getValue();
-            final SearchResponse result = searchMan.query(
-                relatedTypeDetails.getQuery(),
-                privilegesFilter,
-                FIELDLIST_RELATED,
-                FIELDLIST_RELATED_SCRIPTED,
-                start, size);
-            Set<String> expectedUuids = relatedTypeDetails.getExpectedRecords();
-            Set<String> remoteRecords = relatedTypeDetails.getRemoteRecords();
+        List<MultiSearchResponseItem<ObjectNode>> responses = searchMan.multiQuery(
+            queryDetails.stream().map(RelatedTypeDetails::getQuery).collect(Collectors.toList()),
+            buildPermissionsFilter(context),
+            FIELDLIST_RELATED,
+            FIELDLIST_RELATED_SCRIPTED,
+            start, size);
 
-            List<AssociatedRecord> records = new ArrayList<>();
-            if (!result.hits().hits().isEmpty()) {
-                for (Hit e : (List<Hit>) result.hits().hits()) {
-                    allCatalogueUuids.add(e.id());
-                    AssociatedRecord associatedRecord = new AssociatedRecord();
-                    associatedRecord.setUuid(e.id());
-                    // Set properties eg. remote, associationType, ...
-                    associatedRecord.setProperties(relatedTypeDetails.recordsProperties.get(e.id()));
-
-                    // Add scripted field values to the properties of the record
-                    if (!e.fields().isEmpty()) {
-                        FIELDLIST_RELATED_SCRIPTED.keySet().forEach(f -> {
-                            JsonData dc = (JsonData) e.fields().get(f);
-
-                            if (dc != null) {
-                                if (associatedRecord.getProperties() == null) {
-                                    associatedRecord.setProperties(new HashMap<>());
-                                }
-                                associatedRecord.getProperties().put(f, dc.toJson().asJsonArray().get(0).toString().replaceAll("^\"|\"$", ""));
-                            }
-                        });
-                    }
+        for (int i = 0; i < queryDetails.size(); i++) {
+            RelatedTypeDetails relatedTypeDetails = queryDetails.get(i);
+            MultiSearchResponseItem<ObjectNode> response = i < responses.size() ? responses.get(i) : null;
+            List<Hit<ObjectNode>> hits = response != null && response.isResult()
+                ? response.result().hits().hits()
+                : Collections.emptyList();
 
-                    JsonNode source = mapper.convertValue(e.source(), JsonNode.class);
-                    ObjectNode doc = mapper.createObjectNode();
-                    doc.set("_source", source);
-                    EsHTTPProxy.addUserInfo(doc, context);
-                    Iterator<String> fieldNames = doc.fieldNames();
-                    while (fieldNames.hasNext()) {
-                        String field = fieldNames.next();
-                        if (!"_source".equals(field)) {
-                            ((ObjectNode) source).set(field, doc.get(field));
-                        }
-                    }
-                    associatedRecord.setRecord(source);
-                    associatedRecord.setOrigin(RelatedItemOrigin.catalog.name());
-                    records.add(associatedRecord);
-                    if (expectedUuids.contains(e.id())) {
-                        expectedUuids.remove(e.id());
-                    }
-                    // Remote records may be found in current catalogue (eg. if harvested)
-                    if (remoteRecords.contains(e.id())) {
-                        remoteRecords.remove(e.id());
-                    }
-                }
+            List<AssociatedRecord> records = new ArrayList<>();
+            for (Hit<ObjectNode> e : hits) {
+                allCatalogueUuids.add(e.id());
+                records.add(buildCatalogueRecord(context, mapper, relatedTypeDetails, e));
             }
 
             buildRemoteRecords(mapper, relatedTypeDetails, records);
-            associated.put(entry.getKey(), records);
+            associatedByRecord.get(queryRecords.get(i)).put(queryTypes.get(i), records);
         }
 
-        assignPortalOrigin(start, size, searchMan, associated, allCatalogueUuids);
+        assignPortalOrigin(searchMan, associatedByRecord.values(), allCatalogueUuids);
 
         // TODO: Editable relation
-        return associated;
+        return associatedByRecord;
+    }
+
+    /**
+     * Types of relation which depend on the links of the source record.
+     */
+    private static final Set<RelatedItemType> LINK_TYPES = EnumSet.of(
+        RelatedItemType.siblings, RelatedItemType.parent, RelatedItemType.fcats,
+        RelatedItemType.datasets, RelatedItemType.sources,
+        RelatedItemType.brothersAndSisters, RelatedItemType.children);
+
+    /**
+     * Schemas indexing all the links of a record in the recordLink field.
+     */
+    private static final Set<String> RECORD_LINK_SCHEMAS = Set.of("iso19139", "iso19115-3.2018");
+
+    private static final String RECORD_LINK_FIELD = "recordLink";
+
+    /**
+     * Get the recordLink field of the records indexed by a schema
+     * indexing all links.
+     *
+     * @return the recordLink field by record id
+     */
+    private static Map<Integer, JsonNode> getIndexedLinks(EsSearchManager searchMan,
+                                                          Collection<? extends AbstractMetadata> mds) throws Exception {
+        SchemaManager schemaManager = ApplicationContextHolder.get().getBean(SchemaManager.class);
+        Set<Integer> ids = mds.stream()
+            .filter(md -> isIndexingRecordLinks(schemaManager, md.getDataInfo().getSchemaId()))
+            .map(AbstractMetadata::getId)
+            .collect(Collectors.toSet());
+
+        Map<Integer, JsonNode> indexedLinks = new HashMap<>();
+        ObjectMapper mapper = new ObjectMapper();
+        if (ids.isEmpty()) {
+            return indexedLinks;
+        }
+
+        final SearchResponse<ObjectNode> result = searchMan.query(
+            String.format("+%s:(%s)", Geonet.IndexFieldNames.ID,
+                ids.stream().map(String::valueOf).collect(Collectors.joining(" "))),
+            null,
+            Set.of(Geonet.IndexFieldNames.ID, RECORD_LINK_FIELD),
+            0, ids.size());
+        for (Hit<ObjectNode> e : result.hits().hits()) {
+            JsonNode id = e.source() != null ? e.source().get(Geonet.IndexFieldNames.ID) : null;
+            if (id != null) {
+                JsonNode recordLinks = e.source().get(RECORD_LINK_FIELD);
+                indexedLinks.put(id.asInt(), recordLinks != null ? recordLinks : mapper.createArrayNode());
+            }
+        }
+        return indexedLinks;
+    }
+
+    private static boolean isIndexingRecordLinks(SchemaManager schemaManager, String schema) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> schemas = new ArrayDeque<>(Collections.singleton(schema));
+        while (!schemas.isEmpty()) {
+            String current = schemas.pop();
+            if (RECORD_LINK_SCHEMAS.contains(current)) {
+                return true;
+            }
+            if (visited.add(current)) {
+                schemas.addAll(schemaManager.getDependencies(current));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the links of a record for each type of relation which depends on them.
+     * No entry is returned for a type when the schema does not provide such links.
+     *
+     * @param indexedLinks the recordLink field of the record if it is indexed
+     *                     by a schema indexing all links, null otherwise.
+     */
+    private static Map<RelatedItemType, Set<AssociatedResource>> getLinks(
+        ServiceContext context, AbstractMetadata md, RelatedItemType[] types,
+        JsonNode indexedLinks) throws Exception {
+        Map<RelatedItemType, Set<AssociatedResource>> links = new HashMap<>();
+        Set<RelatedItemType> linkTypes = Arrays.stream(types)
+            .filter(LINK_TYPES::contains)
+            .collect(Collectors.toSet());
+
+        if (indexedLinks != null) {
+            Map<String, Set<AssociatedResource>> byType = new HashMap<>();
+            Iterable<JsonNode> recordLinks = indexedLinks.isArray()
+                ? indexedLinks : Collections.singletonList(indexedLinks);
+            for (JsonNode link : recordLinks) {
+                String to = link.path("to").asText();
+                if (StringUtils.isNotEmpty(to)) {
+                    byType.computeIfAbsent(link.path("type").asText(), t -> new LinkedHashSet<>())
+                        .add(new AssociatedResource(to,
+                            link.path("initiativeType").asText(""),
+                            link.path("associationType").asText(""),
+                            link.path("url").asText(""),
+                            link.path("title").asText("")));
+                }
+            }
+            for (RelatedItemType type : linkTypes) {
+                Set<AssociatedResource> resources;
+                if (type == RelatedItemType.brothersAndSisters) {
+                    resources = byType.getOrDefault(RelatedItemType.parent.value(), new HashSet<>());
+                } else if (type == RelatedItemType.children) {
+                    resources = byType.getOrDefault(RelatedItemType.siblings.value(), new HashSet<>()).stream()
+                        .filter(e -> "isComposedOf".equals(e.getAssociationType()))
+                        .collect(Collectors.toSet());
+                } else {
+                    resources = byType.getOrDefault(type.value(), new HashSet<>());
+                }
+                links.put(type, resources);
+            }
+            return links;
+        }
+
+        SchemaPlugin instance = SchemaManager.getSchemaPlugin(md.getDataInfo().getSchemaId());
+        if (!(instance instanceof AssociatedResourcesSchemaPlugin)) {
+            return links;
+        }
+        final AssociatedResourcesSchemaPlugin schemaPlugin = (AssociatedResourcesSchemaPlugin) instance;
+
+        DataManager dm = context.getBean(DataManager.class);
+        Element xml = dm.getMetadata(context, md.getId() + "",
+            FOR_EDITING, WITH_VALIDATION_ERRORS, KEEP_XLINK_ATTRIBUTES);
+
+        for (RelatedItemType type : linkTypes) {
+            if (type == RelatedItemType.siblings) {
+                links.put(type, schemaPlugin.getAssociatedResourcesUUIDs(xml));
+            } else if (type == RelatedItemType.sources) {
+                links.put(type, schemaPlugin.getAssociatedSources(xml));
+            } else if (type == RelatedItemType.datasets) {
+                links.put(type, schemaPlugin.getAssociatedDatasets(xml));
+            } else if (type == RelatedItemType.parent) {
+                links.put(type, schemaPlugin.getAssociatedParents(xml));
+            } else if (type == RelatedItemType.fcats) {
+                links.put(type, schemaPlugin.getAssociatedFeatureCatalogues(xml));
+            } else if (type == RelatedItemType.brothersAndSisters) {
+                links.put(type, schemaPlugin.getAssociatedParentUUIDs(xml).stream()
+                    .map(uuid -> new AssociatedResource(uuid, "", ""))
+                    .collect(Collectors.toSet()));
+            } else if (type == RelatedItemType.children) {
+                links.put(type, schemaPlugin.getAssociatedResourcesUUIDs(xml).stream()
+                    .filter(e -> "isComposedOf".equals(e.getAssociationType()))
+                    .collect(Collectors.toSet()));
+            }
+        }
+        return links;
+    }
+
+    private static AssociatedRecord buildCatalogueRecord(ServiceContext context,
+                                                         ObjectMapper mapper,
+                                                         RelatedTypeDetails relatedTypeDetails,
+                                                         Hit<ObjectNode> e) throws Exception {
+        AssociatedRecord associatedRecord = new AssociatedRecord();
+        associatedRecord.setUuid(e.id());
+        // Set properties eg. remote, associationType, ...
+        associatedRecord.setProperties(relatedTypeDetails.recordsProperties.get(e.id()));
+
+        // Add scripted field values to the properties of the record
+        if (!e.fields().isEmpty()) {
+            FIELDLIST_RELATED_SCRIPTED.keySet().forEach(f -> {
+                JsonData dc = e.fields().get(f);
+
+                if (dc != null) {
+                    if (associatedRecord.getProperties() == null) {
+                        associatedRecord.setProperties(new HashMap<>());
+                    }
+                    associatedRecord.getProperties().put(f, dc.toJson().asJsonArray().get(0).toString().replaceAll("^\"|\"$", ""));
+                }
+            });
+        }
+
+        JsonNode source = mapper.convertValue(e.source(), JsonNode.class);
+        ObjectNode doc = mapper.createObjectNode();
+        doc.set("_source", source);
+        EsHTTPProxy.addUserInfo(doc, context);
+        Iterator<String> fieldNames = doc.fieldNames();
+        while (fieldNames.hasNext()) {
+            String field = fieldNames.next();
+            if (!"_source".equals(field)) {
+                ((ObjectNode) source).set(field, doc.get(field));
+            }
+        }
+        associatedRecord.setRecord(source);
+        associatedRecord.setOrigin(RelatedItemOrigin.catalog.name());
+
+        relatedTypeDetails.getExpectedRecords().remove(e.id());
+        // Remote records may be found in current catalogue (eg. if harvested)
+        relatedTypeDetails.getRemoteRecords().remove(e.id());
+        return associatedRecord;
     }
 
     private static void buildRemoteRecords(ObjectMapper mapper,
@@ -418,7 +590,12 @@ public class MetadataUtils {
         }
     }
 
-    private static void assignPortalOrigin(int start, int size, EsSearchManager searchMan, Map<RelatedItemType, List<AssociatedRecord>> associated, Set<String> allCatalogueUuids) throws Exception {
+    private static void assignPortalOrigin(EsSearchManager searchMan,
+                                           Collection<Map<RelatedItemType, List<AssociatedRecord>>> associated,
+                                           Set<String> allCatalogueUuids) throws Exception {
+        if (allCatalogueUuids.isEmpty()) {
+            return;
+        }
         String portalFilter;
         SourceRepository sourceRepository = ApplicationContextHolder.get().getBean(SourceRepository.class);
         NodeInfo node = ApplicationContextHolder.get().getBean(NodeInfo.class);
@@ -433,7 +610,7 @@ public class MetadataUtils {
                             .collect(Collectors.joining("\" OR \"", "\"", "\""))),
                     portalFilter,
                     FIELDLIST_UUID,
-                    start, size);
+                    0, allCatalogueUuids.size());
 
                 Set<String> allPortalUuids = new HashSet<>();
                 if (!recordsInPortal.hits().hits().isEmpty()) {
@@ -443,9 +620,9 @@ public class MetadataUtils {
                 }
 
                 if (!allPortalUuids.isEmpty()) {
-                    associated.forEach((t, records) -> records.stream()
+                    associated.forEach(byType -> byType.forEach((t, records) -> records.stream()
                         .filter(r -> allPortalUuids.contains(r.getUuid()))
-                        .forEach(r -> r.setOrigin(RelatedItemOrigin.portal.name())));
+                        .forEach(r -> r.setOrigin(RelatedItemOrigin.portal.name()))));
                 }
             }
         }
@@ -758,6 +935,38 @@ public class MetadataUtils {
         }
     }
 
+    /**
+     * Collect the UUIDs of the records associated to a set of records.
+     *
+     * Each record requires its own set of search requests, they are resolved in
+     * parallel and the results merged.
+     *
+     * @param uuids The records to get the associated records of
+     * @param types The type of relations to follow
+     * @param size  The maximum number of associated records per type
+     * @return The UUIDs of the associated records (not including the source records
+     * unless they are related to each other)
+     */
+    public static Set<String> getAssociatedUuids(
+        ServiceContext context, Set<String> uuids, RelatedItemType[] types, int size)
+        throws Exception {
+        MetadataRepository metadataRepository = context.getBean(MetadataRepository.class);
+        Set<String> associatedUuids = new HashSet<>();
+        if (uuids.isEmpty()) {
+            return associatedUuids;
+        }
+
+        List<Metadata> mds = metadataRepository.findAll(
+            (Specification<Metadata>) MetadataSpecs.hasMetadataUuidIn(uuids));
+        for (List<Metadata> batch : Lists.partition(mds, ASSOCIATED_BATCH_SIZE)) {
+            getAssociated(context, batch, types, 0, size).forEach(
+                (id, associated) -> associated.forEach(
+                    (type, list) -> list.forEach(
+                        r -> associatedUuids.add(r.getUuid()))));
+        }
+        return associatedUuids;
+    }
+
     /**
      * Run a Lucene query expression and return a list of UUIDs.
      *
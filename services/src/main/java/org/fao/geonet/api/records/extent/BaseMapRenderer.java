@@ -22,6 +22,8 @@
  */
 package org.fao.geonet.api.records.extent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import jeeves.server.context.ServiceContext;
 import org.fao.geonet.constants.Geonet;
 import org.fao.geonet.utils.Log;
@@ -29,12 +31,38 @@ import org.locationtech.jts.geom.Envelope;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Root class that hides the difference between the various background images (i.e. WMT GetMap or WMTS GetTile).
  */
 public class BaseMapRenderer {
 
+    /**
+     * Size in pixels of the background tiles.
+     */
+    static final int TILE_SIZE = 256;
+
+    /**
+     * Above this number of tiles the background is requested for the exact bbox (eg. very
+     * elongated images).
+     */
+    private static final int MAX_TILES = 64;
+
+    /**
+     * Background tiles already retrieved, keyed by configuration, srs, zoom level and position.
+     * The backgrounds of the records are composed from a grid of tiles whose resolution is a power
+     * of two, so that records with close or overlapping extents at similar scales share tiles.
+     * Backgrounds which can not be tiled are keyed by their exact bbox and size.
+     * The weight is the number of pixels (about 4 bytes each).
+     */
+    private static final Cache<String, BufferedImage> BACKGROUND_CACHE = CacheBuilder.newBuilder()
+        .maximumWeight(16 * 1024 * 1024)
+        .weigher((String key, BufferedImage image) -> image.getWidth() * image.getHeight())
+        .expireAfterWrite(24, TimeUnit.HOURS)
+        .build();
+
     //TODO: make this spring injectable, but not necessary at the moment.
     //      either make these factories, or add complexity so they don't need state
     BaseMapRenderingEngine[] baseMapRenderingEngines = new BaseMapRenderingEngine[]{
@@ -115,8 +143,16 @@ public class BaseMapRenderer {
         try {
             for (BaseMapRenderingEngine engine : baseMapRenderingEngines) {
                 if (engine.canHandle(configuration)) {
-                    engine.configure(configuration, bbox, srs, imageDimensions, context);
-                    return engine.render();
+                    TileGrid grid = TileGrid.of(bbox, imageDimensions);
+                    if (grid != null && grid.getTileCount() <= MAX_TILES) {
+                        return renderTiles(engine, grid);
+                    }
+                    // Callers draw on the returned image, return a copy of the cached background
+                    BufferedImage background = BACKGROUND_CACHE.get(getCacheKey(), () -> {
+                        engine.configure(configuration, bbox, srs, imageDimensions, context);
+                        return engine.render();
+                    });
+                    return copy(background);
                 }
             }
             throw new Exception("didn't understand configuration (BaseMapRenderer) - " + configuration);
@@ -125,4 +161,119 @@ public class BaseMapRenderer {
             return new BufferedImage(imageDimensions.width, imageDimensions.height, BufferedImage.TYPE_INT_ARGB);
         }
     }
+
+    /**
+     * Compose the background from the tiles of the grid covering the bbox, then crop and scale it
+     * to the bbox and image size.
+     */
+    private BufferedImage renderTiles(BaseMapRenderingEngine engine, TileGrid grid) throws Exception {
+        int columns = (int) (grid.maxColumn - grid.minColumn + 1);
+        int rows = (int) (grid.maxRow - grid.minRow + 1);
+        BufferedImage mosaic = new BufferedImage(columns * TILE_SIZE, rows * TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D mosaicGraphics = mosaic.createGraphics();
+        try {
+            for (long column = grid.minColumn; column <= grid.maxColumn; column++) {
+                for (long row = grid.minRow; row <= grid.maxRow; row++) {
+                    final Envelope tileBbox = grid.getTileBbox(column, row);
+                    BufferedImage tile = BACKGROUND_CACHE.get(getTileCacheKey(grid.level, column, row), () -> {
+                        engine.configure(configuration, tileBbox, srs, new Dimension(TILE_SIZE, TILE_SIZE), context);
+                        return engine.render();
+                    });
+                    // Rows go up with y, images go down
+                    mosaicGraphics.drawImage(tile,
+                        (int) (column - grid.minColumn) * TILE_SIZE,
+                        (int) (grid.maxRow - row) * TILE_SIZE,
+                        TILE_SIZE, TILE_SIZE, null);
+                }
+            }
+        } finally {
+            mosaicGraphics.dispose();
+        }
+
+        double originX = grid.minColumn * grid.tileSpan;
+        double originY = (grid.maxRow + 1) * grid.tileSpan;
+        BufferedImage background = new BufferedImage(imageDimensions.width, imageDimensions.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = background.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(mosaic,
+                0, 0, imageDimensions.width, imageDimensions.height,
+                (int) Math.round((bbox.getMinX() - originX) / grid.resolution),
+                (int) Math.round((originY - bbox.getMaxY()) / grid.resolution),
+                (int) Math.round((bbox.getMaxX() - originX) / grid.resolution),
+                (int) Math.round((originY - bbox.getMinY()) / grid.resolution),
+                null);
+        } finally {
+            graphics.dispose();
+        }
+        return background;
+    }
+
+    private String getTileCacheKey(int level, long column, long row) {
+        return String.join("|", configuration, srs, "tile",
+            Integer.toString(level), Long.toString(column), Long.toString(row));
+    }
+
+    private String getCacheKey() {
+        return String.join("|", configuration, srs,
+            Double.toString(bbox.getMinX()), Double.toString(bbox.getMinY()),
+            Double.toString(bbox.getMaxX()), Double.toString(bbox.getMaxY()),
+            Integer.toString(imageDimensions.width), Integer.toString(imageDimensions.height));
+    }
+
+    /**
+     * Grid of tiles covering a bbox. The resolution (map units per pixel) is the power of two
+     * just finer than the one of the requested image, so the tiles are only scaled down.
+     */
+    static final class TileGrid {
+        final int level;
+        final double resolution;
+        final double tileSpan;
+        final long minColumn;
+        final long maxColumn;
+        final long minRow;
+        final long maxRow;
+
+        private TileGrid(int level, Envelope bbox) {
+            this.level = level;
+            this.resolution = Math.pow(2, level);
+            this.tileSpan = resolution * TILE_SIZE;
+            this.minColumn = (long) Math.floor(bbox.getMinX() / tileSpan);
+            this.maxColumn = (long) Math.ceil(bbox.getMaxX() / tileSpan) - 1;
+            this.minRow = (long) Math.floor(bbox.getMinY() / tileSpan);
+            this.maxRow = (long) Math.ceil(bbox.getMaxY() / tileSpan) - 1;
+        }
+
+        /**
+         * @return the grid or null if the bbox or the size can not be tiled.
+         */
+        static TileGrid of(Envelope bbox, Dimension imageDimensions) {
+            if (bbox == null || imageDimensions == null || bbox.isNull()
+                || bbox.getWidth() <= 0 || bbox.getHeight() <= 0
+                || imageDimensions.width <= 0 || imageDimensions.height <= 0) {
+                return null;
+            }
+            double resolution = Math.min(bbox.getWidth() / imageDimensions.width,
+                bbox.getHeight() / imageDimensions.height);
+            if (!Double.isFinite(resolution) || resolution <= 0) {
+                return null;
+            }
+            return new TileGrid((int) Math.floor(Math.log(resolution) / Math.log(2)), bbox);
+        }
+
+        long getTileCount() {
+            return (maxColumn - minColumn + 1) * (maxRow - minRow + 1);
+        }
+
+        Envelope getTileBbox(long column, long row) {
+            return new Envelope(column * tileSpan, (column + 1) * tileSpan,
+                row * tileSpan, (row + 1) * tileSpan);
+        }
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        ColorModel colorModel = image.getColorModel();
+        return new BufferedImage(colorModel, image.copyData(null),
+            colorModel.isAlphaPremultiplied(), null);
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.records.extent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.fao.geonet.domain.AbstractMetadata;
+import org.fao.geonet.domain.ISODate;
+import org.fao.geonet.kernel.setting.SettingManager;
+import org.fao.geonet.kernel.setting.Settings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In memory cache of the PNG images rendered for record extents.
+ * <p>
+ * Entries are keyed by everything that changes the image (record id, change date, srs, size,
+ * background and colors) so a record update or a change of the background setting produces a
+ * new key and old entries simply age out of the cache.
+ * <p>
+ * The size of the cache is configured with <code>metadata.extentApi.cache.maxSizeMb</code>.
+ * Set it to 0 to disable the cache.
+ */
+@Component
+public class ExtentImageCache {
+
+    @Autowired
+    private SettingManager settingManager;
+
+    @Value("${metadata.extentApi.cache.maxSizeMb:64}")
+    private int maxSizeMb;
+
+    private Cache<String, byte[]> images;
+
+    @PostConstruct
+    public void init() {
+        images = CacheBuilder.newBuilder()
+            .maximumWeight(Math.max(0, maxSizeMb) * 1024L * 1024L)
+            .weigher((String key, byte[] image) -> image.length)
+            .build();
+    }
+
+    /**
+     * Create the cache key of an extent image.
+     *
+     * @param metadata      The record
+     * @param geometryIndex The index of the geometry or null for all extents
+     * @param background    The background parameter, the settings one is resolved to the configured value
+     */
+    public String key(AbstractMetadata metadata, Integer geometryIndex, String srs,
+                      Integer width, Integer height, String background,
+                      String fillColor, String strokeColor) {
+        if (MetadataExtentApi.SETTING_BACKGROUND.equalsIgnoreCase(background)) {
+            background = settingManager.getValue(Settings.REGION_GETMAP_BACKGROUND);
+        }
+        return String.join("|",
+            String.valueOf(metadata.getId()),
+            String.valueOf(geometryIndex),
+            String.valueOf(getLastModified(metadata)),
+            srs,
+            String.valueOf(width),
+            String.valueOf(height),
+            String.valueOf(background),
+            String.valueOf(fillColor),
+            String.valueOf(strokeColor));
+    }
+
+    /**
+     * @return the record change date in milliseconds or -1 if unknown.
+     */
+    public static long getLastModified(AbstractMetadata metadata) {
+        ISODate changeDate = metadata.getDataInfo().getChangeDate();
+        return changeDate == null ? -1 : changeDate.toDate().getTime();
+    }
+
+    /**
+     * @return a strong ETag for a cache key.
+     */
+    public static String etag(String key) {
+        return "\"" + Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + "\"";
+    }
+
+    /**
+     * Return the image for a key, rendering it if it is not in the cache yet.
+     */
+    public byte[] get(String key, Callable<byte[]> renderer) throws Exception {
+        if (maxSizeMb <= 0) {
+            return renderer.call();
+        }
+        try {
+            return images.get(key, renderer);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public boolean contains(String key) {
+        return images.getIfPresent(key) != null;
+    }
+
+    public void clear() {
+        images.invalidateAll();
+    }
+}
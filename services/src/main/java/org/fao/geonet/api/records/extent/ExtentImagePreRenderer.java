@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.records.extent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jeeves.server.context.ServiceContext;
+import jeeves.server.dispatchers.ServiceManager;
+import org.apache.commons.lang3.StringUtils;
+import org.fao.geonet.constants.Geonet;
+import org.fao.geonet.domain.AbstractMetadata;
+import org.fao.geonet.events.md.MetadataIndexCompleted;
+import org.fao.geonet.kernel.setting.SettingManager;
+import org.fao.geonet.kernel.setting.Settings;
+import org.fao.geonet.utils.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render the default extent image (as requested by search results) of a record once it is
+ * indexed, so the first visitor does not have to wait for the background map.
+ * <p>
+ * Disabled by default, set <code>metadata.extentApi.prerender</code> to true to enable it.
+ * Images are rendered one at a time in a background thread. At most {@link #MAX_PENDING} records
+ * wait for their image: records indexed while the queue is full (eg. during a full reindex) are
+ * skipped and rendered on their first request, and a record is queued once however many times
+ * it is indexed.
+ */
+@Component
+public class ExtentImagePreRenderer implements ApplicationListener<MetadataIndexCompleted> {
+
+    private static final int DEFAULT_WIDTH = 300;
+    private static final String DEFAULT_FILL_COLOR = "0,0,0,30";
+    private static final String DEFAULT_STROKE_COLOR = "0,0,0,255";
+    private static final int MAX_PENDING = 100;
+
+    @Value("${metadata.extentApi.prerender:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ExtentImageCache extentImageCache;
+
+    @Autowired
+    private SettingManager settingManager;
+
+    @Autowired
+    private ServiceManager serviceManager;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_PENDING),
+        new ThreadFactoryBuilder().setNameFormat("extent-prerender-%d").setDaemon(true).build());
+
+    @Override
+    public void onApplicationEvent(MetadataIndexCompleted event) {
+        if (!enabled) {
+            return;
+        }
+        final AbstractMetadata metadata = event.getMd();
+        if (!pending.add(metadata.getId())) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pending.remove(metadata.getId());
+                preRender(metadata);
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(metadata.getId());
+        }
+    }
+
+    private void preRender(AbstractMetadata metadata) {
+        try {
+            String srs = StringUtils.defaultIfBlank(settingManager.getValue(Settings.REGION_GETMAP_MAPPROJ, true),
+                "EPSG:4326");
+            String key = extentImageCache.key(metadata, null, srs, DEFAULT_WIDTH, null,
+                MetadataExtentApi.SETTING_BACKGROUND, DEFAULT_FILL_COLOR, DEFAULT_STROKE_COLOR);
+            if (extentImageCache.contains(key)) {
+                return;
+            }
+
+            ServiceContext context = serviceManager.createServiceContext("extent.prerender", applicationContext);
+            context.setAsThreadLocal();
+            String regionId = MetadataExtentApi.getRegionId(metadata.getId(), null);
+            extentImageCache.get(key, () -> MetadataExtentApi.renderAsPng(context, regionId, srs,
+                DEFAULT_WIDTH, null, MetadataExtentApi.SETTING_BACKGROUND, DEFAULT_FILL_COLOR, DEFAULT_STROKE_COLOR));
+        } catch (Exception e) {
+            // Records without extent or invalid geometries
+            Log.debug(Geonet.SPATIAL, String.format(
+                "Extent image of record %s not pre-rendered. Error is: %s", metadata.getId(), e.getMessage()));
+        } finally {
+            ServiceContext.clearAsThreadLocal();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -29,11 +29,9 @@ import jeeves.server.context.ServiceContext;
 import jeeves.services.ReadWriteController;
 import org.apache.commons.lang3.StringUtils;
 import org.fao.geonet.api.ApiUtils;
-import org.fao.geonet.api.regions.MetadataRegionDAO;
 import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.exceptions.BadParameterEx;
 import org.fao.geonet.kernel.SchemaManager;
-import org.fao.geonet.kernel.region.Request;
 import org.fao.geonet.kernel.schema.MetadataSchema;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
@@ -105,7 +103,7 @@ public class MetadataExtentApi {
     private static final String EXTENT_DESCRIPTION_XPATH = "ancestor::*[local-name() = 'EX_Extent']/*[local-name() = 'description']/*/text()";
 
     @Autowired
-    private MetadataRegionDAO metadataRegionDAO;
+    private ExtentImageCache extentImageCache;
     @Autowired
     private SchemaManager schemaManager;
     @Autowired
@@ -290,19 +288,50 @@ public class MetadataExtentApi {
                 "use a preconfigured background layers map service.");
         }
 
-        String regionId;
-        if (extentOrderOfAppearance == null) {
-            regionId = String.format("metadata:@id%s", metadata.getId());
-        } else {
-            regionId = String.format("metadata:@id%s:@xpath(%s)[%d]",
-                metadata.getId(), EXTENT_XPATH, extentOrderOfAppearance);
+        // The image only changes with the record, the background setting and the request
+        // parameters, clients revalidate with the ETag and get a 304 when nothing changed.
+        String key = extentImageCache.key(metadata, extentOrderOfAppearance, srs, width, height,
+            background, fillColor, strokeColor);
+        long lastModified = ExtentImageCache.getLastModified(metadata);
+        if (nativeWebRequest.checkNotModified(ExtentImageCache.etag(key), lastModified)) {
+            return null;
         }
 
-        Request searchRequest = metadataRegionDAO.createSearchRequest(context).id(regionId);
-        if (searchRequest.getLastModified().isPresent() && nativeWebRequest.checkNotModified(searchRequest.getLastModified().get())) {
+        final String regionId = getRegionId(metadata.getId(), extentOrderOfAppearance);
+        byte[] image = extentImageCache.get(key, () -> renderAsPng(
+            context, regionId, srs, width, height, background, fillColor, strokeColor));
+
+        if (image.length == 0) {
             return null;
         }
 
+        MultiValueMap<String, String> headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, String.format("inline; filename=\"%s-extent.png\"", metadataUuid));
+        headers.add(HttpHeaders.CACHE_CONTROL, "no-cache");
+        headers.add(HttpHeaders.CONTENT_TYPE, "image/png");
+        return new HttpEntity<>(image, headers);
+    }
+
+    /**
+     * @param extentOrderOfAppearance The index of the extent starting at 1 or null for all extents
+     * @return the region id of the record extents for the metadata region DAO.
+     */
+    static String getRegionId(int metadataId, Integer extentOrderOfAppearance) {
+        if (extentOrderOfAppearance == null) {
+            return String.format("metadata:@id%s", metadataId);
+        } else {
+            return String.format("metadata:@id%s:@xpath(%s)[%d]",
+                metadataId, EXTENT_XPATH, extentOrderOfAppearance);
+        }
+    }
+
+    /**
+     * Render a region as a PNG.
+     *
+     * @return the PNG or an empty array if nothing was rendered.
+     */
+    static byte[] renderAsPng(ServiceContext context, String regionId, String srs, Integer width, Integer height,
+                              String background, String fillColor, String strokeColor) throws Exception {
         MapRenderer renderer = new MapRenderer(context);
         BufferedImage image = renderer.render(
             regionId, srs, width, height, background,
@@ -311,16 +340,12 @@ public class MetadataExtentApi {
             strokeColor);
 
         if (image == null) {
-            return null;
+            return new byte[0];
         }
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             ImageIO.write(image, "png", out);
-            MultiValueMap<String, String> headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, String.format("inline; filename=\"%s-extent.png\"", metadataUuid));
-            headers.add(HttpHeaders.CACHE_CONTROL, "no-cache");
-            headers.add(HttpHeaders.CONTENT_TYPE, "image/png");
-            return new HttpEntity<>(out.toByteArray(), headers);
+            return out.toByteArray();
         }
     }
 }
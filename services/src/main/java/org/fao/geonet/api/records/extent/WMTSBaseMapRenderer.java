@@ -23,6 +23,8 @@
 package org.fao.geonet.api.records.extent;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import jeeves.server.context.ServiceContext;
 import org.locationtech.jts.geom.Envelope;
 
@@ -31,6 +33,7 @@ import java.awt.image.BufferedImage;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -79,6 +82,11 @@ public class WMTSBaseMapRenderer implements BaseMapRenderingEngine {
     public static final String JSON_SRIDConvertTag= "SRID2MatrixSet";
     public static final String JSON_flip4326Tag= "flip4326";
 
+    private static final Cache<String, WMTSClient> CLIENTS = CacheBuilder.newBuilder()
+        .maximumSize(20)
+        .expireAfterWrite(1, TimeUnit.HOURS)
+        .build();
+
 
     Envelope bbox;
     String srs;
@@ -187,7 +195,11 @@ public class WMTSBaseMapRenderer implements BaseMapRenderingEngine {
      * @throws Exception
      */
     public BufferedImage render() throws Exception {
-        WMTSClient wmtsClient = new WMTSClient(getCapabilitiesURL, layerName, matrixSet);
+        // The client holds the parsed capabilities, and GeoTools keeps the tiles it downloads
+        // in a shared cache, so reuse it across requests instead of fetching the capabilities again.
+        WMTSClient wmtsClient = CLIENTS.get(
+            String.join("|", getCapabilitiesURL.toString(), layerName, matrixSet),
+            () -> new WMTSClient(getCapabilitiesURL, layerName, matrixSet));
 
 
         BufferedImage image = wmtsClient.createImage(
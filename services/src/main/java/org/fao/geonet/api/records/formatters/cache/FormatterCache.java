@@ -30,6 +30,8 @@ import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import org.fao.geonet.domain.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
@@ -62,6 +64,16 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * @author Jesse on 3/5/2015.
  */
 public class FormatterCache {
+    /**
+     * Lookups of the cache, tagged with where the value was found: in memory, in the persistent
+     * store, not found (miss) or not cacheable (bypass).
+     */
+    public static final String REQUESTS_COUNTER = "gn.formatter.cache.requests";
+    private static final Counter MEMORY_HITS = requestsCounter("memory");
+    private static final Counter STORE_HITS = requestsCounter("store");
+    private static final Counter MISSES = requestsCounter("miss");
+    private static final Counter BYPASSES = requestsCounter("bypass");
+
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final PersistentStore persistentStore;
     private final Cache<Key, StoreInfoAndData> memoryCache;
@@ -105,6 +117,13 @@ public class FormatterCache {
         return new PersistentStoreRunnable(storeRequests, store);
     }
 
+    private static Counter requestsCounter(String result) {
+        return Counter.builder(REQUESTS_COUNTER)
+            .description("Lookups of the formatter cache")
+            .tag("result", result)
+            .register(Metrics.globalRegistry);
+    }
+
     @PreDestroy
     public void shutdown() {
         this.executor.shutdownNow();
@@ -143,6 +162,7 @@ public class FormatterCache {
         try {
             readLock.lock();
             if (!cacheConfig.allowCaching(key)) {
+                BYPASSES.increment();
                 return loader.call().data;
             }
 
@@ -153,8 +173,16 @@ public class FormatterCache {
                 invalid = true;
             }
 
-            if (!invalid && cached == null) {
+            if (cached != null) {
+                MEMORY_HITS.increment();
+            } else if (!invalid) {
                 cached = loadFromPersistentCache(key, validator);
+                if (cached != null) {
+                    STORE_HITS.increment();
+                }
+            }
+            if (cached == null) {
+                MISSES.increment();
             }
 
         } finally {
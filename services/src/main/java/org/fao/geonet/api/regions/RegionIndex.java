@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.regions;
+
+import org.fao.geonet.kernel.region.Region;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory index of regions, by id and by extent (in WGS84 longitude/latitude). The index is
+ * immutable once built and can be shared by concurrent requests.
+ */
+public class RegionIndex {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    private final Map<String, Region> regionsById;
+    private final STRtree tree;
+    private final long lastModified;
+
+    public RegionIndex(Collection<Region> regions, long lastModified) {
+        this.lastModified = lastModified;
+        this.regionsById = new HashMap<>(regions.size() * 2);
+        this.tree = new STRtree();
+        for (Region region : regions) {
+            regionsById.put(region.getId(), region);
+            Envelope envelope = new Envelope(region.getBBox());
+            PreparedGeometry geometry = PreparedGeometryFactory.prepare(FACTORY.toGeometry(envelope));
+            tree.insert(envelope, new IndexedRegion(region, geometry));
+        }
+        tree.build();
+    }
+
+    /**
+     * @return the last modification time of the source of the regions when the index was built.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public int size() {
+        return regionsById.size();
+    }
+
+    public Region get(String id) {
+        return regionsById.get(id);
+    }
+
+    /**
+     * @return the regions containing the point.
+     */
+    public List<Region> findContaining(double longitude, double latitude) {
+        Geometry point = FACTORY.createPoint(new Coordinate(longitude, latitude));
+        return find(point.getEnvelopeInternal(), point, true);
+    }
+
+    /**
+     * @return the regions intersecting the envelope.
+     */
+    public List<Region> findIntersecting(Envelope envelope) {
+        return find(envelope, FACTORY.toGeometry(envelope), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Region> find(Envelope envelope, Geometry geometry, boolean contains) {
+        List<IndexedRegion> candidates = tree.query(envelope);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Region> regions = new ArrayList<>(candidates.size());
+        for (IndexedRegion candidate : candidates) {
+            if (contains ? candidate.geometry.covers(geometry) : candidate.geometry.intersects(geometry)) {
+                regions.add(candidate.region);
+            }
+        }
+        return regions;
+    }
+
+    private static final class IndexedRegion {
+        private final Region region;
+        private final PreparedGeometry geometry;
+
+        private IndexedRegion(Region region, PreparedGeometry geometry) {
+            this.region = region;
+            this.geometry = geometry;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.fao.geonet.kernel.region.RegionsDAO;
 import org.fao.geonet.kernel.region.Request;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
+import org.locationtech.jts.geom.Envelope;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -61,9 +62,12 @@ import javax.servlet.http.HttpServletResponse;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.fao.geonet.api.records.extent.MetadataExtentApi.*;
 
@@ -99,6 +103,16 @@ public class RegionsApi {
         return request;
     }
 
+    private static List<Region> filterRegions(List<Region> regions, String label, String categoryId, int maxRecords) {
+        String labelToMatch = label == null ? null : label.toLowerCase();
+        return regions.stream()
+            .filter(r -> categoryId == null || categoryId.equals(r.getCategoryId()))
+            .filter(r -> labelToMatch == null
+                || r.getLabels().values().stream().anyMatch(l -> l.toLowerCase().contains(labelToMatch)))
+            .limit(maxRecords > 0 ? maxRecords : Long.MAX_VALUE)
+            .collect(Collectors.toList());
+    }
+
     @io.swagger.v3.oas.annotations.Operation(
         summary = "Get list of regions"
     )
@@ -120,6 +134,11 @@ public class RegionsApi {
             String categoryId,
         @RequestParam(defaultValue = "-1")
             int maxRecords,
+        @Parameter(description = "Only regions intersecting the bounding box minx,miny,maxx,maxy "
+            + "(WGS84 longitude/latitude). A point is a bounding box with min equals max. "
+            + "Only available for regions of the regions thesaurus.")
+        @RequestParam(required = false)
+            double[] bbox,
         @Parameter(hidden = true)
             NativeWebRequest webRequest) throws Exception {
         final HttpServletRequest nativeRequest =
@@ -131,7 +150,20 @@ public class RegionsApi {
             applicationContext.getBeansOfType(RegionsDAO.class).values();
 
         Collection<Region> regions = Lists.newArrayList();
-        for (RegionsDAO dao : daos) {
+        if (bbox != null) {
+            if (bbox.length != 4) {
+                throw new BadParameterEx("bbox", Arrays.toString(bbox));
+            }
+            Envelope envelope = new Envelope(bbox[0], bbox[2], bbox[1], bbox[3]);
+            for (RegionsDAO dao : daos) {
+                if (dao instanceof ThesaurusBasedRegionsDAO) {
+                    regions.addAll(filterRegions(
+                        ((ThesaurusBasedRegionsDAO) dao).findRegions(context, envelope),
+                        label, categoryId, maxRecords));
+                }
+            }
+        }
+        for (RegionsDAO dao : bbox != null ? Collections.<RegionsDAO>emptyList() : daos) {
             if (dao.includeInListing()) {
                 Request request = createRequest(label, categoryId, maxRecords, context, dao);
                 regions.addAll(request.execute());
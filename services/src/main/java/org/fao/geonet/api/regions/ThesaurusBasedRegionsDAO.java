@@ -35,12 +35,16 @@ import org.fao.geonet.kernel.rdf.Selectors;
 import org.fao.geonet.kernel.region.Region;
 import org.fao.geonet.kernel.region.RegionsDAO;
 import org.fao.geonet.kernel.region.Request;
+import org.fao.geonet.utils.Log;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
 import org.openrdf.model.Value;
 import org.openrdf.sesame.query.QueryResultsTable;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
@@ -56,11 +60,16 @@ public class ThesaurusBasedRegionsDAO extends RegionsDAO {
         }
     };
     private static final String CATEGORY_ID_CACHE_KEY = "CATEGORY_ID_CACHE_KEY";
+    /**
+     * Interval between two checks of the modification time of the thesaurus.
+     */
+    private static final long INDEX_CHECK_INTERVAL = 10000;
 
     private final Set<String> localesToLoad;
     private final WeakHashMap<String, Map<String, String>> categoryIdMap = new WeakHashMap<String, Map<String, String>>();
     private final GeometryFactory factory = new GeometryFactory();
-    private String thesaurusName = "external.place.regions";
+    private volatile String thesaurusName = "external.place.regions";
+    private volatile IndexedThesaurus indexedThesaurus;
 
     public ThesaurusBasedRegionsDAO(Set<String> localesToLoad) {
         this.localesToLoad = Collections.unmodifiableSet(localesToLoad);
@@ -76,9 +85,69 @@ public class ThesaurusBasedRegionsDAO extends RegionsDAO {
     public synchronized void setThesaurusName(String thesaurusName) {
         super.clearCaches();
         this.thesaurusName = thesaurusName;
+        this.indexedThesaurus = null;
     }
 
-    private synchronized Thesaurus getThesaurus(ServiceContext context) throws Exception {
+    /**
+     * All regions of the thesaurus indexed in memory. The index is rebuilt when the thesaurus
+     * is modified, which is checked at most every {@value #INDEX_CHECK_INTERVAL}ms.
+     *
+     * @return null if there is no regions thesaurus.
+     */
+    public RegionIndex getRegionIndex(ServiceContext context) throws Exception {
+        Thesaurus thesaurus = getThesaurus(context);
+        if (thesaurus == null) {
+            return null;
+        }
+        IndexedThesaurus indexed = indexedThesaurus;
+        if (indexed != null && indexed.isCurrent(thesaurus)) {
+            return indexed.index;
+        }
+
+        synchronized (this) {
+            indexed = indexedThesaurus;
+            if (indexed != null && indexed.isCurrent(thesaurus)) {
+                return indexed.index;
+            }
+
+            Long lastModified = getLastModified(thesaurus);
+            RegionIndex index;
+            if (indexed != null && indexed.thesaurus == thesaurus
+                && (lastModified == null || indexed.index.getLastModified() == lastModified)) {
+                // Not modified, or the modification time is not available: keep the index
+                index = indexed.index;
+            } else {
+                long start = System.currentTimeMillis();
+                Collection<Region> regions = new ThesaurusRequest(context, this.categoryIdMap, localesToLoad, thesaurus).execute();
+                index = new RegionIndex(regions, lastModified == null ? 0 : lastModified);
+                Log.info(Geonet.REGION, String.format(
+                    "Regions of thesaurus %s indexed in %dms (%d regions).",
+                    thesaurus.getKey(), System.currentTimeMillis() - start, index.size()));
+            }
+            indexedThesaurus = new IndexedThesaurus(thesaurus, index);
+            return index;
+        }
+    }
+
+    private static Long getLastModified(Thesaurus thesaurus) {
+        try {
+            return Files.getLastModifiedTime(thesaurus.getFile()).toMillis();
+        } catch (IOException e) {
+            Log.warning(Geonet.REGION, String.format(
+                "Unable to get the modification time of thesaurus %s: %s", thesaurus.getKey(), e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * @return the regions intersecting the envelope (WGS84 longitude/latitude).
+     */
+    public List<Region> findRegions(ServiceContext context, Envelope envelope) throws Exception {
+        RegionIndex index = getRegionIndex(context);
+        return index == null ? Collections.emptyList() : index.findIntersecting(envelope);
+    }
+
+    private Thesaurus getThesaurus(ServiceContext context) throws Exception {
         ThesaurusManager th = context.getBean(ThesaurusManager.class);
         Thesaurus regions = th.getThesaurusByName(thesaurusName);
         if (regions != null) {
@@ -96,7 +165,8 @@ public class ThesaurusBasedRegionsDAO extends RegionsDAO {
 
     @Override
     public Geometry getGeom(ServiceContext context, String id, boolean simplified, CoordinateReferenceSystem projection) throws Exception {
-        Region region = createSearchRequest(context).id(id).get();
+        RegionIndex index = getRegionIndex(context);
+        Region region = index == null ? null : index.get(id);
         if (region == null) {
             return null;
         }
@@ -143,4 +213,22 @@ public class ThesaurusBasedRegionsDAO extends RegionsDAO {
 
             });
     }
+
+    /**
+     * The region index of a thesaurus and when it was last checked against the thesaurus.
+     */
+    private static class IndexedThesaurus {
+        private final Thesaurus thesaurus;
+        private final RegionIndex index;
+        private final long checked = System.currentTimeMillis();
+
+        IndexedThesaurus(Thesaurus thesaurus, RegionIndex index) {
+            this.thesaurus = thesaurus;
+            this.index = index;
+        }
+
+        boolean isCurrent(Thesaurus thesaurus) {
+            return this.thesaurus == thesaurus && System.currentTimeMillis() - checked < INDEX_CHECK_INTERVAL;
+        }
+    }
 }
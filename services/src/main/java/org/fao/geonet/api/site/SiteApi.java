@@ -47,6 +47,7 @@ import org.fao.geonet.api.ApiUtils;
 import org.fao.geonet.api.OpenApiConfig;
 import org.fao.geonet.api.exception.FeatureNotEnabledException;
 import org.fao.geonet.api.exception.NotAllowedException;
+import org.fao.geonet.api.exception.ResourceNotFoundException;
 import org.fao.geonet.api.site.model.SettingSet;
 import org.fao.geonet.api.site.model.SettingsListResponse;
 import org.fao.geonet.api.tools.i18n.LanguageUtils;
@@ -64,6 +65,8 @@ import org.fao.geonet.kernel.datamanager.IMetadataManager;
 import org.fao.geonet.kernel.datamanager.base.BaseMetadataManager;
 import org.fao.geonet.kernel.harvest.HarvestManager;
 import org.fao.geonet.kernel.search.EsSearchManager;
+import org.fao.geonet.kernel.search.index.IndexingExecutor;
+import org.fao.geonet.kernel.search.index.IndexingJob;
 import org.fao.geonet.kernel.setting.SettingInfo;
 import org.fao.geonet.kernel.setting.SettingManager;
 import org.fao.geonet.kernel.setting.Settings;
@@ -599,6 +602,44 @@ public class SiteApi {
         return ApplicationContextHolder.get().getBean(DataManager.class).isIndexing();
     }
 
+    @io.swagger.v3.oas.annotations.Operation(
+        summary = "Get indexing jobs",
+        description = "Progress of the running and waiting indexing jobs, and of the last completed ones.")
+    @RequestMapping(
+        path = "/indexing/jobs",
+        produces = MediaType.APPLICATION_JSON_VALUE,
+        method = RequestMethod.GET)
+    @ResponseStatus(value = HttpStatus.OK)
+    @PreAuthorize("hasAuthority('Administrator')")
+    @ResponseBody
+    public List<IndexingJob> getIndexingJobs() {
+        return ApplicationContextHolder.get().getBean(IndexingExecutor.class).getJobs();
+    }
+
+    @io.swagger.v3.oas.annotations.Operation(
+        summary = "Cancel an indexing job",
+        description = "Records already indexed are kept in the index.")
+    @RequestMapping(
+        path = "/indexing/jobs/{jobId}",
+        method = RequestMethod.DELETE)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Job cancelled."),
+        @ApiResponse(responseCode = "404", description = "Job not found or already completed.")
+    })
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("hasAuthority('Administrator')")
+    public void cancelIndexingJob(
+        @Parameter(description = "Job identifier",
+            required = true)
+        @PathVariable
+        String jobId
+    ) throws ResourceNotFoundException {
+        if (!ApplicationContextHolder.get().getBean(IndexingExecutor.class).cancel(jobId)) {
+            throw new ResourceNotFoundException(String.format(
+                "Indexing job '%s' not found or already completed.", jobId));
+        }
+    }
+
     @io.swagger.v3.oas.annotations.Operation(
         summary = "Index",
         description = "")
@@ -174,7 +174,7 @@ public class MInspireEtfValidateProcess implements SelfNaming {
                                             boolean applyCondition = false;
                                             try {
                                                 // Checks the condition in the original record
-                                                applyCondition = Xml.selectBoolean(metadataRecord.getXmlData(false),
+                                                applyCondition = Xml.selectBoolean(metadataRecord.getXmlDataReadOnly(),
                                                     entry.getValue(),
                                                     schemaManager.getSchema(metadataRecord.getDataInfo().getSchemaId()).getNamespaces());
                                             } catch (Exception ex) {
@@ -28,6 +28,7 @@ import org.fao.geonet.NodeInfo;
 import org.fao.geonet.api.ApiParams;
 import org.fao.geonet.domain.AbstractMetadata;
 import org.fao.geonet.kernel.SpringLocalServiceInvoker;
+import org.fao.geonet.kernel.datamanager.base.PopularityCounter;
 import org.fao.geonet.repository.MetadataRepository;
 import org.fao.geonet.services.AbstractServiceIntegrationTest;
 import org.jdom.Element;
@@ -68,6 +69,9 @@ public class MetadataApiTest extends AbstractServiceIntegrationTest {
     @Autowired
     private MetadataRepository metadataRepository;
 
+    @Autowired
+    private PopularityCounter popularityCounter;
+
     private int id;
     private String uuid;
     private ServiceContext context;
@@ -279,6 +283,9 @@ public class MetadataApiTest extends AbstractServiceIntegrationTest {
             .andExpect(content().string(containsString(this.uuid)))
             .andExpect(xpath("/MD_Metadata/fileIdentifier/CharacterString").string(this.uuid));
 
+        // Views are saved by the popularity task
+        popularityCounter.flush();
+
         // Seem some issue with the transaction in the tests, requires to use explicitly the entity manager.
         // In the application looks working fine with the @Transactional annotation in MetadataRepository.incrementPopularity
         _entityManager.flush();
@@ -299,6 +306,9 @@ public class MetadataApiTest extends AbstractServiceIntegrationTest {
             .andExpect(content().string(containsString(this.uuid)))
             .andExpect(xpath("/MD_Metadata/fileIdentifier/CharacterString").string(this.uuid));
 
+        // Views are saved by the popularity task
+        popularityCounter.flush();
+
         // Seem some issue with the transaction in the tests, requires to use explicitly the entity manager.
         // In the application looks working fine with the @Transactional annotation in MetadataRepository.incrementPopularity
         _entityManager.flush();
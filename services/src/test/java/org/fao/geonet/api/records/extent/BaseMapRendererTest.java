@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.records.extent;
+
+import jeeves.server.context.ServiceContext;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaseMapRendererTest {
+
+    @Test
+    public void recordsWithCloseExtentsShareTiles() throws Exception {
+        CountingEngine engine = new CountingEngine();
+
+        BufferedImage first = renderer("shared", engine).bbox(new Envelope(2.1, 6.3, 45.2, 49.7)).render();
+        int tilesOfFirst = engine.tiles.size();
+        BufferedImage second = renderer("shared", engine).bbox(new Envelope(2.2, 6.4, 45.3, 49.8)).render();
+
+        assertEquals(300, first.getWidth());
+        assertEquals(300, second.getHeight());
+        assertTrue(tilesOfFirst > 0);
+        assertEquals("Tiles of the second record are in the cache", tilesOfFirst, engine.tiles.size());
+        for (Envelope tile : engine.tiles) {
+            assertEquals(tile.getWidth(), tile.getHeight(), 0);
+        }
+    }
+
+    @Test
+    public void tilesAreNotScaledUp() {
+        Envelope bbox = new Envelope(2.1, 6.3, 45.2, 49.7);
+        BaseMapRenderer.TileGrid grid = BaseMapRenderer.TileGrid.of(bbox, new Dimension(300, 300));
+
+        assertTrue(grid.resolution <= bbox.getWidth() / 300);
+        assertTrue(grid.resolution * 2 > bbox.getWidth() / 300);
+        assertTrue(grid.minColumn * grid.tileSpan <= bbox.getMinX());
+        assertTrue((grid.maxColumn + 1) * grid.tileSpan >= bbox.getMaxX());
+        assertTrue(grid.minRow * grid.tileSpan <= bbox.getMinY());
+        assertTrue((grid.maxRow + 1) * grid.tileSpan >= bbox.getMaxY());
+    }
+
+    @Test
+    public void pointIsNotTiled() throws Exception {
+        CountingEngine engine = new CountingEngine();
+
+        renderer("point", engine).bbox(new Envelope(2, 2, 45, 45)).render();
+
+        assertEquals(1, engine.tiles.size());
+        assertEquals(null, BaseMapRenderer.TileGrid.of(new Envelope(2, 2, 45, 45), new Dimension(300, 300)));
+    }
+
+    private BaseMapRenderer renderer(String configuration, CountingEngine engine) {
+        BaseMapRenderer renderer = new BaseMapRenderer(configuration + "-" + System.identityHashCode(engine))
+            .srs("EPSG:4326")
+            .imageDimensions(new Dimension(300, 300));
+        renderer.baseMapRenderingEngines = new BaseMapRenderingEngine[]{engine};
+        return renderer;
+    }
+
+    private static class CountingEngine implements BaseMapRenderingEngine {
+        private final List<Envelope> tiles = new ArrayList<>();
+        private Dimension imageDimensions;
+
+        @Override
+        public boolean canHandle(String configString) {
+            return true;
+        }
+
+        @Override
+        public void configure(String configString, Envelope bbox, String srs, Dimension imageDimensions, ServiceContext context) {
+            tiles.add(bbox);
+            this.imageDimensions = imageDimensions;
+        }
+
+        @Override
+        public BufferedImage render() {
+            return new BufferedImage(imageDimensions.width, imageDimensions.height, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.api.regions;
+
+import org.fao.geonet.kernel.region.Region;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RegionIndexTest {
+
+    private static Region region(String id, double west, double east, double south, double north) {
+        return new Region(id, Collections.singletonMap("eng", id), "category", Collections.emptyMap(),
+            false, new ReferencedEnvelope(west, east, south, north, Region.WGS84));
+    }
+
+    private static List<String> ids(List<Region> regions) {
+        return regions.stream().map(Region::getId).sorted().collect(Collectors.toList());
+    }
+
+    private final RegionIndex index = new RegionIndex(Arrays.asList(
+        region("europe", -25, 45, 34, 72),
+        region("france", -5, 10, 41, 51),
+        region("africa", -18, 52, -35, 38),
+        region("point", 2, 2, 48, 48)), 42);
+
+    @Test
+    public void testGetById() {
+        assertEquals("france", index.get("france").getId());
+        assertNull(index.get("unknown"));
+        assertEquals(4, index.size());
+        assertEquals(42, index.getLastModified());
+    }
+
+    @Test
+    public void testFindContaining() {
+        assertEquals(Arrays.asList("europe", "france", "point"), ids(index.findContaining(2, 48)));
+        assertEquals(Arrays.asList("africa", "europe"), ids(index.findContaining(20, 36)));
+        assertEquals(Collections.emptyList(), ids(index.findContaining(-100, 40)));
+    }
+
+    @Test
+    public void testFindIntersecting() {
+        assertEquals(Arrays.asList("africa", "europe", "france", "point"),
+            ids(index.findIntersecting(new Envelope(0, 5, 30, 50))));
+        assertEquals(Arrays.asList("africa"),
+            ids(index.findIntersecting(new Envelope(10, 20, -10, 0))));
+        assertEquals(Collections.emptyList(),
+            ids(index.findIntersecting(new Envelope(-120, -100, 30, 50))));
+    }
+}
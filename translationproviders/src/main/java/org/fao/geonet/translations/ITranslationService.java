@@ -23,7 +23,29 @@
 
 package org.fao.geonet.translations;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface ITranslationService {
     String name();
     String translate(String text, String fromLanguage, String toLanguage);
+
+    /**
+     * Translate a set of texts. Providers supporting it should send the texts in one request and
+     * leave the texts which could not be translated out of the map.
+     *
+     * The default implementation translates the texts one by one and can not tell the failures
+     * apart: the map holds whatever {@link #translate(String, String, String)} returns, which is
+     * usually the text itself when it could not be translated.
+     *
+     * @return the translation of each text.
+     */
+    default Map<String, String> translate(Collection<String> texts, String fromLanguage, String toLanguage) {
+        Map<String, String> translations = new LinkedHashMap<>();
+        for (String text : texts) {
+            translations.put(text, translate(text, fromLanguage, toLanguage));
+        }
+        return translations;
+    }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.translations;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.fao.geonet.domain.MachineTranslation;
+import org.fao.geonet.repository.MachineTranslationRepository;
+import org.fao.geonet.utils.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Translation memory of the machine translation providers.
+ *
+ * Texts are identified by their normalized form (Unicode NFC, trimmed, whitespace collapsed) and
+ * looked up by provider, source and target language in a cache, then in the database. Only the
+ * texts found in neither are sent to the provider, as given, all together in one call, and their
+ * translations are stored.
+ */
+@Component
+public class TranslationMemory {
+    private static final String LOGGER_NAME = "geonetwork.translate";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MachineTranslationRepository machineTranslationRepository;
+
+    private final Cache<String, String> cache;
+
+    @Autowired
+    public TranslationMemory(MachineTranslationRepository machineTranslationRepository,
+                             @Value("${translation.memory.cacheSize:10000}") long cacheSize) {
+        this.machineTranslationRepository = machineTranslationRepository;
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * Translate a text, using the memory when it was already translated by the provider.
+     *
+     * @return the translation or the text if it can not be translated.
+     */
+    public String translate(ITranslationService translationService, String text, String fromLanguage, String toLanguage) {
+        if (!StringUtils.hasText(text)) {
+            return text;
+        }
+        List<String> texts = new ArrayList<>();
+        texts.add(text);
+        return translate(translationService, texts, fromLanguage, toLanguage).getOrDefault(text, text);
+    }
+
+    /**
+     * Translate a set of texts. Duplicates are removed, the texts in the memory are not sent to
+     * the provider and the others are sent in one call.
+     *
+     * @return the translation of each text, the texts which could not be translated are not
+     * in the map.
+     */
+    public Map<String, String> translate(ITranslationService translationService, Collection<String> texts,
+                                         String fromLanguage, String toLanguage) {
+        String provider = translationService.name();
+
+        // The normalized text identifies the text in the memory, the first text having that
+        // normalized form is the one sent to the provider and stored
+        Map<String, String> sources = new LinkedHashMap<>();
+        Map<String, String> originals = new LinkedHashMap<>();
+        for (String text : texts) {
+            if (StringUtils.hasText(text)) {
+                String source = normalize(text);
+                sources.put(text, source);
+                originals.putIfAbsent(source, text);
+            }
+        }
+
+        Map<String, String> translations = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String source : originals.keySet()) {
+            String sourceKey = sourceKey(source);
+            String translation = cache.getIfPresent(cacheKey(provider, fromLanguage, toLanguage, sourceKey));
+            if (translation != null) {
+                translations.put(source, translation);
+            } else {
+                missing.put(sourceKey, source);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<MachineTranslation> stored = machineTranslationRepository
+                .findAllByProviderAndSourceLanguageAndTargetLanguageAndSourceKeyIn(
+                    provider, fromLanguage, toLanguage, missing.keySet());
+            for (MachineTranslation entry : stored) {
+                String source = missing.remove(entry.getSourceKey());
+                if (source != null) {
+                    translations.put(source, entry.getTranslation());
+                    cache.put(cacheKey(provider, fromLanguage, toLanguage, entry.getSourceKey()), entry.getTranslation());
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<String> originalTexts = new ArrayList<>();
+            missing.values().forEach(source -> originalTexts.add(originals.get(source)));
+            Map<String, String> translated = translationService.translate(originalTexts, fromLanguage, toLanguage);
+
+            List<MachineTranslation> entries = new ArrayList<>();
+            for (Map.Entry<String, String> source : missing.entrySet()) {
+                String originalText = originals.get(source.getValue());
+                String translation = translated.get(originalText);
+                if (translation != null) {
+                    translations.put(source.getValue(), translation);
+                    if (translation.equals(originalText)) {
+                        // Providers return the text when they fail to translate it, do not
+                        // keep it as its translation
+                        continue;
+                    }
+                    cache.put(cacheKey(provider, fromLanguage, toLanguage, source.getKey()), translation);
+                    entries.add(new MachineTranslation()
+                        .setProvider(provider)
+                        .setSourceLanguage(fromLanguage)
+                        .setTargetLanguage(toLanguage)
+                        .setSourceKey(source.getKey())
+                        .setSourceText(originalText)
+                        .setTranslation(translation));
+                }
+            }
+            store(entries);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        sources.forEach((text, source) -> {
+            String translation = translations.get(source);
+            if (translation != null) {
+                result.put(text, translation);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Remove the translations held in memory, the stored ones are kept.
+     */
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    private void store(List<MachineTranslation> entries) {
+        // Saved one by one, a text translated concurrently does not prevent storing the others
+        for (MachineTranslation entry : entries) {
+            try {
+                machineTranslationRepository.save(entry);
+            } catch (DataAccessException ex) {
+                // Most likely the same text was translated concurrently, it is in the cache anyway
+                Log.warning(LOGGER_NAME, String.format(
+                    "Failed to store the translation of '%s' in the translation memory. Error is: %s",
+                    entry.getSourceText(), ex.getMessage()));
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC).trim()).replaceAll(" ");
+    }
+
+    private static String sourceKey(String source) {
+        return Hashing.sha256().hashString(source, StandardCharsets.UTF_8).toString();
+    }
+
+    private static String cacheKey(String provider, String fromLanguage, String toLanguage, String sourceKey) {
+        return provider + '|' + fromLanguage + '|' + toLanguage + '|' + sourceKey;
+    }
+}
@@ -25,7 +25,11 @@ package org.fao.geonet.translations;
 
 import org.fao.geonet.ApplicationContextHolder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class TranslationUtil {
 
@@ -42,10 +46,36 @@ public class TranslationUtil {
         Optional<ITranslationService> translationServiceOptional = translationFactory.getTranslationService();
 
         if (translationServiceOptional.isPresent()) {
-            return translationServiceOptional.get().translate(text, fromLanguage, toLanguage);
+            TranslationMemory translationMemory = ApplicationContextHolder.get().getBean(TranslationMemory.class);
+            return translationMemory.translate(translationServiceOptional.get(), text, fromLanguage, toLanguage);
         } else {
             return text;
         }
 
     }
+
+    /**
+     * Translate a set of texts with one call to the translation provider, through the translation
+     * memory. Used by the translate processes to translate all the texts of a record at once.
+     *
+     * @param texts the texts to translate.
+     * @return the translation of each text, in the same order, or an empty string if it can not
+     * be translated.
+     */
+    public static final List<String> translateAll(List<?> texts, String fromLanguage, String toLanguage) {
+        TranslationFactory translationFactory = ApplicationContextHolder.get().getBean(TranslationFactory.class);
+
+        Optional<ITranslationService> translationServiceOptional = translationFactory.getTranslationService();
+
+        List<String> sources = texts == null ? new ArrayList<>()
+            : texts.stream().map(String::valueOf).collect(Collectors.toList());
+        if (translationServiceOptional.isPresent() && !sources.isEmpty()) {
+            TranslationMemory translationMemory = ApplicationContextHolder.get().getBean(TranslationMemory.class);
+            Map<String, String> translations =
+                translationMemory.translate(translationServiceOptional.get(), sources, fromLanguage, toLanguage);
+            return sources.stream().map(text -> translations.getOrDefault(text, "")).collect(Collectors.toList());
+        } else {
+            return sources.stream().map(text -> "").collect(Collectors.toList());
+        }
+    }
 }
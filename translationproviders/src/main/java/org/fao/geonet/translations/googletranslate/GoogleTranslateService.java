@@ -29,6 +29,10 @@ import org.fao.geonet.translations.ITranslationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Component
 public class GoogleTranslateService implements ITranslationService {
     private SettingManager settingManager;
@@ -53,4 +57,23 @@ public class GoogleTranslateService implements ITranslationService {
             return text;
         }
     }
+
+    @Override
+    public Map<String, String> translate(Collection<String> texts, String fromLanguage, String toLanguage) {
+        Map<String, String> translations = new LinkedHashMap<>();
+        if (texts.isEmpty()) {
+            return translations;
+        }
+
+        GoogleTranslateClient translateClient = new GoogleTranslateClient(settingManager.getValue(Settings.SYSTEM_TRANSLATION_SERVICEURL),
+            settingManager.getValue(Settings.SYSTEM_TRANSLATION_APIKEY));
+        for (String text : texts) {
+            try {
+                translations.put(text, translateClient.translate(text, fromLanguage, toLanguage));
+            } catch (GoogleTranslateClientException ex) {
+                // The text is not translated
+            }
+        }
+        return translations;
+    }
 }
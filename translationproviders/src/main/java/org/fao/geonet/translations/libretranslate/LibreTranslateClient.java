@@ -23,6 +23,7 @@
 
 package org.fao.geonet.translations.libretranslate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Function;
 import com.google.common.io.CharStreams;
@@ -32,6 +33,8 @@ import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
@@ -47,11 +50,20 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class LibreTranslateClient {
     private static final String LOGGER_NAME = "geonetwork.translate";
+    /**
+     * Limits of the requests translating a list of texts, below the default batch and character
+     * limits of the LibreTranslate servers.
+     */
+    private static final int MAX_TEXTS_PER_REQUEST = 50;
+    private static final int MAX_CHARACTERS_PER_REQUEST = 5000;
 
     private String serviceUrl;
     private String apiKey;
@@ -114,6 +126,86 @@ public class LibreTranslateClient {
         }
     }
 
+    /**
+     * Translate a list of texts, in requests of at most {@value #MAX_TEXTS_PER_REQUEST} texts and
+     * {@value #MAX_CHARACTERS_PER_REQUEST} characters (a longer text is sent alone).
+     *
+     * @return the translations, in the order of the texts, null for the texts of the requests
+     * which failed.
+     */
+    public List<String> translate(List<String> texts, String fromLanguage, String toLanguage) {
+        List<String> translations = new ArrayList<>(texts.size());
+        int start = 0;
+        while (start < texts.size()) {
+            int end = start;
+            int characters = 0;
+            while (end < texts.size() && end - start < MAX_TEXTS_PER_REQUEST
+                && (end == start || characters + texts.get(end).length() <= MAX_CHARACTERS_PER_REQUEST)) {
+                characters += texts.get(end).length();
+                end++;
+            }
+
+            List<String> chunk = texts.subList(start, end);
+            try {
+                translations.addAll(translateInOneRequest(chunk, fromLanguage, toLanguage));
+            } catch (LibreTranslateClientException ex) {
+                chunk.forEach(text -> translations.add(null));
+            }
+            start = end;
+        }
+        return translations;
+    }
+
+    private List<String> translateInOneRequest(List<String> texts, String fromLanguage, String toLanguage)
+        throws LibreTranslateClientException {
+        HttpPost postMethod = new HttpPost(this.serviceUrl);
+        ObjectMapper mapper = new ObjectMapper();
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("q", texts);
+        parameters.put("source", fromLanguage);
+        parameters.put("target", toLanguage);
+        parameters.put("format", "text");
+        parameters.put("api_key", this.apiKey);
+
+        try {
+            postMethod.setEntity(new StringEntity(mapper.writeValueAsString(parameters), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException ex) {
+            throw new LibreTranslateClientException(ex.getMessage());
+        }
+
+        try (ClientHttpResponse httpResponse = executeRequest(postMethod)) {
+            int status = httpResponse.getRawStatusCode();
+
+            Log.debug(LOGGER_NAME, "   -- Request status code: " + status);
+
+            String responseBody = CharStreams.toString(new InputStreamReader(httpResponse.getBody(), StandardCharsets.UTF_8));
+
+            if (status != HttpStatus.SC_OK) {
+                LibreTranslateErrorResponse errorMessage = mapper.readValue(responseBody, LibreTranslateErrorResponse.class);
+                String message = String.format(
+                    "Failed to translate %d texts from '%s' to '%s'. Status is %d. Error is %s. Response body: %s",
+                    texts.size(), fromLanguage, toLanguage, status,
+                    httpResponse.getStatusText(), errorMessage.getError());
+                Log.info(LOGGER_NAME, message);
+                throw new LibreTranslateClientException(message);
+            }
+
+            List<String> translations = mapper.readValue(responseBody, LibreTranslateBatchResponse.class).getTranslatedText();
+            if (translations == null || translations.size() != texts.size()) {
+                throw new LibreTranslateClientException(String.format(
+                    "Expected %d translations from '%s' to '%s'. Response body: %s",
+                    texts.size(), fromLanguage, toLanguage, responseBody));
+            }
+            return translations;
+        } catch (LibreTranslateClientException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            Log.error(LOGGER_NAME, "   -- Error (exception): " + ex.getMessage(), ex);
+            throw new LibreTranslateClientException(ex.getMessage(), ex);
+        }
+    }
+
     protected ClientHttpResponse executeRequest(HttpUriRequest method) throws IOException {
         final String requestHost = method.getURI().getHost();
 
@@ -29,6 +29,12 @@ import org.fao.geonet.translations.ITranslationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class LibreTranslateService implements ITranslationService {
     private SettingManager settingManager;
@@ -56,4 +62,25 @@ public class LibreTranslateService implements ITranslationService {
             return text;
         }
     }
+
+    @Override
+    public Map<String, String> translate(Collection<String> texts, String fromLanguage, String toLanguage) {
+        Map<String, String> translations = new LinkedHashMap<>();
+        if (texts.isEmpty()) {
+            return translations;
+        }
+
+        LibreTranslateClient libreTranslateClient = new LibreTranslateClient(settingManager.getValue(Settings.SYSTEM_TRANSLATION_SERVICEURL),
+            settingManager.getValue(Settings.SYSTEM_TRANSLATION_APIKEY));
+
+        List<String> sources = new ArrayList<>(texts);
+        List<String> translatedTexts = libreTranslateClient.translate(sources, fromLanguage, toLanguage);
+        for (int i = 0; i < sources.size(); i++) {
+            // The texts of the failed requests are not translated
+            if (translatedTexts.get(i) != null) {
+                translations.put(sources.get(i), translatedTexts.get(i));
+            }
+        }
+        return translations;
+    }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2001-2024 Food and Agriculture Organization of the
+ * United Nations (FAO-UN), United Nations World Food Programme (WFP)
+ * and United Nations Environment Programme (UNEP)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or (at
+ * your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301, USA
+ *
+ * Contact: Jeroen Ticheler - FAO - Viale delle Terme di Caracalla 2,
+ * Rome - Italy. email: geonetwork@osgeo.org
+ */
+
+package org.fao.geonet.translations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.fao.geonet.ApplicationContextHolder;
+import org.fao.geonet.domain.MachineTranslation;
+import org.fao.geonet.kernel.setting.SettingManager;
+import org.fao.geonet.kernel.setting.Settings;
+import org.fao.geonet.repository.MachineTranslationRepository;
+import org.fao.geonet.translations.libretranslate.LibreTranslateService;
+import org.fao.geonet.utils.GeonetHttpRequestFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Translate with LibreTranslate through the translation memory, against a stub translation
+ * server which prefixes the texts with the target language.
+ */
+public class TranslationMemoryTest {
+    private HttpServer server;
+    private final List<List<String>> requests = new ArrayList<>();
+    private GenericApplicationContext applicationContext;
+    private MachineTranslationRepository repository;
+    private LibreTranslateService service;
+    private TranslationMemory translationMemory;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/translate", exchange -> {
+            JsonNode request = new ObjectMapper().readTree(exchange.getRequestBody());
+            List<String> texts = new ArrayList<>();
+            List<String> translations = new ArrayList<>();
+            for (JsonNode text : request.get("q")) {
+                texts.add(text.asText());
+                translations.add(request.get("target").asText() + ":" + text.asText());
+            }
+            synchronized (requests) {
+                requests.add(texts);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("translatedText", translations);
+            byte[] body = new ObjectMapper().writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        SettingManager settingManager = mock(SettingManager.class);
+        when(settingManager.getValue(Settings.SYSTEM_TRANSLATION_SERVICEURL))
+            .thenReturn("http://localhost:" + server.getAddress().getPort() + "/translate");
+        when(settingManager.getValue(Settings.SYSTEM_TRANSLATION_APIKEY)).thenReturn("key");
+
+        applicationContext = new GenericApplicationContext();
+        applicationContext.getBeanFactory().registerSingleton("settingManager", settingManager);
+        applicationContext.getBeanFactory().registerSingleton("requestFactory", new GeonetHttpRequestFactory());
+        applicationContext.refresh();
+        ApplicationContextHolder.set(applicationContext);
+
+        repository = mock(MachineTranslationRepository.class);
+        when(repository.findAllByProviderAndSourceLanguageAndTargetLanguageAndSourceKeyIn(
+            anyString(), anyString(), anyString(), anyCollectionOf(String.class)))
+            .thenReturn(Collections.<MachineTranslation>emptyList());
+
+        service = new LibreTranslateService(settingManager);
+        translationMemory = new TranslationMemory(repository, 100);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        applicationContext.close();
+        ApplicationContextHolder.clear();
+    }
+
+    @Test
+    public void testTextsAreDeduplicatedAndTranslatedInOneRequest() {
+        Map<String, String> translations = translationMemory.translate(service,
+            Arrays.asList("Water quality", "  Water   quality ", "Soil", ""), "en", "fr");
+
+        assertEquals(1, requests.size());
+        assertEquals(Arrays.asList("Water quality", "Soil"), requests.get(0));
+        assertEquals("fr:Water quality", translations.get("Water quality"));
+        assertEquals("fr:Water quality", translations.get("  Water   quality "));
+        assertEquals("fr:Soil", translations.get("Soil"));
+        assertFalse(translations.containsKey(""));
+    }
+
+    @Test
+    public void testLargeBatchesAreSplit() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            texts.add("Text " + i);
+        }
+
+        Map<String, String> translations = translationMemory.translate(service, texts, "en", "fr");
+
+        assertEquals(120, translations.size());
+        assertEquals("fr:Text 119", translations.get("Text 119"));
+        assertEquals(3, requests.size());
+        assertEquals(50, requests.get(0).size());
+        assertEquals(20, requests.get(2).size());
+    }
+
+    @Test
+    public void testTextsAreSentAndStoredAsGiven() {
+        String text = "First paragraph.\n\nSecond paragraph.";
+        Map<String, String> translations = translationMemory.translate(service,
+            Arrays.asList(text, "First paragraph. Second paragraph."), "en", "fr");
+
+        assertEquals(Collections.singletonList(Collections.singletonList(text)), requests);
+        assertEquals("fr:" + text, translations.get(text));
+        assertEquals("fr:" + text, translations.get("First paragraph. Second paragraph."));
+
+        ArgumentCaptor<MachineTranslation> stored = ArgumentCaptor.forClass(MachineTranslation.class);
+        verify(repository).save(stored.capture());
+        assertEquals(text, stored.getValue().getSourceText());
+    }
+
+    @Test
+    public void testTranslationsAreStoredAndReused() {
+        translationMemory.translate(service, Arrays.asList("Water quality", "Soil"), "en", "fr");
+
+        ArgumentCaptor<MachineTranslation> stored = ArgumentCaptor.forClass(MachineTranslation.class);
+        verify(repository, times(2)).save(stored.capture());
+        List<MachineTranslation> entries = stored.getAllValues();
+        assertEquals(2, entries.size());
+        assertEquals("LibreTranslate", entries.get(0).getProvider());
+        assertEquals("Water quality", entries.get(0).getSourceText());
+        assertEquals("fr:Water quality", entries.get(0).getTranslation());
+
+        assertEquals("fr:Soil", translationMemory.translate(service, "Soil", "en", "fr"));
+        assertEquals("de:Soil", translationMemory.translate(service, "Soil", "en", "de"));
+
+        assertEquals(2, requests.size());
+        assertEquals(Collections.singletonList("Soil"), requests.get(1));
+    }
+
+    @Test
+    public void testStoredTranslationsAreNotRequested() {
+        MachineTranslation stored = new MachineTranslation()
+            .setProvider("LibreTranslate")
+            .setSourceLanguage("en")
+            .setTargetLanguage("fr")
+            .setSourceText("Soil")
+            .setTranslation("Sol");
+        when(repository.findAllByProviderAndSourceLanguageAndTargetLanguageAndSourceKeyIn(
+            eq("LibreTranslate"), eq("en"), eq("fr"), anyCollectionOf(String.class)))
+            .thenAnswer(invocation -> {
+                Collection<?> keys = (Collection<?>) invocation.getArguments()[3];
+                stored.setSourceKey((String) keys.iterator().next());
+                return Collections.singletonList(stored);
+            });
+
+        assertEquals("Sol", translationMemory.translate(service, "Soil", "en", "fr"));
+
+        assertEquals(0, requests.size());
+        verify(repository, never()).save(any(MachineTranslation.class));
+    }
+
+    @Test
+    public void testUntranslatedTextsAreNotStored() {
+        ITranslationService failingService = new ITranslationService() {
+            @Override
+            public String name() {
+                return "Failing";
+            }
+
+            @Override
+            public String translate(String text, String fromLanguage, String toLanguage) {
+                return text;
+            }
+        };
+
+        assertEquals("Soil", translationMemory.translate(failingService, "Soil", "en", "fr"));
+
+        verify(repository, never()).save(any(MachineTranslation.class));
+    }
+
+    @Test
+    public void testFailedStoreDoesNotPreventStoringOtherTranslations() {
+        List<String> saved = new ArrayList<>();
+        when(repository.save(any(MachineTranslation.class))).thenAnswer(invocation -> {
+            MachineTranslation entry = (MachineTranslation) invocation.getArguments()[0];
+            if ("Water quality".equals(entry.getSourceText())) {
+                throw new DataIntegrityViolationException("Duplicate source key");
+            }
+            saved.add(entry.getSourceText());
+            return entry;
+        });
+
+        Map<String, String> translations = translationMemory.translate(service,
+            Arrays.asList("Water quality", "Soil"), "en", "fr");
+
+        assertEquals("fr:Water quality", translations.get("Water quality"));
+        assertEquals("fr:Soil", translations.get("Soil"));
+        assertEquals(Collections.singletonList("Soil"), saved);
+    }
+}
@@ -17,6 +17,7 @@ var gnHarvesteroaipmh = {
                 "password": ""
               },
               "xslfilter": [],
+              "useListIdentifiers": false,
               "url": "",
               "icon" : "blank.png"
             },
@@ -63,6 +64,7 @@ var gnHarvesteroaipmh = {
                 + '    <xslfilter>'
                 + (h.site.xslfilter[0] ? h.site.xslfilter.replace(/&/g, '&amp;') : '')
                 + '    </xslfilter>'
+                + '    <useListIdentifiers>' + h.site.useListIdentifiers + '</useListIdentifiers>'
                 + '    <account>'
                 + '      <use>' + h.site.account.use + '</use>'
                 + '      <username>' + h.site.account.username + '</username>'
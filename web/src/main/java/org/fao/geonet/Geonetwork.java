@@ -568,9 +568,5 @@ public class Geonetwork implements ApplicationHandler {
 
         logger.info("  - Harvest Manager...");
         _applicationContext.getBean(HarvestManager.class).shutdown();
-
-        // Beans registered using SingletonBeanRegistry#registerSingleton don't have their
-        // @PreDestroy called. So do it manually.
-        oaipmhDis.shutdown();
     }
 }
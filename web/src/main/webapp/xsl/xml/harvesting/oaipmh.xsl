@@ -20,6 +20,9 @@
     <xslfilter>
       <xsl:value-of select="xslfilter"/>
     </xslfilter>
+    <useListIdentifiers>
+      <xsl:value-of select="useListIdentifiers/value"/>
+    </useListIdentifiers>
   </xsl:template>
 
   <!-- ============================================================================================= -->